@@ -0,0 +1,144 @@
+package com.example.syringepumpcontroller;
+
+import androidx.appcompat.app.AppCompatActivity;
+import androidx.appcompat.widget.Toolbar;
+
+import android.content.Intent;
+import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+import android.widget.Button;
+import android.widget.TextView;
+import android.widget.Toast;
+
+import com.example.syringepumpcontroller.command.CommandScheduler;
+import com.example.syringepumpcontroller.command.CommandStats;
+import com.example.syringepumpcontroller.metrics.Histogram;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+
+public class CommandLatencyActivity extends AppCompatActivity {
+    private static final String TAG = "CommandLatencyActivity";
+
+    private static final long REFRESH_MS = 1000;
+
+    private CommandStats commandStats;
+    private TextView tvCommandLatency;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    private final Runnable refresh = new Runnable() {
+        @Override
+        public void run() {
+            showSummary();
+            mainHandler.postDelayed(this, REFRESH_MS);
+        }
+    };
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setContentView(R.layout.activity_command_latency);
+
+        // Toolbar'ı ayarla
+        Toolbar toolbar = findViewById(R.id.toolbar_command_latency);
+        setSupportActionBar(toolbar);
+        getSupportActionBar().setTitle(R.string.command_latency_title);
+        getSupportActionBar().setDisplayHomeAsUpEnabled(true);
+        getSupportActionBar().setDisplayShowHomeEnabled(true);
+
+        toolbar.setNavigationOnClickListener(v -> onBackPressed());
+
+        commandStats = ((PumpApplication) getApplication()).getAcquisitionController().getCommandStats();
+        tvCommandLatency = findViewById(R.id.tvCommandLatency);
+
+        Button btnReset = findViewById(R.id.btnLatencyReset);
+        btnReset.setOnClickListener(v -> {
+            commandStats.reset();
+            showSummary();
+        });
+
+        Button btnExport = findViewById(R.id.btnLatencyExport);
+        btnExport.setOnClickListener(v -> export());
+    }
+
+    // Tür başına örnek sayısı, p50, p99 ve maks (ms)
+    private void showSummary() {
+        StringBuilder text = new StringBuilder();
+        text.append(String.format(Locale.US, "%-10s %7s %8s %8s %8s%n", "Tür", "Adet", "p50", "p99", "Maks"));
+        for (CommandScheduler.Kind kind : CommandScheduler.Kind.values()) {
+            Histogram histogram = commandStats.getRoundTrip(kind);
+            text.append(String.format(Locale.US, "%-10s %7d %8.1f %8.1f %8.1f%n",
+                    kind,
+                    histogram.getCount(),
+                    histogram.getValueAtPercentile(50) / 1000.0,
+                    histogram.getValueAtPercentile(99) / 1000.0,
+                    histogram.getMax() / 1000.0));
+        }
+        text.append('\n');
+        text.append("ACK: ").append(commandStats.getAcked()).append('\n');
+        text.append("NAK: ").append(commandStats.getNaked()).append('\n');
+        text.append("Zaman aşımı: ").append(commandStats.getTimedOut()).append('\n');
+        text.append("Yeniden deneme: ").append(commandStats.getRetries()).append('\n');
+        text.append("Denemeden sonra yanıt: ").append(commandStats.getRetriedReplies()).append('\n');
+        text.append("Geçersiz kılınan: ").append(commandStats.getSuperseded()).append('\n');
+        text.append("Eşleşmeyen yanıt: ").append(commandStats.getUnmatched()).append('\n');
+        tvCommandLatency.setText(text);
+    }
+
+    // Tam dağılım uygulama dosyalarına yazılır ve metin olarak paylaşılır
+    private void export() {
+        StringBuilder report = new StringBuilder();
+        try {
+            commandStats.export(report);
+        } catch (IOException e) {
+            // StringBuilder'a yazarken oluşmaz
+            throw new IllegalStateException(e);
+        }
+
+        String name = "command_latency_"
+                + new SimpleDateFormat("yyyyMMdd_HHmmss", Locale.US).format(new Date()) + ".hgrm";
+        File dir = getExternalFilesDir(null);
+        if (dir != null) {
+            try (Writer writer = new OutputStreamWriter(
+                    new FileOutputStream(new File(dir, name)), StandardCharsets.UTF_8)) {
+                writer.append(report);
+            } catch (IOException e) {
+                Log.e(TAG, "Gecikme raporu yazılamadı", e);
+                Toast.makeText(this, R.string.command_latency_export_failed, Toast.LENGTH_SHORT).show();
+            }
+        }
+
+        Intent send = new Intent(Intent.ACTION_SEND);
+        send.setType("text/plain");
+        send.putExtra(Intent.EXTRA_SUBJECT, name);
+        send.putExtra(Intent.EXTRA_TEXT, report.toString());
+        startActivity(Intent.createChooser(send, getString(R.string.command_latency_export)));
+    }
+
+    @Override
+    protected void onResume() {
+        super.onResume();
+        mainHandler.post(refresh);
+    }
+
+    @Override
+    protected void onPause() {
+        super.onPause();
+        mainHandler.removeCallbacks(refresh);
+    }
+
+    @Override
+    public boolean onSupportNavigateUp() {
+        onBackPressed();
+        return true;
+    }
+}
@@ -5,28 +5,116 @@ import androidx.appcompat.widget.Toolbar;
 
 import android.graphics.Color;
 import android.os.Bundle;
-import android.os.Handler;
-import android.os.Looper;
+import android.view.Choreographer;
+import android.view.Menu;
+import android.view.MenuItem;
+import android.view.View;
 
+import com.example.syringepumpcontroller.acquisition.AcquisitionController;
+import com.example.syringepumpcontroller.acquisition.AcquisitionController.ConnectionState;
+import com.example.syringepumpcontroller.acquisition.PumpEventBus;
+import com.example.syringepumpcontroller.acquisition.PumpState;
+import com.example.syringepumpcontroller.bus.EventHandler;
+import com.example.syringepumpcontroller.bus.EventRing;
+import com.example.syringepumpcontroller.bus.OverrunPolicy;
+import com.example.syringepumpcontroller.data.ChartWindow;
+import com.example.syringepumpcontroller.data.SampleBuffer;
+import com.example.syringepumpcontroller.metrics.Metrics;
+import com.example.syringepumpcontroller.ui.MinMaxChartView;
+import com.example.syringepumpcontroller.ui.WindowLineDataSet;
 import com.github.mikephil.charting.charts.LineChart;
 import com.github.mikephil.charting.components.Legend;
 import com.github.mikephil.charting.components.XAxis;
 import com.github.mikephil.charting.components.YAxis;
-import com.github.mikephil.charting.data.Entry;
 import com.github.mikephil.charting.data.LineData;
-import com.github.mikephil.charting.data.LineDataSet;
 import com.github.mikephil.charting.formatter.ValueFormatter;
 
-import java.util.ArrayList;
-import java.util.Random;
-
 public class GraphActivity extends AppCompatActivity {
+    // Canlı pencerede tutulan en fazla nokta sayısı ve pencere süresi
+    private static final int MAX_CHART_POINTS = 2000;
+    private static final long WINDOW_MILLIS = 20_000;
+    // Oturum özeti kova sayısı ve yenileme aralığı
+    private static final int OVERVIEW_BUCKETS = 256;
+    private static final long OVERVIEW_REFRESH_NANOS = 1_000_000_000L;
+    // Bir karede depodan okunacak en fazla örnek (geri kalanı sonraki karelere kalır)
+    private static final int MAX_SAMPLES_PER_FRAME = 16_384;
+    // Yüksek yoğunluk modunda görünen süre: 1 kHz'de 120 000 örneğin tamamı çizilir
+    private static final long HIGH_DENSITY_WINDOW_MILLIS = 120_000;
+    private static final String STATE_HIGH_DENSITY = "high_density";
+
     private LineChart voltageChart;
-    private ArrayList<Entry> voltageEntries;
-    private Random random = new Random();
-    private int timeCounter = 0;
-    private final Handler handler = new Handler(Looper.getMainLooper());
-    private Runnable updateDataRunnable;
+    private LineChart overviewChart;
+    private MinMaxChartView densityChart;
+    private boolean highDensity;
+    private WindowLineDataSet voltageDataSet;
+    private WindowLineDataSet overviewMinDataSet;
+    private WindowLineDataSet overviewMaxDataSet;
+    private final ChartWindow chartWindow = new ChartWindow(MAX_CHART_POINTS, WINDOW_MILLIS, OVERVIEW_BUCKETS);
+    private SampleBuffer sampleBuffer;
+    private final SampleBuffer.Snapshot snapshot = new SampleBuffer.Snapshot(4096);
+    private long nextSequence;
+    // X ekseninin başlangıcı (ilk gösterilen örneğin zamanı, ms)
+    private long originMillis = -1;
+    private long renderedVersion = -1;
+    private long overviewRenderedVersion = -1;
+    private long lastOverviewNanos;
+
+    // Durum ve alarm olayları her karede veri yolundan okunur; abonelikler onResume–onPause arasında
+    // açıktır. Geride kalınırsa yalnızca en güncel durum önemlidir (DROP_OLDEST).
+    private EventRing.Subscriber stateEvents;
+    private EventRing.Subscriber alarmEvents;
+    private ConnectionState connectionState = ConnectionState.DISCONNECTED;
+    private PumpState pumpState;
+    private String activeAlarm;
+    private boolean statusDirty;
+
+    private final EventHandler stateHandler = (event, sequence, endOfBatch) -> {
+        if (event.getType() == PumpEventBus.TYPE_CONNECTION) {
+            connectionState = (ConnectionState) event.getPayload();
+            statusDirty = true;
+        } else if (event.getType() == PumpEventBus.TYPE_PUMP_STATE) {
+            pumpState = (PumpState) event.getPayload();
+            statusDirty = true;
+        }
+    };
+
+    private final EventHandler alarmHandler = (event, sequence, endOfBatch) -> {
+        if (event.getType() != PumpEventBus.TYPE_ALARM) {
+            return;
+        }
+        String name = (String) event.getPayload();
+        if (PumpEventBus.isAlarmActive(event)) {
+            activeAlarm = name;
+        } else if (name.equals(activeAlarm)) {
+            activeAlarm = null;
+        }
+        statusDirty = true;
+    };
+
+    // Ekran yenilemesiyle eş zamanlı güncelleme: kare başına en fazla bir çizim
+    private final Choreographer.FrameCallback frameCallback = new Choreographer.FrameCallback() {
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            long startNanos = System.nanoTime();
+            pollEvents();
+            long newestMillis = pullNewSamples();
+            // Yüksek yoğunluk grafiği kendi çizim iş parçacığıyla güncellenir
+            if (!highDensity && chartWindow.getVersion() != renderedVersion) {
+                renderWindow();
+                Metrics.CHART_FRAME_TIME.record((System.nanoTime() - startNanos) / 1000);
+                if (newestMillis >= 0) {
+                    // Örnek zamanları ms çözünürlüklüdür
+                    Metrics.CALLBACK_TO_UI_LATENCY.record((System.currentTimeMillis() - newestMillis) * 1000);
+                }
+            }
+            if (chartWindow.getVersion() != overviewRenderedVersion
+                    && frameTimeNanos - lastOverviewNanos >= OVERVIEW_REFRESH_NANOS) {
+                lastOverviewNanos = frameTimeNanos;
+                renderOverview();
+            }
+            Choreographer.getInstance().postFrameCallback(this);
+        }
+    };
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -44,25 +132,67 @@ public class GraphActivity extends AppCompatActivity {
 
         // Grafik ayarlarını yap
         voltageChart = findViewById(R.id.voltage_chart);
-        setupChart();
+        overviewChart = findViewById(R.id.overview_chart);
+        setupChart(voltageChart);
+        setupChart(overviewChart);
+        overviewChart.setTouchEnabled(false);
+        overviewChart.getLegend().setEnabled(false);
 
-        // Örnek veri oluştur
-        createSampleData();
+        // Ortak ölçüm deposundaki mevcut veriyle başla
+        sampleBuffer = ((PumpApplication) getApplication()).getSampleBuffer();
+        createChartData();
+
+        densityChart = findViewById(R.id.density_chart);
+        densityChart.setSampleBuffer(sampleBuffer);
+        densityChart.setWindowMillis(HIGH_DENSITY_WINDOW_MILLIS);
+        densityChart.setOriginMillis(originMillis);
+        setHighDensity(savedInstanceState != null && savedInstanceState.getBoolean(STATE_HIGH_DENSITY));
+    }
+
+    @Override
+    public boolean onCreateOptionsMenu(Menu menu) {
+        getMenuInflater().inflate(R.menu.graph_menu, menu);
+        menu.findItem(R.id.action_high_density).setChecked(highDensity);
+        return true;
+    }
+
+    @Override
+    public boolean onOptionsItemSelected(MenuItem item) {
+        if (item.getItemId() == R.id.action_high_density) {
+            item.setChecked(!item.isChecked());
+            setHighDensity(item.isChecked());
+            return true;
+        }
+        return super.onOptionsItemSelected(item);
+    }
+
+    @Override
+    protected void onSaveInstanceState(Bundle outState) {
+        super.onSaveInstanceState(outState);
+        outState.putBoolean(STATE_HIGH_DENSITY, highDensity);
+    }
 
-        // Simülasyon için veri güncelleme zamanlayıcısını başlat
-        startDataUpdates();
+    // Canlı çizgi grafiği ile piksel sütunu seyreltmeli grafik arasında geçiş
+    private void setHighDensity(boolean enabled) {
+        highDensity = enabled;
+        voltageChart.setVisibility(enabled ? View.GONE : View.VISIBLE);
+        densityChart.setVisibility(enabled ? View.VISIBLE : View.GONE);
+        if (!enabled) {
+            // Gizliyken biriken noktalar bir sonraki karede çizilir
+            renderedVersion = -1;
+        }
     }
 
-    private void setupChart() {
-        voltageChart.getDescription().setEnabled(false);
-        voltageChart.setTouchEnabled(true);
-        voltageChart.setDragEnabled(true);
-        voltageChart.setScaleEnabled(true);
-        voltageChart.setPinchZoom(true);
-        voltageChart.setDrawGridBackground(false);
+    private void setupChart(LineChart chart) {
+        chart.getDescription().setEnabled(false);
+        chart.setTouchEnabled(true);
+        chart.setDragEnabled(true);
+        chart.setScaleEnabled(true);
+        chart.setPinchZoom(true);
+        chart.setDrawGridBackground(false);
 
         // X ekseni ayarları
-        XAxis xAxis = voltageChart.getXAxis();
+        XAxis xAxis = chart.getXAxis();
         xAxis.setPosition(XAxis.XAxisPosition.BOTTOM);
         xAxis.setDrawGridLines(true);
         xAxis.setGranularity(1f);
@@ -75,7 +205,7 @@ public class GraphActivity extends AppCompatActivity {
         });
 
         // Sol Y ekseni ayarları
-        YAxis leftAxis = voltageChart.getAxisLeft();
+        YAxis leftAxis = chart.getAxisLeft();
         leftAxis.setDrawGridLines(true);
         leftAxis.setAxisMinimum(0f);
         leftAxis.setAxisMaximum(5f); // Arduino analog giriş için 0-5V
@@ -87,10 +217,10 @@ public class GraphActivity extends AppCompatActivity {
         });
 
         // Sağ Y ekseni gizle
-        voltageChart.getAxisRight().setEnabled(false);
+        chart.getAxisRight().setEnabled(false);
 
         // Gösterge (legend) ayarları
-        Legend legend = voltageChart.getLegend();
+        Legend legend = chart.getLegend();
         legend.setForm(Legend.LegendForm.LINE);
         legend.setTextSize(11f);
         legend.setVerticalAlignment(Legend.LegendVerticalAlignment.BOTTOM);
@@ -99,77 +229,149 @@ public class GraphActivity extends AppCompatActivity {
         legend.setDrawInside(false);
     }
 
-    private void createSampleData() {
-        voltageEntries = new ArrayList<>();
-
-        // Örnek veri için ilk 10 nokta ekle
-        for (int i = 0; i < 10; i++) {
-            float value = random.nextFloat() * 4.0f + 0.5f; // 0.5V ile 4.5V arası
-            voltageEntries.add(new Entry(i, value));
-            timeCounter = i;
-        }
-
-        // Veri setini oluştur
-        LineDataSet voltageDataSet = new LineDataSet(voltageEntries, "Voltaj (V)");
+    private void createChartData() {
+        // Canlı pencere: son WINDOW_MILLIS, en fazla MAX_CHART_POINTS nokta
+        voltageDataSet = new WindowLineDataSet("Voltaj (V)", MAX_CHART_POINTS);
         voltageDataSet.setColor(Color.BLUE);
-        voltageDataSet.setCircleColor(Color.BLUE);
         voltageDataSet.setLineWidth(2f);
-        voltageDataSet.setCircleRadius(3f);
-        voltageDataSet.setDrawCircleHole(false);
+        // Binlerce noktada daire çizimi kare süresini katlıyor
+        voltageDataSet.setDrawCircles(false);
         voltageDataSet.setValueTextSize(9f);
         voltageDataSet.setDrawValues(false);
         voltageDataSet.setHighlightEnabled(true);
         voltageDataSet.setDrawFilled(true);
         voltageDataSet.setFillColor(Color.parseColor("#80BDBDFF"));
+        voltageChart.setData(new LineData(voltageDataSet));
+
+        // Oturum özeti: kova başına min ve maks
+        overviewMinDataSet = createOverviewDataSet("Min (V)");
+        overviewMaxDataSet = createOverviewDataSet("Maks (V)");
+        overviewChart.setData(new LineData(overviewMaxDataSet, overviewMinDataSet));
 
-        // LineData oluştur ve grafiğe ayarla
-        LineData lineData = new LineData(voltageDataSet);
-        voltageChart.setData(lineData);
+        pullNewSamples();
+        renderWindow();
+        renderOverview();
+    }
+
+    private static WindowLineDataSet createOverviewDataSet(String label) {
+        WindowLineDataSet dataSet = new WindowLineDataSet(label, OVERVIEW_BUCKETS);
+        dataSet.setColor(Color.GRAY);
+        dataSet.setLineWidth(1f);
+        dataSet.setDrawCircles(false);
+        dataSet.setDrawValues(false);
+        dataSet.setHighlightEnabled(false);
+        return dataSet;
+    }
+
+    // Depoya son okumadan beri eklenen örnekleri pencereye aktarır; en yeni örneğin zamanını
+    // (ms) veya yeni örnek yoksa -1 döndürür
+    private long pullNewSamples() {
+        long newestMillis = -1;
+        int remaining = MAX_SAMPLES_PER_FRAME;
+        while (remaining > 0) {
+            sampleBuffer.snapshot(nextSequence, Math.min(remaining, snapshot.timestamps.length), snapshot);
+            nextSequence = snapshot.nextSequence();
+            if (snapshot.count == 0) {
+                return newestMillis;
+            }
+            newestMillis = snapshot.timestamps[snapshot.count - 1];
+            if (originMillis < 0) {
+                originMillis = snapshot.timestamps[0];
+                if (densityChart != null) {
+                    densityChart.setOriginMillis(originMillis);
+                }
+            }
+            for (int i = 0; i < snapshot.count; i++) {
+                chartWindow.append(snapshot.timestamps[i], snapshot.values[i]);
+            }
+            remaining -= snapshot.count;
+        }
+        return newestMillis;
+    }
 
-        // Grafiği güncelle
+    private void renderWindow() {
+        renderedVersion = chartWindow.getVersion();
+        voltageDataSet.beginUpdate();
+        for (int i = 0; i < chartWindow.size(); i++) {
+            voltageDataSet.add(toSeconds(chartWindow.timeAt(i)), chartWindow.valueAt(i));
+        }
+        voltageDataSet.endUpdate();
+        voltageChart.getData().notifyDataChanged();
+        voltageChart.notifyDataSetChanged();
         voltageChart.invalidate();
     }
 
-    private void startDataUpdates() {
-        updateDataRunnable = new Runnable() {
-            @Override
-            public void run() {
-                // Yeni veri noktası ekle (gerçekte USB'den alınacak)
-                timeCounter++;
-                float newValue = random.nextFloat() * 4.0f + 0.5f; // 0.5V ile 4.5V arası
-                voltageEntries.add(new Entry(timeCounter, newValue));
-
-                // Veri setini güncelle
-                LineDataSet dataSet = (LineDataSet) voltageChart.getData().getDataSetByIndex(0);
-                dataSet.notifyDataSetChanged();
-                voltageChart.getData().notifyDataChanged();
-                voltageChart.notifyDataSetChanged();
-
-                // Grafiğe otomatik kaydırma
-                voltageChart.setVisibleXRangeMaximum(20); // Son 20 veri noktasını göster
-                voltageChart.moveViewToX(timeCounter - 19); // En sona kaydır
-
-                // 500ms sonra tekrar çalıştır
-                handler.postDelayed(this, 500);
+    private void renderOverview() {
+        overviewRenderedVersion = chartWindow.getVersion();
+        overviewMinDataSet.beginUpdate();
+        overviewMaxDataSet.beginUpdate();
+        for (int i = 0; i < chartWindow.getOverviewCount(); i++) {
+            if (chartWindow.isOverviewBucketEmpty(i)) {
+                continue;
             }
-        };
+            float x = toSeconds(chartWindow.overviewTimeAt(i));
+            overviewMinDataSet.add(x, chartWindow.overviewMinAt(i));
+            overviewMaxDataSet.add(x, chartWindow.overviewMaxAt(i));
+        }
+        overviewMinDataSet.endUpdate();
+        overviewMaxDataSet.endUpdate();
+        overviewChart.getData().notifyDataChanged();
+        overviewChart.notifyDataSetChanged();
+        overviewChart.invalidate();
+    }
+
+    private void pollEvents() {
+        if (stateEvents == null) {
+            return;
+        }
+        stateEvents.poll(MAX_SAMPLES_PER_FRAME);
+        alarmEvents.poll(MAX_SAMPLES_PER_FRAME);
+        if (!statusDirty) {
+            return;
+        }
+        statusDirty = false;
+        String status;
+        if (activeAlarm != null) {
+            status = getString(R.string.alarm_active, activeAlarm);
+        } else if (connectionState == ConnectionState.RECONNECTING) {
+            status = getString(R.string.connection_status_reconnecting);
+        } else if (connectionState != ConnectionState.CONNECTED || pumpState == null) {
+            status = getString(R.string.connection_status_disconnected);
+        } else {
+            status = getString(R.string.graph_pump_status,
+                    getString(pumpState.running ? R.string.pump_state_running : R.string.pump_state_stopped),
+                    pumpState.speed);
+        }
+        getSupportActionBar().setSubtitle(status);
+    }
 
-        // İlk çalıştırma
-        handler.postDelayed(updateDataRunnable, 500);
+    private float toSeconds(long timestampMillis) {
+        return (timestampMillis - originMillis) / 1000f;
     }
 
     @Override
     protected void onPause() {
         super.onPause();
         // Activity duraklatıldığında güncellemeyi durdur
-        handler.removeCallbacks(updateDataRunnable);
+        Choreographer.getInstance().removeFrameCallback(frameCallback);
+        stateEvents.close();
+        alarmEvents.close();
+        stateEvents = null;
+        alarmEvents = null;
     }
 
     @Override
     protected void onResume() {
         super.onResume();
         // Activity devam ettiğinde güncellemeyi yeniden başlat
-        handler.postDelayed(updateDataRunnable, 500);
+        AcquisitionController controller = ((PumpApplication) getApplication()).getAcquisitionController();
+        PumpEventBus bus = controller.getEventBus();
+        stateEvents = bus.getState().subscribe(stateHandler, OverrunPolicy.DROP_OLDEST);
+        alarmEvents = bus.getSamples().subscribe(alarmHandler, OverrunPolicy.DROP_OLDEST);
+        connectionState = controller.getConnectionState();
+        pumpState = controller.getPumpState();
+        statusDirty = true;
+        Choreographer.getInstance().postFrameCallback(frameCallback);
     }
 
     @Override
@@ -177,4 +379,4 @@ public class GraphActivity extends AppCompatActivity {
         onBackPressed();
         return true;
     }
-}
\ No newline at end of file
+}
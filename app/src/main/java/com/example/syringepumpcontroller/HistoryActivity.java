@@ -1,11 +1,93 @@
 package com.example.syringepumpcontroller;
 
+import androidx.activity.result.ActivityResultLauncher;
+import androidx.activity.result.contract.ActivityResultContracts;
+import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.appcompat.widget.Toolbar;
 
+import android.graphics.Color;
+import android.net.Uri;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.provider.DocumentsContract;
+import android.util.Log;
+import android.view.MotionEvent;
+import android.view.View;
+import android.widget.ArrayAdapter;
+import android.widget.Button;
+import android.widget.ListView;
+import android.widget.ProgressBar;
+import android.widget.TextView;
+import android.widget.Toast;
+
+import com.example.syringepumpcontroller.storage.DownsampledSeries;
+import com.example.syringepumpcontroller.storage.HistoryReader;
+import com.example.syringepumpcontroller.storage.MeasurementLog;
+import com.example.syringepumpcontroller.storage.SegmentIndex;
+import com.example.syringepumpcontroller.storage.SessionExporter;
+import com.github.mikephil.charting.charts.LineChart;
+import com.github.mikephil.charting.components.XAxis;
+import com.github.mikephil.charting.components.YAxis;
+import com.github.mikephil.charting.data.Entry;
+import com.github.mikephil.charting.data.LineData;
+import com.github.mikephil.charting.data.LineDataSet;
+import com.github.mikephil.charting.formatter.ValueFormatter;
+import com.github.mikephil.charting.listener.ChartTouchListener;
+import com.github.mikephil.charting.listener.OnChartGestureListener;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class HistoryActivity extends AppCompatActivity {
+    private static final String TAG = "HistoryActivity";
+
+    // Ekran genişliğinin kaçta biri kadar kova istenir (her kova min ve maks iki nokta çizer)
+    private static final int PIXELS_PER_BUCKET = 2;
+    private static final int MIN_BUCKETS = 100;
+
+    private ArrayAdapter<String> historyAdapter;
+    private LineChart historyChart;
+    // Listede gösterilen sırayla (en yeni en üstte) segmentler
+    private final List<SegmentIndex> listedSegments = new ArrayList<>();
+    // Okuyucu ve sonuç tamponu yalnızca loader iş parçacığında kullanılır
+    private final ExecutorService loader = Executors.newSingleThreadExecutor();
+    private HistoryReader historyReader;
+    private final DownsampledSeries series = new DownsampledSeries();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    // X ekseninin başlangıcı (seçilen kaydın ilk örneği, ms)
+    private long originMillis;
+
+    // Dışa aktarma grafik sorgularını bekletmesin diye ayrı iş parçacığında çalışır
+    private final ExecutorService exporter = Executors.newSingleThreadExecutor();
+    private final Map<SessionExporter.Format, ActivityResultLauncher<String>> exportLaunchers =
+            new EnumMap<>(SessionExporter.Format.class);
+    private SegmentIndex pendingExport;
+    private volatile SessionExporter activeExport;
+    private View exportPanel;
+    private ProgressBar exportProgress;
+    private TextView tvExportStatus;
+
+    {
+        // Biçim başına MIME türü farklı olduğundan her biçim kendi başlatıcısını kullanır
+        for (SessionExporter.Format format : SessionExporter.Format.values()) {
+            exportLaunchers.put(format, registerForActivityResult(
+                    new ActivityResultContracts.CreateDocument(format.mimeType),
+                    uri -> startExport(format, uri)));
+        }
+    }
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -20,6 +102,281 @@ public class HistoryActivity extends AppCompatActivity {
         getSupportActionBar().setDisplayShowHomeEnabled(true);
 
         toolbar.setNavigationOnClickListener(v -> onBackPressed());
+
+        historyChart = findViewById(R.id.history_chart);
+        setupChart();
+
+        // Kayıt listesi
+        ListView listHistory = findViewById(R.id.listHistory);
+        listHistory.setEmptyView(findViewById(R.id.tvHistoryEmpty));
+        historyAdapter = new ArrayAdapter<>(this, android.R.layout.simple_list_item_1, new ArrayList<>());
+        listHistory.setAdapter(historyAdapter);
+        listHistory.setOnItemClickListener((parent, view, position, id) ->
+                showSegment(listedSegments.get(position)));
+        listHistory.setOnItemLongClickListener((parent, view, position, id) -> {
+            chooseExportFormat(listedSegments.get(position));
+            return true;
+        });
+
+        exportPanel = findViewById(R.id.layoutExport);
+        exportProgress = findViewById(R.id.progressExport);
+        tvExportStatus = findViewById(R.id.tvExportStatus);
+        Button btnCancelExport = findViewById(R.id.btnCancelExport);
+        btnCancelExport.setOnClickListener(v -> {
+            SessionExporter export = activeExport;
+            if (export != null) {
+                export.cancel();
+            }
+        });
+
+        loadSegments();
+    }
+
+    private void setupChart() {
+        historyChart.getDescription().setEnabled(false);
+        historyChart.setNoDataText("Grafik için bir kayıt seçin");
+        historyChart.setTouchEnabled(true);
+        historyChart.setDragEnabled(true);
+        historyChart.setScaleXEnabled(true);
+        historyChart.setScaleYEnabled(false);
+        historyChart.setDrawGridBackground(false);
+        historyChart.getAxisRight().setEnabled(false);
+        historyChart.getLegend().setEnabled(false);
+
+        XAxis xAxis = historyChart.getXAxis();
+        xAxis.setPosition(XAxis.XAxisPosition.BOTTOM);
+        xAxis.setValueFormatter(new ValueFormatter() {
+            @Override
+            public String getFormattedValue(float value) {
+                return String.format("%.0fs", value);
+            }
+        });
+
+        YAxis leftAxis = historyChart.getAxisLeft();
+        leftAxis.setAxisMinimum(0f);
+        leftAxis.setAxisMaximum(5f);
+        leftAxis.setValueFormatter(new ValueFormatter() {
+            @Override
+            public String getFormattedValue(float value) {
+                return String.format("%.1fV", value);
+            }
+        });
+
+        // Yakınlaştırma/kaydırma bitince yalnızca görünen aralık yeniden sorgulanır
+        historyChart.setOnChartGestureListener(new OnChartGestureListener() {
+            @Override
+            public void onChartGestureEnd(MotionEvent me, ChartTouchListener.ChartGesture lastPerformedGesture) {
+                if (historyChart.getData() == null) {
+                    return;
+                }
+                long from = originMillis + (long) (historyChart.getLowestVisibleX() * 1000);
+                long to = originMillis + (long) (historyChart.getHighestVisibleX() * 1000);
+                queryRange(from, to);
+            }
+
+            @Override
+            public void onChartGestureStart(MotionEvent me, ChartTouchListener.ChartGesture lastPerformedGesture) {
+            }
+
+            @Override
+            public void onChartLongPressed(MotionEvent me) {
+            }
+
+            @Override
+            public void onChartDoubleTapped(MotionEvent me) {
+            }
+
+            @Override
+            public void onChartSingleTapped(MotionEvent me) {
+            }
+
+            @Override
+            public void onChartFling(MotionEvent me1, MotionEvent me2, float velocityX, float velocityY) {
+            }
+
+            @Override
+            public void onChartScale(MotionEvent me, float scaleX, float scaleY) {
+            }
+
+            @Override
+            public void onChartTranslate(MotionEvent me, float dX, float dY) {
+            }
+        });
+    }
+
+    // Segment özetleri indeks dosyalarından okunur; ölçüm dosyaları taranmaz
+    private void loadSegments() {
+        final MeasurementLog log = ((PumpApplication) getApplication()).getMeasurementLog();
+        loader.execute(() -> {
+            List<SegmentIndex> segments = log.listSegments();
+            SimpleDateFormat dayFormat = new SimpleDateFormat("dd.MM.yyyy HH:mm:ss", Locale.getDefault());
+            SimpleDateFormat timeFormat = new SimpleDateFormat("HH:mm:ss", Locale.getDefault());
+            final List<String> rows = new ArrayList<>(segments.size());
+            final List<SegmentIndex> ordered = new ArrayList<>(segments.size());
+
+            // En yeni kayıt en üstte
+            for (int i = segments.size() - 1; i >= 0; i--) {
+                SegmentIndex segment = segments.get(i);
+                ordered.add(segment);
+                rows.add(dayFormat.format(new Date(segment.getFirstMillis()))
+                        + " – " + timeFormat.format(new Date(segment.getLastMillis()))
+                        + "\n" + segment.getSampleCount() + " örnek, "
+                        + segment.getCommandCount() + " komut");
+            }
+
+            // Segmentler eşlenir; eksik özet piramitleri burada bir kez oluşturulur
+            try {
+                historyReader = new HistoryReader(segments);
+            } catch (IOException e) {
+                Log.e(TAG, "Geçmiş kayıtlar açılamadı", e);
+            }
+
+            mainHandler.post(() -> {
+                listedSegments.clear();
+                listedSegments.addAll(ordered);
+                historyAdapter.clear();
+                historyAdapter.addAll(rows);
+            });
+        });
+    }
+
+    private void showSegment(SegmentIndex segment) {
+        if (segment.getSampleCount() == 0) {
+            return;
+        }
+        originMillis = segment.getFirstMillis();
+        // Eksen kaydın tamamını kapsar; yeniden sorgularda yakınlaştırma korunur
+        XAxis xAxis = historyChart.getXAxis();
+        xAxis.setAxisMinimum(0f);
+        xAxis.setAxisMaximum((segment.getLastMillis() - originMillis) / 1000f);
+        historyChart.fitScreen();
+        queryRange(segment.getFirstMillis(), segment.getLastMillis());
+    }
+
+    private void queryRange(final long fromMillis, final long toMillis) {
+        final int buckets = Math.max(MIN_BUCKETS, historyChart.getWidth() / PIXELS_PER_BUCKET);
+        final long origin = originMillis;
+        loader.execute(() -> {
+            if (historyReader == null) {
+                return;
+            }
+            historyReader.query(fromMillis, toMillis, buckets, series);
+            final ArrayList<Entry> minEntries = new ArrayList<>(series.count);
+            final ArrayList<Entry> maxEntries = new ArrayList<>(series.count);
+            for (int i = 0; i < series.count; i++) {
+                float x = (series.times[i] - origin) / 1000f;
+                minEntries.add(new Entry(x, series.minValues[i]));
+                maxEntries.add(new Entry(x, series.maxValues[i]));
+            }
+            mainHandler.post(() -> showEnvelope(minEntries, maxEntries));
+        });
+    }
+
+    private void showEnvelope(ArrayList<Entry> minEntries, ArrayList<Entry> maxEntries) {
+        LineData data = historyChart.getData();
+        if (data == null) {
+            historyChart.setData(new LineData(createDataSet(maxEntries, "Maks (V)"),
+                    createDataSet(minEntries, "Min (V)")));
+        } else {
+            ((LineDataSet) data.getDataSetByIndex(0)).setValues(maxEntries);
+            ((LineDataSet) data.getDataSetByIndex(1)).setValues(minEntries);
+            data.notifyDataChanged();
+            historyChart.notifyDataSetChanged();
+        }
+        historyChart.invalidate();
+    }
+
+    private static LineDataSet createDataSet(List<Entry> entries, String label) {
+        LineDataSet dataSet = new LineDataSet(entries, label);
+        dataSet.setColor(Color.BLUE);
+        dataSet.setLineWidth(1f);
+        dataSet.setDrawCircles(false);
+        dataSet.setDrawValues(false);
+        dataSet.setHighlightEnabled(false);
+        return dataSet;
+    }
+
+    private void chooseExportFormat(final SegmentIndex segment) {
+        if (activeExport != null || segment.isEmpty()) {
+            return;
+        }
+        final SessionExporter.Format[] formats = SessionExporter.Format.values();
+        String[] labels = {
+                getString(R.string.export_format_csv),
+                getString(R.string.export_format_delta),
+                getString(R.string.export_format_columnar),
+                getString(R.string.export_format_gorilla)
+        };
+        new AlertDialog.Builder(this)
+                .setTitle(R.string.export_title)
+                .setItems(labels, (dialog, which) -> {
+                    pendingExport = segment;
+                    SimpleDateFormat nameFormat = new SimpleDateFormat("yyyyMMdd_HHmmss", Locale.US);
+                    exportLaunchers.get(formats[which]).launch("olcum_"
+                            + nameFormat.format(new Date(segment.getFirstMillis())) + "." + formats[which].extension);
+                })
+                .show();
+    }
+
+    private void startExport(final SessionExporter.Format format, final Uri uri) {
+        final SegmentIndex segment = pendingExport;
+        pendingExport = null;
+        if (uri == null || segment == null) {
+            return;
+        }
+        final SessionExporter export = new SessionExporter(Collections.singletonList(segment));
+        activeExport = export;
+        exportPanel.setVisibility(View.VISIBLE);
+        exportProgress.setProgress(0);
+        tvExportStatus.setText(getString(R.string.export_progress, 0));
+        exporter.execute(() -> {
+            String message;
+            boolean keep = false;
+            try (OutputStream out = getContentResolver().openOutputStream(uri)) {
+                if (out == null) {
+                    throw new IOException("Belge açılamadı: " + uri);
+                }
+                SessionExporter.Result result = export.export(format, out, (records, total) -> {
+                    final int percent = (int) (records * 100 / Math.max(1, total));
+                    mainHandler.post(() -> {
+                        exportProgress.setProgress(percent);
+                        tvExportStatus.setText(getString(R.string.export_progress, percent));
+                    });
+                });
+                keep = true;
+                message = getString(R.string.export_done, result.samples, result.bytes / 1024.0 / 1024.0);
+            } catch (CancellationException e) {
+                message = getString(R.string.export_cancelled);
+            } catch (IOException | RuntimeException e) {
+                Log.e(TAG, "Dışa aktarma başarısız", e);
+                message = getString(R.string.export_failed);
+            }
+            if (!keep) {
+                // Yarım belge bırakılmaz
+                try {
+                    DocumentsContract.deleteDocument(getContentResolver(), uri);
+                } catch (Exception e) {
+                    Log.w(TAG, "Yarım belge silinemedi: " + uri, e);
+                }
+            }
+            final String finalMessage = message;
+            mainHandler.post(() -> {
+                activeExport = null;
+                exportPanel.setVisibility(View.GONE);
+                Toast.makeText(this, finalMessage, Toast.LENGTH_LONG).show();
+            });
+        });
+    }
+
+    @Override
+    protected void onDestroy() {
+        SessionExporter export = activeExport;
+        if (export != null) {
+            export.cancel();
+        }
+        exporter.shutdownNow();
+        loader.shutdownNow();
+        super.onDestroy();
     }
 
     @Override
@@ -27,4 +384,4 @@ public class HistoryActivity extends AppCompatActivity {
         onBackPressed();
         return true;
     }
-}
\ No newline at end of file
+}
@@ -1,26 +1,15 @@
 package com.example.syringepumpcontroller;
 
-import android.app.PendingIntent;
-import android.content.BroadcastReceiver;
-import android.content.Context;
 import android.content.Intent;
-import android.content.IntentFilter;
 import android.graphics.Color;
-import android.hardware.usb.UsbDevice;
-import android.hardware.usb.UsbDeviceConnection;
-import android.hardware.usb.UsbManager;
-import android.os.Build;
 import android.os.Bundle;
-import android.os.Handler;
-import android.os.Looper;
-import android.util.Log;
+import android.view.Choreographer;
 import android.view.MenuItem;
+import android.view.View;
 import android.widget.Button;
 import android.widget.RadioButton;
 import android.widget.RadioGroup;
 import android.widget.SeekBar;
-import android.widget.TableLayout;
-import android.widget.TableRow;
 import android.widget.TextView;
 import android.widget.Toast;
 
@@ -28,86 +17,83 @@ import androidx.annotation.NonNull;
 import androidx.appcompat.app.ActionBarDrawerToggle;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.appcompat.widget.Toolbar;
+import androidx.core.content.ContextCompat;
 import androidx.core.view.GravityCompat;
 import androidx.drawerlayout.widget.DrawerLayout;
-
-// Eski importlar:
-// import com.felhr.usbserial.UsbSerialDevice;
-// import com.felhr.usbserial.UsbSerialInterface;
-
-// Yeni importlar:
-import com.hoho.android.usbserial.driver.UsbSerialDriver;
-import com.hoho.android.usbserial.driver.UsbSerialPort;
-import com.hoho.android.usbserial.driver.UsbSerialProber;
-import com.hoho.android.usbserial.util.SerialInputOutputManager;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.example.syringepumpcontroller.acquisition.AcquisitionController;
+import com.example.syringepumpcontroller.acquisition.AcquisitionController.ConnectionState;
+import com.example.syringepumpcontroller.acquisition.PumpManager;
+import com.example.syringepumpcontroller.acquisition.PumpState;
+import com.example.syringepumpcontroller.command.CommandTracker;
+import com.example.syringepumpcontroller.control.FlowControlLoop;
+import com.example.syringepumpcontroller.dsp.AlarmStage;
+import com.example.syringepumpcontroller.dsp.RollingStats;
+import com.example.syringepumpcontroller.dsp.SignalPipeline;
+import com.example.syringepumpcontroller.ui.SensorSampleAdapter;
 import com.google.android.material.navigation.NavigationView;
+import com.google.android.material.switchmaterial.SwitchMaterial;
 
-import java.nio.charset.StandardCharsets;
-import java.text.SimpleDateFormat;
-import java.util.Date;
-import java.util.HashMap;
-import java.util.Locale;
-import java.util.Map;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
+import java.util.LinkedHashSet;
+import java.util.Set;
 
 public class MainActivity extends AppCompatActivity implements NavigationView.OnNavigationItemSelectedListener {
 
-    private static final String TAG = "SyringePumpController";
-    private static final String ACTION_USB_PERMISSION = "com.example.syringepumpcontroller.USB_PERMISSION";
+    // Listede kaydırılabilir olarak tutulan en fazla örnek sayısı
+    private static final int SENSOR_LIST_MAX_ROWS = 5000;
 
     // UI Bileşenleri
     private TextView tvConnectionStatus;
+    private TextView tvPumpPending;
+    private TextView tvSignalStats;
+    private TextView tvAlarm;
     private SeekBar seekBarSpeed;
     private TextView tvSpeedValue;
     private RadioGroup radioGroupDirection;
+    private SwitchMaterial switchFlowControl;
+    private SeekBar seekBarSetpoint;
+    private TextView tvSetpointValue;
     private Button btnStart, btnStop;
-    private TableLayout tableSensorData;
+    private RecyclerView recyclerSensorData;
+    private SensorSampleAdapter sensorSampleAdapter;
 
     // Navigation Drawer
     private DrawerLayout drawerLayout;
     private NavigationView navigationView;
     private Toolbar toolbar;
 
-    // USB İletişim için gerekli değişkenler
-    private UsbManager usbManager;
-    private UsbDevice device;
-    private UsbDeviceConnection connection;
-    private UsbSerialDevice serialPort;
+    // Bağlantı, komutlar ve örnek akışı uygulama ömrü boyunca bu bileşende yaşar;
+    // ekran, Pompalar ekranında seçilen pompayı kontrol eder
+    private AcquisitionController acquisition;
+    private PumpManager.Pump boundPump;
 
-    // Kontrol Değişkenleri
-    private boolean isPumpRunning = false;
-    private int pumpSpeed = 50;
-    private boolean isForwardDirection = true;
+    // Denetleyiciden gelen son bağlantı durumu
+    private boolean isConnected = false;
+    private ConnectionState connectionState = ConnectionState.DISCONNECTED;
+    // Yön seçimi pompa durumundan güncellenirken dinleyici komut göndermez
+    private boolean applyingPumpState = false;
 
-    // Veri okuma için zamanlanmış görev
-    private ScheduledExecutorService scheduler;
-    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    // Etkin alarmların adları; en son etkinleşen sonda
+    private final Set<String> activeAlarms = new LinkedHashSet<>();
+    private long lastStatsSample = -1;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_main);
 
+        PumpApplication app = (PumpApplication) getApplication();
+
         // Navigation Drawer ve Toolbar kurulumu
         setupNavigation();
 
         // UI bileşenlerini başlat
         initializeUI();
 
-        // USB yöneticisini başlat
-        usbManager = (UsbManager) getSystemService(Context.USB_SERVICE);
-
-        // USB algılama işleyiciyi kaydet
-        IntentFilter filter = new IntentFilter();
-        filter.addAction(ACTION_USB_PERMISSION);
-        filter.addAction(UsbManager.ACTION_USB_DEVICE_ATTACHED);
-        filter.addAction(UsbManager.ACTION_USB_DEVICE_DETACHED);
-        registerReceiver(usbReceiver, filter, Context.RECEIVER_NOT_EXPORTED);
-
-        // Cihazı otomatik olarak algılamaya çalış
-        findSerialPortDevice();
+        // Cihaz takılınca açıldıysak bağlantıyı başlat (zaten bağlıysa bir şey yapmaz)
+        app.getUsbDeviceConnector().findSerialPortDevice();
     }
 
     private void setupNavigation() {
@@ -132,23 +118,32 @@ public class MainActivity extends AppCompatActivity implements NavigationView.On
 
     private void initializeUI() {
         tvConnectionStatus = findViewById(R.id.tvConnectionStatus);
+        tvPumpPending = findViewById(R.id.tvPumpPending);
+        tvSignalStats = findViewById(R.id.tvSignalStats);
+        tvAlarm = findViewById(R.id.tvAlarm);
         seekBarSpeed = findViewById(R.id.seekBarSpeed);
         tvSpeedValue = findViewById(R.id.tvSpeedValue);
         radioGroupDirection = findViewById(R.id.radioGroupDirection);
         btnStart = findViewById(R.id.btnStart);
         btnStop = findViewById(R.id.btnStop);
-        tableSensorData = findViewById(R.id.tableSensorData);
+        recyclerSensorData = findViewById(R.id.recyclerSensorData);
+        switchFlowControl = findViewById(R.id.switchFlowControl);
+        seekBarSetpoint = findViewById(R.id.seekBarSetpoint);
+        tvSetpointValue = findViewById(R.id.tvSetpointValue);
+
+        // Sensör listesi: satır görünümleri yeniden kullanılır, veri pompanın deposundan okunur
+        recyclerSensorData.setLayoutManager(new LinearLayoutManager(this));
+        recyclerSensorData.setItemAnimator(null);
 
         // Hız değişim olayı
         seekBarSpeed.setOnSeekBarChangeListener(new SeekBar.OnSeekBarChangeListener() {
             @Override
             public void onProgressChanged(SeekBar seekBar, int progress, boolean fromUser) {
-                pumpSpeed = progress;
                 tvSpeedValue.setText(getString(R.string.speed_value, progress));
 
-                // Eğer pompa çalışıyorsa, hızı anında güncelle
-                if (isPumpRunning && serialPort != null) {
-                    sendSpeedCommand(progress);
+                // Eğer pompa çalışıyorsa, hız anında güncellenir
+                if (fromUser) {
+                    acquisition.setSpeed(progress);
                 }
             }
 
@@ -160,281 +155,201 @@ public class MainActivity extends AppCompatActivity implements NavigationView.On
         });
 
         // Yön değişim olayı
+        // Eğer pompa çalışıyorsa, yön anında güncellenir
         radioGroupDirection.setOnCheckedChangeListener((group, checkedId) -> {
-            isForwardDirection = checkedId == R.id.radioForward;
+            boolean forward = checkedId == R.id.radioForward;
+            if (!applyingPumpState && forward != acquisition.getPumpState().forward) {
+                acquisition.setDirection(forward);
+            }
+        });
+
+        // Hedef gerilim 0.01 V adımlarla; denetim çalışırken de değiştirilebilir
+        seekBarSetpoint.setOnSeekBarChangeListener(new SeekBar.OnSeekBarChangeListener() {
+            @Override
+            public void onProgressChanged(SeekBar seekBar, int progress, boolean fromUser) {
+                double setpoint = progress / 100.0;
+                tvSetpointValue.setText(getString(R.string.setpoint_value, setpoint));
+                if (fromUser) {
+                    acquisition.getFlowControl().setSetpoint(setpoint);
+                }
+            }
+
+            @Override
+            public void onStartTrackingTouch(SeekBar seekBar) {}
 
-            // Eğer pompa çalışıyorsa, yönü anında güncelle
-            if (isPumpRunning && serialPort != null) {
-                sendDirectionCommand(isForwardDirection);
+            @Override
+            public void onStopTrackingTouch(SeekBar seekBar) {}
+        });
+
+        // Denetim açıkken hız denetim motorundan gelir; elle hız ayarı kapatılır
+        switchFlowControl.setOnCheckedChangeListener((button, checked) -> {
+            FlowControlLoop loop = acquisition.getFlowControl();
+            if (checked) {
+                loop.setSetpoint(seekBarSetpoint.getProgress() / 100.0);
+                loop.start();
+            } else {
+                loop.stop();
             }
+            seekBarSpeed.setEnabled(!checked);
         });
 
         // Başlat butonu olayı
         btnStart.setOnClickListener(v -> {
-            if (serialPort == null) {
+            if (!isConnected) {
                 Toast.makeText(this, R.string.no_usb_connection, Toast.LENGTH_SHORT).show();
                 return;
             }
 
-            startPump();
+            acquisition.startPump();
         });
 
-        // Durdur butonu olayı
+        // Durdur butonu olayı; yeniden bağlanma sırasında da istenen durum durdurulur ve
+        // bağlantı geri geldiğinde cihaza STOP gönderilir
         btnStop.setOnClickListener(v -> {
-            if (serialPort == null) {
+            if (connectionState == ConnectionState.DISCONNECTED) {
                 Toast.makeText(this, R.string.no_usb_connection, Toast.LENGTH_SHORT).show();
                 return;
             }
 
-            stopPump();
+            // Elle durdurma çalışan profili de iptal eder; sonraki bölüm pompayı yeniden başlatmaz
+            acquisition.getProfileRunner().stop();
+            acquisition.stopPump();
         });
     }
 
-    // USB cihazını bul
-    private void findSerialPortDevice() {
-        HashMap<String, UsbDevice> usbDevices = usbManager.getDeviceList();
-
-        if (usbDevices.isEmpty()) {
-            Log.d(TAG, "USB cihazı bulunamadı");
-            return;
-        }
-
-        boolean deviceFound = false;
-
-        for (Map.Entry<String, UsbDevice> entry : usbDevices.entrySet()) {
-            device = entry.getValue();
-            // Tüm cihazlar için izin iste - S7 Edge'de daha iyi çalışması için
-            Log.d(TAG, "USB cihazı bulundu: " + device.getDeviceName() +
-                    " VID: " + device.getVendorId() +
-                    " PID: " + device.getProductId());
-            deviceFound = true;
-
-            // USB izni iste (PendingIntent mutability flag için)
-            int flags = PendingIntent.FLAG_UPDATE_CURRENT;
-            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.S) {
-                flags |= PendingIntent.FLAG_IMMUTABLE;
+    // Liste güncellemeleri kare başına en fazla bir kez yapılır
+    private final Choreographer.FrameCallback sensorListFrameCallback = new Choreographer.FrameCallback() {
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            // Kullanıcı listenin sonundaysa yeni örnekleri takip et
+            boolean atEnd = !recyclerSensorData.canScrollVertically(1);
+            if (sensorSampleAdapter.refresh() && atEnd) {
+                recyclerSensorData.scrollToPosition(sensorSampleAdapter.getItemCount() - 1);
             }
-
-            PendingIntent pendingIntent = PendingIntent.getBroadcast(
-                    this, 0, new Intent(ACTION_USB_PERMISSION), flags);
-            usbManager.requestPermission(device, pendingIntent);
-            break;
+            updateSignalStats();
+            Choreographer.getInstance().postFrameCallback(this);
         }
+    };
 
-        if (!deviceFound) {
-            Log.d(TAG, "Uyumlu bir USB cihazı bulunamadı");
-            tvConnectionStatus.setText(getString(R.string.connection_status_no_device));
-        }
-    }
-
-    // Seri porta bağlan
-    private void connectToSerialPort() {
-        connection = usbManager.openDevice(device);
-        if (connection == null) {
-            Log.e(TAG, "USB bağlantısı açılamadı");
-            return;
+    // Denetleyici bildirimleri ana iş parçacığında gelir
+    private final AcquisitionController.Listener acquisitionListener = new AcquisitionController.Listener() {
+        @Override
+        public void onConnectionStateChanged(ConnectionState state) {
+            isConnected = state == ConnectionState.CONNECTED;
+            connectionState = state;
+            // STOP kopma ve el sıkışma sırasında da kullanılabilir
+            btnStop.setEnabled(state != ConnectionState.DISCONNECTED);
+            switch (state) {
+                case CONNECTED:
+                    tvConnectionStatus.setText(getString(R.string.connection_status_connected));
+                    tvConnectionStatus.setTextColor(Color.GREEN);
+                    break;
+                case NO_DEVICE:
+                    tvConnectionStatus.setText(getString(R.string.connection_status_no_device));
+                    break;
+                case PERMISSION_DENIED:
+                    tvConnectionStatus.setText(getString(R.string.connection_status_permission_denied));
+                    break;
+                case RECONNECTING:
+                    tvConnectionStatus.setText(getString(R.string.connection_status_reconnecting));
+                    tvConnectionStatus.setTextColor(Color.parseColor("#FF9800"));
+                    break;
+                case DISCONNECTED:
+                    tvConnectionStatus.setText(getString(R.string.connection_status_disconnected));
+                    tvConnectionStatus.setTextColor(Color.RED);
+                    break;
+                default:
+                    break;
+            }
         }
 
-        serialPort = UsbSerialDevice.createUsbSerialDevice(device, connection);
-
-        if (serialPort == null) {
-            Log.e(TAG, "Seri port oluşturulamadı");
-            return;
+        @Override
+        public void onPumpStateChanged(PumpState state) {
+            // Başlat istenen durumu izler; STOP bağlantı durumuna bağlıdır
+            btnStart.setEnabled(!state.running);
+            if (seekBarSpeed.getProgress() != state.speed) {
+                seekBarSpeed.setProgress(state.speed);
+            }
+            int direction = state.forward ? R.id.radioForward : R.id.radioReverse;
+            if (radioGroupDirection.getCheckedRadioButtonId() != direction) {
+                applyingPumpState = true;
+                try {
+                    radioGroupDirection.check(direction);
+                } finally {
+                    applyingPumpState = false;
+                }
+            }
+            tvPumpPending.setVisibility(state.isSettled() ? View.INVISIBLE : View.VISIBLE);
         }
 
-        if (!serialPort.open()) {
-            Log.e(TAG, "Seri port açılamadı");
-            return;
+        @Override
+        public void onCommandFailed(String command, CommandTracker.Outcome outcome, int code) {
+            String message = outcome == CommandTracker.Outcome.NAKED
+                    ? getString(R.string.command_rejected, command, code)
+                    : getString(R.string.command_timed_out, command);
+            Toast.makeText(MainActivity.this, message, Toast.LENGTH_SHORT).show();
         }
 
-        // Seri port ayarları
-        serialPort.setBaudRate(115200); // ESP32 ile 115200 yaygın kullanılır
-        serialPort.setDataBits(UsbSerialInterface.DATA_BITS_8);
-        serialPort.setStopBits(UsbSerialInterface.STOP_BITS_1);
-        serialPort.setParity(UsbSerialInterface.PARITY_NONE);
-        serialPort.setFlowControl(UsbSerialInterface.FLOW_CONTROL_OFF);
-
-        // Veri alma dinleyicisi
-        serialPort.read(mCallback);
-
-        // Bağlantı durumunu güncelle
-        tvConnectionStatus.setText(getString(R.string.connection_status_connected));
-        tvConnectionStatus.setTextColor(Color.GREEN);
-
-        Log.d(TAG, "Seri port bağlantısı başarılı");
-
-        // Sensor verilerini okumak için zamanlanmış görev başlat
-        startSensorDataScheduler();
-    }
-
-    // Seri porttan veri alma geri çağrısı
-    private final UsbSerialInterface.UsbReadCallback mCallback = data -> {
-        try {
-            String dataStr = new String(data, StandardCharsets.UTF_8);
-            Log.d(TAG, "Alınan veri: " + dataStr);
-
-            // Gelen veriyi işle
-            if (dataStr.startsWith("SV:")) { // Sensor Value
-                processAndDisplaySensorData(dataStr);
+        @Override
+        public void onAlarm(String name, AlarmStage.Action action, boolean active, float value) {
+            if (active) {
+                activeAlarms.remove(name);
+                activeAlarms.add(name);
+                tvAlarm.setText(action == AlarmStage.Action.STOP_PUMP
+                        ? getString(R.string.alarm_stopped_pump, name)
+                        : getString(R.string.alarm_active, name));
+                tvAlarm.setVisibility(View.VISIBLE);
+            } else {
+                activeAlarms.remove(name);
+                if (activeAlarms.isEmpty()) {
+                    tvAlarm.setVisibility(View.GONE);
+                } else {
+                    String latest = null;
+                    for (String alarm : activeAlarms) {
+                        latest = alarm;
+                    }
+                    tvAlarm.setText(getString(R.string.alarm_active, latest));
+                }
             }
-        } catch (Exception e) {
-            Log.e(TAG, "Veri çözme hatası", e);
         }
     };
 
-    // Sensor verilerini işle ve tabloda göster
-    private void processAndDisplaySensorData(final String data) {
-        String voltageStr = data.substring(3).trim(); // "SV:" kısmını çıkar
-
-        try {
-            final float voltage = Float.parseFloat(voltageStr);
-
-            // Ana iş parçacığında UI güncellemesi yap
-            mainHandler.post(() -> {
-                // Mevcut tarih/saat
-                String timestamp = new SimpleDateFormat("HH:mm:ss", Locale.getDefault()).format(new Date());
-
-                // Yeni tablo satırı oluştur
-                TableRow row = new TableRow(MainActivity.this);
-
-                // Saat sütunu
-                TextView tvTime = new TextView(MainActivity.this);
-                tvTime.setPadding(8, 8, 8, 8);
-                tvTime.setText(timestamp);
-                row.addView(tvTime);
-
-                // Voltaj sütunu
-                TextView tvVoltage = new TextView(MainActivity.this);
-                tvVoltage.setPadding(8, 8, 8, 8);
-                tvVoltage.setText(String.format(Locale.US, "%.2f", voltage));
-                row.addView(tvVoltage);
-
-                // Tabloya ekle
-                tableSensorData.addView(row);
-
-                // En fazla 100 satır göster (bellek yönetimi)
-                if (tableSensorData.getChildCount() > 100) {
-                    tableSensorData.removeViewAt(1); // Başlık satırı hariç ilk veri satırını sil
-                }
-            });
-
-        } catch (NumberFormatException e) {
-            Log.e(TAG, "Voltaj değerini ayrıştırma hatası", e);
-        }
-    }
-
-    // Sensor verilerini almak için zamanlanmış görev
-    private void startSensorDataScheduler() {
-        if (scheduler != null && !scheduler.isShutdown()) {
-            scheduler.shutdownNow();
+    // Ekran görünmezken etkinleşen veya sönen alarmlar bildirilmediğinden durum hattan okunur
+    private void syncAlarms() {
+        activeAlarms.clear();
+        tvAlarm.setVisibility(View.GONE);
+        SignalPipeline pipeline = acquisition.getSignalPipeline();
+        if (pipeline == null) {
+            return;
         }
-
-        scheduler = Executors.newSingleThreadScheduledExecutor();
-        scheduler.scheduleAtFixedRate(() -> {
-            if (serialPort != null) {
-                // Sensor verisi iste
-                sendCommand("GET_SENSOR");
+        for (AlarmStage alarm : pipeline.getAlarms()) {
+            if (alarm.isActive()) {
+                acquisitionListener.onAlarm(alarm.getName(), alarm.getAction(), true, Float.NaN);
             }
-        }, 0, 1, TimeUnit.SECONDS); // Her saniye veri iste
-    }
-
-    // Pompayı başlat
-    private void startPump() {
-        if (!isPumpRunning) {
-            // Pompa yönünü ayarla
-            sendDirectionCommand(isForwardDirection);
-
-            // Pompa hızını ayarla
-            sendSpeedCommand(pumpSpeed);
-
-            // Pompayı başlat
-            sendCommand("START");
-
-            isPumpRunning = true;
-            btnStart.setEnabled(false);
-            btnStop.setEnabled(true);
         }
     }
 
-    // Pompayı durdur
-    private void stopPump() {
-        if (isPumpRunning) {
-            sendCommand("STOP");
-
-            isPumpRunning = false;
-            btnStart.setEnabled(true);
-            btnStop.setEnabled(false);
+    // Süzülmüş değer ve pencere istatistikleri; yalnızca yeni örnek geldiyse yazılır
+    private void updateSignalStats() {
+        SignalPipeline pipeline = acquisition.getSignalPipeline();
+        RollingStats stats = pipeline == null ? null : pipeline.findStage(RollingStats.class);
+        if (stats == null || pipeline.getOutput() == null) {
+            tvSignalStats.setVisibility(View.GONE);
+            return;
         }
-    }
-
-    // Yön komutu gönder
-    private void sendDirectionCommand(boolean isForward) {
-        String command = isForward ? "DIR_FWD" : "DIR_REV";
-        sendCommand(command);
-    }
-
-    // Hız komutu gönder
-    private void sendSpeedCommand(int speed) {
-        String command = "SPEED_" + speed;
-        sendCommand(command);
-    }
-
-    // Komut gönder
-    private void sendCommand(String command) {
-        if (serialPort != null) {
-            command += "\n"; // Satır sonu ekle (ESP32 tarafında ayrıştırma için)
-            serialPort.write(command.getBytes());
-            Log.d(TAG, "Gönderilen komut: " + command.trim());
+        long processed = pipeline.getSamplesProcessed();
+        if (processed == lastStatsSample) {
+            return;
         }
-    }
-
-    // USB olayları için alıcı
-    private final BroadcastReceiver usbReceiver = new BroadcastReceiver() {
-        @Override
-        public void onReceive(Context context, Intent intent) {
-            String action = intent.getAction();
-
-            if (ACTION_USB_PERMISSION.equals(action)) {
-                synchronized (this) {
-                    UsbDevice usbDevice = intent.getParcelableExtra(UsbManager.EXTRA_DEVICE);
-
-                    if (intent.getBooleanExtra(UsbManager.EXTRA_PERMISSION_GRANTED, false)) {
-                        if (usbDevice != null) {
-                            // İzin verildi, seri porta bağlan
-                            Log.d(TAG, "USB izni verildi. Bağlanıyor...");
-                            connectToSerialPort();
-                        }
-                    } else {
-                        Log.d(TAG, "USB izni reddedildi");
-                        tvConnectionStatus.setText(getString(R.string.connection_status_permission_denied));
-                    }
-                }
-            } else if (UsbManager.ACTION_USB_DEVICE_ATTACHED.equals(action)) {
-                // USB cihazı takıldı
-                Log.d(TAG, "USB cihazı takıldı");
-                findSerialPortDevice();
-            } else if (UsbManager.ACTION_USB_DEVICE_DETACHED.equals(action)) {
-                // USB cihazı çıkarıldı
-                Log.d(TAG, "USB cihazı çıkarıldı");
-                if (serialPort != null) {
-                    serialPort.close();
-                    serialPort = null;
-                }
-
-                if (scheduler != null) {
-                    scheduler.shutdownNow();
-                    scheduler = null;
-                }
-
-                isPumpRunning = false;
-                btnStart.setEnabled(true);
-                btnStop.setEnabled(false);
-
-                tvConnectionStatus.setText(getString(R.string.connection_status_disconnected));
-                tvConnectionStatus.setTextColor(Color.RED);
-            }
+        lastStatsSample = processed;
+        float latest = pipeline.getOutput().latestValue();
+        if (Float.isNaN(latest) || Float.isNaN(stats.getMean())) {
+            return;
         }
-    };
+        tvSignalStats.setVisibility(View.VISIBLE);
+        tvSignalStats.setText(getString(R.string.signal_stats,
+                latest, stats.getMin(), stats.getMax(), stats.getStdDev()));
+    }
 
     @Override
     public boolean onNavigationItemSelected(@NonNull MenuItem item) {
@@ -448,6 +363,18 @@ public class MainActivity extends AppCompatActivity implements NavigationView.On
         } else if (id == R.id.nav_history) {
             Intent intent = new Intent(this, HistoryActivity.class);
             startActivity(intent);
+        } else if (id == R.id.nav_command_latency) {
+            Intent intent = new Intent(this, CommandLatencyActivity.class);
+            startActivity(intent);
+        } else if (id == R.id.nav_pumps) {
+            Intent intent = new Intent(this, PumpsActivity.class);
+            startActivity(intent);
+        } else if (id == R.id.nav_profile) {
+            Intent intent = new Intent(this, ProfileActivity.class);
+            startActivity(intent);
+        } else if (id == R.id.nav_metrics) {
+            Intent intent = new Intent(this, MetricsActivity.class);
+            startActivity(intent);
         }
 
         drawerLayout.closeDrawer(GravityCompat.START);
@@ -463,18 +390,49 @@ public class MainActivity extends AppCompatActivity implements NavigationView.On
         }
     }
 
-    @Override
-    protected void onDestroy() {
-        // Uygulamadan çıkarken kaynakları temizle
-        if (serialPort != null) {
-            serialPort.close();
+    // Seçili pompa değiştiyse ekran onun denetleyicisine ve deposuna bağlanır
+    private void bindSelectedPump() {
+        PumpApplication app = (PumpApplication) getApplication();
+        PumpManager.Pump pump = app.getSelectedPump();
+        if (pump == boundPump) {
+            return;
         }
+        boundPump = pump;
+        acquisition = pump.getController();
+        lastStatsSample = -1;
+        sensorSampleAdapter = new SensorSampleAdapter(pump.getSampleBuffer(), SENSOR_LIST_MAX_ROWS);
+        recyclerSensorData.setAdapter(sensorSampleAdapter);
+        FlowControlLoop loop = acquisition.getFlowControl();
+        seekBarSetpoint.setProgress((int) Math.round(loop.getSetpoint() * 100));
+        switchFlowControl.setChecked(loop.isRunning());
+        seekBarSpeed.setEnabled(!loop.isRunning());
+        getSupportActionBar().setSubtitle(app.getPumpManager().getPumps().size() > 1
+                ? getString(R.string.pump_label, pump.getNumber()) : null);
+    }
 
-        if (scheduler != null) {
-            scheduler.shutdownNow();
-        }
+    @Override
+    protected void onStart() {
+        super.onStart();
+        bindSelectedPump();
+        syncAlarms();
+        acquisition.addListener(acquisitionListener, ContextCompat.getMainExecutor(this));
+    }
 
-        unregisterReceiver(usbReceiver);
-        super.onDestroy();
+    @Override
+    protected void onStop() {
+        acquisition.removeListener(acquisitionListener);
+        super.onStop();
+    }
+
+    @Override
+    protected void onResume() {
+        super.onResume();
+        Choreographer.getInstance().postFrameCallback(sensorListFrameCallback);
+    }
+
+    @Override
+    protected void onPause() {
+        super.onPause();
+        Choreographer.getInstance().removeFrameCallback(sensorListFrameCallback);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,75 @@
+package com.example.syringepumpcontroller;
+
+import androidx.appcompat.app.AppCompatActivity;
+import androidx.appcompat.widget.Toolbar;
+
+import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.widget.Button;
+import android.widget.TextView;
+
+import com.example.syringepumpcontroller.metrics.Metrics;
+import com.google.android.material.switchmaterial.SwitchMaterial;
+
+public class MetricsActivity extends AppCompatActivity {
+
+    private static final long REFRESH_MS = 500;
+
+    private TextView tvMetrics;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    private final Runnable refresh = new Runnable() {
+        @Override
+        public void run() {
+            tvMetrics.setText(Metrics.registry().dump());
+            mainHandler.postDelayed(this, REFRESH_MS);
+        }
+    };
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setContentView(R.layout.activity_metrics);
+
+        // Toolbar'ı ayarla
+        Toolbar toolbar = findViewById(R.id.toolbar_metrics);
+        setSupportActionBar(toolbar);
+        getSupportActionBar().setTitle(R.string.metrics_title);
+        getSupportActionBar().setDisplayHomeAsUpEnabled(true);
+        getSupportActionBar().setDisplayShowHomeEnabled(true);
+
+        toolbar.setNavigationOnClickListener(v -> onBackPressed());
+
+        tvMetrics = findViewById(R.id.tvMetrics);
+
+        // Kapalıyken sayaçlar ve histogramlar güncellenmez; göstergeler okunmaya devam eder
+        SwitchMaterial switchEnabled = findViewById(R.id.switchMetricsEnabled);
+        switchEnabled.setChecked(Metrics.isEnabled());
+        switchEnabled.setOnCheckedChangeListener((button, checked) -> Metrics.setEnabled(checked));
+
+        Button btnReset = findViewById(R.id.btnMetricsReset);
+        btnReset.setOnClickListener(v -> {
+            Metrics.registry().reset();
+            tvMetrics.setText(Metrics.registry().dump());
+        });
+    }
+
+    @Override
+    protected void onResume() {
+        super.onResume();
+        mainHandler.post(refresh);
+    }
+
+    @Override
+    protected void onPause() {
+        super.onPause();
+        mainHandler.removeCallbacks(refresh);
+    }
+
+    @Override
+    public boolean onSupportNavigateUp() {
+        onBackPressed();
+        return true;
+    }
+}
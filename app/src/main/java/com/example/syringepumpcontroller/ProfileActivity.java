@@ -0,0 +1,169 @@
+package com.example.syringepumpcontroller;
+
+import androidx.activity.result.ActivityResultLauncher;
+import androidx.activity.result.contract.ActivityResultContracts;
+import androidx.appcompat.app.AppCompatActivity;
+import androidx.appcompat.widget.Toolbar;
+
+import android.net.Uri;
+import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.widget.Button;
+import android.widget.EditText;
+import android.widget.TextView;
+import android.widget.Toast;
+
+import com.example.syringepumpcontroller.acquisition.AcquisitionController;
+import com.example.syringepumpcontroller.acquisition.AcquisitionController.ConnectionState;
+import com.example.syringepumpcontroller.profile.InfusionProfile;
+import com.example.syringepumpcontroller.profile.ProfileFormat;
+import com.example.syringepumpcontroller.profile.ProfileRunner;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Seçili pompa için infüzyon profili düzenleme ve çalıştırma ekranı. Profil metin olarak
+ * yazılır veya dosyadan yüklenir; çalışırken ilerleme ve planlanan/gerçekleşen komut
+ * zamanlaması gösterilir. Profil ekran kapansa da denetleyicide çalışmaya devam eder.
+ */
+public class ProfileActivity extends AppCompatActivity {
+
+    private static final long REFRESH_MS = 250;
+    private static final String DEFAULT_PROFILE =
+            "name Örnek\nstep 30s 40 fwd\nramp 1m 40-80\nbolus 5s 100\npause 30s\nstep 1m 20 rev\n";
+
+    private AcquisitionController acquisition;
+    private EditText etProfile;
+    private TextView tvProgress;
+    private TextView tvTiming;
+    private Button btnRun;
+    private Button btnStop;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    private final Runnable refresh = new Runnable() {
+        @Override
+        public void run() {
+            updateStatus();
+            mainHandler.postDelayed(this, REFRESH_MS);
+        }
+    };
+
+    private final ActivityResultLauncher<String[]> openProfile =
+            registerForActivityResult(new ActivityResultContracts.OpenDocument(), this::loadProfile);
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setContentView(R.layout.activity_profile);
+
+        // Toolbar'ı ayarla
+        Toolbar toolbar = findViewById(R.id.toolbar_profile);
+        setSupportActionBar(toolbar);
+        getSupportActionBar().setTitle(R.string.profile_title);
+        getSupportActionBar().setDisplayHomeAsUpEnabled(true);
+        getSupportActionBar().setDisplayShowHomeEnabled(true);
+
+        toolbar.setNavigationOnClickListener(v -> onBackPressed());
+
+        acquisition = ((PumpApplication) getApplication()).getAcquisitionController();
+        etProfile = findViewById(R.id.etProfile);
+        tvProgress = findViewById(R.id.tvProfileProgress);
+        tvTiming = findViewById(R.id.tvProfileTiming);
+        btnRun = findViewById(R.id.btnProfileRun);
+        btnStop = findViewById(R.id.btnProfileStop);
+
+        InfusionProfile running = acquisition.getProfileRunner().getProfile();
+        if (savedInstanceState == null) {
+            etProfile.setText(running != null ? ProfileFormat.format(running) : DEFAULT_PROFILE);
+        }
+
+        Button btnLoad = findViewById(R.id.btnProfileLoad);
+        btnLoad.setOnClickListener(v -> openProfile.launch(new String[]{"text/*"}));
+        btnRun.setOnClickListener(v -> runProfile());
+        btnStop.setOnClickListener(v -> acquisition.getProfileRunner().stop());
+    }
+
+    private void loadProfile(Uri uri) {
+        if (uri == null) {
+            return;
+        }
+        try (InputStream in = getContentResolver().openInputStream(uri);
+             Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8)) {
+            InfusionProfile profile = ProfileFormat.read(reader);
+            etProfile.setText(ProfileFormat.format(profile));
+        } catch (IOException | IllegalArgumentException e) {
+            Toast.makeText(this, getString(R.string.profile_invalid, e.getMessage()), Toast.LENGTH_LONG).show();
+        }
+    }
+
+    private void runProfile() {
+        if (acquisition.getConnectionState() != ConnectionState.CONNECTED) {
+            Toast.makeText(this, R.string.no_usb_connection, Toast.LENGTH_SHORT).show();
+            return;
+        }
+        InfusionProfile profile;
+        try {
+            profile = ProfileFormat.parse(etProfile.getText().toString());
+        } catch (IllegalArgumentException e) {
+            Toast.makeText(this, getString(R.string.profile_invalid, e.getMessage()), Toast.LENGTH_LONG).show();
+            return;
+        }
+        // Profil hızı doğrudan sürer; kapalı çevrim denetimle aynı anda çalışmaz
+        acquisition.getFlowControl().stop();
+        acquisition.getProfileRunner().start(profile);
+        updateStatus();
+    }
+
+    private void updateStatus() {
+        ProfileRunner runner = acquisition.getProfileRunner();
+        boolean running = runner.isRunning();
+        btnRun.setEnabled(!running);
+        btnStop.setEnabled(running);
+        etProfile.setEnabled(!running);
+
+        InfusionProfile profile = runner.getProfile();
+        if (running && profile != null) {
+            tvProgress.setText(getString(R.string.profile_progress,
+                    runner.getCurrentSegment() + 1, profile.getSegments().size(),
+                    formatTime(runner.getElapsedMillis()), formatTime(profile.getTotalMillis())));
+        } else {
+            tvProgress.setText(R.string.profile_idle);
+        }
+        int commands = runner.getTimings().size();
+        if (commands > 0) {
+            tvTiming.setText(getString(R.string.profile_timing, commands,
+                    runner.getMeanLatenessNanos() / 1e6, runner.getMaxLatenessNanos() / 1e6,
+                    runner.getWallClockDriftMillis()));
+        } else {
+            tvTiming.setText("");
+        }
+    }
+
+    private static String formatTime(long millis) {
+        long seconds = millis / 1000;
+        return String.format("%02d:%02d", seconds / 60, seconds % 60);
+    }
+
+    @Override
+    protected void onResume() {
+        super.onResume();
+        mainHandler.post(refresh);
+    }
+
+    @Override
+    protected void onPause() {
+        super.onPause();
+        mainHandler.removeCallbacks(refresh);
+    }
+
+    @Override
+    public boolean onSupportNavigateUp() {
+        onBackPressed();
+        return true;
+    }
+}
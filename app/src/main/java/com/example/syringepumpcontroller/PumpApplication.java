@@ -0,0 +1,119 @@
+package com.example.syringepumpcontroller;
+
+import android.app.Application;
+import android.util.Log;
+
+import com.example.syringepumpcontroller.acquisition.AcquisitionController;
+import com.example.syringepumpcontroller.acquisition.PumpManager;
+import com.example.syringepumpcontroller.data.SampleBuffer;
+import com.example.syringepumpcontroller.dsp.AlarmStage;
+import com.example.syringepumpcontroller.dsp.MedianFilter;
+import com.example.syringepumpcontroller.dsp.MovingAverage;
+import com.example.syringepumpcontroller.dsp.RollingStats;
+import com.example.syringepumpcontroller.dsp.SignalPipeline;
+import com.example.syringepumpcontroller.dsp.SlopeAlarm;
+import com.example.syringepumpcontroller.dsp.ThresholdAlarm;
+import com.example.syringepumpcontroller.metrics.RateLimitedLog;
+import com.example.syringepumpcontroller.serial.UsbDeviceConnector;
+import com.example.syringepumpcontroller.storage.MeasurementLog;
+
+import java.io.File;
+
+public class PumpApplication extends Application {
+
+    // Pompa başına 131072 örnek: 10 Hz'de ~3.6 saat, 1 kHz'de ~2 dakika (yüksek yoğunluklu
+    // grafiğin 120 s penceresi); ~1.5 MB sabit bellek
+    private static final int SAMPLE_BUFFER_CAPACITY = 1 << 17;
+    private static final int FILTERED_BUFFER_CAPACITY = 1 << 12;
+
+    // Varsayılan alarm sınırları (V, V/s); sensör kalibrasyonuna göre ayarlanmalıdır
+    private static final double OCCLUSION_VOLTS = 4.5;
+    private static final double PRESSURE_SLOPE_VOLTS_PER_SECOND = 1.0;
+
+    // Pompa 1'in örneklerinin ve komutlarının kalıcı günlüğü
+    private MeasurementLog measurementLog;
+
+    // Pompaların seri bağlantıları ve örnek akışları; ekran dönmesi veya ekran geçişlerinden etkilenmez
+    private PumpManager pumpManager;
+    private UsbDeviceConnector usbDeviceConnector;
+
+    // Kontrol, grafik ve gecikme ekranlarının gösterdiği pompa
+    private volatile PumpManager.Pump selectedPump;
+
+    @Override
+    public void onCreate() {
+        // Açılıştan ilk örneğe kadar geçen süre buradan ölçülür
+        long startNanos = System.nanoTime();
+        super.onCreate();
+
+        // Hız sınırlı sıcak yol günlükleri Logcat'e gider
+        RateLimitedLog.setSink(Log::i);
+
+        // Kurtarma ve yazma işlemleri günlüğün kendi iş parçacığında yapılır
+        measurementLog = new MeasurementLog(new File(getFilesDir(), "measurements"));
+        measurementLog.open();
+
+        pumpManager = new PumpManager(SAMPLE_BUFFER_CAPACITY, measurementLog);
+        selectedPump = pumpManager.getPrimary();
+        // Her pompa açıldığında kendi sinyal hattını alır
+        pumpManager.addListener(pumps -> {
+            for (PumpManager.Pump pump : pumps) {
+                AcquisitionController controller = pump.getController();
+                if (controller.getSignalPipeline() == null) {
+                    controller.setSignalPipeline(createSignalPipeline());
+                }
+            }
+        }, Runnable::run);
+        usbDeviceConnector = new UsbDeviceConnector(this, pumpManager);
+        usbDeviceConnector.start(startNanos);
+    }
+
+    /**
+     * Sıçrama ayıklama → yumuşatma → istatistik → alarmlar. Pencereler örnek sayısıdır; varsayılan
+     * 10 Hz akışta ortalama 0.4 s, istatistik 10 s, eğim 1 s'lik pencerededir.
+     */
+    private SignalPipeline createSignalPipeline() {
+        return new SignalPipeline(new SampleBuffer(FILTERED_BUFFER_CAPACITY),
+                new MedianFilter(5, 0.25),
+                new MovingAverage(4),
+                new RollingStats(100, 5),
+                new ThresholdAlarm(getString(R.string.alarm_occlusion), AlarmStage.Action.STOP_PUMP,
+                        Double.NaN, OCCLUSION_VOLTS, 0.2, 5),
+                new SlopeAlarm(getString(R.string.alarm_pressure_slope), AlarmStage.Action.NOTIFY, 10,
+                        -PRESSURE_SLOPE_VOLTS_PER_SECOND, PRESSURE_SLOPE_VOLTS_PER_SECOND, 3));
+    }
+
+    public PumpManager getPumpManager() {
+        return pumpManager;
+    }
+
+    // Seçili pompa çıkarıldıysa pompa 1'e dönülür
+    public PumpManager.Pump getSelectedPump() {
+        PumpManager.Pump pump = selectedPump;
+        if (pumpManager.getPump(pump.getNumber()) != pump) {
+            pump = pumpManager.getPrimary();
+            selectedPump = pump;
+        }
+        return pump;
+    }
+
+    public void selectPump(PumpManager.Pump pump) {
+        selectedPump = pump;
+    }
+
+    public SampleBuffer getSampleBuffer() {
+        return getSelectedPump().getSampleBuffer();
+    }
+
+    public MeasurementLog getMeasurementLog() {
+        return measurementLog;
+    }
+
+    public AcquisitionController getAcquisitionController() {
+        return getSelectedPump().getController();
+    }
+
+    public UsbDeviceConnector getUsbDeviceConnector() {
+        return usbDeviceConnector;
+    }
+}
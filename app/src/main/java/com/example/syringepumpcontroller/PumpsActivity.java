@@ -0,0 +1,180 @@
+package com.example.syringepumpcontroller;
+
+import androidx.appcompat.app.AppCompatActivity;
+import androidx.appcompat.widget.Toolbar;
+import androidx.core.content.ContextCompat;
+
+import android.content.Intent;
+import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.SparseArray;
+import android.widget.Button;
+import android.widget.LinearLayout;
+import android.widget.TextView;
+
+import com.example.syringepumpcontroller.acquisition.AcquisitionController;
+import com.example.syringepumpcontroller.acquisition.AcquisitionController.ConnectionState;
+import com.example.syringepumpcontroller.acquisition.PumpManager;
+import com.example.syringepumpcontroller.acquisition.PumpState;
+
+import java.util.List;
+
+/**
+ * Tüm pompaların toplu ve pompa başına görünümü. Satıra dokunulan pompa kontrol, grafik ve
+ * gecikme ekranlarında seçilir.
+ */
+public class PumpsActivity extends AppCompatActivity {
+
+    private static final long REFRESH_MS = 500;
+
+    private PumpApplication app;
+    private PumpManager pumpManager;
+    private TextView tvSummary;
+    private LinearLayout pumpRows;
+    private List<PumpManager.Pump> pumps;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    // Örnek hızı için pompa numarasına göre önceki örnek sayısı
+    private final SparseArray<Long> lastSampleCounts = new SparseArray<>();
+    private long lastRefreshMillis;
+
+    private final Runnable refresh = new Runnable() {
+        @Override
+        public void run() {
+            updateRows();
+            mainHandler.postDelayed(this, REFRESH_MS);
+        }
+    };
+
+    private final PumpManager.Listener pumpsListener = new PumpManager.Listener() {
+        @Override
+        public void onPumpsChanged(List<PumpManager.Pump> current) {
+            pumps = current;
+            buildRows();
+            updateRows();
+        }
+    };
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setContentView(R.layout.activity_pumps);
+
+        // Toolbar'ı ayarla
+        Toolbar toolbar = findViewById(R.id.toolbar_pumps);
+        setSupportActionBar(toolbar);
+        getSupportActionBar().setTitle(R.string.pumps_title);
+        getSupportActionBar().setDisplayHomeAsUpEnabled(true);
+        getSupportActionBar().setDisplayShowHomeEnabled(true);
+
+        toolbar.setNavigationOnClickListener(v -> onBackPressed());
+
+        app = (PumpApplication) getApplication();
+        pumpManager = app.getPumpManager();
+        tvSummary = findViewById(R.id.tvPumpsSummary);
+        pumpRows = findViewById(R.id.pumpRows);
+
+        Button btnStopAll = findViewById(R.id.btnStopAll);
+        btnStopAll.setOnClickListener(v -> pumpManager.stopAll());
+    }
+
+    // Pompa listesi değişince satırlar yeniden oluşturulur; metinler periyodik güncellenir
+    private void buildRows() {
+        pumpRows.removeAllViews();
+        int padding = (int) (8 * getResources().getDisplayMetrics().density);
+        for (final PumpManager.Pump pump : pumps) {
+            TextView row = new TextView(this);
+            row.setPadding(padding, padding, padding, padding);
+            row.setTextSize(14);
+            row.setOnClickListener(v -> {
+                app.selectPump(pump);
+                Intent intent = new Intent(this, MainActivity.class);
+                intent.addFlags(Intent.FLAG_ACTIVITY_CLEAR_TOP | Intent.FLAG_ACTIVITY_SINGLE_TOP);
+                startActivity(intent);
+                finish();
+            });
+            pumpRows.addView(row);
+        }
+    }
+
+    private void updateRows() {
+        if (pumps == null) {
+            return;
+        }
+        long now = SystemClock.elapsedRealtime();
+        double seconds = lastRefreshMillis == 0 ? 0 : (now - lastRefreshMillis) / 1000.0;
+        lastRefreshMillis = now;
+
+        int connected = 0;
+        long totalSamples = 0;
+        double totalRate = 0;
+        PumpManager.Pump selected = app.getSelectedPump();
+        for (int i = 0; i < pumps.size() && i < pumpRows.getChildCount(); i++) {
+            PumpManager.Pump pump = pumps.get(i);
+            AcquisitionController controller = pump.getController();
+            long samples = pump.getSampleBuffer().getHeadSequence();
+            Long previous = lastSampleCounts.get(pump.getNumber());
+            double rate = previous == null || seconds == 0 ? 0 : (samples - previous) / seconds;
+            lastSampleCounts.put(pump.getNumber(), samples);
+
+            ConnectionState state = controller.getConnectionState();
+            if (state == ConnectionState.CONNECTED) {
+                connected++;
+            }
+            totalSamples += samples;
+            totalRate += rate;
+
+            PumpState pumpState = controller.getPumpState();
+            float latest = pump.getSampleBuffer().latestValue();
+            TextView row = (TextView) pumpRows.getChildAt(i);
+            row.setText(getString(R.string.pump_row,
+                    pump.getNumber(),
+                    connectionLabel(state),
+                    getString(pumpState.running ? R.string.pump_state_running : R.string.pump_state_stopped),
+                    pumpState.speed,
+                    getString(pumpState.forward ? R.string.pump_direction_forward : R.string.pump_direction_reverse),
+                    rate,
+                    Float.isNaN(latest) ? 0f : latest));
+            row.setTextColor(ContextCompat.getColor(this, pump == selected
+                    ? android.R.color.holo_blue_dark : android.R.color.black));
+        }
+        tvSummary.setText(getString(R.string.pumps_summary, connected, pumps.size(), totalRate, totalSamples));
+    }
+
+    private String connectionLabel(ConnectionState state) {
+        switch (state) {
+            case CONNECTED:
+                return getString(R.string.connection_status_connected);
+            case NO_DEVICE:
+                return getString(R.string.connection_status_no_device);
+            case PERMISSION_DENIED:
+                return getString(R.string.connection_status_permission_denied);
+            case RECONNECTING:
+                return getString(R.string.connection_status_reconnecting);
+            default:
+                return getString(R.string.connection_status_disconnected);
+        }
+    }
+
+    @Override
+    protected void onResume() {
+        super.onResume();
+        pumpManager.addListener(pumpsListener, ContextCompat.getMainExecutor(this));
+        mainHandler.post(refresh);
+    }
+
+    @Override
+    protected void onPause() {
+        super.onPause();
+        pumpManager.removeListener(pumpsListener);
+        mainHandler.removeCallbacks(refresh);
+    }
+
+    @Override
+    public boolean onSupportNavigateUp() {
+        onBackPressed();
+        return true;
+    }
+}
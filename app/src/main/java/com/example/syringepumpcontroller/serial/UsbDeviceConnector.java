@@ -0,0 +1,385 @@
+package com.example.syringepumpcontroller.serial;
+
+import android.app.PendingIntent;
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.content.SharedPreferences;
+import android.hardware.usb.UsbDevice;
+import android.hardware.usb.UsbDeviceConnection;
+import android.hardware.usb.UsbManager;
+import android.os.Build;
+import android.util.Log;
+
+import com.example.syringepumpcontroller.acquisition.AcquisitionController;
+import com.example.syringepumpcontroller.acquisition.AcquisitionController.ConnectionState;
+import com.example.syringepumpcontroller.acquisition.PumpManager;
+import com.example.syringepumpcontroller.acquisition.PumpState;
+import com.example.syringepumpcontroller.acquisition.ReconnectBackoff;
+import com.example.syringepumpcontroller.command.CommandTracker;
+import com.example.syringepumpcontroller.metrics.Metrics;
+import com.felhr.usbserial.UsbSerialDevice;
+import com.felhr.usbserial.UsbSerialInterface;
+
+import java.io.File;
+import java.io.IOException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * USB cihaz keşfi, izin isteği ve takma/çıkarma olaylarını uygulama bağlamında yönetir.
+ * Hub üzerindeki her cihaz bir pompaya atanır ve açılan port o pompanın denetleyicisine
+ * devredilir; böylece bağlantılar hiçbir Activity'nin yaşam döngüsüne bağlı kalmaz.
+ *
+ * Port açma ve yapılandırma (openDevice, CDC/FTDI kontrol aktarımları) ana iş parçacığını
+ * bekletmemek için ayrı bir iş parçacığında yapılır. Daha önce bağlanılmış cihazlar
+ * ({@link KnownDevices}) saklanır ve taramada önce denenir; izni zaten verilmiş cihazlar için
+ * izin penceresi beklenmeden doğrudan açılır. Çıkarılan cihaz hemen bırakılmaz: pompa yeniden
+ * oynatma penceresi boyunca ayrılmış kalır, cihaz geri takılırsa aynı pompaya bağlanır.
+ */
+public class UsbDeviceConnector {
+
+    private static final String TAG = "SyringePumpController";
+    private static final String ACTION_USB_PERMISSION = "com.example.syringepumpcontroller.USB_PERMISSION";
+    private static final String PREFERENCES = "usb_devices";
+    private static final String KEY_KNOWN_DEVICES = "known_devices";
+    // Ham seri kayıtları; en yeni CAPTURES_KEPT oturum saklanır
+    private static final String CAPTURE_DIRECTORY = "captures";
+    private static final String CAPTURE_SUFFIX = ".spr";
+    private static final int CAPTURES_KEPT = 5;
+
+    private final Context context;
+    private final PumpManager pumpManager;
+    private final UsbManager usbManager;
+    private final SharedPreferences preferences;
+    // Port açma işleri sıralı yürür; ana iş parçacığı yalnızca olayları buraya aktarır
+    private final ScheduledExecutorService bringUp = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "UsbBringUp");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Aşağıdakiler yalnızca bringUp iş parçacığında kullanılır
+    private KnownDevices knownDevices;
+    // Aygıt yolu -> pompa anahtarı; çıkarma olayında seri numarası okunamayabilir
+    private final Map<String, String> deviceKeys = new HashMap<>();
+    // İzin penceresi açık olan aygıt yolları; aynı cihaz için ikinci kez izin istenmez
+    private final Set<String> permissionRequested = new HashSet<>();
+    private final Map<String, ReconnectBackoff> backoffs = new HashMap<>();
+    // İzlenen denetleyici -> şu an bağlı olduğu aygıt yolu
+    private final Map<AcquisitionController, String> watched = new HashMap<>();
+    // Uygulama açılışı; açılıştaki ilk bağlantıda ilk örneğe kadar geçen süre buradan ölçülür
+    private long startNanos;
+    private boolean firstConnection = true;
+
+    public UsbDeviceConnector(Context context, PumpManager pumpManager) {
+        this.context = context.getApplicationContext();
+        this.pumpManager = pumpManager;
+        this.usbManager = (UsbManager) this.context.getSystemService(Context.USB_SERVICE);
+        this.preferences = this.context.getSharedPreferences(PREFERENCES, Context.MODE_PRIVATE);
+    }
+
+    /**
+     * @param startNanos uygulamanın açıldığı an ({@link System#nanoTime()})
+     */
+    public void start(final long startNanos) {
+        // USB algılama işleyiciyi kaydet
+        IntentFilter filter = new IntentFilter();
+        filter.addAction(ACTION_USB_PERMISSION);
+        filter.addAction(UsbManager.ACTION_USB_DEVICE_ATTACHED);
+        filter.addAction(UsbManager.ACTION_USB_DEVICE_DETACHED);
+        context.registerReceiver(usbReceiver, filter, Context.RECEIVER_NOT_EXPORTED);
+
+        // Bilinen cihazlar ve tarama açılışı bekletmez
+        bringUp.execute(() -> {
+            this.startNanos = startNanos;
+            knownDevices = KnownDevices.parse(preferences.getString(KEY_KNOWN_DEVICES, null),
+                    KnownDevices.DEFAULT_CAPACITY);
+            scan();
+        });
+    }
+
+    // Henüz bir pompaya atanmamış USB seri cihazlarını bağlar
+    public void findSerialPortDevice() {
+        bringUp.execute(this::scan);
+    }
+
+    private void scan() {
+        HashMap<String, UsbDevice> usbDevices = usbManager.getDeviceList();
+        List<UsbDevice> candidates = new ArrayList<>();
+        for (UsbDevice device : usbDevices.values()) {
+            String key = deviceKeys.get(device.getDeviceName());
+            if (key != null && pumpManager.findByDevice(key) != null) {
+                continue; // Zaten bağlı
+            }
+            // Sürücüsü olmayan cihazlar (klavye, depolama) için izin istenmez
+            if (!UsbSerialDevice.isSupported(device)) {
+                continue;
+            }
+            candidates.add(device);
+        }
+        if (candidates.isEmpty()) {
+            if (deviceKeys.isEmpty()) {
+                Log.d(TAG, "USB cihazı bulunamadı");
+                pumpManager.getPrimary().getController().reportUnavailable(ConnectionState.NO_DEVICE);
+            }
+            return;
+        }
+
+        // Son kullanılan cihazlar önce; bilinmeyenler en sonda
+        Collections.sort(candidates, (a, b) -> Integer.compare(rankOf(a), rankOf(b)));
+        for (UsbDevice device : candidates) {
+            Log.d(TAG, "USB cihazı bulundu: " + device.getDeviceName() +
+                    " VID: " + device.getVendorId() +
+                    " PID: " + device.getProductId());
+            if (usbManager.hasPermission(device)) {
+                connectToSerialPort(device, startNanos());
+            } else {
+                requestPermission(device);
+            }
+        }
+    }
+
+    private int rankOf(UsbDevice device) {
+        // İzin öncesi seri numarası okunamaz; VID/PID ile eşleştirilir
+        int rank = knownDevices.rank(device.getVendorId(), device.getProductId(), null);
+        return rank < 0 ? Integer.MAX_VALUE : rank;
+    }
+
+    private void requestPermission(UsbDevice device) {
+        if (!permissionRequested.add(device.getDeviceName())) {
+            return;
+        }
+        // USB izni iste (PendingIntent mutability flag için)
+        int flags = PendingIntent.FLAG_UPDATE_CURRENT;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.S) {
+            flags |= PendingIntent.FLAG_IMMUTABLE;
+        }
+        PendingIntent pendingIntent = PendingIntent.getBroadcast(
+                context, 0, new Intent(ACTION_USB_PERMISSION), flags);
+        usbManager.requestPermission(device, pendingIntent);
+    }
+
+    // Açılıştaki ilk bağlantı uygulama açılışından, sonrakiler port açma isteğinden ölçülür
+    private long startNanos() {
+        if (firstConnection) {
+            firstConnection = false;
+            return startNanos;
+        }
+        return System.nanoTime();
+    }
+
+    // Seri porta bağlan; bringUp iş parçacığında. Port açılamazsa false döner
+    private boolean connectToSerialPort(UsbDevice device, long originNanos) {
+        long openStart = System.nanoTime();
+        UsbDeviceConnection connection = usbManager.openDevice(device);
+        if (connection == null) {
+            Log.e(TAG, "USB bağlantısı açılamadı");
+            return false;
+        }
+
+        UsbSerialDevice serialPort = UsbSerialDevice.createUsbSerialDevice(device, connection);
+        if (serialPort == null) {
+            Log.e(TAG, "Seri port oluşturulamadı");
+            connection.close();
+            return false;
+        }
+
+        if (!serialPort.open()) {
+            Log.e(TAG, "Seri port açılamadı");
+            connection.close();
+            return false;
+        }
+
+        // Seri port ayarları
+        serialPort.setBaudRate(115200); // ESP32 ile 115200 yaygın kullanılır
+        serialPort.setDataBits(UsbSerialInterface.DATA_BITS_8);
+        serialPort.setStopBits(UsbSerialInterface.STOP_BITS_1);
+        serialPort.setParity(UsbSerialInterface.PARITY_NONE);
+        serialPort.setFlowControl(UsbSerialInterface.FLOW_CONTROL_OFF);
+        Metrics.USB_OPEN_TIME.record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - openStart));
+
+        DeviceIdentity identity = identityOf(device);
+        if (knownDevices.remember(identity)) {
+            preferences.edit().putString(KEY_KNOWN_DEVICES, knownDevices.serialize()).apply();
+        }
+        // Seri numarası varsa cihaz farklı bir porta takılsa da aynı pompaya döner
+        String key = identity.hasSerialNumber() ? identity.key() : device.getDeviceName();
+        deviceKeys.put(device.getDeviceName(), key);
+        permissionRequested.remove(device.getDeviceName());
+
+        PumpManager.Pump pump = pumpManager.attach(key);
+        Log.d(TAG, "Seri port bağlantısı başarılı: pompa " + pump.getNumber());
+        watch(pump, device.getDeviceName());
+        pump.getController().connect(recordingOf(new UsbSerialTransport(serialPort), pump), originNanos);
+        return true;
+    }
+
+    // Oturumun ham baytlarını sonradan ReplayTransport ile oynatmak için kaydeder
+    private SerialTransport recordingOf(SerialTransport transport, PumpManager.Pump pump) {
+        File directory = new File(context.getFilesDir(), CAPTURE_DIRECTORY);
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            Log.e(TAG, "Kayıt klasörü oluşturulamadı: " + directory);
+            return transport;
+        }
+        pruneCaptures(directory, CAPTURES_KEPT - 1);
+        String name = new SimpleDateFormat("yyyyMMdd-HHmmss", Locale.US).format(new Date())
+                + "-pompa" + pump.getNumber() + CAPTURE_SUFFIX;
+        try {
+            return new RecordingTransport(transport, new CaptureWriter(new File(directory, name)));
+        } catch (IOException e) {
+            // Kayıt açılamazsa bağlantı kayıtsız sürer
+            Log.e(TAG, "Seri kayıt açılamadı", e);
+            return transport;
+        }
+    }
+
+    private static void pruneCaptures(File directory, int keep) {
+        File[] captures = directory.listFiles((dir, name) -> name.endsWith(CAPTURE_SUFFIX));
+        if (captures == null || captures.length <= keep) {
+            return;
+        }
+        // Adlar zaman damgasıyla başlar; sıralama en eskiyi öne alır
+        Arrays.sort(captures);
+        for (int i = 0; i < captures.length - keep; i++) {
+            if (!captures[i].delete()) {
+                Log.w(TAG, "Eski kayıt silinemedi: " + captures[i]);
+            }
+        }
+    }
+
+    private static DeviceIdentity identityOf(UsbDevice device) {
+        String serialNumber = null;
+        try {
+            serialNumber = device.getSerialNumber();
+        } catch (SecurityException e) {
+            // Android 10+: izin olmadan okunamaz
+        }
+        return new DeviceIdentity(device.getVendorId(), device.getProductId(), serialNumber);
+    }
+
+    /**
+     * Cihaz takılıyken port koparsa (ör. sürücü hatası) aynı cihaz artan aralıklarla yeniden
+     * açılır. Cihaz çıkarıldıysa yeniden açma takma olayına bırakılır.
+     */
+    private void watch(PumpManager.Pump pump, String deviceName) {
+        final AcquisitionController controller = pump.getController();
+        if (watched.put(controller, deviceName) != null) {
+            return;
+        }
+        controller.addListener(new AcquisitionController.Listener() {
+            @Override
+            public void onConnectionStateChanged(ConnectionState state) {
+                String deviceName = watched.get(controller);
+                if (state == ConnectionState.CONNECTED) {
+                    ReconnectBackoff backoff = backoffs.get(deviceName);
+                    if (backoff != null) {
+                        backoff.reset();
+                    }
+                } else if (state == ConnectionState.RECONNECTING) {
+                    scheduleReopen(deviceName);
+                }
+            }
+
+            @Override
+            public void onPumpStateChanged(PumpState state) {
+            }
+
+            @Override
+            public void onCommandFailed(String command, CommandTracker.Outcome outcome, int code) {
+            }
+        }, bringUp);
+    }
+
+    private void scheduleReopen(final String deviceName) {
+        ReconnectBackoff backoff = backoffs.get(deviceName);
+        if (backoff == null) {
+            backoff = new ReconnectBackoff();
+            backoffs.put(deviceName, backoff);
+        }
+        long delay = backoff.nextDelayMillis();
+        bringUp.schedule(() -> {
+            UsbDevice device = usbManager.getDeviceList().get(deviceName);
+            String key = deviceKeys.get(deviceName);
+            if (device == null || key == null) {
+                return;
+            }
+            PumpManager.Pump pump = pumpManager.findByDevice(key);
+            if (pump == null || pump.getController().getConnectionState() != ConnectionState.RECONNECTING) {
+                return;
+            }
+            Metrics.RECONNECT_ATTEMPTS.increment();
+            Log.d(TAG, "Port yeniden açılıyor: " + deviceName);
+            if (!connectToSerialPort(device, System.nanoTime())) {
+                scheduleReopen(deviceName);
+            }
+        }, delay, TimeUnit.MILLISECONDS);
+    }
+
+    // USB olayları için alıcı; işler bringUp iş parçacığına aktarılır
+    private final BroadcastReceiver usbReceiver = new BroadcastReceiver() {
+        @Override
+        public void onReceive(Context context, Intent intent) {
+            String action = intent.getAction();
+            final UsbDevice usbDevice = intent.getParcelableExtra(UsbManager.EXTRA_DEVICE);
+            final long receivedNanos = System.nanoTime();
+
+            if (ACTION_USB_PERMISSION.equals(action)) {
+                final boolean granted = intent.getBooleanExtra(UsbManager.EXTRA_PERMISSION_GRANTED, false);
+                bringUp.execute(() -> {
+                    if (usbDevice != null) {
+                        permissionRequested.remove(usbDevice.getDeviceName());
+                    }
+                    if (granted) {
+                        if (usbDevice != null) {
+                            // İzin verildi, seri porta bağlan
+                            Log.d(TAG, "USB izni verildi. Bağlanıyor...");
+                            connectToSerialPort(usbDevice, startNanos());
+                        }
+                    } else {
+                        Log.d(TAG, "USB izni reddedildi");
+                        pumpManager.getPrimary().getController().reportUnavailable(ConnectionState.PERMISSION_DENIED);
+                    }
+                });
+            } else if (UsbManager.ACTION_USB_DEVICE_ATTACHED.equals(action)) {
+                // USB cihazı takıldı; ilk örneğe kadar geçen süre takma anından ölçülür
+                Log.d(TAG, "USB cihazı takıldı");
+                bringUp.execute(() -> {
+                    if (usbDevice != null && usbManager.hasPermission(usbDevice)
+                            && UsbSerialDevice.isSupported(usbDevice)) {
+                        connectToSerialPort(usbDevice, receivedNanos);
+                    } else {
+                        scan();
+                    }
+                });
+            } else if (UsbManager.ACTION_USB_DEVICE_DETACHED.equals(action)) {
+                // USB cihazı çıkarıldı; pompa yeniden takılma için bir süre ayrılmış kalır
+                Log.d(TAG, "USB cihazı çıkarıldı");
+                if (usbDevice != null) {
+                    bringUp.execute(() -> {
+                        String deviceName = usbDevice.getDeviceName();
+                        String key = deviceKeys.remove(deviceName);
+                        permissionRequested.remove(deviceName);
+                        backoffs.remove(deviceName);
+                        if (key != null) {
+                            pumpManager.suspend(key);
+                        }
+                    });
+                }
+            }
+        }
+    };
+}
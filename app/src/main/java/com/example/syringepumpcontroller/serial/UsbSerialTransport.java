@@ -0,0 +1,58 @@
+package com.example.syringepumpcontroller.serial;
+
+import com.example.syringepumpcontroller.command.CommandScheduler;
+import com.felhr.usbserial.UsbSerialDevice;
+
+import java.util.Arrays;
+
+/**
+ * felhr UsbSerialDevice için SerialTransport uyarlayıcısı.
+ * Port açılmış ve yapılandırılmış olarak verilmelidir.
+ */
+public class UsbSerialTransport implements SerialTransport {
+
+    private final UsbSerialDevice serialPort;
+    private volatile Listener listener;
+    // felhr write(byte[]) tüm diziyi yazar ve baytları kendi tamponuna kopyalar; dilimler için
+    // her uzunlukta tek bir dizi saklanır, böylece komut yığınlarının yazılması bellek ayırmaz
+    private final byte[][] exactBuffers = new byte[CommandScheduler.MAX_BATCH_BYTES + 1][];
+
+    public UsbSerialTransport(UsbSerialDevice serialPort) {
+        this.serialPort = serialPort;
+        this.serialPort.read(data -> {
+            Listener current = listener;
+            if (current != null && data != null && data.length > 0) {
+                current.onData(data, 0, data.length);
+            }
+        });
+    }
+
+    @Override
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    @Override
+    public void write(byte[] data, int offset, int length) {
+        if (offset == 0 && length == data.length) {
+            serialPort.write(data);
+        } else if (length >= exactBuffers.length) {
+            serialPort.write(Arrays.copyOfRange(data, offset, offset + length));
+        } else {
+            synchronized (exactBuffers) {
+                byte[] exact = exactBuffers[length];
+                if (exact == null) {
+                    exact = new byte[length];
+                    exactBuffers[length] = exact;
+                }
+                System.arraycopy(data, offset, exact, 0, length);
+                serialPort.write(exact);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        serialPort.close();
+    }
+}
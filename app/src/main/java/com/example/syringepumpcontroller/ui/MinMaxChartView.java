@@ -0,0 +1,247 @@
+package com.example.syringepumpcontroller.ui;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Looper;
+import android.os.Process;
+import android.util.AttributeSet;
+import android.view.Choreographer;
+import android.view.View;
+
+import com.example.syringepumpcontroller.data.ColumnAggregator;
+import com.example.syringepumpcontroller.data.SampleBuffer;
+import com.example.syringepumpcontroller.metrics.Metrics;
+
+/**
+ * Yüksek yoğunluklu canlı grafik. Görünen pencere arka plan iş parçacığında piksel sütunu
+ * başına ilk/min/maks/son noktalara seyreltilir ({@link ColumnAggregator}) ve tek bir
+ * {@link Path} olarak hazırlanır; UI iş parçacığı yalnızca eksenleri ve hazır yolu çizer.
+ * Böylece kare süresi görünen örnek sayısından bağımsızdır.
+ *
+ * İki kare arasında çift tamponlama yapılır: çizim iş parçacığı yalnızca gösterilmeyen kareyi
+ * doldurur, aynı anda en fazla bir çizim işi bekler ve kareler UI iş parçacığında değiştirilir.
+ */
+public class MinMaxChartView extends View {
+
+    private static final float Y_MIN = 0f;
+    private static final float Y_MAX = 5f; // Arduino analog giriş için 0-5V
+    private static final int Y_LABELS = 5;
+    private static final int X_LABELS = 10;
+
+    // Arka planda hazırlanan kare; alanlarına yalnızca sahibi olan iş parçacığı dokunur
+    private static final class Frame {
+        final Path path = new Path();
+        long fromMillis;
+        long toMillis;
+        int sampleCount;
+    }
+
+    private final Frame[] frames = {new Frame(), new Frame()};
+    private int displayed;
+    private boolean renderPending;
+
+    private SampleBuffer sampleBuffer;
+    private long windowMillis = 20_000;
+    // X ekseninin başlangıcı (ilk gösterilen örneğin zamanı, ms)
+    private long originMillis = -1;
+    private long renderedHead = -1;
+    private int renderedWidth;
+
+    private HandlerThread renderThread;
+    private Handler renderHandler;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    // Yalnızca çizim iş parçacığında kullanılır
+    private SampleBuffer.Snapshot snapshot;
+    private ColumnAggregator aggregator;
+    private float[] polyline;
+
+    private final Paint linePaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint gridPaint = new Paint();
+    private final Paint labelPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final float density;
+
+    private final Choreographer.FrameCallback frameCallback = new Choreographer.FrameCallback() {
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            requestRenderIfStale();
+            Choreographer.getInstance().postFrameCallback(this);
+        }
+    };
+
+    public MinMaxChartView(Context context) {
+        this(context, null);
+    }
+
+    public MinMaxChartView(Context context, AttributeSet attrs) {
+        super(context, attrs);
+        density = getResources().getDisplayMetrics().density;
+        linePaint.setColor(Color.BLUE);
+        linePaint.setStyle(Paint.Style.STROKE);
+        linePaint.setStrokeWidth(density);
+        gridPaint.setColor(Color.LTGRAY);
+        gridPaint.setStrokeWidth(1f);
+        labelPaint.setColor(Color.DKGRAY);
+        labelPaint.setTextSize(11 * density);
+    }
+
+    public void setSampleBuffer(SampleBuffer sampleBuffer) {
+        this.sampleBuffer = sampleBuffer;
+        renderedHead = -1;
+    }
+
+    public void setWindowMillis(long windowMillis) {
+        this.windowMillis = windowMillis;
+        renderedHead = -1;
+    }
+
+    public void setOriginMillis(long originMillis) {
+        this.originMillis = originMillis;
+        invalidate();
+    }
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        renderThread = new HandlerThread("ChartRender", Process.THREAD_PRIORITY_DISPLAY);
+        renderThread.start();
+        renderHandler = new Handler(renderThread.getLooper());
+        Choreographer.getInstance().postFrameCallback(frameCallback);
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        Choreographer.getInstance().removeFrameCallback(frameCallback);
+        // Bekleyen çizim işi varsa biter; sonucu gelene kadar yeni iş başlatılmaz, böylece
+        // yeniden eklenince iki iş parçacığı aynı kareye yazmaz
+        renderThread.quitSafely();
+        renderThread = null;
+        renderHandler = null;
+        super.onDetachedFromWindow();
+    }
+
+    @Override
+    protected void onVisibilityChanged(View changedView, int visibility) {
+        super.onVisibilityChanged(changedView, visibility);
+        // Gizliyken çizim işi başlatılmaz; görününce güncel kare hemen istenir
+        renderedHead = -1;
+    }
+
+    private float plotLeft() {
+        return 40 * density;
+    }
+
+    private float plotBottom() {
+        return getHeight() - 20 * density;
+    }
+
+    private float plotTop() {
+        return 8 * density;
+    }
+
+    private void requestRenderIfStale() {
+        if (renderPending || renderHandler == null || sampleBuffer == null || !isShown() || getWidth() == 0) {
+            return;
+        }
+        long head = sampleBuffer.getHeadSequence();
+        int width = getWidth();
+        if (head == renderedHead && width == renderedWidth) {
+            return;
+        }
+        renderedHead = head;
+        renderedWidth = width;
+        renderPending = true;
+        final int target = 1 - displayed;
+        final float left = plotLeft();
+        final float top = plotTop();
+        final float plotWidth = width - left - 8 * density;
+        final float plotHeight = plotBottom() - top;
+        final long window = windowMillis;
+        final SampleBuffer buffer = sampleBuffer;
+        renderHandler.post(() -> {
+            render(frames[target], buffer, window, left, top, plotWidth, plotHeight);
+            mainHandler.post(() -> {
+                displayed = target;
+                renderPending = false;
+                invalidate();
+            });
+        });
+    }
+
+    // Çizim iş parçacığında: pencereyi kopyalar, sütunlara seyreltir ve yolu yeniden kurar
+    private void render(Frame frame, SampleBuffer buffer, long window,
+                        float left, float top, float width, float height) {
+        long startNanos = System.nanoTime();
+        int columns = Math.max(1, (int) width);
+        if (snapshot == null) {
+            snapshot = new SampleBuffer.Snapshot(buffer.capacity());
+        }
+        if (aggregator == null || aggregator.getMaxColumns() < columns) {
+            aggregator = new ColumnAggregator(columns);
+            polyline = new float[columns * ColumnAggregator.FLOATS_PER_COLUMN];
+        }
+        buffer.snapshot(buffer.getOldestSequence(), snapshot);
+        frame.path.rewind();
+        frame.sampleCount = 0;
+        if (snapshot.count > 0) {
+            long to = snapshot.timestamps[snapshot.count - 1];
+            long from = to - window;
+            frame.fromMillis = from;
+            frame.toMillis = to;
+            frame.sampleCount = aggregator.aggregate(snapshot.timestamps, snapshot.values, 0, snapshot.count,
+                    from, to, columns);
+            int n = aggregator.toPolyline(polyline, left, top, width, height, Y_MIN, Y_MAX);
+            if (n > 0) {
+                frame.path.moveTo(polyline[0], polyline[1]);
+                for (int i = 2; i < n; i += 2) {
+                    frame.path.lineTo(polyline[i], polyline[i + 1]);
+                }
+            }
+        }
+        Metrics.CHART_RENDER_TIME.record((System.nanoTime() - startNanos) / 1000);
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        long startNanos = System.nanoTime();
+        super.onDraw(canvas);
+        Frame frame = frames[displayed];
+        float left = plotLeft();
+        float right = getWidth() - 8 * density;
+        float top = plotTop();
+        float bottom = plotBottom();
+
+        // Y ekseni: 0-5V, aynı "%.1fV" biçimi
+        for (int i = 0; i <= Y_LABELS; i++) {
+            float value = Y_MIN + (Y_MAX - Y_MIN) * i / Y_LABELS;
+            float y = bottom - (bottom - top) * i / Y_LABELS;
+            canvas.drawLine(left, y, right, y, gridPaint);
+            String label = String.format("%.1fV", value);
+            canvas.drawText(label, left - labelPaint.measureText(label) - 4 * density,
+                    y + labelPaint.getTextSize() / 3, labelPaint);
+        }
+
+        if (frame.sampleCount > 0) {
+            // X ekseni: başlangıçtan geçen saniye, "%.0fs" biçimi
+            long origin = originMillis >= 0 ? originMillis : frame.fromMillis;
+            float span = frame.toMillis - frame.fromMillis;
+            for (int i = 0; i <= X_LABELS; i++) {
+                float x = left + (right - left) * i / X_LABELS;
+                canvas.drawLine(x, top, x, bottom, gridPaint);
+                float seconds = (frame.fromMillis + span * i / X_LABELS - origin) / 1000f;
+                String label = String.format("%.0fs", seconds);
+                canvas.drawText(label, x - labelPaint.measureText(label) / 2,
+                        bottom + labelPaint.getTextSize() + 2 * density, labelPaint);
+            }
+            canvas.save();
+            canvas.clipRect(left, top, right, bottom);
+            canvas.drawPath(frame.path, linePaint);
+            canvas.restore();
+        }
+        Metrics.CHART_FRAME_TIME.record((System.nanoTime() - startNanos) / 1000);
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.syringepumpcontroller.ui;
+
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.example.syringepumpcontroller.R;
+import com.example.syringepumpcontroller.data.SampleBuffer;
+import com.example.syringepumpcontroller.data.SampleFormatter;
+
+import java.util.TimeZone;
+
+/**
+ * Ortak örnek deposunun son N örneğini gösteren, satır görünümlerini yeniden kullanan liste.
+ *
+ * Gösterilen pencere kendi ilkel halka dizilerinde tutulur; {@link #refresh()} yalnızca
+ * depodaki yeni örnekleri kopyalar ve eklenen/çıkarılan aralıkları bildirir.
+ * Satırlar char[] tamponlarına biçimlendirilir, bağlama sırasında nesne ayrılmaz.
+ */
+public class SensorSampleAdapter extends RecyclerView.Adapter<SensorSampleAdapter.ViewHolder> {
+
+    static class ViewHolder extends RecyclerView.ViewHolder {
+        final TextView tvTime;
+        final TextView tvVoltage;
+        final char[] timeChars = new char[SampleFormatter.TIME_LENGTH];
+        final char[] voltageChars = new char[24];
+
+        ViewHolder(View itemView) {
+            super(itemView);
+            tvTime = itemView.findViewById(R.id.tvSampleTime);
+            tvVoltage = itemView.findViewById(R.id.tvSampleVoltage);
+        }
+    }
+
+    private final SampleBuffer sampleBuffer;
+    private final SampleFormatter formatter = new SampleFormatter(TimeZone.getDefault());
+
+    // Gösterilen pencere (halka)
+    private final long[] timestamps;
+    private final float[] values;
+    private int start;
+    private int size;
+
+    private final SampleBuffer.Snapshot scratch;
+    private long nextSequence;
+
+    public SensorSampleAdapter(SampleBuffer sampleBuffer, int maxRows) {
+        this.sampleBuffer = sampleBuffer;
+        this.timestamps = new long[maxRows];
+        this.values = new float[maxRows];
+        this.scratch = new SampleBuffer.Snapshot(maxRows);
+        this.nextSequence = sampleBuffer.getOldestSequence();
+    }
+
+    /**
+     * Depodaki yeni örnekleri pencereye ekler. Ana iş parçacığında, kare başına en fazla bir kez
+     * çağrılmalıdır.
+     *
+     * @return yeni örnek eklendiyse true
+     */
+    public boolean refresh() {
+        if (sampleBuffer.getHeadSequence() == nextSequence) {
+            return false;
+        }
+        int capacity = values.length;
+        sampleBuffer.snapshot(nextSequence, capacity, scratch);
+        nextSequence = scratch.nextSequence();
+        int added = scratch.count;
+        if (added == 0) {
+            return false;
+        }
+
+        if (added >= capacity) {
+            // Pencerenin tamamı yenilendi
+            System.arraycopy(scratch.timestamps, added - capacity, timestamps, 0, capacity);
+            System.arraycopy(scratch.values, added - capacity, values, 0, capacity);
+            start = 0;
+            size = capacity;
+            notifyDataSetChanged();
+            return true;
+        }
+
+        int removed = Math.max(0, size + added - capacity);
+        start = (start + removed) % capacity;
+        size -= removed;
+        for (int i = 0; i < added; i++) {
+            int index = (start + size + i) % capacity;
+            timestamps[index] = scratch.timestamps[i];
+            values[index] = scratch.values[i];
+        }
+        size += added;
+
+        if (removed > 0) {
+            notifyItemRangeRemoved(0, removed);
+        }
+        notifyItemRangeInserted(size - added, added);
+        return true;
+    }
+
+    @NonNull
+    @Override
+    public ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        View view = LayoutInflater.from(parent.getContext())
+                .inflate(R.layout.item_sensor_sample, parent, false);
+        return new ViewHolder(view);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
+        int index = (start + position) % values.length;
+        int timeLength = formatter.formatTime(timestamps[index], holder.timeChars, 0);
+        holder.tvTime.setText(holder.timeChars, 0, timeLength);
+        int voltageLength = SampleFormatter.formatFixed(values[index], 2, holder.voltageChars, 0);
+        holder.tvVoltage.setText(holder.voltageChars, 0, voltageLength);
+    }
+
+    @Override
+    public int getItemCount() {
+        return size;
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.syringepumpcontroller.ui;
+
+import com.github.mikephil.charting.data.Entry;
+import com.github.mikephil.charting.data.LineDataSet;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Noktaları her güncellemede baştan dolduran, Entry nesnelerini yeniden kullanan veri seti.
+ *
+ * LineDataSet her ekleme/silmede tüm listeyi tarayarak min/maks hesaplar; burada min/maks
+ * doldurma sırasında hesaplanır ve {@link #calcMinMax()} boş bırakılır. Nokta sayısı
+ * kapasiteyle sınırlı olduğundan güncelleme maliyeti ve bellek kullanımı sabittir.
+ */
+public class WindowLineDataSet extends LineDataSet {
+
+    private final Entry[] pool;
+    private int count;
+    private float xMin;
+    private float xMax;
+    private float yMin;
+    private float yMax;
+
+    public WindowLineDataSet(String label, int capacity) {
+        super(new ArrayList<>(capacity), label);
+        pool = new Entry[capacity];
+        for (int i = 0; i < capacity; i++) {
+            pool[i] = new Entry();
+        }
+    }
+
+    public void beginUpdate() {
+        count = 0;
+        xMin = Float.MAX_VALUE;
+        xMax = -Float.MAX_VALUE;
+        yMin = Float.MAX_VALUE;
+        yMax = -Float.MAX_VALUE;
+    }
+
+    // Noktalar artan x sırasıyla eklenmelidir; kapasiteyi aşanlar yok sayılır
+    public void add(float x, float y) {
+        if (count == pool.length) {
+            return;
+        }
+        Entry entry = pool[count++];
+        entry.setX(x);
+        entry.setY(y);
+        xMin = Math.min(xMin, x);
+        xMax = Math.max(xMax, x);
+        yMin = Math.min(yMin, y);
+        yMax = Math.max(yMax, y);
+    }
+
+    public void endUpdate() {
+        List<Entry> values = getValues();
+        values.clear();
+        for (int i = 0; i < count; i++) {
+            values.add(pool[i]);
+        }
+        mXMin = xMin;
+        mXMax = xMax;
+        mYMin = yMin;
+        mYMax = yMax;
+    }
+
+    @Override
+    public void calcMinMax() {
+        // Min/maks endUpdate() içinde hesaplanır
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.syringepumpcontroller.acquisition;
+
+import com.example.syringepumpcontroller.command.CommandEncoder;
+import com.example.syringepumpcontroller.command.CommandTracker;
+import com.example.syringepumpcontroller.data.SampleBuffer;
+import com.example.syringepumpcontroller.serial.SerialTransport;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Uygulamanın hız yolu uçtan uca: setSpeed, G/Ç şeridi, istek kimliği, zamanlayıcının
+ * kodlaması, porta yazma, cihazın ACK'i ve onaylı pompa durumu. İşlem = onaylanan bir hız
+ * değişikliği. "-prof gc" ile gc.alloc.rate.norm işlem başına kalan ayırmaları gösterir:
+ * şeride giden görev, değişmez PumpState nesneleri ve yeniden deneme zamanlayıcısının görevi;
+ * komut metni ("SPEED_n@id") hiçbir aşamada String olarak oluşturulmaz.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class AcquisitionControllerBenchmark {
+
+    /**
+     * Kimlikli her komutu yazıldığı iş parçacığında "ACK:&lt;id&gt;" ile yanıtlayan port; ikili kip
+     * isteğine yanıt vermez (bağlantı ASCII kipinde kurulur). Yanıt önceden ayrılmış tampona
+     * kodlanır, port kendisi bellek ayırmaz.
+     */
+    static final class AckingTransport implements SerialTransport {
+        private static final byte[] ACK = {'A', 'C', 'K', ':'};
+
+        private final byte[] reply = new byte[16];
+        private volatile Listener listener;
+
+        @Override
+        public void setListener(Listener listener) {
+            this.listener = listener;
+        }
+
+        @Override
+        public void write(byte[] data, int offset, int length) {
+            int end = offset + length;
+            int id = -1;
+            for (int i = offset; i < end; i++) {
+                byte b = data[i];
+                if (b == '\n') {
+                    if (id >= 0) {
+                        acknowledge(id);
+                    }
+                    id = -1;
+                } else if (b == CommandTracker.ID_SEPARATOR) {
+                    id = 0;
+                } else if (id >= 0) {
+                    id = id * 10 + (b - '0');
+                }
+            }
+        }
+
+        private void acknowledge(int id) {
+            Listener current = listener;
+            if (current == null) {
+                return;
+            }
+            System.arraycopy(ACK, 0, reply, 0, ACK.length);
+            int length = CommandEncoder.writeInt(id, reply, ACK.length);
+            reply[length++] = '\r';
+            reply[length++] = '\n';
+            current.onData(reply, 0, length);
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    private AcquisitionController controller;
+    private int speed;
+
+    @Setup
+    public void setUp() throws InterruptedException {
+        controller = new AcquisitionController(new SampleBuffer(1 << 12), null);
+        controller.connect(new AckingTransport());
+        if (!controller.awaitIdle(5000) || !controller.getPumpState().acknowledged) {
+            throw new IllegalStateException("Kimlikli komutlar açılmadı");
+        }
+        controller.startPump();
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!controller.getPumpState().confirmedRunning) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new IllegalStateException("START onaylanmadı");
+            }
+            Thread.sleep(1);
+        }
+        speed = controller.getPumpState().confirmedSpeed;
+    }
+
+    @TearDown
+    public void tearDown() {
+        controller.shutdown();
+    }
+
+    @Benchmark
+    public int setSpeed() {
+        speed = speed == 1000 ? 1 : speed + 1;
+        controller.setSpeed(speed);
+        // Cihazın onayı G/Ç şeridinde onaylı duruma işlenene kadar
+        while (controller.getPumpState().confirmedSpeed != speed) {
+            Thread.yield();
+        }
+        return speed;
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.syringepumpcontroller.bus;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tek yayıncıdan N aboneye dağıtım: işlem = bir yayın. Kayıpsız aboneler yayıncıyı
+ * yavaşlattığı için verim en yavaş abonenin hızıdır; DROP_OLDEST abonelerle yayıncı hiç
+ * beklemez. "-prof gc" ile yayın başına ayırma 0 olmalıdır.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class EventRingBenchmark {
+
+    @Param({"1", "4"})
+    public int subscribers;
+
+    @Param({"yielding", "sleeping", "blocking"})
+    public String strategy;
+
+    @Param({"BLOCK_PUBLISHER", "DROP_OLDEST"})
+    public String policy;
+
+    private EventRing ring;
+    private EventRing.Subscriber[] subscriptions;
+    private long value;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ring = new EventRing("jmh", 1 << 14);
+        subscriptions = new EventRing.Subscriber[subscribers];
+        for (int i = 0; i < subscribers; i++) {
+            subscriptions[i] = ring.subscribe("abone-" + i, (event, sequence, endOfBatch) -> { },
+                    waitStrategy(), OverrunPolicy.valueOf(policy));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        for (EventRing.Subscriber subscription : subscriptions) {
+            subscription.close();
+            subscription.awaitStopped(1000);
+        }
+    }
+
+    private WaitStrategy waitStrategy() {
+        switch (strategy) {
+            case "yielding":
+                return WaitStrategy.yielding();
+            case "sleeping":
+                return WaitStrategy.sleeping(50_000);
+            default:
+                return WaitStrategy.blocking();
+        }
+    }
+
+    @Benchmark
+    public long publish() {
+        return ring.publish(1, value++, 2.5f, 0, 0, null);
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.syringepumpcontroller.command;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Komut kodlama ve yazma yolunun bellek ayırması. "-prof gc" ile çalıştırılır; havuzlu yolda
+ * gc.alloc.rate.norm komut başına 0 bayt olmalıdır, karşılaştırma için String yolu da ölçülür.
+ * Yazıcı aynı iş parçacığında çalışır: işlem = kodlama, yığınlama ve porta yazma.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CommandEncoderBenchmark {
+
+    private final byte[] line = new byte[64];
+    private CommandSchedulerBenchmark.NullTransport transport;
+    private CommandScheduler scheduler;
+    private int speed;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        transport = new CommandSchedulerBenchmark.NullTransport();
+        scheduler = new CommandScheduler(transport, Runnable::run);
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        scheduler.close();
+    }
+
+    private int nextSpeed() {
+        speed = speed == 1000 ? 0 : speed + 1;
+        return speed;
+    }
+
+    @Benchmark
+    public int encodeSpeed() {
+        return CommandEncoder.encode("SPEED_", nextSpeed(), line, 0);
+    }
+
+    // Eski yol: birleştirme, satır sonu ve getBytes
+    @Benchmark
+    public byte[] encodeSpeedWithStrings() {
+        return ("SPEED_" + nextSpeed() + "\n").getBytes(StandardCharsets.US_ASCII);
+    }
+
+    @Benchmark
+    public void writeSpeed() {
+        scheduler.submit("SPEED_", nextSpeed());
+    }
+
+    // CommandTracker'ın gönderdiği biçim: "SPEED_n@id", kimlik de tampona kodlanır
+    @Benchmark
+    public void writeSpeedWithRequestId() {
+        int speed = nextSpeed();
+        scheduler.submit("SPEED_", speed, speed + 1);
+    }
+
+    @Benchmark
+    public void writePoll() {
+        scheduler.submit("GET_SENSOR");
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.syringepumpcontroller.command;
+
+import com.example.syringepumpcontroller.serial.SerialTransport;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Komutların kuyruğa alınması, birleştirilmesi ve yazıcı iş parçacığında toplu yazmaya kodlanması.
+ * İşlem = bir submit çağrısı; yazıcı arka planda baytları boş bir porta yazar.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CommandSchedulerBenchmark {
+
+    // Yazılan baytları yalnızca sayan port
+    static final class NullTransport implements SerialTransport {
+        volatile long bytes;
+
+        @Override
+        public void setListener(Listener listener) {
+        }
+
+        @Override
+        public void write(byte[] data, int offset, int length) {
+            bytes += length;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    private static final String[] SPEEDS = new String[101];
+    private static final String[] CONTROL = {"DIR_FWD", "SPEED_40", "START", "SPEED_60", "DIR_REV", "STOP"};
+
+    static {
+        for (int i = 0; i < SPEEDS.length; i++) {
+            SPEEDS[i] = "SPEED_" + i;
+        }
+    }
+
+    private CommandScheduler scheduler;
+    private int nextSpeed;
+    private int nextControl;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        scheduler = new CommandScheduler(new NullTransport());
+        scheduler.start();
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        scheduler.close();
+    }
+
+    // Kaydırıcı sürüklenirken: bekleyen SPEED yerinde güncellenir
+    @Benchmark
+    public void speedSlider() {
+        scheduler.submit(SPEEDS[nextSpeed]);
+        nextSpeed = nextSpeed == SPEEDS.length - 1 ? 0 : nextSpeed + 1;
+    }
+
+    // Başlat/durdur döngüsü: STOP önceliği ve START iptali
+    @Benchmark
+    public void controlSequence() {
+        scheduler.submit(CONTROL[nextControl]);
+        nextControl = nextControl == CONTROL.length - 1 ? 0 : nextControl + 1;
+    }
+
+    // Yoklama komutu sürekli birleştirilir
+    @Benchmark
+    public void poll() {
+        scheduler.submit("GET_SENSOR");
+    }
+}
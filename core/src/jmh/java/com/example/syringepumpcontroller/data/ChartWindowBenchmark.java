@@ -0,0 +1,66 @@
+package com.example.syringepumpcontroller.data;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Canlı grafiğin kayan pencere seyreltmesi. İşlem = bir örnek; örnekleme hızı rateHz'dir.
+ * render, bir karede grafiğe aktarılan noktaların okunmasını ölçer.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ChartWindowBenchmark {
+
+    private static final int BATCH = 1000;
+
+    @Param({"10", "1000"})
+    public int rateHz;
+
+    private ChartWindow window;
+    private double timeMillis;
+
+    @Setup
+    public void setUp() {
+        window = new ChartWindow(2000, 20_000, 256);
+        // Pencereyi doldur: sabit durumda eski noktalar kayar, genel bakış kovaları birleşir
+        for (int i = 0; i < 30 * rateHz; i++) {
+            appendNext();
+        }
+    }
+
+    private void appendNext() {
+        timeMillis += 1000.0 / rateHz;
+        window.append((long) timeMillis, (float) Math.sin(timeMillis / 500.0));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public long append() {
+        for (int i = 0; i < BATCH; i++) {
+            appendNext();
+        }
+        return window.getVersion();
+    }
+
+    @Benchmark
+    public float render() {
+        float sum = 0f;
+        for (int i = 0; i < window.size(); i++) {
+            sum += window.timeAt(i) + window.valueAt(i);
+        }
+        for (int i = 0; i < window.getOverviewCount(); i++) {
+            sum += window.overviewMinAt(i) + window.overviewMaxAt(i);
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.syringepumpcontroller.data;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Yüksek yoğunluklu grafiğin bir karesi. İşlem = bir kare: points örneklik görünümün
+ * columns piksel sütununa seyreltilip çizgi noktalarına çevrilmesi. frame depodan kopyayı da
+ * içerir.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ColumnAggregatorBenchmark {
+
+    @Param({"10000", "100000"})
+    public int points;
+
+    @Param({"720", "1440"})
+    public int columns;
+
+    private SampleBuffer buffer;
+    private final SampleBuffer.Snapshot snapshot = new SampleBuffer.Snapshot(1 << 17);
+    private ColumnAggregator aggregator;
+    private float[] polyline;
+
+    @Setup
+    public void setUp() {
+        buffer = new SampleBuffer(1 << 17);
+        for (int i = 0; i < points; i++) {
+            buffer.append(i, (float) (2.5 + Math.sin(i / 300.0)));
+        }
+        buffer.snapshot(0, snapshot);
+        aggregator = new ColumnAggregator(columns);
+        polyline = new float[columns * ColumnAggregator.FLOATS_PER_COLUMN];
+    }
+
+    @Benchmark
+    public int aggregate() {
+        aggregator.aggregate(snapshot.timestamps, snapshot.values, 0, snapshot.count, 0, points, columns);
+        return aggregator.toPolyline(polyline, 0f, 0f, columns, 600f, 0f, 5f);
+    }
+
+    @Benchmark
+    public int frame() {
+        buffer.snapshot(buffer.getOldestSequence(), snapshot);
+        return aggregate();
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.syringepumpcontroller.data;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ortak örnek deposu: okuma iş parçacığının eklemesi ve UI'ın kare başına kopyalaması.
+ * "live" grubunda yazıcı ve okuyucu aynı anda çalışır (üzerine yazılan yuvaların ayıklanması dahil).
+ */
+@State(Scope.Group)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SampleBufferBenchmark {
+
+    private static final int CAPACITY = 1 << 16;
+
+    private SampleBuffer buffer;
+    private long timestamp;
+
+    @Setup
+    public void setUp() {
+        buffer = new SampleBuffer(CAPACITY);
+        for (int i = 0; i < CAPACITY; i++) {
+            buffer.append(i, i * 0.001f);
+        }
+        timestamp = CAPACITY;
+    }
+
+    @State(Scope.Thread)
+    public static class Reader {
+        final SampleBuffer.Snapshot snapshot = new SampleBuffer.Snapshot(4096);
+    }
+
+    @Benchmark
+    @Group("appendOnly")
+    public long append() {
+        return buffer.append(timestamp++, 2.5f);
+    }
+
+    @Benchmark
+    @Group("live")
+    @GroupThreads(1)
+    public long liveAppend() {
+        return buffer.append(timestamp++, 2.5f);
+    }
+
+    // Son 4096 örneğin (bir kare için üst sınır) kopyası
+    @Benchmark
+    @Group("live")
+    @GroupThreads(1)
+    public int liveSnapshot(Reader reader) {
+        buffer.snapshot(buffer.getHeadSequence() - 4096, 4096, reader.snapshot);
+        return reader.snapshot.count;
+    }
+}
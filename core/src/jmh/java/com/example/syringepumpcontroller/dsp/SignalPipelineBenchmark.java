@@ -0,0 +1,82 @@
+package com.example.syringepumpcontroller.dsp;
+
+import com.example.syringepumpcontroller.data.SampleBuffer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sinyal işleme adımlarının örnek başına maliyeti. İşlem = bir örnek. Ayırma için
+ * -prof gc ile çalıştırılabilir (gc.alloc.rate.norm ≈ 0 beklenir).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SignalPipelineBenchmark {
+
+    private static final int BATCH = 4096;
+
+    @Param({"median", "movingAverage", "ema", "cic", "fir", "stats", "alarms", "full"})
+    public String stage;
+
+    private final float[] input = new float[BATCH];
+    private SignalPipeline pipeline;
+    private long time;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(1);
+        for (int i = 0; i < BATCH; i++) {
+            input[i] = (float) (2.5 + Math.sin(i / 500.0) + random.nextGaussian() * 0.01);
+        }
+        switch (stage) {
+            case "median":
+                pipeline = new SignalPipeline(null, new MedianFilter(5, 0.2));
+                break;
+            case "movingAverage":
+                pipeline = new SignalPipeline(null, new MovingAverage(32));
+                break;
+            case "ema":
+                pipeline = new SignalPipeline(null, new ExponentialAverage(0.05));
+                break;
+            case "cic":
+                pipeline = new SignalPipeline(null, new CicDecimator(16, 3));
+                break;
+            case "fir":
+                pipeline = new SignalPipeline(null, new FirDecimator(FirDecimator.lowPass(63, 0.1), 4));
+                break;
+            case "stats":
+                pipeline = new SignalPipeline(null, new RollingStats(1000, 50));
+                break;
+            case "alarms":
+                pipeline = new SignalPipeline(null,
+                        new ThresholdAlarm("eşik", AlarmStage.Action.NOTIFY, 0, 6, 0.1, 20),
+                        new SlopeAlarm("eğim", AlarmStage.Action.NOTIFY, 100, -50, 50, 20));
+                break;
+            default:
+                pipeline = SignalPipelineBenchmarkTest.fullPipeline(new SampleBuffer(1 << 14));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public long process() {
+        SignalPipeline p = pipeline;
+        long t = time;
+        for (int i = 0; i < BATCH; i++) {
+            p.process(t++, input[i]);
+        }
+        time = t;
+        return p.getSamplesProcessed();
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.syringepumpcontroller.protocol;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * İkili örnek çerçevelerinin kodlanması ve akıştan çözülmesi. İşlem = bir çerçeve.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BinaryFrameBenchmark {
+
+    private static final int FRAMES = 256;
+
+    // Çerçeve başına örnek (1 kHz'de 32 örnek ~ 32 ms'lik paket)
+    @Param({"1", "32"})
+    public int rows;
+
+    private final byte[] payload = new byte[BinaryFrameCodec.MAX_PAYLOAD];
+    private final byte[] frame = new byte[BinaryFrameCodec.MAX_FRAME];
+    private float[] values;
+    private byte[] stream;
+    private BinaryFrameDecoder decoder;
+    private int sequence;
+    private float sum;
+
+    @Setup
+    public void setUp() {
+        values = new float[rows];
+        for (int i = 0; i < rows; i++) {
+            values[i] = i * 0.01f;
+        }
+        int frameLength = encodeFrame(0);
+        stream = new byte[frameLength * FRAMES];
+        for (int f = 0; f < FRAMES; f++) {
+            encodeFrame(f);
+            System.arraycopy(frame, 0, stream, f * frameLength, frameLength);
+        }
+        decoder = new BinaryFrameDecoder(new BinaryFrameDecoder.Listener() {
+            @Override
+            public void onFrame(int type, int sequence, byte[] payload, int offset, int length) {
+                int count = BinaryFrameCodec.sampleRows(payload, offset);
+                for (int i = 0; i < count; i++) {
+                    sum += BinaryFrameCodec.sampleValue(payload, offset, i);
+                }
+            }
+
+            @Override
+            public void onFrameError() {
+                throw new IllegalStateException("Beklenmeyen çerçeve hatası");
+            }
+        });
+    }
+
+    private int encodeFrame(int frameSequence) {
+        int payloadLength = BinaryFrameCodec.encodeSamplePayload(frameSequence * 1000L, 1000, 1, values, rows, payload, 0);
+        return BinaryFrameCodec.encode(BinaryFrameCodec.TYPE_SAMPLES, frameSequence, payload, 0, payloadLength, frame, 0);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(FRAMES)
+    public int encode() {
+        int length = 0;
+        for (int f = 0; f < FRAMES; f++) {
+            length += encodeFrame(sequence);
+            sequence = (sequence + 1) & 0xFFFF;
+        }
+        return length;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(FRAMES)
+    public float decode() {
+        // Sıra numaraları her turda baştan başlar; kayıp sayımı ölçülen yolun parçası değildir
+        decoder.reset();
+        decoder.feed(stream, 0, stream.length);
+        return sum;
+    }
+}
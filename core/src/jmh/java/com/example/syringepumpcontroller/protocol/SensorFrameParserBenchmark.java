@@ -0,0 +1,87 @@
+package com.example.syringepumpcontroller.protocol;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ASCII "SV:" satırlarının USB okuma parçaları halinde ayrıştırılması. İşlem = bir örnek.
+ * chunkSize küçük değerler bölünmüş satırları (satır başına birden çok feed çağrısı) ölçer;
+ * "random" gerçek USB okumalarına benzer şekilde sabit tohumlu 1-64 baytlık parçalar kullanır.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SensorFrameParserBenchmark {
+
+    private static final int LINES = 4096;
+
+    private static final int MAX_RANDOM_CHUNK = 64;
+
+    @Param({"16", "64", "512", "random"})
+    public String chunkSize;
+
+    private byte[] stream;
+    // Parça uzunlukları kurulumda hesaplanır; ölçüm döngüsünde Random çağrılmaz
+    private int[] chunks;
+    private SensorFrameParser parser;
+    private float sum;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < LINES; i++) {
+            sb.append("SV:").append(String.format(Locale.US, "%.3f", random.nextFloat() * 5f)).append("\r\n");
+        }
+        stream = sb.toString().getBytes(StandardCharsets.US_ASCII);
+        chunks = chunkLengths(stream.length, chunkSize);
+        parser = new SensorFrameParser(new SensorFrameParser.Listener() {
+            @Override
+            public void onSensorValue(float value) {
+                sum += value;
+            }
+
+            @Override
+            public void onParseError() {
+                throw new IllegalStateException("Beklenmeyen ayrıştırma hatası");
+            }
+        });
+    }
+
+    private static int[] chunkLengths(int total, String chunkSize) {
+        boolean random = "random".equals(chunkSize);
+        int fixed = random ? 0 : Integer.parseInt(chunkSize);
+        Random lengths = new Random(7);
+        int[] result = new int[total];
+        int count = 0;
+        for (int pos = 0; pos < total; pos += result[count++]) {
+            int length = random ? 1 + lengths.nextInt(MAX_RANDOM_CHUNK) : fixed;
+            result[count] = Math.min(length, total - pos);
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LINES)
+    public float parse() {
+        int pos = 0;
+        for (int length : chunks) {
+            parser.feed(stream, pos, length);
+            pos += length;
+        }
+        return sum;
+    }
+}
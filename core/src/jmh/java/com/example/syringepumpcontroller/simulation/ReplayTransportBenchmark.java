@@ -0,0 +1,62 @@
+package com.example.syringepumpcontroller.simulation;
+
+import com.example.syringepumpcontroller.acquisition.SampleStreamer;
+import com.example.syringepumpcontroller.data.SampleBuffer;
+import com.example.syringepumpcontroller.protocol.TelemetryLink;
+import com.example.syringepumpcontroller.serial.CaptureReader;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Kaydedilmiş oturumun beklemesiz oynatılmasıyla alım yolunun verimi: kayıt okuma, ikili
+ * çerçeve çözme, örnek deposu ve uygulamadaki sinyal hattı. İşlem = bir örnek.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ReplayTransportBenchmark {
+
+    private static final int SAMPLES = 100_000;
+
+    @Param({"8", "64"})
+    public int rowsPerFrame;
+
+    private byte[] capture;
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+
+    @Setup
+    public void setUp() throws IOException {
+        capture = SyntheticCaptures.binarySession(SAMPLES, 1000, rowsPerFrame);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SAMPLES)
+    public long replay() throws Exception {
+        SampleBuffer buffer = new SampleBuffer(1 << 17);
+        ReplayTransport replay = new ReplayTransport(
+                new CaptureReader(new ByteArrayInputStream(capture)), ReplayTransport.MAX_SPEED);
+        SampleStreamer streamer = new SampleStreamer(command -> { }, executor, 0);
+        streamer.setSampleBuffer(buffer);
+        streamer.setSignalPipeline(ReplayTransportBenchmarkTest.appPipeline());
+        streamer.setClock(replay::currentTimeMillis);
+        TelemetryLink link = new TelemetryLink(replay, streamer);
+        // Kayıt el sıkışmayı bekler; ikili kip onayıyla oynatma sürer
+        link.negotiateBinary(1000);
+        replay.awaitCompletion(60_000);
+        return buffer.getHeadSequence();
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.syringepumpcontroller.storage;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bir Gorilla bloğunun kodlanması ve çözülmesi. İşlem = bir örnek.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class GorillaCodecBenchmark {
+
+    private static final int BLOCK = GorillaExportWriter.BLOCK_SAMPLES;
+
+    // quantized: 1 kHz, 10 bit ADC; noisy: titreşimli zaman, sürekli gürültülü değer; random: kötü durum
+    @Param({"quantized", "noisy", "random"})
+    public String signal;
+
+    private final long[] times = new long[BLOCK];
+    private final float[] values = new float[BLOCK];
+    private final long[] decodedTimes = new long[BLOCK];
+    private final float[] decodedValues = new float[BLOCK];
+    private final GorillaCodec.Encoder encoder = new GorillaCodec.Encoder(BLOCK * 14 + 16);
+    private byte[] block;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(1);
+        long t = 1_700_000_000_000L;
+        for (int i = 0; i < BLOCK; i++) {
+            switch (signal) {
+                case "quantized":
+                    times[i] = t + i;
+                    values[i] = Math.round(512 + 300 * Math.sin(i / 200.0)) * 5f / 1023f;
+                    break;
+                case "noisy":
+                    t += 8 + random.nextInt(5);
+                    times[i] = t;
+                    values[i] = (float) (2.5 + Math.sin(i / 50.0) + random.nextGaussian() * 0.01);
+                    break;
+                default:
+                    times[i] = random.nextLong();
+                    values[i] = Float.intBitsToFloat(random.nextInt());
+            }
+        }
+        block = Arrays.copyOf(encoder.buffer(), encode());
+    }
+
+    private int encode() {
+        encoder.reset();
+        for (int i = 0; i < BLOCK; i++) {
+            encoder.append(times[i], values[i]);
+        }
+        return encoder.finish();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BLOCK)
+    public int encodeBlock() {
+        return encode();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BLOCK)
+    public long decodeBlock() throws IOException {
+        GorillaCodec.decode(block, 0, block.length, BLOCK, decodedTimes, decodedValues);
+        return decodedTimes[BLOCK - 1];
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.syringepumpcontroller.storage;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Geçmiş ekranının min/maks seyreltme sorgusu (bellek eşlemeli segmentler ve özet piramidi).
+ * Sorgular tüm aralıktan saniyelere kadar rastgele yakınlaştırma/kaydırmadır.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class HistoryReaderBenchmark {
+
+    private static final int POINTS = 1000;
+    private static final int QUERY_COUNT = 1024;
+
+    @Param({"1000000", "10000000"})
+    public long samples;
+
+    private File directory;
+    private HistoryReader reader;
+    private final long[] from = new long[QUERY_COUNT];
+    private final long[] to = new long[QUERY_COUNT];
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("history-jmh").toFile();
+        // 1 kHz örnekleme, zaman = örnek indeksi (ms)
+        List<SegmentIndex> segments = SyntheticSegments.write(directory, samples,
+                (int) (MeasurementLog.DEFAULT_MAX_SEGMENT_BYTES / LogFormat.SAMPLE_RECORD_SIZE),
+                0, 1, i -> (float) Math.sin(i / 1000.0));
+        reader = new HistoryReader(segments);
+        Random random = new Random(1);
+        for (int q = 0; q < QUERY_COUNT; q++) {
+            long span = Math.max(POINTS, (long) (samples * Math.pow(random.nextDouble(), 3)));
+            from[q] = (long) (random.nextDouble() * (samples - span));
+            to[q] = from[q] + span - 1;
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        SyntheticSegments.deleteRecursively(directory);
+    }
+
+    @State(Scope.Thread)
+    public static class Query {
+        final DownsampledSeries series = new DownsampledSeries();
+        int next;
+    }
+
+    @Benchmark
+    public int query(Query query) {
+        int q = query.next;
+        query.next = (q + 1) & (QUERY_COUNT - 1);
+        reader.query(from[q], to[q], POINTS, query.series);
+        return query.series.count;
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.syringepumpcontroller.storage;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 1e7 örneklik oturumun biçim başına tam dışa aktarımı. Süre tek çağrı başınadır;
+ * örnek başına bayt yardımcı sayaç olarak raporlanır.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SessionExportBenchmark {
+
+    @Param({"10000000"})
+    public long samples;
+
+    @Param({"CSV", "DELTA", "COLUMNAR", "GORILLA"})
+    public SessionExporter.Format format;
+
+    private File directory;
+    private List<SegmentIndex> segments;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("export-jmh").toFile();
+        segments = SyntheticSegments.write(directory, samples,
+                (int) (MeasurementLog.DEFAULT_MAX_SEGMENT_BYTES / LogFormat.SAMPLE_RECORD_SIZE),
+                1_700_000_000_000L, 1, i -> (float) (Math.sin(i / 1000.0) * 2 + ((i * 7919) % 13) * 0.001));
+    }
+
+    @TearDown
+    public void tearDown() {
+        SyntheticSegments.deleteRecursively(directory);
+    }
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Size {
+        public double bytesPerSample;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            bytesPerSample = 0;
+        }
+    }
+
+    @Benchmark
+    public long export(Size size) throws IOException {
+        SessionExporter.Result result = new SessionExporter(segments)
+                .export(format, new SessionExporterTest.NullOutputStream(), null);
+        size.bytesPerSample = result.getBytesPerSample();
+        return result.bytes;
+    }
+}
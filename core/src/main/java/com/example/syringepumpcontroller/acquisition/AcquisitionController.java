@@ -0,0 +1,861 @@
+package com.example.syringepumpcontroller.acquisition;
+
+import com.example.syringepumpcontroller.command.CommandEncoder;
+import com.example.syringepumpcontroller.command.CommandScheduler;
+import com.example.syringepumpcontroller.command.CommandStats;
+import com.example.syringepumpcontroller.command.CommandTracker;
+import com.example.syringepumpcontroller.control.FlowControlLoop;
+import com.example.syringepumpcontroller.data.SampleBuffer;
+import com.example.syringepumpcontroller.dsp.AlarmStage;
+import com.example.syringepumpcontroller.dsp.SignalPipeline;
+import com.example.syringepumpcontroller.metrics.Metrics;
+import com.example.syringepumpcontroller.metrics.MetricsRegistry;
+import com.example.syringepumpcontroller.metrics.RateLimitedLog;
+import com.example.syringepumpcontroller.profile.ProfileRunner;
+import com.example.syringepumpcontroller.protocol.TelemetryLink;
+import com.example.syringepumpcontroller.serial.SerialTransport;
+import com.example.syringepumpcontroller.storage.MeasurementLog;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Seri bağlantıyı, komut gönderimini, örnek akışını ve pompa durumunu Activity yaşam
+ * döngüsünden bağımsız olarak yöneten uzun ömürlü bileşen.
+ *
+ * Bağlantı kurulumu kendi G/Ç iş parçacığında, komut yazımı {@link CommandScheduler}'ın
+ * yazıcı iş parçacığında yapılır; örnekler okuma
+ * geri çağrısından doğrudan {@link SampleBuffer}'a yazılır. Ekranlar {@link Listener} ile
+ * abone olur ve bildirimleri kendi verdikleri {@link Executor} üzerinden alır, böylece
+ * örnekleme yolu hiçbir zaman UI işini beklemez. Android'e bağımlı değildir.
+ *
+ * Pompa komutları {@link CommandTracker} ile kimliklendirilir; {@link PumpState} istenen ve
+ * cihazın ACK ile onayladığı durumu birlikte taşır.
+ *
+ * Birden çok pompada ({@link PumpManager}) her denetleyici kendi bağlantısını, komut kuyruğunu
+ * ve örnek deposunu tutar; G/Ç işleri ise paylaşılan havuz üzerindeki sıralı bir şeritte
+ * çalışır.
+ *
+ * Bağlantı geçici olarak koparsa ({@link #connectionLost()}, kablo temassızlığı, cihaz
+ * sıfırlanması) denetleyici {@link ConnectionState#RECONNECTING} durumuna geçer ve son istenen
+ * pompa durumunu yeniden oynatma penceresi boyunca saklar. Bu sürede verilen komutlar istenen
+ * duruma işlenir; pencere içinde yeniden bağlanılırsa yön, hız ve gerekiyorsa START cihaza
+ * yeniden gönderilir. Pencere dolarsa pompa durmuş sayılır.
+ */
+public class AcquisitionController {
+
+    public enum ConnectionState {
+        DISCONNECTED,
+        NO_DEVICE,
+        PERMISSION_DENIED,
+        CONNECTING,
+        CONNECTED,
+        // Bağlantı geçici olarak koptu; yeniden oynatma penceresi içinde yeniden bağlanılması bekleniyor
+        RECONNECTING
+    }
+
+    public interface Listener {
+        void onConnectionStateChanged(ConnectionState state);
+
+        void onPumpStateChanged(PumpState state);
+
+        // Komut reddedildi (NAK) veya tüm denemelere rağmen yanıt alınamadı
+        void onCommandFailed(String command, CommandTracker.Outcome outcome, int code);
+
+        // Sinyal hattındaki bir alarm etkinleşti veya söndü
+        default void onAlarm(String name, AlarmStage.Action action, boolean active, float value) {
+        }
+    }
+
+    public static final String COMMAND_START = "START";
+    public static final String COMMAND_STOP = "STOP";
+    public static final String COMMAND_SPEED = "SPEED_";
+    public static final String COMMAND_DIR_FORWARD = "DIR_FWD";
+    public static final String COMMAND_DIR_REVERSE = "DIR_REV";
+
+    // Bağlantı kurulumu ve akış ayarları
+    private static final long HANDSHAKE_TIMEOUT_MS = 500;
+    private static final long ACK_HANDSHAKE_TIMEOUT_MS = 300;
+    private static final int SENSOR_RATE_HZ = 10;
+    private static final long STREAM_FALLBACK_MS = 1500;
+    private static final long POLL_PERIOD_MS = 1000;
+    private static final long IDLE_POLL_MS = 5;
+    // Eski okuyucunun süren geri çağrısı için; olay halkasının kapı süresinden uzun
+    private static final long READER_DRAIN_TIMEOUT_MS = 250;
+    private static final RateLimitedLog CLOSE_LOG = new RateLimitedLog("AcquisitionController", 5000);
+    public static final long DEFAULT_RESUME_WINDOW_MS = 5000;
+
+    private static class Subscription {
+        final Listener listener;
+        final Executor executor;
+
+        Subscription(Listener listener, Executor executor) {
+            this.listener = listener;
+            this.executor = executor;
+        }
+    }
+
+    private final SampleBuffer sampleBuffer;
+    private final MeasurementLog measurementLog;
+    private final ScheduledExecutorService io;
+    // Paylaşılan yazıcı havuzu; null ise her bağlantı kendi yazıcı iş parçacığını açar
+    private final Executor writerExecutor;
+    private final CopyOnWriteArrayList<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+
+    // Aşağıdaki alanlar yalnızca G/Ç iş parçacığında değiştirilir
+    private SerialTransport transport;
+    private TelemetryLink telemetryLink;
+    private SampleStreamer sampleStreamer;
+    // STOP'un G/Ç iş parçacığını beklemeden gönderilebilmesi için volatile
+    private volatile CommandScheduler commandScheduler;
+    private volatile CommandTracker commandTracker;
+    private final CommandStats commandStats = new CommandStats();
+    private final PumpEventBus eventBus = new PumpEventBus();
+    // Örnek deposundan beslenen kapalı çevrim hız denetimi; G/Ç şeridinde çalışır
+    private final FlowControlLoop flowControl;
+    private final ProfileRunner profileRunner;
+
+    private volatile int streamRateHz = SENSOR_RATE_HZ;
+    private volatile long resumeWindowMillis = DEFAULT_RESUME_WINDOW_MS;
+    private volatile SignalPipeline signalPipeline;
+
+    // Yalnızca G/Ç iş parçacığında: geçici kopmadan sonra yeniden oynatma bekleniyor mu
+    private boolean resumePending;
+    // Yalnızca G/Ç iş parçacığında: süren el sıkışma; bağlıyken veya bağlantısızken null
+    private Bringup bringup;
+    private ScheduledFuture<?> resumeExpiry;
+    // Yalnızca G/Ç iş parçacığında: günlüğe yazılan komut metni
+    private final StringBuilder commandText = new StringBuilder(32);
+    private volatile long lastTimeToFirstSampleMillis = -1;
+
+    private volatile ConnectionState connectionState = ConnectionState.DISCONNECTED;
+    // Yalnızca G/Ç iş parçacığında değiştirilir
+    private volatile PumpState pumpState = new PumpState(false, 50, true, false, 50, true, false);
+
+    /**
+     * @param measurementLog komut ve örneklerin yazılacağı günlük; null ise kayıt tutulmaz
+     */
+    public AcquisitionController(SampleBuffer sampleBuffer, MeasurementLog measurementLog) {
+        this.sampleBuffer = sampleBuffer;
+        this.measurementLog = measurementLog;
+        this.io = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "AcquisitionIO");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.writerExecutor = null;
+        this.flowControl = new FlowControlLoop(sampleBuffer, io, controlActuator());
+        this.profileRunner = new ProfileRunner(io, profileActuator());
+        registerGauges(Metrics.registry(), "");
+    }
+
+    /**
+     * Paylaşılan havuzlarda çalışan denetleyici; iş parçacığı açmaz.
+     *
+     * @param ioPool         bağlantı kurulumu, zamanlayıcılar ve durum güncellemeleri için havuz
+     * @param writerPool     komut yazmaları için havuz; yavaş port yazmaları ioPool'daki
+     *                       zamanlayıcıları geciktirmesin diye ayrıdır
+     * @param metricsPrefix  gösterge adlarının öneki (ör. "pump2.")
+     */
+    public AcquisitionController(SampleBuffer sampleBuffer, MeasurementLog measurementLog,
+                                 ScheduledExecutorService ioPool, Executor writerPool, String metricsPrefix) {
+        this.sampleBuffer = sampleBuffer;
+        this.measurementLog = measurementLog;
+        this.io = new SerialScheduledExecutor(ioPool);
+        this.writerExecutor = writerPool;
+        this.flowControl = new FlowControlLoop(sampleBuffer, io, controlActuator());
+        this.profileRunner = new ProfileRunner(io, profileActuator());
+        registerGauges(Metrics.registry(), metricsPrefix);
+    }
+
+    // Denetim yalnızca bağlıyken ve cihaz çalıştığını onayladıysa hızı sürer
+    private FlowControlLoop.Actuator controlActuator() {
+        return new FlowControlLoop.Actuator() {
+            @Override
+            public boolean isActive() {
+                PumpState state = pumpState;
+                return connectionState == ConnectionState.CONNECTED && state.running && state.confirmedRunning;
+            }
+
+            @Override
+            public int getSpeed() {
+                return pumpState.speed;
+            }
+
+            @Override
+            public void setSpeed(int speed) {
+                AcquisitionController.this.setSpeed(speed);
+            }
+        };
+    }
+
+    // Profil komutları elle verilenlerle aynı yoldan gider; pompa durumu ve günlük tutarlı kalır
+    private ProfileRunner.Actuator profileActuator() {
+        return new ProfileRunner.Actuator() {
+            @Override
+            public void start() {
+                startPump();
+            }
+
+            @Override
+            public void stop() {
+                stopPump();
+            }
+
+            @Override
+            public void setSpeed(int speed) {
+                AcquisitionController.this.setSpeed(speed);
+            }
+
+            @Override
+            public void setDirection(boolean forward) {
+                AcquisitionController.this.setDirection(forward);
+            }
+        };
+    }
+
+    // Kuyruk derinlikleri; yalnızca okunurken hesaplanır
+    private void registerGauges(MetricsRegistry metrics, String prefix) {
+        metrics.gauge(prefix + "commands.pending", () -> {
+            CommandScheduler scheduler = commandScheduler;
+            return scheduler == null ? 0 : scheduler.getPendingCount();
+        });
+        metrics.gauge(prefix + "commands.awaiting_ack", () -> {
+            CommandTracker tracker = commandTracker;
+            return tracker == null ? 0 : tracker.getOutstandingCount();
+        });
+        metrics.gauge(prefix + "samples.buffered", sampleBuffer::size);
+        if (measurementLog != null) {
+            metrics.gauge(prefix + "log.dropped_records", measurementLog::getDroppedRecords);
+        }
+    }
+
+    /**
+     * Dinleyiciyi ekler ve mevcut durumu hemen bildirir. Bildirimler executor üzerinde çalışır
+     * (Android'de ana iş parçacığı).
+     */
+    public void addListener(Listener listener, Executor executor) {
+        Subscription subscription = new Subscription(listener, executor);
+        subscriptions.add(subscription);
+        final ConnectionState state = connectionState;
+        final PumpState pump = pumpState;
+        executor.execute(() -> {
+            listener.onConnectionStateChanged(state);
+            listener.onPumpStateChanged(pump);
+        });
+    }
+
+    public void removeListener(Listener listener) {
+        for (Subscription subscription : subscriptions) {
+            if (subscription.listener == listener) {
+                subscriptions.remove(subscription);
+            }
+        }
+    }
+
+    // Açılmış bir seri portu devralır; önceki bağlantı varsa kapatılır
+    public void connect(SerialTransport newTransport) {
+        connect(newTransport, System.nanoTime());
+    }
+
+    /**
+     * Açılmış bir seri portu devralır. İlk örneğe kadar geçen süre originNanos'tan
+     * ({@link System#nanoTime()}; uygulama açılışı veya cihazın takılması) itibaren ölçülür.
+     */
+    public void connect(final SerialTransport newTransport, final long originNanos) {
+        io.execute(() -> {
+            final long connectNanos = System.nanoTime();
+            boolean resume = resumePending;
+            cancelResume();
+            closeConnection();
+            transport = newTransport;
+            setConnectionState(ConnectionState.CONNECTING);
+
+            commandScheduler = new CommandScheduler(newTransport, writerExecutor);
+            commandScheduler.start();
+            sampleStreamer = new SampleStreamer(commandScheduler, io, 0);
+            sampleStreamer.setSampleBuffer(sampleBuffer);
+            sampleStreamer.setMeasurementLog(measurementLog);
+            sampleStreamer.setClock(newTransport::currentTimeMillis);
+            sampleStreamer.setEventBus(eventBus);
+            SignalPipeline pipeline = signalPipeline;
+            if (pipeline != null) {
+                pipeline.reset();
+                sampleStreamer.setSignalPipeline(pipeline);
+            }
+            sampleStreamer.setFirstSampleListener(() -> {
+                long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - originNanos);
+                lastTimeToFirstSampleMillis = millis;
+                Metrics.TIME_TO_FIRST_SAMPLE.record(millis);
+            });
+            telemetryLink = new TelemetryLink(newTransport, sampleStreamer);
+            final CommandTracker tracker = new CommandTracker(commandScheduler, io,
+                    (name, argument, outcome, code) -> io.execute(() -> onCommandResolved(name, argument, outcome, code)),
+                    commandStats);
+            telemetryLink.setReplyListener(tracker);
+            // Port cihaz tarafında koparsa (kablo, sıfırlama) geçici kopma olarak ele alınır
+            telemetryLink.setDisconnectListener(() -> io.execute(() -> {
+                if (transport == newTransport) {
+                    loseConnection();
+                }
+            }));
+            commandTracker = tracker;
+
+            PumpState current = pumpState;
+            if (resume) {
+                // Cihaz kopmada büyük olasılıkla sıfırlandı; istenen durum aşağıda yeniden gönderilir
+                updatePumpState(current.withConfirmed(false, current.confirmedSpeed, current.confirmedForward)
+                        .withAcknowledged(false));
+            } else {
+                // Cihazın bu bağlantıdan önceki durumu bilinmediğinden son istenen durum onaylı sayılır
+                updatePumpState(current.withConfirmed(current.running, current.speed, current.forward)
+                        .withAcknowledged(false));
+            }
+
+            // İkili telemetri kipini dene; cihaz yanıt vermezse ASCII kipinde devam edilir.
+            // Ardından komut onaylarını dene, cihazdan akış iste; akış gelmezse yoklamaya geçilir.
+            bringup = new Bringup(tracker, resume, connectNanos);
+            bringup.start();
+        });
+    }
+
+    /**
+     * Bir bağlantının el sıkışmaları. Her adım isteğini gönderir ve şeritte bir zaman aşımı
+     * zamanlar; yanıt erken gelirse adım hemen sürer. El sıkışma beklenirken şerit ve paylaşılan
+     * G/Ç havuzu boştur, diğer pompaların zamanlayıcıları ve komutları gecikmez.
+     * Yalnızca G/Ç şeridinde kullanılır.
+     */
+    private final class Bringup {
+        private static final int STEP_BINARY = 0;
+        private static final int STEP_ACK = 1;
+
+        final CommandTracker tracker;
+        final boolean resume;
+        final long connectNanos;
+        int step = STEP_BINARY;
+        ScheduledFuture<?> timeout;
+        // El sıkışma sürerken ertelenen komut vardı; istenen durum bağlanınca gönderilir
+        boolean deferred;
+
+        Bringup(CommandTracker tracker, boolean resume, long connectNanos) {
+            this.tracker = tracker;
+            this.resume = resume;
+            this.connectNanos = connectNanos;
+        }
+
+        void start() {
+            telemetryLink.requestBinary(replied(STEP_BINARY));
+            timeout = io.schedule(() -> advance(STEP_BINARY), HANDSHAKE_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        }
+
+        void cancel() {
+            timeout.cancel(false);
+        }
+
+        // Yanıt okuma iş parçacığında gelir; adım şeritte sürer
+        private Runnable replied(final int from) {
+            return () -> io.execute(() -> advance(from));
+        }
+
+        // Yanıt ve zaman aşımından hangisi önce gelirse adımı o ilerletir; diğeri etkisizdir
+        private void advance(int from) {
+            if (bringup != this || step != from) {
+                return;
+            }
+            timeout.cancel(false);
+            if (from == STEP_BINARY) {
+                telemetryLink.finishNegotiation();
+                step = STEP_ACK;
+                tracker.requestNegotiation(replied(STEP_ACK));
+                timeout = io.schedule(() -> advance(STEP_ACK), ACK_HANDSHAKE_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+                return;
+            }
+            bringup = null;
+            updatePumpState(pumpState.withAcknowledged(tracker.finishNegotiation()));
+            if (resume || deferred) {
+                replayRequestedState();
+            }
+            sampleStreamer.startStreaming(streamRateHz, STREAM_FALLBACK_MS, POLL_PERIOD_MS);
+            setConnectionState(ConnectionState.CONNECTED);
+            Metrics.HANDSHAKE_TIME.record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - connectNanos));
+        }
+    }
+
+    // El sıkışma sürerken komut gönderilmez; istenen durum bağlantı kurulunca gönderilir
+    private boolean deferCommand() {
+        if (bringup == null) {
+            return false;
+        }
+        bringup.deferred = true;
+        return true;
+    }
+
+    /**
+     * Bağlantı geçici olarak koptu (ör. cihaz çıkarıldı ama yeniden takılması bekleniyor).
+     * Port kapatılır, istenen pompa durumu yeniden oynatma penceresi boyunca saklanır.
+     */
+    public void connectionLost() {
+        io.execute(this::loseConnection);
+    }
+
+    // Cihaz kalıcı olarak çıkarıldığında veya bağlantı kesilmek istendiğinde çağrılır
+    public void disconnect() {
+        io.execute(() -> {
+            cancelResume();
+            closeConnection();
+            clearRequestedRunning();
+            setConnectionState(ConnectionState.DISCONNECTED);
+        });
+    }
+
+    // Port açılamadığında nedeni ekranlara bildirilir (ör. izin reddedildi)
+    public void reportUnavailable(final ConnectionState reason) {
+        io.execute(() -> {
+            if (transport == null && !resumePending) {
+                setConnectionState(reason);
+            }
+        });
+    }
+
+    public void startPump() {
+        io.execute(() -> {
+            PumpState state = pumpState;
+            if ((transport == null && !resumePending) || state.running) {
+                return;
+            }
+            // Pompayı durduran alarm (ör. tıkanma) sönmeden yeniden başlatılmaz
+            SignalPipeline pipeline = signalPipeline;
+            if (pipeline != null && pipeline.isStopAlarmActive()) {
+                return;
+            }
+            // Kopukken yalnızca istenen durum güncellenir; yeniden bağlanınca gönderilir
+            if (transport != null && !deferCommand()) {
+                sendCommand(state.forward ? COMMAND_DIR_FORWARD : COMMAND_DIR_REVERSE);
+                sendCommand(COMMAND_SPEED, state.speed);
+                sendCommand(COMMAND_START);
+            }
+            updatePumpState(state.withRequested(true, state.speed, state.forward));
+        });
+    }
+
+    /**
+     * STOP çağıran iş parçacığında hemen kuyruğa girer; bağlantı kurulumu sürerken bile beklemez.
+     * İstenen çalışma durumu her durumda bırakılır: kopukken verilen STOP yeniden bağlanınca
+     * cihaza gönderilir ve pompa kendiliğinden yeniden başlamaz.
+     */
+    public void stopPump() {
+        CommandTracker tracker = commandTracker;
+        if (tracker != null) {
+            tracker.send(COMMAND_STOP);
+            logCommand(COMMAND_STOP);
+        }
+        io.execute(() -> {
+            PumpState state = pumpState;
+            if (state.running) {
+                updatePumpState(state.withRequested(false, state.speed, state.forward));
+            }
+        });
+    }
+
+    // Pompa çalışıyorsa yeni hız hemen gönderilir, aksi halde bir sonraki başlatmada kullanılır
+    public void setSpeed(final int speed) {
+        io.execute(() -> {
+            PumpState state = pumpState;
+            if (speed == state.speed) {
+                return;
+            }
+            if (state.running && transport != null && !deferCommand()) {
+                sendCommand(COMMAND_SPEED, speed);
+            }
+            updatePumpState(state.withRequested(state.running, speed, state.forward));
+        });
+    }
+
+    public void setDirection(final boolean forward) {
+        io.execute(() -> {
+            PumpState state = pumpState;
+            if (forward == state.forward) {
+                return;
+            }
+            if (state.running && transport != null && !deferCommand()) {
+                sendCommand(forward ? COMMAND_DIR_FORWARD : COMMAND_DIR_REVERSE);
+            }
+            updatePumpState(state.withRequested(state.running, state.speed, forward));
+        });
+    }
+
+    /**
+     * Ham örneklerin geçeceği sinyal işleme hattı; null ise hat kaldırılır. Hattın
+     * {@link AlarmStage.Action#STOP_PUMP} alarmları etkinleşince pompa okuma iş parçacığından
+     * hemen durdurulur ve çalışan profil iptal edilir. Bağlıyken verilen hat hemen devreye
+     * girer; her yeni bağlantıda hattın durumu sıfırlanır.
+     */
+    public void setSignalPipeline(final SignalPipeline pipeline) {
+        if (pipeline != null) {
+            pipeline.setAlarmListener(this::onAlarm);
+        }
+        SignalPipeline previous = signalPipeline;
+        signalPipeline = pipeline;
+        if (previous != null && previous != pipeline) {
+            previous.setAlarmListener(null);
+        }
+        io.execute(() -> {
+            if (sampleStreamer != null && signalPipeline == pipeline) {
+                sampleStreamer.setSignalPipeline(pipeline);
+            }
+        });
+    }
+
+    public SignalPipeline getSignalPipeline() {
+        return signalPipeline;
+    }
+
+    /**
+     * Geçici kopmadan sonra istenen durumun saklanacağı süre. 0 verilirse kopmalar kalıcı
+     * sayılır ve pompa durmuş kabul edilir.
+     */
+    public void setResumeWindowMillis(long millis) {
+        if (millis < 0) {
+            throw new IllegalArgumentException("Geçersiz pencere: " + millis);
+        }
+        resumeWindowMillis = millis;
+    }
+
+    public long getResumeWindowMillis() {
+        return resumeWindowMillis;
+    }
+
+    // Son bağlantıda ilk örneğe kadar geçen süre (ms); henüz örnek gelmediyse -1
+    public long getLastTimeToFirstSampleMillis() {
+        return lastTimeToFirstSampleMillis;
+    }
+
+    // Sonraki bağlantılarda cihazdan istenecek örnekleme hızı
+    public void setStreamRateHz(int rateHz) {
+        if (rateHz <= 0) {
+            throw new IllegalArgumentException("Geçersiz örnekleme hızı: " + rateHz);
+        }
+        streamRateHz = rateHz;
+    }
+
+    public ConnectionState getConnectionState() {
+        return connectionState;
+    }
+
+    public PumpState getPumpState() {
+        return pumpState;
+    }
+
+    public boolean isPumpRunning() {
+        return pumpState.running;
+    }
+
+    public int getPumpSpeed() {
+        return pumpState.speed;
+    }
+
+    public boolean isForwardDirection() {
+        return pumpState.forward;
+    }
+
+    /**
+     * Kapalı çevrim hız denetimi. Başlatıldığında hız, hedef gerilimi tutacak şekilde sabit
+     * periyotla güncellenir; elle hız ayarı denetimle çakışacağından o sırada kullanılmamalıdır.
+     */
+    public FlowControlLoop getFlowControl() {
+        return flowControl;
+    }
+
+    /**
+     * İnfüzyon profili yürütücüsü. Komutlar G/Ç şeridinde planlanan zamanlarında gönderilir;
+     * bağlantı kapanırsa profil iptal edilip pompa durdurulur.
+     */
+    public ProfileRunner getProfileRunner() {
+        return profileRunner;
+    }
+
+    // Bağlantılar boyunca biriken komut gidiş-dönüş istatistikleri
+    public CommandStats getCommandStats() {
+        return commandStats;
+    }
+
+    /**
+     * Örnekleri, alarmları, bağlantı ve pompa durumunu ve komut sonuçlarını taşıyan veri yolu.
+     * Bağlantılar arasında aynı kalır; abonelikler yeniden bağlanmada yenilenmez.
+     */
+    public PumpEventBus getEventBus() {
+        return eventBus;
+    }
+
+    public SampleBuffer getSampleBuffer() {
+        return sampleBuffer;
+    }
+
+    // Bağlı değilken null
+    public CommandScheduler getCommandScheduler() {
+        return commandScheduler;
+    }
+
+    // Bekleyen işlerin ve süren el sıkışmaların G/Ç şeridinde tamamlanmasını bekler (testler için)
+    public boolean awaitIdle(long timeoutMillis) throws InterruptedException {
+        final Object done = new Object();
+        final boolean[] finished = new boolean[1];
+        io.execute(new Runnable() {
+            @Override
+            public void run() {
+                if (bringup != null) {
+                    io.schedule(this, IDLE_POLL_MS, TimeUnit.MILLISECONDS);
+                    return;
+                }
+                synchronized (done) {
+                    finished[0] = true;
+                    done.notifyAll();
+                }
+            }
+        });
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        synchronized (done) {
+            while (!finished[0]) {
+                long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remaining <= 0) {
+                    return false;
+                }
+                done.wait(remaining);
+            }
+        }
+        return true;
+    }
+
+    public void shutdown() {
+        flowControl.stop();
+        profileRunner.stop();
+        io.execute(() -> {
+            cancelResume();
+            closeConnection();
+        });
+        io.shutdown();
+    }
+
+    private void loseConnection() {
+        if (transport == null) {
+            return;
+        }
+        // Profil kopmada iptal edilir; pompa profilsiz sabit hızda yeniden başlatılmaz
+        long window = resumeWindowMillis;
+        closeConnection(window > 0 && !profileRunner.isRunning());
+        if (window == 0) {
+            setConnectionState(ConnectionState.DISCONNECTED);
+            return;
+        }
+        resumePending = true;
+        setConnectionState(ConnectionState.RECONNECTING);
+        resumeExpiry = io.schedule(() -> {
+            if (!resumePending) {
+                return;
+            }
+            resumePending = false;
+            resumeExpiry = null;
+            clearRequestedRunning();
+            setConnectionState(ConnectionState.DISCONNECTED);
+        }, window, TimeUnit.MILLISECONDS);
+    }
+
+    // Okuma iş parçacığında; STOP beklemeden kuyruğa girer, bildirimler dinleyicilerin yürütücüsünde
+    private void onAlarm(AlarmStage alarm, final boolean active, long timestampMillis, final float value) {
+        final String name = alarm.getName();
+        final AlarmStage.Action action = alarm.getAction();
+        if (active) {
+            Metrics.ALARMS_RAISED.increment();
+            if (action == AlarmStage.Action.STOP_PUMP) {
+                profileRunner.stop();
+                stopPump();
+                Metrics.ALARM_STOPS.increment();
+            }
+        }
+        eventBus.publishAlarm(timestampMillis, name, action, active, value);
+        for (final Subscription subscription : subscriptions) {
+            subscription.executor.execute(() -> subscription.listener.onAlarm(name, action, active, value));
+        }
+    }
+
+    private void cancelResume() {
+        resumePending = false;
+        if (resumeExpiry != null) {
+            resumeExpiry.cancel(false);
+            resumeExpiry = null;
+        }
+    }
+
+    // Bağlantısızken istenen çalışma durumu bırakılır; hız ve yön sonraki başlatma için korunur
+    private void clearRequestedRunning() {
+        PumpState state = pumpState;
+        if (state.running) {
+            updatePumpState(state.withRequested(false, state.speed, state.forward));
+        }
+    }
+
+    // Kopukken istenen son durum yeni bağlantıda cihaza gönderilir; ara komutlar zaten birleşmiştir.
+    // Cihaz kopmada sıfırlanmamış ve hâlâ çalışıyor olabilir: durması istendiyse STOP açıkça
+    // (STOP önceliğiyle) gönderilir
+    private void replayRequestedState() {
+        PumpState state = pumpState;
+        if (!state.running) {
+            sendCommand(COMMAND_STOP);
+        }
+        sendCommand(state.forward ? COMMAND_DIR_FORWARD : COMMAND_DIR_REVERSE);
+        sendCommand(COMMAND_SPEED, state.speed);
+        if (state.running) {
+            sendCommand(COMMAND_START);
+        }
+        Metrics.COMMAND_REPLAYS.increment();
+    }
+
+    private void closeConnection() {
+        closeConnection(false);
+    }
+
+    // keepRequested: istenen çalışma durumu yeniden oynatma için korunur, yalnızca onaylı durum düşer
+    private void closeConnection(boolean keepRequested) {
+        if (transport == null) {
+            return;
+        }
+        if (bringup != null) {
+            bringup.cancel();
+            bringup = null;
+        }
+        // Bağlantısız profil sürdürülemez; STOP bağlantı kapanmadan kuyruğa girer
+        profileRunner.stop();
+        if (sampleStreamer != null) {
+            sampleStreamer.stop();
+        }
+        commandTracker.close();
+        commandTracker = null;
+        // Bekleyen komutlar (ör. STREAM_0) gönderildikten sonra port kapatılır
+        commandScheduler.close();
+        commandScheduler = null;
+        transport.setListener(null);
+        // Örnek deposu ve olay halkası tek yazıcılıdır: eski okuyucunun süren geri çağrısı
+        // bitmeden yeni bağlantının okuyucusu başlamamalı
+        if (!telemetryLink.close(READER_DRAIN_TIMEOUT_MS) && CLOSE_LOG.shouldLog()) {
+            CLOSE_LOG.log("Okuma geri çağrısı " + READER_DRAIN_TIMEOUT_MS + " ms içinde bitmedi");
+        }
+        transport.close();
+        transport = null;
+        telemetryLink = null;
+        sampleStreamer = null;
+        PumpState state = pumpState;
+        boolean running = keepRequested && state.running;
+        if (state.running != running || state.confirmedRunning) {
+            updatePumpState(state.withRequested(running, state.speed, state.forward)
+                    .withConfirmed(false, state.confirmedSpeed, state.confirmedForward));
+        }
+    }
+
+    private void sendCommand(String command) {
+        sendCommand(command, CommandEncoder.NO_ARGUMENT);
+    }
+
+    // Hız gibi sayısal komutlar ad + argüman olarak gider; kimlikli metin zamanlayıcıda kodlanır
+    private void sendCommand(String name, int argument) {
+        commandTracker.send(name, argument);
+        logCommand(name, argument);
+    }
+
+    // G/Ç iş parçacığında: onaylanan komut onaylı duruma işlenir, başarısız olan geri alınır
+    private void onCommandResolved(String command, int argument, CommandTracker.Outcome outcome, final int code) {
+        if (transport == null) {
+            return; // Bağlantı kapanırken iptal edilen komutlar
+        }
+        eventBus.publishCommand(System.currentTimeMillis(), command, argument, outcome, code);
+        PumpState state = pumpState;
+        boolean running = state.confirmedRunning;
+        int speed = state.confirmedSpeed;
+        boolean forward = state.confirmedForward;
+        if (CommandScheduler.is(command, COMMAND_START)) {
+            running = true;
+        } else if (CommandScheduler.is(command, COMMAND_STOP)) {
+            running = false;
+        } else if (command.startsWith(COMMAND_SPEED)) {
+            speed = argument != CommandEncoder.NO_ARGUMENT ? argument : parseSpeed(command, speed);
+        } else if (CommandScheduler.is(command, COMMAND_DIR_FORWARD)) {
+            forward = true;
+        } else if (CommandScheduler.is(command, COMMAND_DIR_REVERSE)) {
+            forward = false;
+        } else {
+            return;
+        }
+
+        switch (outcome) {
+            case ACKED:
+            case UNCONFIRMED:
+                updatePumpState(state.withConfirmed(running, speed, forward));
+                break;
+            case NAKED:
+            case TIMED_OUT:
+                // İstenen değer cihazın bilinen durumuna döner
+                boolean revertRunning = running != state.confirmedRunning ? state.confirmedRunning : state.running;
+                int revertSpeed = speed != state.confirmedSpeed ? state.confirmedSpeed : state.speed;
+                boolean revertForward = forward != state.confirmedForward ? state.confirmedForward : state.forward;
+                updatePumpState(state.withRequested(revertRunning, revertSpeed, revertForward));
+                final String failed = CommandEncoder.toString(command, argument, CommandEncoder.NO_REQUEST_ID);
+                final CommandTracker.Outcome failure = outcome;
+                for (final Subscription subscription : subscriptions) {
+                    subscription.executor.execute(() -> subscription.listener.onCommandFailed(failed, failure, code));
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    private static int parseSpeed(String command, int fallback) {
+        try {
+            return Integer.parseInt(command.substring(COMMAND_SPEED.length()));
+        } catch (NumberFormatException e) {
+            return fallback;
+        }
+    }
+
+    // Pompa komutlarını geçmiş için kaydet
+    private void logCommand(String command) {
+        if (measurementLog != null) {
+            measurementLog.appendCommand(System.currentTimeMillis(), command);
+        }
+    }
+
+    // G/Ç şeridinde: metin şeride ait tamponda kurulur, günlük kaydı kopyalar
+    private void logCommand(String name, int argument) {
+        if (measurementLog == null) {
+            return;
+        }
+        commandText.setLength(0);
+        commandText.append(name);
+        if (argument != CommandEncoder.NO_ARGUMENT) {
+            commandText.append(argument);
+        }
+        measurementLog.appendCommand(System.currentTimeMillis(), commandText);
+    }
+
+    private void setConnectionState(final ConnectionState state) {
+        if (connectionState == state) {
+            return;
+        }
+        connectionState = state;
+        eventBus.publishConnectionState(System.currentTimeMillis(), state);
+        for (final Subscription subscription : subscriptions) {
+            subscription.executor.execute(() -> subscription.listener.onConnectionStateChanged(state));
+        }
+    }
+
+    private void updatePumpState(final PumpState state) {
+        pumpState = state;
+        eventBus.publishPumpState(System.currentTimeMillis(), state);
+        for (final Subscription subscription : subscriptions) {
+            subscription.executor.execute(() -> subscription.listener.onPumpStateChanged(state));
+        }
+    }
+}
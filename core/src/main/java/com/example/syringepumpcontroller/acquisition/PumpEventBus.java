@@ -0,0 +1,105 @@
+package com.example.syringepumpcontroller.acquisition;
+
+import com.example.syringepumpcontroller.acquisition.AcquisitionController.ConnectionState;
+import com.example.syringepumpcontroller.bus.BusEvent;
+import com.example.syringepumpcontroller.bus.EventRing;
+import com.example.syringepumpcontroller.command.CommandEncoder;
+import com.example.syringepumpcontroller.command.CommandTracker;
+import com.example.syringepumpcontroller.dsp.AlarmStage;
+import com.example.syringepumpcontroller.protocol.TelemetryLink;
+
+/**
+ * Bir pompanın olaylarını iş parçacıkları arasında taşıyan tipli veri yolu. Her halkanın tek
+ * yayıncısı vardır:
+ * - örnekler: seri okuma iş parçacığı; ham örnekler ({@link #TYPE_SAMPLE}) ve sinyal hattı
+ *   alarmları ({@link #TYPE_ALARM}), örnekle aynı sırada. Yeniden bağlanmada eski okuyucunun
+ *   süren geri çağrısı yeni bağlantı kurulmadan biter ({@link TelemetryLink#close})
+ * - durum: denetleyicinin G/Ç şeridi; bağlantı ({@link #TYPE_CONNECTION}), pompa durumu
+ *   ({@link #TYPE_PUMP_STATE}) ve komut sonuçları ({@link #TYPE_COMMAND})
+ *
+ * UI, depolama, grafik veya denetim gibi tüketiciler ihtiyaç duydukları halkaya kendi bekleme
+ * stratejileri ve taşma politikalarıyla abone olur. Olay alanlarının türe göre anlamı:
+ * <pre>
+ * SAMPLE      value = volt
+ * ALARM       payload = ad, value = değer, argument = eylem sırası, detail = 1 etkin / 0 sönük
+ * CONNECTION  payload = ConnectionState
+ * PUMP_STATE  payload = PumpState
+ * COMMAND     payload = komut adı (kimliksiz, ör. "SPEED_"), value = sayısal argüman (yoksa NaN),
+ *             argument = sonuç sırası, detail = NAK kodu
+ * </pre>
+ */
+public class PumpEventBus {
+
+    public static final int TYPE_SAMPLE = 1;
+    public static final int TYPE_ALARM = 2;
+    public static final int TYPE_CONNECTION = 3;
+    public static final int TYPE_PUMP_STATE = 4;
+    public static final int TYPE_COMMAND = 5;
+
+    // 1 kHz'de ~16 s; durum olayları seyrektir
+    public static final int DEFAULT_SAMPLE_CAPACITY = 1 << 14;
+    public static final int DEFAULT_STATE_CAPACITY = 1 << 8;
+
+    private static final AlarmStage.Action[] ACTIONS = AlarmStage.Action.values();
+    private static final CommandTracker.Outcome[] OUTCOMES = CommandTracker.Outcome.values();
+
+    private final EventRing samples;
+    private final EventRing state;
+
+    public PumpEventBus() {
+        this(DEFAULT_SAMPLE_CAPACITY, DEFAULT_STATE_CAPACITY);
+    }
+
+    public PumpEventBus(int sampleCapacity, int stateCapacity) {
+        this.samples = new EventRing("samples", sampleCapacity);
+        this.state = new EventRing("state", stateCapacity);
+    }
+
+    public EventRing getSamples() {
+        return samples;
+    }
+
+    public EventRing getState() {
+        return state;
+    }
+
+    // Okuma iş parçacığında
+    public void publishSample(long timestampMillis, float value) {
+        samples.publish(TYPE_SAMPLE, timestampMillis, value, 0, 0, null);
+    }
+
+    // Okuma iş parçacığında
+    public void publishAlarm(long timestampMillis, String name, AlarmStage.Action action, boolean active,
+                             float value) {
+        samples.publish(TYPE_ALARM, timestampMillis, value, action.ordinal(), active ? 1 : 0, name);
+    }
+
+    // G/Ç şeridinde
+    public void publishConnectionState(long timestampMillis, ConnectionState connectionState) {
+        state.publish(TYPE_CONNECTION, timestampMillis, 0, 0, 0, connectionState);
+    }
+
+    // G/Ç şeridinde
+    public void publishPumpState(long timestampMillis, PumpState pumpState) {
+        state.publish(TYPE_PUMP_STATE, timestampMillis, pumpState.speed, 0, 0, pumpState);
+    }
+
+    // G/Ç şeridinde
+    public void publishCommand(long timestampMillis, String command, int argument, CommandTracker.Outcome outcome,
+                               int code) {
+        float value = argument == CommandEncoder.NO_ARGUMENT ? Float.NaN : argument;
+        state.publish(TYPE_COMMAND, timestampMillis, value, outcome.ordinal(), code, command);
+    }
+
+    public static AlarmStage.Action actionOf(BusEvent event) {
+        return ACTIONS[event.getArgument()];
+    }
+
+    public static boolean isAlarmActive(BusEvent event) {
+        return event.getDetail() != 0;
+    }
+
+    public static CommandTracker.Outcome outcomeOf(BusEvent event) {
+        return OUTCOMES[event.getArgument()];
+    }
+}
@@ -0,0 +1,311 @@
+package com.example.syringepumpcontroller.acquisition;
+
+import com.example.syringepumpcontroller.acquisition.AcquisitionController.ConnectionState;
+import com.example.syringepumpcontroller.data.SampleBuffer;
+import com.example.syringepumpcontroller.storage.MeasurementLog;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bir hub üzerinden bağlı birden çok pompayı yönetir. Her pompanın kendi
+ * {@link AcquisitionController}'ı (bağlantı, komut kuyruğu, ACK takibi) ve kendi
+ * {@link SampleBuffer}'ı vardır; tümü cihaz sayısından bağımsız, küçük ve paylaşılan iki havuzda
+ * çalışır: G/Ç havuzu (bağlantı kurulumu, zamanlayıcılar; el sıkışmalar dahil hiçbir görev havuzu
+ * bloklamaz) ve yazıcı havuzu (komut yazmaları).
+ *
+ * Pompa 1 her zaman vardır ve kalıcı ölçüm günlüğüne yazar; sonradan takılan cihazlar boştaki
+ * en küçük numaralı pompaya atanır, yoksa yeni pompa açılır. Çıkarılan ek pompalar kapatılır.
+ * Geçici kopmalarda ({@link #suspend}) pompa, yeniden oynatma penceresi boyunca cihazına ayrılmış
+ * kalır; aynı cihaz bu sürede yeniden takılırsa aynı pompaya bağlanır.
+ */
+public class PumpManager {
+
+    public interface Listener {
+        // Pompa eklendi, çıkarıldı veya bir cihaza atandı
+        void onPumpsChanged(List<Pump> pumps);
+    }
+
+    public static final int DEFAULT_IO_THREADS = 2;
+    public static final int DEFAULT_WRITER_THREADS = 2;
+    private static final long SHUTDOWN_TIMEOUT_MS = 1000;
+
+    public static final class Pump {
+        private final int number;
+        private final AcquisitionController controller;
+        // Atanmış cihazın anahtarı (ör. USB aygıt yolu); boştaysa null
+        private volatile String deviceKey;
+        // attach çağrıları sayacı; askıya alınan pompanın süresi dolduğunda yeniden takılıp takılmadığını ayırt eder
+        private volatile long attachCount;
+
+        Pump(int number, AcquisitionController controller) {
+            this.number = number;
+            this.controller = controller;
+        }
+
+        // Ekranda gösterilen 1'den başlayan numara
+        public int getNumber() {
+            return number;
+        }
+
+        public AcquisitionController getController() {
+            return controller;
+        }
+
+        public SampleBuffer getSampleBuffer() {
+            return controller.getSampleBuffer();
+        }
+
+        public String getDeviceKey() {
+            return deviceKey;
+        }
+    }
+
+    private static class Subscription {
+        final Listener listener;
+        final Executor executor;
+
+        Subscription(Listener listener, Executor executor) {
+            this.listener = listener;
+            this.executor = executor;
+        }
+    }
+
+    private final int bufferCapacity;
+    private final ScheduledExecutorService ioPool;
+    private final ExecutorService writerPool;
+    private final CopyOnWriteArrayList<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+
+    // this ile korunur; numaraya göre sıralı
+    private final List<Pump> pumps = new ArrayList<>();
+    private final Pump primary;
+
+    /**
+     * @param measurementLog pompa 1'in günlüğü; null ise kayıt tutulmaz
+     */
+    public PumpManager(int bufferCapacity, MeasurementLog measurementLog) {
+        this(bufferCapacity, measurementLog, DEFAULT_IO_THREADS, DEFAULT_WRITER_THREADS);
+    }
+
+    public PumpManager(int bufferCapacity, MeasurementLog measurementLog, int ioThreads, int writerThreads) {
+        this.bufferCapacity = bufferCapacity;
+        this.ioPool = Executors.newScheduledThreadPool(ioThreads, daemonThreads("PumpIO"));
+        this.writerPool = Executors.newFixedThreadPool(writerThreads, daemonThreads("PumpWriter"));
+        this.primary = new Pump(1, new AcquisitionController(new SampleBuffer(bufferCapacity),
+                measurementLog, ioPool, writerPool, ""));
+        pumps.add(primary);
+    }
+
+    private static ThreadFactory daemonThreads(final String name) {
+        final AtomicInteger count = new AtomicInteger();
+        return r -> {
+            Thread thread = new Thread(r, name + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    public void addListener(Listener listener, Executor executor) {
+        subscriptions.add(new Subscription(listener, executor));
+        final List<Pump> snapshot = getPumps();
+        executor.execute(() -> listener.onPumpsChanged(snapshot));
+    }
+
+    public void removeListener(Listener listener) {
+        for (Subscription subscription : subscriptions) {
+            if (subscription.listener == listener) {
+                subscriptions.remove(subscription);
+            }
+        }
+    }
+
+    public Pump getPrimary() {
+        return primary;
+    }
+
+    public synchronized List<Pump> getPumps() {
+        return Collections.unmodifiableList(new ArrayList<>(pumps));
+    }
+
+    // Numarası verilen pompa; yoksa null
+    public synchronized Pump getPump(int number) {
+        for (Pump pump : pumps) {
+            if (pump.number == number) {
+                return pump;
+            }
+        }
+        return null;
+    }
+
+    public synchronized Pump findByDevice(String deviceKey) {
+        for (Pump pump : pumps) {
+            if (deviceKey.equals(pump.deviceKey)) {
+                return pump;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Cihaza bir pompa atar ve döndürür; cihaz zaten atanmışsa aynı pompa döner. Bağlantı
+     * çağıran tarafından {@link AcquisitionController#connect} ile kurulur.
+     */
+    public Pump attach(String deviceKey) {
+        Pump pump;
+        synchronized (this) {
+            pump = findByDevice(deviceKey);
+            if (pump != null) {
+                pump.attachCount++;
+                return pump;
+            }
+            pump = findFree();
+            if (pump == null) {
+                int number = nextNumber();
+                pump = new Pump(number, new AcquisitionController(new SampleBuffer(bufferCapacity),
+                        null, ioPool, writerPool, "pump" + number + "."));
+                // Numaralar 1..number-1 dolu olduğundan sıra korunur
+                pumps.add(number - 1, pump);
+            }
+            pump.deviceKey = deviceKey;
+            pump.attachCount++;
+        }
+        notifyPumpsChanged();
+        return pump;
+    }
+
+    /**
+     * Cihaz çıkarıldı ama yeniden takılması bekleniyor (kablo temassızlığı, cihaz sıfırlanması).
+     * Bağlantı kapatılır, istenen pompa durumu saklanır; cihaz yeniden oynatma penceresi içinde
+     * {@link #attach} edilmezse pompa {@link #detach} ile bırakılır.
+     */
+    public void suspend(final String deviceKey) {
+        final Pump pump;
+        final long attachCount;
+        synchronized (this) {
+            pump = findByDevice(deviceKey);
+            if (pump == null) {
+                return;
+            }
+            attachCount = pump.attachCount;
+        }
+        pump.controller.connectionLost();
+        ioPool.schedule(() -> {
+            synchronized (this) {
+                if (pump.attachCount != attachCount || !deviceKey.equals(pump.deviceKey)) {
+                    return;
+                }
+            }
+            detach(deviceKey);
+        }, pump.controller.getResumeWindowMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Cihaz çıkarıldığında bağlantıyı kapatır. Pompa 1 boşa çıkar; ek pompalar kaldırılır.
+     */
+    public void detach(String deviceKey) {
+        Pump pump;
+        synchronized (this) {
+            pump = findByDevice(deviceKey);
+            if (pump == null) {
+                return;
+            }
+            pump.deviceKey = null;
+            if (pump != primary) {
+                pumps.remove(pump);
+            }
+        }
+        pump.controller.disconnect();
+        if (pump != primary) {
+            pump.controller.shutdown();
+        }
+        notifyPumpsChanged();
+    }
+
+    // Tüm pompalara STOP; her denetleyicide çağıran iş parçacığında hemen kuyruğa girer.
+    // Çalışan profiller de iptal edilir.
+    public void stopAll() {
+        for (Pump pump : getPumps()) {
+            pump.controller.getProfileRunner().stop();
+            pump.controller.stopPump();
+        }
+    }
+
+    public int getConnectedCount() {
+        int count = 0;
+        for (Pump pump : getPumps()) {
+            if (pump.controller.getConnectionState() == ConnectionState.CONNECTED) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    // Tüm pompaların şimdiye kadar aldığı örnek sayısı
+    public long getTotalSamples() {
+        long total = 0;
+        for (Pump pump : getPumps()) {
+            total += pump.getSampleBuffer().getHeadSequence();
+        }
+        return total;
+    }
+
+    // Bağlantılar kapatılıp bekleyen komutlar yazıldıktan sonra havuzlar kapatılır
+    public void shutdown() {
+        List<Pump> all = getPumps();
+        for (Pump pump : all) {
+            pump.controller.disconnect();
+        }
+        try {
+            for (Pump pump : all) {
+                pump.controller.awaitIdle(SHUTDOWN_TIMEOUT_MS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (Pump pump : all) {
+            pump.controller.shutdown();
+        }
+        ioPool.shutdown();
+        writerPool.shutdown();
+    }
+
+    // Kilit altında: cihazı olmayan ve bağlantı kurmayan ilk pompa
+    private Pump findFree() {
+        for (Pump pump : pumps) {
+            ConnectionState state = pump.controller.getConnectionState();
+            if (pump.deviceKey == null && state != ConnectionState.CONNECTED && state != ConnectionState.CONNECTING
+                    && state != ConnectionState.RECONNECTING) {
+                return pump;
+            }
+        }
+        return null;
+    }
+
+    // Kilit altında: kullanılmayan en küçük numara; göstergeler aynı önekle yeniden bağlanır
+    private int nextNumber() {
+        int number = 1;
+        for (Pump pump : pumps) {
+            if (pump.number != number) {
+                break;
+            }
+            number++;
+        }
+        return number;
+    }
+
+    private void notifyPumpsChanged() {
+        final List<Pump> snapshot = getPumps();
+        for (final Subscription subscription : subscriptions) {
+            subscription.executor.execute(() -> subscription.listener.onPumpsChanged(snapshot));
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.syringepumpcontroller.acquisition;
+
+/**
+ * Pompanın istenen ve cihazca onaylanan durumu (değişmez).
+ *
+ * Kullanıcı bir komut verdiğinde istenen değer hemen değişir; onaylı değer cihazın ACK'i gelince
+ * güncellenir. Komut reddedilir veya zaman aşımına uğrarsa istenen değer onaylıya geri döner.
+ * Cihaz onay desteklemiyorsa (acknowledged false) onaylı değerler gönderilen komutlardır.
+ */
+public final class PumpState {
+
+    public final boolean running;
+    public final int speed;
+    public final boolean forward;
+
+    public final boolean confirmedRunning;
+    public final int confirmedSpeed;
+    public final boolean confirmedForward;
+
+    public final boolean acknowledged;
+
+    public PumpState(boolean running, int speed, boolean forward,
+                     boolean confirmedRunning, int confirmedSpeed, boolean confirmedForward,
+                     boolean acknowledged) {
+        this.running = running;
+        this.speed = speed;
+        this.forward = forward;
+        this.confirmedRunning = confirmedRunning;
+        this.confirmedSpeed = confirmedSpeed;
+        this.confirmedForward = confirmedForward;
+        this.acknowledged = acknowledged;
+    }
+
+    // İstenen tüm değerler cihazca onaylandıysa true
+    public boolean isSettled() {
+        return running == confirmedRunning && speed == confirmedSpeed && forward == confirmedForward;
+    }
+
+    PumpState withRequested(boolean running, int speed, boolean forward) {
+        return new PumpState(running, speed, forward, confirmedRunning, confirmedSpeed, confirmedForward, acknowledged);
+    }
+
+    PumpState withConfirmed(boolean confirmedRunning, int confirmedSpeed, boolean confirmedForward) {
+        return new PumpState(running, speed, forward, confirmedRunning, confirmedSpeed, confirmedForward, acknowledged);
+    }
+
+    PumpState withAcknowledged(boolean acknowledged) {
+        return new PumpState(running, speed, forward, confirmedRunning, confirmedSpeed, confirmedForward, acknowledged);
+    }
+
+    @Override
+    public String toString() {
+        return "PumpState{running=" + running + "/" + confirmedRunning
+                + ", speed=" + speed + "/" + confirmedSpeed
+                + ", forward=" + forward + "/" + confirmedForward
+                + ", acknowledged=" + acknowledged + '}';
+    }
+}
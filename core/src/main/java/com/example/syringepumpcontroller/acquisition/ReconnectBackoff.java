@@ -0,0 +1,63 @@
+package com.example.syringepumpcontroller.acquisition;
+
+import java.util.Random;
+
+/**
+ * Yeniden bağlanma denemeleri için üstel geri çekilme. Her denemede bekleme çarpanla büyür
+ * ve üst sınırda kalır; bekleme süresi [gecikme × (1 − titreşim), gecikme] aralığından
+ * rastgele seçilir, böylece aynı anda kopan birkaç cihaz portu aynı anda zorlamaz.
+ * Başarılı bağlantıdan sonra {@link #reset()} ile baştan başlanır. İş parçacığı güvenli değildir.
+ */
+public final class ReconnectBackoff {
+
+    public static final long DEFAULT_INITIAL_MILLIS = 100;
+    public static final long DEFAULT_MAX_MILLIS = 10_000;
+    public static final double DEFAULT_MULTIPLIER = 2.0;
+    public static final double DEFAULT_JITTER = 0.2;
+
+    private final long initialMillis;
+    private final long maxMillis;
+    private final double multiplier;
+    private final double jitter;
+    private final Random random;
+
+    private int attempts;
+    private double nextMillis;
+
+    public ReconnectBackoff() {
+        this(DEFAULT_INITIAL_MILLIS, DEFAULT_MAX_MILLIS, DEFAULT_MULTIPLIER, DEFAULT_JITTER, new Random());
+    }
+
+    /**
+     * @param jitter 0 ile 1 arası; 0 ise gecikmeler tam olarak initial × çarpan^n olur
+     */
+    public ReconnectBackoff(long initialMillis, long maxMillis, double multiplier, double jitter, Random random) {
+        if (initialMillis <= 0 || maxMillis < initialMillis || multiplier < 1 || jitter < 0 || jitter > 1) {
+            throw new IllegalArgumentException("Geçersiz geri çekilme ayarı");
+        }
+        this.initialMillis = initialMillis;
+        this.maxMillis = maxMillis;
+        this.multiplier = multiplier;
+        this.jitter = jitter;
+        this.random = random;
+        reset();
+    }
+
+    // Bir sonraki denemeden önce beklenecek süre; deneme sayısını artırır
+    public long nextDelayMillis() {
+        double delay = nextMillis;
+        nextMillis = Math.min(maxMillis, nextMillis * multiplier);
+        attempts++;
+        return Math.max(1, Math.round(delay * (1 - jitter * random.nextDouble())));
+    }
+
+    public void reset() {
+        attempts = 0;
+        nextMillis = initialMillis;
+    }
+
+    // reset'ten beri verilen gecikme sayısı
+    public int getAttempts() {
+        return attempts;
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.syringepumpcontroller.acquisition;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tek üretici / tek tüketici, sınırlı kapasiteli örnek kuyruğu.
+ * Zaman damgaları ve değerler paralel ilkel dizilerde tutulur; kutulama yapılmaz.
+ */
+public class SampleQueue {
+
+    public interface Consumer {
+        void onSample(long timestampNanos, float value);
+    }
+
+    private final long[] timestamps;
+    private final float[] values;
+    private final int mask;
+
+    // Üretici tail'i, tüketici head'i yazar
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+
+    public SampleQueue(int capacity) {
+        if (capacity < 2 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Kapasite 2'nin kuvveti olmalı: " + capacity);
+        }
+        timestamps = new long[capacity];
+        values = new float[capacity];
+        mask = capacity - 1;
+    }
+
+    // Yalnızca üretici iş parçacığından çağrılır; kuyruk doluysa false döner
+    public boolean offer(long timestampNanos, float value) {
+        long t = tail.get();
+        if (t - head.get() == values.length) {
+            return false;
+        }
+        int index = (int) (t & mask);
+        timestamps[index] = timestampNanos;
+        values[index] = value;
+        tail.lazySet(t + 1);
+        return true;
+    }
+
+    // Yalnızca tüketici iş parçacığından çağrılır
+    public int drain(Consumer consumer, int maxSamples) {
+        long h = head.get();
+        long available = tail.get() - h;
+        int count = (int) Math.min(available, maxSamples);
+        for (int i = 0; i < count; i++) {
+            int index = (int) ((h + i) & mask);
+            consumer.onSample(timestamps[index], values[index]);
+        }
+        head.lazySet(h + count);
+        return count;
+    }
+
+    public int size() {
+        return (int) (tail.get() - head.get());
+    }
+
+    public int capacity() {
+        return values.length;
+    }
+}
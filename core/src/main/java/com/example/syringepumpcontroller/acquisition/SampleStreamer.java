@@ -0,0 +1,310 @@
+package com.example.syringepumpcontroller.acquisition;
+
+import com.example.syringepumpcontroller.command.CommandSink;
+import com.example.syringepumpcontroller.command.DirectCommandSink;
+import com.example.syringepumpcontroller.data.SampleBuffer;
+import com.example.syringepumpcontroller.dsp.SignalPipeline;
+import com.example.syringepumpcontroller.metrics.Metrics;
+import com.example.syringepumpcontroller.metrics.RateLimitedLog;
+import com.example.syringepumpcontroller.protocol.TelemetryLink;
+import com.example.syringepumpcontroller.serial.SerialTransport;
+import com.example.syringepumpcontroller.storage.MeasurementLog;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sensör örneklerinin cihazdan akış (STREAM_n) veya yoklama (GET_SENSOR) ile alınması.
+ *
+ * Akış kipinde tek bir komutla cihaz belirtilen hızda örnek göndermeye başlar. Cihaz belirli
+ * süre içinde örnek göndermezse yoklama kipine geri dönülür. Tüketici (UI) yetişemezse kuyruk
+ * doluluğuna göre seyreltme oranı artırılır; seyreltilen örneklerin ortalaması alınır.
+ * queueCapacity 0 verilirse kuyruk kullanılmaz; örnekler yalnızca {@link SampleBuffer}'a yazılır.
+ *
+ * Zaman damgaları: ikili kipte duvar saati ilk örnekte bir kez çapalanır, sonraki örnekler cihaz
+ * zamanındaki ilerlemeyle damgalanır; böylece aynı çerçevede gelen satırlar ayrı zamanlar alır.
+ * Cihaz zamanı geri giderse (cihaz sıfırlandı) veya duvar saatinden {@link #MAX_CLOCK_SKEW_MS}
+ * kadar ayrışırsa yeniden çapalanır. ASCII kipte cihaz zamanı yoktur, varış zamanı kullanılır.
+ */
+public class SampleStreamer implements TelemetryLink.Listener {
+
+    public enum Mode {
+        STOPPED,
+        STREAMING,
+        POLLING
+    }
+
+    public static final String COMMAND_STREAM = "STREAM_";
+    public static final String COMMAND_POLL = "GET_SENSOR";
+
+    public static final int MAX_RATE_HZ = 1000;
+    // Cihaz zamanından türetilen damga duvar saatinden bundan fazla ayrışırsa yeniden çapalanır
+    public static final long MAX_CLOCK_SKEW_MS = 1000;
+    // Cihaz zamanı µs cinsinden u32'dir (~71 dakikada sarar)
+    private static final long DEVICE_TIME_MASK = 0xFFFFFFFFL;
+
+    // Örnek zaman damgalarının kaynağı (epoch ms)
+    public interface Clock {
+        long currentTimeMillis();
+    }
+    private static final int MAX_DECIMATION = 64;
+
+    // Örnek başına günlük yerine birkaç saniyede bir son değer yazılır
+    private static final RateLimitedLog SAMPLE_LOG = new RateLimitedLog("SampleStreamer", 5000);
+    private static final RateLimitedLog DROP_LOG = new RateLimitedLog("SampleStreamer", 5000);
+
+    private final CommandSink commands;
+    private final ScheduledExecutorService executor;
+    private final SampleQueue queue;
+    private volatile SampleBuffer sampleBuffer;
+    private volatile MeasurementLog measurementLog;
+    private volatile SignalPipeline signalPipeline;
+    private volatile PumpEventBus eventBus;
+    private volatile Runnable firstSampleListener;
+    private volatile Clock clock = System::currentTimeMillis;
+
+    private volatile Mode mode = Mode.STOPPED;
+    private ScheduledFuture<?> pollTask;
+    private ScheduledFuture<?> fallbackTask;
+
+    // Üretici (okuma iş parçacığı) durumu
+    private int decimation = 1;
+    private int accumulated;
+    private float accumulator;
+    // Okuma iş parçacığı: cihaz zamanının duvar saatine çapası
+    private boolean timeAnchored;
+    private long anchorMillis;
+    private long lastDeviceMicros;
+    private long elapsedDeviceMicros;
+    private long lastTimestampMillis = Long.MIN_VALUE;
+
+    private volatile long samplesReceived;
+    private volatile long samplesDropped;
+    private volatile long frameErrors;
+
+    public SampleStreamer(SerialTransport transport, ScheduledExecutorService executor, int queueCapacity) {
+        this(new DirectCommandSink(transport), executor, queueCapacity);
+    }
+
+    // Komutlar doğrudan porta değil komut zamanlayıcısına gönderilir
+    public SampleStreamer(CommandSink commands, ScheduledExecutorService executor, int queueCapacity) {
+        this.commands = commands;
+        this.executor = executor;
+        this.queue = queueCapacity > 0 ? new SampleQueue(queueCapacity) : null;
+    }
+
+    // Tüm ham örnekler (seyreltilmeden) bu depoya da eklenir
+    public void setSampleBuffer(SampleBuffer sampleBuffer) {
+        this.sampleBuffer = sampleBuffer;
+    }
+
+    // Tüm ham örnekler kalıcı günlüğe de yazılır
+    public void setMeasurementLog(MeasurementLog measurementLog) {
+        this.measurementLog = measurementLog;
+    }
+
+    // Ham örnekler depolara yazıldıktan sonra okuma iş parçacığında bu hattan da geçer
+    public void setSignalPipeline(SignalPipeline signalPipeline) {
+        this.signalPipeline = signalPipeline;
+    }
+
+    // Ham örnekler veri yolunun örnek halkasına da yayımlanır; okuma iş parçacığı tek yayıncıdır
+    public void setEventBus(PumpEventBus eventBus) {
+        this.eventBus = eventBus;
+    }
+
+    // Varsayılan sistem saati; yeniden oynatmada örnekler kaydın saatiyle damgalanır
+    public void setClock(Clock clock) {
+        this.clock = clock;
+    }
+
+    // İlk örnekte okuma iş parçacığında bir kez çağrılır (ilk örneğe kadar geçen süre ölçümü)
+    public void setFirstSampleListener(Runnable listener) {
+        this.firstSampleListener = listener;
+    }
+
+    /**
+     * Akış kipini başlatır. Cihaz fallbackMillis içinde örnek göndermezse
+     * pollPeriodMillis aralıklarla yoklamaya geçilir.
+     */
+    public synchronized void startStreaming(int rateHz, long fallbackMillis, final long pollPeriodMillis) {
+        if (rateHz < 1 || rateHz > MAX_RATE_HZ) {
+            throw new IllegalArgumentException("Geçersiz örnekleme hızı: " + rateHz);
+        }
+        cancelTasks();
+        mode = Mode.STREAMING;
+        final long receivedAtStart = samplesReceived;
+        sendCommand(COMMAND_STREAM, rateHz);
+
+        fallbackTask = executor.schedule(() -> {
+            synchronized (SampleStreamer.this) {
+                if (mode == Mode.STREAMING && samplesReceived == receivedAtStart) {
+                    startPolling(pollPeriodMillis);
+                }
+            }
+        }, fallbackMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void startPolling(long periodMillis) {
+        cancelTasks();
+        mode = Mode.POLLING;
+        pollTask = executor.scheduleAtFixedRate(() -> sendCommand(COMMAND_POLL),
+                0, periodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void stop() {
+        cancelTasks();
+        if (mode == Mode.STREAMING) {
+            sendCommand(COMMAND_STREAM, 0);
+        }
+        mode = Mode.STOPPED;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    // UI iş parçacığından çağrılır
+    public int drain(SampleQueue.Consumer consumer, int maxSamples) {
+        return queue != null ? queue.drain(consumer, maxSamples) : 0;
+    }
+
+    public int getQueueSize() {
+        return queue != null ? queue.size() : 0;
+    }
+
+    public long getSamplesReceived() {
+        return samplesReceived;
+    }
+
+    public long getSamplesDropped() {
+        return samplesDropped;
+    }
+
+    public long getFrameErrors() {
+        return frameErrors;
+    }
+
+    public int getDecimation() {
+        return decimation;
+    }
+
+    @Override
+    public void onSample(long deviceTimeMicros, int channel, float value) {
+        if (channel != 0) {
+            return;
+        }
+        if (++samplesReceived == 1) {
+            Runnable listener = firstSampleListener;
+            if (listener != null) {
+                listener.run();
+            }
+        }
+        Metrics.SAMPLES_RECEIVED.increment();
+        if (SAMPLE_LOG.shouldLog()) {
+            SAMPLE_LOG.log("Örnek " + samplesReceived + ": " + value + " V (seyreltme 1/" + decimation + ")");
+        }
+
+        long now = timestamp(deviceTimeMicros);
+        SampleBuffer buffer = sampleBuffer;
+        if (buffer != null) {
+            buffer.append(now, value);
+        }
+        MeasurementLog log = measurementLog;
+        if (log != null) {
+            log.appendSample(now, value);
+        }
+        PumpEventBus bus = eventBus;
+        if (bus != null) {
+            bus.publishSample(now, value);
+        }
+        SignalPipeline pipeline = signalPipeline;
+        if (pipeline != null) {
+            pipeline.process(now, value);
+        }
+        if (queue == null) {
+            return;
+        }
+
+        accumulator += value;
+        if (++accumulated < decimation) {
+            return;
+        }
+        float mean = accumulator / accumulated;
+        accumulator = 0f;
+        accumulated = 0;
+
+        if (!queue.offer(System.nanoTime(), mean)) {
+            samplesDropped++;
+            Metrics.SAMPLES_DROPPED.increment();
+            if (DROP_LOG.shouldLog()) {
+                DROP_LOG.log("Kuyruk dolu, örnek atıldı (toplam " + samplesDropped + ")");
+            }
+        }
+        adjustDecimation();
+    }
+
+    @Override
+    public void onFrameError() {
+        frameErrors++;
+    }
+
+    // Okuma iş parçacığında: örneğin duvar saati damgası (epoch ms)
+    private long timestamp(long deviceTimeMicros) {
+        long now = clock.currentTimeMillis();
+        if (deviceTimeMicros == TelemetryLink.NO_DEVICE_TIME) {
+            return now;
+        }
+        if (timeAnchored) {
+            long delta = (deviceTimeMicros - lastDeviceMicros) & DEVICE_TIME_MASK;
+            // Yarım aralıktan büyük fark geri gitme sayılır (u32 sarması ileri gitmedir)
+            if (delta <= DEVICE_TIME_MASK >>> 1) {
+                lastDeviceMicros = deviceTimeMicros;
+                elapsedDeviceMicros += delta;
+                long millis = anchorMillis + elapsedDeviceMicros / 1000;
+                if (Math.abs(millis - now) <= MAX_CLOCK_SKEW_MS) {
+                    lastTimestampMillis = millis;
+                    return millis;
+                }
+            }
+        }
+        // Çapa: zaman ekseni yeniden çapalamada da geri gitmez
+        timeAnchored = true;
+        anchorMillis = Math.max(now, lastTimestampMillis);
+        lastDeviceMicros = deviceTimeMicros;
+        elapsedDeviceMicros = 0;
+        lastTimestampMillis = anchorMillis;
+        return anchorMillis;
+    }
+
+    // Kuyruk dolmaya başlarsa seyreltmeyi artır, boşalınca azalt
+    private void adjustDecimation() {
+        int size = queue.size();
+        int capacity = queue.capacity();
+        if (size > capacity * 3 / 4 && decimation < MAX_DECIMATION) {
+            decimation <<= 1;
+        } else if (size < capacity / 4 && decimation > 1) {
+            decimation >>= 1;
+        }
+    }
+
+    private void sendCommand(String command) {
+        commands.submit(command);
+    }
+
+    private void sendCommand(String name, int argument) {
+        commands.submit(name, argument);
+    }
+
+    private void cancelTasks() {
+        if (pollTask != null) {
+            pollTask.cancel(false);
+            pollTask = null;
+        }
+        if (fallbackTask != null) {
+            fallbackTask.cancel(false);
+            fallbackTask = null;
+        }
+    }
+}
@@ -0,0 +1,249 @@
+package com.example.syringepumpcontroller.acquisition;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Paylaşılan bir havuz üzerinde görevleri sırayla çalıştıran hafif "şerit". Aynı şeride
+ * verilen görevler hiçbir zaman eşzamanlı çalışmaz ve veriliş sırasını korur; böylece her
+ * cihazın durumu tek iş parçacıklı bir yürütücüdeymiş gibi kilitsiz tutulabilir, ama cihaz
+ * başına bir iş parçacığı harcanmaz.
+ *
+ * Zamanlanmış görevler havuzun zamanlayıcısında bekler ve süresi dolunca şeride eklenir.
+ * Bir şerit tek seferde en fazla {@link #BATCH} görev çalıştırır, sonra havuzu diğer
+ * cihazlara bırakır.
+ */
+final class SerialScheduledExecutor extends AbstractExecutorService implements ScheduledExecutorService {
+
+    private static final int BATCH = 64;
+
+    private final ScheduledExecutorService pool;
+    private final ArrayDeque<Runnable> tasks = new ArrayDeque<>();
+    private final Runnable drain = this::drain;
+
+    // this ile korunur; scheduled, havuzda bekleyen veya çalışan tek bir boşaltma görevi olduğunu belirtir
+    private boolean scheduled;
+    private boolean shutdown;
+
+    SerialScheduledExecutor(ScheduledExecutorService pool) {
+        this.pool = pool;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        synchronized (this) {
+            if (shutdown) {
+                throw new RejectedExecutionException("Şerit kapatıldı");
+            }
+            if (!enqueue(command)) {
+                return;
+            }
+        }
+        pool.execute(drain);
+    }
+
+    // Zamanlayıcıdan gelen görevler kapatmadan sonra sessizce bırakılır
+    private void enqueueFromTimer(Runnable command) {
+        synchronized (this) {
+            if (shutdown || !enqueue(command)) {
+                return;
+            }
+        }
+        pool.execute(drain);
+    }
+
+    // Kilit altında: boşaltma görevinin havuza verilmesi gerekiyorsa true döner
+    private boolean enqueue(Runnable command) {
+        tasks.add(command);
+        if (scheduled) {
+            return false;
+        }
+        scheduled = true;
+        return true;
+    }
+
+    private void drain() {
+        for (int i = 0; i < BATCH; i++) {
+            Runnable task;
+            synchronized (this) {
+                task = tasks.poll();
+                if (task == null) {
+                    scheduled = false;
+                    notifyAll();
+                    return;
+                }
+            }
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                // Görevin hatası şeridi durdurmaz
+                Thread thread = Thread.currentThread();
+                thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+            }
+        }
+        // Kalan görevler için havuzda yeniden sıraya girilir
+        pool.execute(drain);
+    }
+
+    @Override
+    public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
+        return schedule(new FutureTask<Void>(command, null), delay, unit);
+    }
+
+    @Override
+    public <V> ScheduledFuture<V> schedule(Callable<V> callable, long delay, TimeUnit unit) {
+        return schedule(new FutureTask<>(callable), delay, unit);
+    }
+
+    private <V> ScheduledFuture<V> schedule(final FutureTask<V> task, long delay, TimeUnit unit) {
+        checkOpen();
+        ScheduledFuture<?> timer = pool.schedule(() -> enqueueFromTimer(task), delay, unit);
+        return new LaneFuture<>(task, timer);
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleAtFixedRate(Runnable command, long initialDelay, long period, TimeUnit unit) {
+        checkOpen();
+        PeriodicTask task = new PeriodicTask(command);
+        task.timer = pool.scheduleAtFixedRate(task::fire, initialDelay, period, unit);
+        return new LaneFuture<>(task, task.timer);
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleWithFixedDelay(Runnable command, long initialDelay, long delay, TimeUnit unit) {
+        // Şeritte sabit gecikme ile sabit hız arasındaki fark ihmal edilebilir; gecikmiş bir
+        // tetikleme zaten bekliyorsa yenisi eklenmez
+        return scheduleAtFixedRate(command, initialDelay, delay, unit);
+    }
+
+    @Override
+    public synchronized void shutdown() {
+        shutdown = true;
+        notifyAll();
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        synchronized (this) {
+            shutdown = true;
+            List<Runnable> remaining = new ArrayList<>(tasks);
+            tasks.clear();
+            notifyAll();
+            return remaining;
+        }
+    }
+
+    @Override
+    public synchronized boolean isShutdown() {
+        return shutdown;
+    }
+
+    @Override
+    public synchronized boolean isTerminated() {
+        return shutdown && !scheduled;
+    }
+
+    @Override
+    public synchronized boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (!isTerminated()) {
+            long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            if (remaining <= 0) {
+                return false;
+            }
+            wait(remaining);
+        }
+        return true;
+    }
+
+    private synchronized void checkOpen() {
+        if (shutdown) {
+            throw new RejectedExecutionException("Şerit kapatıldı");
+        }
+    }
+
+    // Periyodik görev: önceki tetikleme henüz çalışmadıysa yenisi kuyruğa eklenmez
+    private final class PeriodicTask extends FutureTask<Void> {
+        private final AtomicBoolean queued = new AtomicBoolean();
+        volatile ScheduledFuture<?> timer;
+
+        PeriodicTask(Runnable command) {
+            super(command, null);
+        }
+
+        void fire() {
+            if (!isCancelled() && queued.compareAndSet(false, true)) {
+                enqueueFromTimer(this);
+            }
+        }
+
+        @Override
+        public void run() {
+            queued.set(false);
+            // Hata veya iptal sonrası sonraki tetiklemeler durur (ScheduledThreadPoolExecutor gibi)
+            ScheduledFuture<?> current = timer;
+            if (!runAndReset() && current != null) {
+                current.cancel(false);
+            }
+        }
+    }
+
+    // Şeritteki görev ile havuzdaki zamanlayıcıyı birlikte iptal eden gelecek
+    private static final class LaneFuture<V> implements ScheduledFuture<V> {
+        private final FutureTask<V> task;
+        private final ScheduledFuture<?> timer;
+
+        LaneFuture(FutureTask<V> task, ScheduledFuture<?> timer) {
+            this.task = task;
+            this.timer = timer;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return timer.getDelay(unit);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(getDelay(TimeUnit.NANOSECONDS), other.getDelay(TimeUnit.NANOSECONDS));
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            timer.cancel(false);
+            return task.cancel(mayInterruptIfRunning);
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return task.isCancelled();
+        }
+
+        @Override
+        public boolean isDone() {
+            return task.isDone();
+        }
+
+        @Override
+        public V get() throws InterruptedException, ExecutionException {
+            return task.get();
+        }
+
+        @Override
+        public V get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+            return task.get(timeout, unit);
+        }
+    }
+}
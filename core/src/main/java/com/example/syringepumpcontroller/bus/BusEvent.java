@@ -0,0 +1,41 @@
+package com.example.syringepumpcontroller.bus;
+
+/**
+ * Halkadan okunan olayın tüketiciye ait kopyası. Her abone tek bir örneği yeniden kullanır;
+ * {@link EventHandler#onEvent} dönünce içerik bir sonraki olayla değişir, saklanacak alanlar
+ * kopyalanmalıdır. Alanların anlamı olay türüne göre yayıncıca belirlenir (bkz. PumpEventBus).
+ */
+public final class BusEvent {
+
+    int type;
+    long timestampMillis;
+    float value;
+    int argument;
+    int detail;
+    Object payload;
+
+    public int getType() {
+        return type;
+    }
+
+    public long getTimestampMillis() {
+        return timestampMillis;
+    }
+
+    public float getValue() {
+        return value;
+    }
+
+    public int getArgument() {
+        return argument;
+    }
+
+    public int getDetail() {
+        return detail;
+    }
+
+    // Değişmez nesneler (durum, komut metni) taşınır; yayın başına nesne oluşturulmaz
+    public Object getPayload() {
+        return payload;
+    }
+}
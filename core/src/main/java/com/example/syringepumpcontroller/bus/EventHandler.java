@@ -0,0 +1,12 @@
+package com.example.syringepumpcontroller.bus;
+
+/**
+ * Abonenin olay işleyicisi; aboneliğin iş parçacığında (veya {@link EventRing.Subscriber#poll}
+ * çağıranda) sırayla çağrılır.
+ */
+public interface EventHandler {
+    /**
+     * @param endOfBatch şu an hazır olan son olay; toplu işleri (çizim, diske yazma) bitirmek için
+     */
+    void onEvent(BusEvent event, long sequence, boolean endOfBatch);
+}
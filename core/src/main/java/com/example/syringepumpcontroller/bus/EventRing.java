@@ -0,0 +1,366 @@
+package com.example.syringepumpcontroller.bus;
+
+import com.example.syringepumpcontroller.metrics.RateLimitedLog;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Tek yayıncılı, çok aboneli olay halkası (Disruptor tarzı sıra numaraları).
+ *
+ * Yuvalar baştan ayrılır ve paralel ilkel dizilerde tutulur; yayın ve okuma bellek ayırmaz.
+ * Yayıncı önce üzerine yazacağı sıra numarasını (claimed) duyurur, yuvayı doldurur, sonra
+ * imleci (cursor) ilerletir. Her abone kendi sıra numarasını tutar ve olayı kendi
+ * {@link BusEvent} kopyasına okur; okuduktan sonra yuvanın bu arada üzerine yazılmadığını
+ * claimed ile doğrular, yazıldıysa olayı atar ve en eski geçerli olaya atlar.
+ *
+ * Abonelerin bekleme stratejisi ({@link WaitStrategy}) ve taşma politikası
+ * ({@link OverrunPolicy}) ayrı ayrı seçilir. {@link OverrunPolicy#BLOCK_PUBLISHER} aboneler
+ * yayıncıyı en fazla gateTimeout kadar bekletir; süre dolarsa abone yarı kapasiteye kadar
+ * yetişene dek beklenmez. Seri okuma iş parçacığı takılan bir tüketici yüzünden durmaz.
+ *
+ * publish yalnızca tek bir iş parçacığından (veya sıralı bir yürütücüden) çağrılmalıdır.
+ */
+public class EventRing {
+
+    public static final long DEFAULT_GATE_TIMEOUT_MILLIS = 50;
+
+    // Yuva başına tür, değer bitleri, argüman ve ayrıntı
+    private static final int INTS_PER_SLOT = 4;
+    private static final long GATE_PARK_NANOS = 50_000;
+    private static final RateLimitedLog HANDLER_ERROR_LOG = new RateLimitedLog("EventRing", 5000);
+
+    private final String name;
+    private final int capacity;
+    private final int mask;
+    private final long gateTimeoutNanos;
+    // Elemanlara volatile/lazySet erişimi, abonenin üzerine yazılmış yuvaları güvenle ayıklamasını sağlar
+    private final AtomicLongArray timestamps;
+    private final AtomicIntegerArray ints;
+    private final AtomicReferenceArray<Object> payloads;
+
+    // Son yayımlanan ve üzerine yazılmaya başlanan sıra numaraları; -1 boş halka
+    private final AtomicLong cursor = new AtomicLong(-1);
+    private final AtomicLong claimed = new AtomicLong(-1);
+
+    private final Object subscribersLock = new Object();
+    private volatile Subscriber[] subscribers = new Subscriber[0];
+    // Bekletilen abone kümesi değişince (abone ekleme, bırakılan abonenin yeniden beklenmesi)
+    // artar; yayıncının önbelleğe aldığı kapı o andan itibaren geçersizdir
+    private final AtomicInteger gateGeneration = new AtomicInteger();
+
+    // Yalnızca yayıncı yazar
+    private long nextSequence;
+    // BLOCK_PUBLISHER abonelerin en az bu sıra numarasına geldiği biliniyor (cachedGeneration'da)
+    private long cachedGate = -1;
+    private int cachedGeneration;
+    private volatile long gateWaits;
+    private volatile long gateTimeouts;
+
+    public EventRing(String name, int capacity) {
+        this(name, capacity, DEFAULT_GATE_TIMEOUT_MILLIS);
+    }
+
+    public EventRing(String name, int capacity, long gateTimeoutMillis) {
+        if (capacity < 2 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Kapasite 2'nin kuvveti olmalı: " + capacity);
+        }
+        this.name = name;
+        this.capacity = capacity;
+        this.mask = capacity - 1;
+        this.gateTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(gateTimeoutMillis);
+        this.timestamps = new AtomicLongArray(capacity);
+        this.ints = new AtomicIntegerArray(capacity * INTS_PER_SLOT);
+        this.payloads = new AtomicReferenceArray<>(capacity);
+    }
+
+    /**
+     * Olayı yayımlar ve sıra numarasını döndürür. Yalnızca yayıncı iş parçacığından çağrılır.
+     */
+    public long publish(int type, long timestampMillis, float value, int argument, int detail, Object payload) {
+        long sequence = nextSequence++;
+        awaitGate(sequence);
+        claimed.set(sequence);
+        int index = (int) (sequence & mask);
+        int base = index * INTS_PER_SLOT;
+        timestamps.lazySet(index, timestampMillis);
+        ints.lazySet(base, type);
+        ints.lazySet(base + 1, Float.floatToRawIntBits(value));
+        ints.lazySet(base + 2, argument);
+        ints.lazySet(base + 3, detail);
+        payloads.lazySet(index, payload);
+        cursor.lazySet(sequence);
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.waitStrategy != null) {
+                subscriber.waitStrategy.signal();
+            }
+        }
+        return sequence;
+    }
+
+    /**
+     * Kendi iş parçacığında çalışan abonelik. Abone yalnızca abone olduktan sonraki olayları görür.
+     */
+    public Subscriber subscribe(String threadName, EventHandler handler, WaitStrategy waitStrategy,
+                                OverrunPolicy policy) {
+        Subscriber subscriber = new Subscriber(handler, waitStrategy, policy);
+        add(subscriber);
+        Thread thread = new Thread(subscriber::run, threadName);
+        thread.setDaemon(true);
+        subscriber.thread = thread;
+        thread.start();
+        return subscriber;
+    }
+
+    /**
+     * İş parçacığı açmayan abonelik; olaylar {@link Subscriber#poll} çağrılınca (ör. her ekran
+     * karesinde) işlenir.
+     */
+    public Subscriber subscribe(EventHandler handler, OverrunPolicy policy) {
+        Subscriber subscriber = new Subscriber(handler, null, policy);
+        add(subscriber);
+        return subscriber;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    // Son yayımlanan sıra numarası; henüz yayın yoksa -1
+    public long getCursor() {
+        return cursor.get();
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.length;
+    }
+
+    // Yayıncının BLOCK_PUBLISHER bir aboneyi beklemek zorunda kaldığı yayın sayısı
+    public long getGateWaits() {
+        return gateWaits;
+    }
+
+    // Beklemenin süre dolduğu için bırakıldığı yayın sayısı; abone olay kaybetmiştir
+    public long getGateTimeouts() {
+        return gateTimeouts;
+    }
+
+    private void add(Subscriber subscriber) {
+        synchronized (subscribersLock) {
+            // Yayıncı eklenmeyi görmeden önce ilerlese bile abonenin sırası imleçten geride kalmaz
+            subscriber.sequence.set(cursor.get());
+            Subscriber[] current = subscribers;
+            Subscriber[] updated = Arrays.copyOf(current, current.length + 1);
+            updated[current.length] = subscriber;
+            subscribers = updated;
+        }
+        gateGeneration.incrementAndGet();
+    }
+
+    private void remove(Subscriber subscriber) {
+        synchronized (subscribersLock) {
+            Subscriber[] current = subscribers;
+            for (int i = 0; i < current.length; i++) {
+                if (current[i] == subscriber) {
+                    Subscriber[] updated = new Subscriber[current.length - 1];
+                    System.arraycopy(current, 0, updated, 0, i);
+                    System.arraycopy(current, i + 1, updated, i, current.length - i - 1);
+                    subscribers = updated;
+                    return;
+                }
+            }
+        }
+    }
+
+    // Yayıncı: halka sarmadan önce BLOCK_PUBLISHER abonelerin yuvayı bırakmasını bekler
+    private void awaitGate(long sequence) {
+        long wrapPoint = sequence - capacity;
+        int generation = gateGeneration.get();
+        if (wrapPoint <= cachedGate && generation == cachedGeneration) {
+            return;
+        }
+        // Kapı, nesil okunduktan sonra hesaplanır; arada gelen değişiklik sonraki yayında görülür
+        cachedGeneration = generation;
+        long gate = minimumGatingSequence(sequence - 1);
+        if (wrapPoint > gate) {
+            gateWaits++;
+            long deadline = System.nanoTime() + gateTimeoutNanos;
+            do {
+                if (System.nanoTime() - deadline >= 0) {
+                    // Geride kalan abone taşmayı kendi okumasında görüp sayar
+                    gateTimeouts++;
+                    releaseLaggards(wrapPoint);
+                    return;
+                }
+                LockSupport.parkNanos(this, GATE_PARK_NANOS);
+                gate = minimumGatingSequence(sequence - 1);
+            } while (wrapPoint > gate);
+        }
+        cachedGate = gate;
+    }
+
+    private long minimumGatingSequence(long minimum) {
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.gating) {
+                minimum = Math.min(minimum, subscriber.sequence.get());
+            }
+        }
+        return minimum;
+    }
+
+    private void releaseLaggards(long wrapPoint) {
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.gating && subscriber.sequence.get() < wrapPoint) {
+                subscriber.gating = false;
+            }
+        }
+    }
+
+    /**
+     * Bir abonelik. Kendi iş parçacığı olanlar {@link #close()} ile durdurulur; yoklamalı
+     * abonelikte {@link #poll} tek bir iş parçacığından çağrılmalıdır.
+     */
+    public final class Subscriber {
+
+        private final EventHandler handler;
+        private final WaitStrategy waitStrategy;
+        private final OverrunPolicy policy;
+        // Son işlenen sıra numarası
+        private final AtomicLong sequence = new AtomicLong(-1);
+        private final BusEvent event = new BusEvent();
+        private final CountDownLatch stopped = new CountDownLatch(1);
+        private volatile Thread thread;
+        private volatile boolean closed;
+        // BLOCK_PUBLISHER: yayıncı bu aboneyi bekliyor mu; süre dolunca yetişene kadar bırakılır
+        private volatile boolean gating;
+
+        private volatile long consumed;
+        private volatile long overruns;
+
+        private Subscriber(EventHandler handler, WaitStrategy waitStrategy, OverrunPolicy policy) {
+            this.handler = handler;
+            this.waitStrategy = waitStrategy;
+            this.policy = policy;
+            this.gating = policy == OverrunPolicy.BLOCK_PUBLISHER;
+        }
+
+        /**
+         * Hazır olayları beklemeden işler; en fazla maxEvents olay. İşlenen olay sayısını döndürür.
+         */
+        public int poll(int maxEvents) {
+            long next = sequence.get() + 1;
+            long available = cursor.get();
+            if (closed || available < next) {
+                return 0;
+            }
+            return consume(next, Math.min(available, next + maxEvents - 1));
+        }
+
+        public void close() {
+            closed = true;
+            remove(this);
+            Thread current = thread;
+            if (current != null) {
+                current.interrupt();
+            } else {
+                stopped.countDown();
+            }
+        }
+
+        public boolean awaitStopped(long timeoutMillis) throws InterruptedException {
+            return stopped.await(timeoutMillis, TimeUnit.MILLISECONDS);
+        }
+
+        public OverrunPolicy getPolicy() {
+            return policy;
+        }
+
+        // Son işlenen sıra numarası
+        public long getSequence() {
+            return sequence.get();
+        }
+
+        // Yayımlanmış ama henüz işlenmemiş olay sayısı
+        public long getLag() {
+            return cursor.get() - sequence.get();
+        }
+
+        public long getConsumed() {
+            return consumed;
+        }
+
+        // Abone geride kaldığı için atlanan olay sayısı
+        public long getOverruns() {
+            return overruns;
+        }
+
+        private void run() {
+            try {
+                while (!closed) {
+                    long next = sequence.get() + 1;
+                    long available = waitStrategy.waitFor(next, cursor);
+                    consume(next, available);
+                }
+            } catch (InterruptedException e) {
+                // close() ile durduruldu
+            } finally {
+                stopped.countDown();
+            }
+        }
+
+        private int consume(long from, long last) {
+            int count = 0;
+            for (long current = from; current <= last && !closed; current++) {
+                if (claimed.get() - current >= capacity || !read(current)) {
+                    // Yuva bu aboneye ulaşmadan yeniden kullanıldı; halkadaki en eski olaya atla
+                    long resume = claimed.get() - capacity + 1;
+                    overruns += resume - current;
+                    sequence.lazySet(resume - 1);
+                    current = resume - 1;
+                    continue;
+                }
+                try {
+                    handler.onEvent(event, current, current == last);
+                } catch (RuntimeException e) {
+                    // Hatalı bir olay aboneliği durdurmaz
+                    if (HANDLER_ERROR_LOG.shouldLog()) {
+                        HANDLER_ERROR_LOG.log(name + " abonesi olayı işleyemedi: " + e);
+                    }
+                }
+                sequence.lazySet(current);
+                count++;
+            }
+            consumed += count;
+            if (policy == OverrunPolicy.BLOCK_PUBLISHER && !gating && cursor.get() - sequence.get() < capacity / 2) {
+                // Yayıncının önbelleğindeki kapı bu abone yokken hesaplandı; gözden geçirilmeli
+                gating = true;
+                gateGeneration.incrementAndGet();
+            }
+            return count;
+        }
+
+        // Yuvayı kopyalar; okuma sırasında üzerine yazıldıysa false
+        private boolean read(long current) {
+            int index = (int) (current & mask);
+            int base = index * INTS_PER_SLOT;
+            event.timestampMillis = timestamps.get(index);
+            event.type = ints.get(base);
+            event.value = Float.intBitsToFloat(ints.get(base + 1));
+            event.argument = ints.get(base + 2);
+            event.detail = ints.get(base + 3);
+            event.payload = payloads.get(index);
+            return claimed.get() - current < capacity;
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.syringepumpcontroller.bus;
+
+/**
+ * Abone halka kapasitesi kadar geride kaldığında ne olacağı.
+ */
+public enum OverrunPolicy {
+    // Yayıncı abonenin yetişmesini bekler (en fazla halkanın bekleme süresi kadar); kayıt gibi
+    // kayıpsız tüketiciler içindir. Süre dolarsa yayın sürer ve abone DROP_OLDEST gibi atlar.
+    BLOCK_PUBLISHER,
+    // Yayıncı hiç beklemez; geride kalan abone halkadaki en eski geçerli olaya atlar ve atlanan
+    // olayları sayar. UI ve grafik gibi yalnızca güncel duruma bakan tüketiciler içindir.
+    DROP_OLDEST
+}
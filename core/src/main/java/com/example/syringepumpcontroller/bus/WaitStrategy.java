@@ -0,0 +1,147 @@
+package com.example.syringepumpcontroller.bus;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Abone iş parçacığının yeni olayı nasıl beklediği. Her abonelik kendi örneğini kullanır
+ * (fabrika yöntemleri her çağrıda yenisini verir); gecikme ile işlemci kullanımı arasındaki
+ * seçim abone başına yapılır.
+ */
+public interface WaitStrategy {
+
+    /**
+     * sequence yayımlanana kadar bekler ve yayımlanmış en son sıra numarasını döndürür.
+     * İş parçacığı kesilirse (abonelik kapatıldı) InterruptedException atar.
+     */
+    long waitFor(long sequence, AtomicLong cursor) throws InterruptedException;
+
+    // Yayıncı her yayından sonra çağırır; yalnızca uyuyan abonesi olan stratejiler iş yapar
+    default void signal() {
+    }
+
+    // En düşük gecikme; bir çekirdeği sürekli meşgul eder (ölçüm, denetim döngüsü)
+    static WaitStrategy busySpin() {
+        return new BusySpin();
+    }
+
+    // Kısa dönerek bekler, sonra işlemciyi bırakır
+    static WaitStrategy yielding() {
+        return new Yielding();
+    }
+
+    // Dönme ve bırakmadan sonra parkNanos ile uyur; gecikme en fazla sleepNanos artar
+    static WaitStrategy sleeping(long sleepNanos) {
+        return new Sleeping(sleepNanos);
+    }
+
+    // Koşul değişkeninde uyur; boştayken işlemci harcamaz, yayıncı uyandırır (depolama)
+    static WaitStrategy blocking() {
+        return new Blocking();
+    }
+
+    final class BusySpin implements WaitStrategy {
+        @Override
+        public long waitFor(long sequence, AtomicLong cursor) throws InterruptedException {
+            long available;
+            while ((available = cursor.get()) < sequence) {
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+            }
+            return available;
+        }
+    }
+
+    final class Yielding implements WaitStrategy {
+        private static final int SPIN_TRIES = 100;
+
+        @Override
+        public long waitFor(long sequence, AtomicLong cursor) throws InterruptedException {
+            long available;
+            for (int tries = 0; (available = cursor.get()) < sequence; tries++) {
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+                if (tries >= SPIN_TRIES) {
+                    Thread.yield();
+                }
+            }
+            return available;
+        }
+    }
+
+    final class Sleeping implements WaitStrategy {
+        private static final int SPIN_TRIES = 100;
+        private static final int YIELD_TRIES = 100;
+
+        private final long sleepNanos;
+
+        Sleeping(long sleepNanos) {
+            if (sleepNanos <= 0) {
+                throw new IllegalArgumentException("Geçersiz uyku süresi: " + sleepNanos);
+            }
+            this.sleepNanos = sleepNanos;
+        }
+
+        @Override
+        public long waitFor(long sequence, AtomicLong cursor) throws InterruptedException {
+            long available;
+            for (int tries = 0; (available = cursor.get()) < sequence; tries++) {
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+                if (tries >= SPIN_TRIES + YIELD_TRIES) {
+                    LockSupport.parkNanos(this, sleepNanos);
+                } else if (tries >= SPIN_TRIES) {
+                    Thread.yield();
+                }
+            }
+            return available;
+        }
+    }
+
+    final class Blocking implements WaitStrategy {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition published = lock.newCondition();
+        // Abone uyumadan önce kurar; yayıncı yalnızca kuruluysa kilidi alır. getAndSet her iki
+        // tarafta tam bariyerdir: imleç yazması ile bayrak okuması yer değiştiremez.
+        private final AtomicBoolean signalNeeded = new AtomicBoolean();
+
+        @Override
+        public long waitFor(long sequence, AtomicLong cursor) throws InterruptedException {
+            long available = cursor.get();
+            if (available >= sequence) {
+                return available;
+            }
+            lock.lockInterruptibly();
+            try {
+                while (true) {
+                    signalNeeded.getAndSet(true);
+                    available = cursor.get();
+                    if (available >= sequence) {
+                        return available;
+                    }
+                    published.await();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public void signal() {
+            if (signalNeeded.getAndSet(false)) {
+                lock.lock();
+                try {
+                    published.signalAll();
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.syringepumpcontroller.command;
+
+/**
+ * Metin komutlarını ara String oluşturmadan ASCII baytlara kodlar. Sayısal argümanlar
+ * ("SPEED_" + 40) ve istek kimliği ("@7") doğrudan hedef diziye ondalık olarak yazılır;
+ * böylece sık gönderilen hız ve yoklama komutları kimlikleriyle birlikte bellek ayırmadan
+ * tampona girer.
+ */
+public final class CommandEncoder {
+
+    // Argümansız komut; Integer.MIN_VALUE argüman olarak gönderilemez
+    public static final int NO_ARGUMENT = Integer.MIN_VALUE;
+    // Kimliksiz komut; kimlikler 0..65535'tir (bkz. CommandTracker)
+    public static final int NO_REQUEST_ID = -1;
+
+    private CommandEncoder() {
+    }
+
+    public static int encodedLength(String name, int argument) {
+        return name.length() + (argument == NO_ARGUMENT ? 0 : intLength(argument));
+    }
+
+    public static int encodedLength(String name, int argument, int requestId) {
+        return encodedLength(name, argument) + (requestId == NO_REQUEST_ID ? 0 : 1 + intLength(requestId));
+    }
+
+    /**
+     * name ve varsa ondalık argümanı out[offset..] içine yazar; satır sonu eklenmez.
+     * Hedefte {@link #encodedLength} kadar yer olmalıdır. Yazılanın sonunu döndürür.
+     */
+    public static int encode(String name, int argument, byte[] out, int offset) {
+        int length = name.length();
+        for (int i = 0; i < length; i++) {
+            // Komutlar ASCII'dir
+            out[offset++] = (byte) name.charAt(i);
+        }
+        return argument == NO_ARGUMENT ? offset : writeInt(argument, out, offset);
+    }
+
+    // encode ile aynı, ardından varsa "@<requestId>" eklenir
+    public static int encode(String name, int argument, int requestId, byte[] out, int offset) {
+        offset = encode(name, argument, out, offset);
+        if (requestId == NO_REQUEST_ID) {
+            return offset;
+        }
+        out[offset++] = CommandTracker.ID_SEPARATOR;
+        return writeInt(requestId, out, offset);
+    }
+
+    // Kodlanacak metnin String hali; yalnızca seyrek yollar (hata bildirimi, String hedefler) için
+    public static String toString(String name, int argument, int requestId) {
+        if (argument == NO_ARGUMENT && requestId == NO_REQUEST_ID) {
+            return name;
+        }
+        StringBuilder text = new StringBuilder(encodedLength(name, argument, requestId)).append(name);
+        if (argument != NO_ARGUMENT) {
+            text.append(argument);
+        }
+        if (requestId != NO_REQUEST_ID) {
+            text.append(CommandTracker.ID_SEPARATOR).append(requestId);
+        }
+        return text.toString();
+    }
+
+    // Ondalık yazım; basamaklar negatif değer üzerinden çıkarılır, Integer.MIN_VALUE de taşmaz
+    public static int writeInt(int value, byte[] out, int offset) {
+        int end = offset + intLength(value);
+        int position = end;
+        int remaining = value < 0 ? value : -value;
+        do {
+            out[--position] = (byte) ('0' - remaining % 10);
+            remaining /= 10;
+        } while (remaining != 0);
+        if (value < 0) {
+            out[offset] = '-';
+        }
+        return end;
+    }
+
+    public static int intLength(int value) {
+        int length = value < 0 ? 2 : 1;
+        for (int remaining = value < 0 ? value : -value; remaining <= -10; remaining /= 10) {
+            length++;
+        }
+        return length;
+    }
+
+    // CommandScheduler.is ile aynı kural: ad eşleşir, ardından ya son ya da "@<id>" gelir
+    public static boolean is(byte[] data, int offset, int length, String name) {
+        int nameLength = name.length();
+        if (length < nameLength) {
+            return false;
+        }
+        for (int i = 0; i < nameLength; i++) {
+            if (data[offset + i] != name.charAt(i)) {
+                return false;
+            }
+        }
+        return length == nameLength || data[offset + nameLength] == CommandTracker.ID_SEPARATOR;
+    }
+}
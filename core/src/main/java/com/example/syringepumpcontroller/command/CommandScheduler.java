@@ -0,0 +1,489 @@
+package com.example.syringepumpcontroller.command;
+
+import com.example.syringepumpcontroller.metrics.Histogram;
+import com.example.syringepumpcontroller.metrics.Metrics;
+import com.example.syringepumpcontroller.metrics.RateLimitedLog;
+import com.example.syringepumpcontroller.serial.SerialTransport;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Cihaza giden komutları kendi yazıcı iş parçacığında sıralayan ve birleştiren zamanlayıcı.
+ *
+ * Kurallar:
+ * - STOP güvenlik nedeniyle her şeyin önüne geçer; bekleyen START komutları iptal edilir.
+ * - Bekleyen SPEED_n, DIR_*, STREAM_n ve GET_SENSOR komutları yenisiyle yerinde güncellenir;
+ *   kuyruktaki konumları (ve diğer komutlara göre sıraları) korunur.
+ * - GET_SENSOR yoklamaları en düşük önceliktedir ve kontrol komutlarının önüne geçmez.
+ * - Bekleyen komutlar tek bir yazmada (USB aktarımı) birleştirilir.
+ *
+ * Her komut için kuyruğa girişten porta yazılışa kadar geçen süre türüne göre ölçülür.
+ *
+ * Komutlar kuyruğa girerken {@link CommandEncoder} ile havuzdan alınan önceden boyutlanmış
+ * bayt tamponlarına kodlanır; yazılan veya birleştirilip atılan girdiler havuza döner. Böylece
+ * yoklama ve {@link #submit(String, int, int)} ile (istek kimliğiyle birlikte) gönderilen hız
+ * komutları sürekli kullanımda bellek ayırmaz.
+ *
+ * Yazıcı ya kendi iş parçacığıdır ya da (çok cihazlı kullanımda) paylaşılan bir yürütücüde
+ * yalnızca bekleyen komut varken çalışan bir boşaltma görevidir.
+ */
+public class CommandScheduler implements CommandSink {
+
+    public enum Kind {
+        STOP,
+        SPEED,
+        DIRECTION,
+        STREAM,
+        POLL,
+        OTHER
+    }
+
+    public static final String COMMAND_STOP = "STOP";
+    public static final String COMMAND_START = "START";
+
+    // Tek yazmada gönderilecek en fazla bayt (birkaç tam hızlı USB paketi)
+    public static final int MAX_BATCH_BYTES = 256;
+    // Girdi tamponu; "SPEED_1000@65535" gibi kimlikli komutlar rahatça sığar, uzunları büyütülür
+    private static final int ENTRY_BYTES = 32;
+    // Havuzda tutulan en fazla boş girdi; bir yığında birden çok komut olabilir
+    private static final int ENTRY_POOL_SIZE = 16;
+    private static final long CLOSE_TIMEOUT_MS = 500;
+    // Paylaşılan yürütücüde tek seferde yazılan en fazla yığın; sonra diğer cihazlara sıra gelir
+    private static final int DRAIN_BATCHES = 8;
+    private static final RateLimitedLog WRITE_ERROR_LOG = new RateLimitedLog("CommandScheduler", 5000);
+
+    // Kodlanmış komut (satır sonu olmadan); havuzdan alınır ve yazıldıktan sonra geri döner
+    private static final class Entry {
+        Kind kind;
+        byte[] bytes = new byte[ENTRY_BYTES];
+        int length;
+        long enqueuedNanos;
+        Entry next;
+    }
+
+    private final SerialTransport transport;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition pendingChanged = lock.newCondition();
+
+    // Kilit altında: bekleyen STOP, sıralı kontrol komutları ve yoklama
+    private Entry pendingStop;
+    private final List<Entry> pending = new ArrayList<>();
+    private Entry pendingPoll;
+    private Entry freeEntries;
+    private int freeCount;
+    private boolean closing;
+    // Paylaşılan yürütücü kipinde: boşaltma görevi sırada mı, yazıcı rolü birinde mi
+    private boolean drainQueued;
+    private boolean writerBusy;
+
+    // Yazıcı iş parçacığına (veya yazıcı rolünü tutan göreve) ait
+    private final byte[] batch = new byte[MAX_BATCH_BYTES];
+    private final List<Entry> inFlight = new ArrayList<>();
+    private Thread writer;
+    private final Executor writerExecutor;
+    private final Runnable drain = this::drain;
+
+    // Kuyruğa girişten porta yazılana kadar geçen süre (µs)
+    private final Histogram[] latency = new Histogram[Kind.values().length];
+    private volatile long submitted;
+    private volatile long coalesced;
+    private volatile long written;
+    private volatile long batches;
+
+    public CommandScheduler(SerialTransport transport) {
+        this(transport, null);
+    }
+
+    /**
+     * @param writerExecutor yazmaların yapılacağı paylaşılan yürütücü; null ise {@link #start()}
+     *                       kendi yazıcı iş parçacığını açar
+     */
+    public CommandScheduler(SerialTransport transport, Executor writerExecutor) {
+        this.transport = transport;
+        this.writerExecutor = writerExecutor;
+        for (Kind kind : Kind.values()) {
+            latency[kind.ordinal()] = new Histogram("command.queue." + kind, "µs", Histogram.LATENCY_MICROS);
+        }
+    }
+
+    public synchronized void start() {
+        if (writer != null || writerExecutor != null) {
+            return;
+        }
+        writer = new Thread(this::writeLoop, "CommandWriter");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    // Komutlar "@<id>" istek kimliği sonekiyle de gelebilir (bkz. CommandTracker)
+    public static Kind classify(String command) {
+        if (is(command, COMMAND_STOP)) {
+            return Kind.STOP;
+        } else if (command.startsWith("SPEED_")) {
+            return Kind.SPEED;
+        } else if (command.startsWith("DIR_")) {
+            return Kind.DIRECTION;
+        } else if (command.startsWith("STREAM_")) {
+            return Kind.STREAM;
+        } else if (is(command, "GET_SENSOR")) {
+            return Kind.POLL;
+        }
+        return Kind.OTHER;
+    }
+
+    // Soneki yok sayarak komut adını karşılaştırır
+    public static boolean is(String command, String name) {
+        return command.startsWith(name)
+                && (command.length() == name.length() || command.charAt(name.length()) == '@');
+    }
+
+    @Override
+    public void submit(String command) {
+        enqueue(classify(command), command, CommandEncoder.NO_ARGUMENT, CommandEncoder.NO_REQUEST_ID);
+    }
+
+    // Argüman ara String oluşturulmadan doğrudan girdinin tamponuna yazılır
+    @Override
+    public void submit(String name, int argument) {
+        enqueue(classify(name), name, argument, CommandEncoder.NO_REQUEST_ID);
+    }
+
+    // Argüman ve istek kimliği ara String oluşturulmadan girdinin tamponuna yazılır
+    @Override
+    public void submit(String name, int argument, int requestId) {
+        enqueue(classify(name), name, argument, requestId);
+    }
+
+    private void enqueue(Kind kind, String name, int argument, int requestId) {
+        long now = System.nanoTime();
+        lock.lock();
+        try {
+            if (closing) {
+                return;
+            }
+            submitted++;
+            switch (kind) {
+                case STOP:
+                    if (pendingStop != null) {
+                        // Yeniden denenen STOP yeni kimlikle gelir; eski kimlik yazılırsa onayı eşleşmez
+                        encode(pendingStop, name, argument, requestId);
+                        coalesced++;
+                    } else {
+                        pendingStop = obtain(kind, name, argument, requestId, now);
+                    }
+                    // STOP'tan önce sıraya girmiş ama yazılmamış START pompayı yeniden çalıştırmasın
+                    for (int i = pending.size() - 1; i >= 0; i--) {
+                        Entry entry = pending.get(i);
+                        if (CommandEncoder.is(entry.bytes, 0, entry.length, COMMAND_START)) {
+                            recycle(pending.remove(i));
+                            coalesced++;
+                        }
+                    }
+                    break;
+                case POLL:
+                    if (pendingPoll != null) {
+                        coalesced++;
+                    } else {
+                        pendingPoll = obtain(kind, name, argument, requestId, now);
+                    }
+                    break;
+                case OTHER:
+                    pending.add(obtain(kind, name, argument, requestId, now));
+                    break;
+                default:
+                    Entry existing = findPending(kind);
+                    if (existing != null) {
+                        // Eski değer yerine en son değer gönderilir; gecikme ilk girişten ölçülür
+                        encode(existing, name, argument, requestId);
+                        coalesced++;
+                    } else {
+                        pending.add(obtain(kind, name, argument, requestId, now));
+                    }
+                    break;
+            }
+            pendingChanged.signal();
+            if (writerExecutor != null && !drainQueued && !writerBusy) {
+                drainQueued = true;
+            } else {
+                return;
+            }
+        } finally {
+            lock.unlock();
+        }
+        try {
+            writerExecutor.execute(drain);
+        } catch (RejectedExecutionException e) {
+            // Havuz kapanıyor; bekleyenler close() ile çağıran iş parçacığında yazılır
+            lock.lock();
+            try {
+                drainQueued = false;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Bekleyen komutları gönderip yazıcıyı durdurur. Port kapatılmaz.
+     */
+    public void close() {
+        Thread thread;
+        lock.lock();
+        try {
+            closing = true;
+            pendingChanged.signal();
+        } finally {
+            lock.unlock();
+        }
+        if (writerExecutor != null) {
+            closeShared();
+            return;
+        }
+        synchronized (this) {
+            thread = writer;
+        }
+        if (thread != null && thread != Thread.currentThread()) {
+            try {
+                thread.join(CLOSE_TIMEOUT_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    public Histogram getLatency(Kind kind) {
+        return latency[kind.ordinal()];
+    }
+
+    public long getSubmitted() {
+        return submitted;
+    }
+
+    // Daha yeni bir değerle birleştirilen veya STOP ile iptal edilen komut sayısı
+    public long getCoalesced() {
+        return coalesced;
+    }
+
+    public long getWritten() {
+        return written;
+    }
+
+    public long getBatches() {
+        return batches;
+    }
+
+    public int getPendingCount() {
+        lock.lock();
+        try {
+            return pending.size() + (pendingStop != null ? 1 : 0) + (pendingPoll != null ? 1 : 0);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Entry findPending(Kind kind) {
+        for (int i = 0; i < pending.size(); i++) {
+            Entry entry = pending.get(i);
+            if (entry.kind == kind) {
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    private void writeLoop() {
+        while (true) {
+            int length;
+            lock.lock();
+            try {
+                while (!hasPending() && !closing) {
+                    pendingChanged.awaitUninterruptibly();
+                }
+                if (!hasPending()) {
+                    return;
+                }
+                length = fillBatch();
+            } finally {
+                lock.unlock();
+            }
+            writeBatch(length);
+        }
+    }
+
+    // Paylaşılan yürütücüde: yazıcı rolünü alır ve bekleyen komutları yazar
+    private void drain() {
+        lock.lock();
+        try {
+            drainQueued = false;
+            if (writerBusy) {
+                return;
+            }
+            writerBusy = true;
+        } finally {
+            lock.unlock();
+        }
+        if (writePending(DRAIN_BATCHES)) {
+            writerExecutor.execute(drain);
+        }
+    }
+
+    /**
+     * Yazıcı rolü tutulurken en fazla maxBatches yığın yazar ve rolü bırakır. Komut kaldıysa ve
+     * boşaltma görevi sırada değilse, yeniden sıraya girilmesi gerektiği için true döner.
+     */
+    private boolean writePending(int maxBatches) {
+        for (int i = 0; ; i++) {
+            int length;
+            lock.lock();
+            try {
+                if (!hasPending() || i == maxBatches) {
+                    writerBusy = false;
+                    pendingChanged.signalAll();
+                    if (!hasPending() || drainQueued) {
+                        return false;
+                    }
+                    drainQueued = true;
+                    return true;
+                }
+                length = fillBatch();
+            } finally {
+                lock.unlock();
+            }
+            writeBatch(length);
+        }
+    }
+
+    // Süren boşaltmanın bitmesini bekler, kalanları çağıran iş parçacığında yazar. Sırada
+    // bekleyen boşaltma görevi beklenmez; havuz doluyken bile kapatma kilitlenmez.
+    private void closeShared() {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(CLOSE_TIMEOUT_MS);
+        lock.lock();
+        try {
+            while (writerBusy) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return;
+                }
+                pendingChanged.awaitNanos(remaining);
+            }
+            writerBusy = true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        } finally {
+            lock.unlock();
+        }
+        writePending(Integer.MAX_VALUE);
+    }
+
+    private boolean hasPending() {
+        return pendingStop != null || !pending.isEmpty() || pendingPoll != null;
+    }
+
+    private void writeBatch(int length) {
+        try {
+            transport.write(batch, 0, length);
+        } catch (RuntimeException e) {
+            // Port kapanmış olabilir; komutlar kaybolur ama yazıcı çalışmaya devam eder
+            if (WRITE_ERROR_LOG.shouldLog()) {
+                WRITE_ERROR_LOG.log(inFlight.size() + " komut yazılamadı: " + e);
+            }
+            releaseInFlight();
+            return;
+        }
+        Metrics.SERIAL_BYTES_WRITTEN.add(length);
+
+        long now = System.nanoTime();
+        for (int i = 0; i < inFlight.size(); i++) {
+            Entry entry = inFlight.get(i);
+            latency[entry.kind.ordinal()].record((now - entry.enqueuedNanos) / 1000);
+        }
+        written += inFlight.size();
+        batches++;
+        releaseInFlight();
+    }
+
+    private void releaseInFlight() {
+        lock.lock();
+        try {
+            for (int i = 0; i < inFlight.size(); i++) {
+                recycle(inFlight.get(i));
+            }
+        } finally {
+            lock.unlock();
+        }
+        inFlight.clear();
+    }
+
+    // Kilit altında çağrılır: önce STOP, sonra sıralı komutlar, en son yoklama
+    private int fillBatch() {
+        int length = 0;
+        if (pendingStop != null) {
+            length = append(pendingStop, length);
+            pendingStop = null;
+        }
+        while (!pending.isEmpty()) {
+            Entry entry = pending.get(0);
+            if (length + entry.length + 1 > MAX_BATCH_BYTES && length > 0) {
+                return length;
+            }
+            length = append(entry, length);
+            pending.remove(0);
+        }
+        if (pendingPoll != null && length + pendingPoll.length + 1 <= MAX_BATCH_BYTES) {
+            length = append(pendingPoll, length);
+            pendingPoll = null;
+        }
+        return length;
+    }
+
+    private int append(Entry entry, int length) {
+        // Tampona sığmayan aşırı uzun komutlar kesilir
+        int count = Math.min(entry.length, MAX_BATCH_BYTES - length - 1);
+        System.arraycopy(entry.bytes, 0, batch, length, count);
+        length += count;
+        batch[length++] = '\n';
+        inFlight.add(entry);
+        return length;
+    }
+
+    // Kilit altında: havuzdan boş bir girdi alır (havuz boşsa yenisini oluşturur) ve komutu kodlar
+    private Entry obtain(Kind kind, String name, int argument, int requestId, long now) {
+        Entry entry = freeEntries;
+        if (entry != null) {
+            freeEntries = entry.next;
+            entry.next = null;
+            freeCount--;
+        } else {
+            entry = new Entry();
+        }
+        entry.kind = kind;
+        entry.enqueuedNanos = now;
+        encode(entry, name, argument, requestId);
+        return entry;
+    }
+
+    private static void encode(Entry entry, String name, int argument, int requestId) {
+        int length = CommandEncoder.encodedLength(name, argument, requestId);
+        if (length > entry.bytes.length) {
+            entry.bytes = new byte[length];
+        }
+        CommandEncoder.encode(name, argument, requestId, entry.bytes, 0);
+        entry.length = Math.min(length, MAX_BATCH_BYTES - 1);
+    }
+
+    // Kilit altında
+    private void recycle(Entry entry) {
+        if (freeCount < ENTRY_POOL_SIZE) {
+            entry.next = freeEntries;
+            freeEntries = entry;
+            freeCount++;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.syringepumpcontroller.command;
+
+/**
+ * Cihaza giden metin komutlarının hedefi. Komutlar satır sonu olmadan verilir.
+ */
+public interface CommandSink {
+    void submit(String command);
+
+    // name + ondalık argüman ("STREAM_" ve 100 → "STREAM_100"); CommandScheduler birleştirmeden kodlar
+    default void submit(String name, int argument) {
+        submit(name, argument, CommandEncoder.NO_REQUEST_ID);
+    }
+
+    /**
+     * name + argüman + "@&lt;requestId&gt;" ("SPEED_", 40, 7 → "SPEED_40@7"). Argüman yoksa
+     * {@link CommandEncoder#NO_ARGUMENT}, kimlik yoksa {@link CommandEncoder#NO_REQUEST_ID} verilir.
+     * CommandScheduler metni havuzdaki tampona doğrudan kodlar.
+     */
+    default void submit(String name, int argument, int requestId) {
+        submit(CommandEncoder.toString(name, argument, requestId));
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.syringepumpcontroller.command;
+
+import com.example.syringepumpcontroller.metrics.Histogram;
+
+import java.io.IOException;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Komut türüne göre gidiş-dönüş (gönderim - ACK/NAK) gecikme histogramları ve sonuç sayaçları.
+ * Bağlantılar arasında korunur; uygulama içinde görüntülenir ve metin olarak dışa aktarılır.
+ */
+public class CommandStats {
+
+    // Gidiş-dönüş sınırları (µs): 50 µs - 60 s, ardışık sınırlar arasında en fazla %5
+    static final long[] ROUND_TRIP_MICROS = Histogram.geometricBounds(50, 60_000_000, 1.05);
+
+    private final Histogram[] roundTrip = new Histogram[CommandScheduler.Kind.values().length];
+    final AtomicLong acked = new AtomicLong();
+    final AtomicLong naked = new AtomicLong();
+    final AtomicLong timedOut = new AtomicLong();
+    final AtomicLong retries = new AtomicLong();
+    final AtomicLong retriedReplies = new AtomicLong();
+    final AtomicLong superseded = new AtomicLong();
+    final AtomicLong unmatched = new AtomicLong();
+
+    public CommandStats() {
+        for (CommandScheduler.Kind kind : CommandScheduler.Kind.values()) {
+            roundTrip[kind.ordinal()] = new Histogram("command.round_trip." + kind, "µs", ROUND_TRIP_MICROS);
+        }
+    }
+
+    public Histogram getRoundTrip(CommandScheduler.Kind kind) {
+        return roundTrip[kind.ordinal()];
+    }
+
+    public long getAcked() {
+        return acked.get();
+    }
+
+    public long getNaked() {
+        return naked.get();
+    }
+
+    public long getTimedOut() {
+        return timedOut.get();
+    }
+
+    public long getRetries() {
+        return retries.get();
+    }
+
+    // Yeniden denendikten sonra yanıtlanan komutlar; gidiş-dönüş histogramlarına girmez
+    public long getRetriedReplies() {
+        return retriedReplies.get();
+    }
+
+    public long getSuperseded() {
+        return superseded.get();
+    }
+
+    // Bilinmeyen veya zaten sonuçlanmış kimlik için gelen yanıtlar
+    public long getUnmatched() {
+        return unmatched.get();
+    }
+
+    public void reset() {
+        for (Histogram histogram : roundTrip) {
+            histogram.reset();
+        }
+        acked.set(0);
+        naked.set(0);
+        timedOut.set(0);
+        retries.set(0);
+        retriedReplies.set(0);
+        superseded.set(0);
+        unmatched.set(0);
+    }
+
+    /**
+     * Sayaçları ve her komut türü için HdrHistogram yüzdelik dağılımını (ms) yazar.
+     */
+    public void export(Appendable out) throws IOException {
+        out.append(String.format(Locale.US,
+                "# ACK=%d NAK=%d zaman aşımı=%d yeniden deneme=%d denemeden sonra yanıt=%d geçersiz kılınan=%d eşleşmeyen=%d%n",
+                getAcked(), getNaked(), getTimedOut(), getRetries(), getRetriedReplies(), getSuperseded(), getUnmatched()));
+        for (CommandScheduler.Kind kind : CommandScheduler.Kind.values()) {
+            Histogram histogram = getRoundTrip(kind);
+            if (histogram.getCount() == 0) {
+                continue;
+            }
+            out.append(String.format(Locale.US, "%n# %s gidiş-dönüş (ms)%n", kind));
+            histogram.outputPercentileDistribution(out, 1000.0);
+        }
+    }
+}
@@ -0,0 +1,338 @@
+package com.example.syringepumpcontroller.command;
+
+import com.example.syringepumpcontroller.protocol.ReplyListener;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pompa komutlarına istek kimliği ekleyip cihazın ACK/NAK yanıtlarıyla eşleştirir.
+ *
+ * Komutlar "&lt;komut&gt;@&lt;id&gt;" olarak gönderilir (id 1..65535, 0 el sıkışmaya ayrılmıştır).
+ * Yanıt süresi içinde gelmezse komut aynı kimlikle {@link RetryPolicy}'ye göre yeniden gönderilir;
+ * pompa komutları idempotent olduğundan bu güvenlidir. Yeni bir SPEED/DIR eskisini, STOP bekleyen
+ * START'ı geçersiz kılar (zamanlayıcının birleştirmesiyle aynı kural); bunlar yeniden denenmez.
+ *
+ * Donanım yazılımı kimlikli komutları desteklemiyorsa ({@link #negotiate} başarısız) komutlar
+ * eskisi gibi kimliksiz gönderilir ve {@link Outcome#UNCONFIRMED} ile hemen sonuçlanır.
+ * Gidiş-dönüş süreleri {@link CommandStats} histogramlarına yazılır. Yeniden denenen komutun yanıtı
+ * hangi gönderime ait olduğu bilinemediğinden bu histogramlara girmez, ayrıca sayılır.
+ *
+ * Komut adı ve sayısal argümanı ayrı tutulur ({@link #send(String, int)}); kimlikli metin
+ * yalnızca zamanlayıcının tamponunda kodlanır, gönderim ve yeniden deneme String oluşturmaz.
+ */
+public class CommandTracker implements ReplyListener {
+
+    public static final String HANDSHAKE = "PROTO_ACK";
+    public static final char ID_SEPARATOR = '@';
+
+    public enum Outcome {
+        ACKED,
+        NAKED,
+        TIMED_OUT,
+        // Daha yeni bir komut tarafından geçersiz kılındı; sonucu önemsiz
+        SUPERSEDED,
+        // Bağlantı kapandı
+        CANCELLED,
+        // Cihaz yanıt desteklemiyor; komut yalnızca gönderildi
+        UNCONFIRMED
+    }
+
+    public interface Listener {
+        // name ve argument gönderildiği gibidir (argümansızsa CommandEncoder.NO_ARGUMENT);
+        // code yalnızca NAKED için anlamlıdır
+        void onCommandResolved(String name, int argument, Outcome outcome, int code);
+    }
+
+    public static final class RetryPolicy {
+        final long timeoutMillis;
+        final int maxAttempts;
+
+        public RetryPolicy(long timeoutMillis, int maxAttempts) {
+            if (timeoutMillis <= 0 || maxAttempts < 1) {
+                throw new IllegalArgumentException("Geçersiz yeniden deneme ayarı");
+            }
+            this.timeoutMillis = timeoutMillis;
+            this.maxAttempts = maxAttempts;
+        }
+    }
+
+    // Varsayılan: 250 ms'de yanıt yoksa yeniden gönder, 3 denemede vazgeç; STOP için daha ısrarcı
+    public static final RetryPolicy DEFAULT_POLICY = new RetryPolicy(250, 3);
+    public static final RetryPolicy STOP_POLICY = new RetryPolicy(150, 10);
+
+    private static final int TABLE_SIZE = 1024;
+    private static final int MAX_ID = 0xFFFF;
+
+    private static class Pending {
+        final int id;
+        final String name;
+        final int argument;
+        final CommandScheduler.Kind kind;
+        final RetryPolicy policy;
+        int attempts;
+        // İlk gönderim anı; yeniden denemeler değiştirmez
+        long firstSentNanos;
+        ScheduledFuture<?> timeout;
+
+        Pending(int id, String name, int argument, CommandScheduler.Kind kind, RetryPolicy policy) {
+            this.id = id;
+            this.name = name;
+            this.argument = argument;
+            this.kind = kind;
+            this.policy = policy;
+        }
+    }
+
+    private final CommandSink sink;
+    private final ScheduledExecutorService timer;
+    private final Listener listener;
+    private final CommandStats stats;
+
+    // Kilit (this) altında
+    private final Pending[] table = new Pending[TABLE_SIZE];
+    private int nextId = 1;
+    private boolean closed;
+
+    private final Object handshakeLock = new Object();
+    private boolean handshakeAcked;
+    // El sıkışma yanıtı gelince okuma iş parçacığında çağrılır
+    private Runnable handshakeListener;
+    private volatile boolean enabled;
+
+    public CommandTracker(CommandSink sink, ScheduledExecutorService timer, Listener listener, CommandStats stats) {
+        this.sink = sink;
+        this.timer = timer;
+        this.listener = listener;
+        this.stats = stats;
+    }
+
+    /**
+     * Cihazın kimlikli komutları destekleyip desteklemediğini sorar; en fazla timeoutMillis bloklar.
+     */
+    public boolean negotiate(long timeoutMillis) throws InterruptedException {
+        requestNegotiation(null);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        synchronized (handshakeLock) {
+            while (!handshakeAcked) {
+                long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remaining <= 0) {
+                    break;
+                }
+                handshakeLock.wait(remaining);
+            }
+        }
+        return finishNegotiation();
+    }
+
+    /**
+     * El sıkışmayı bloklamadan başlatır. Cihaz yanıt verirse (ACK veya NAK) onReplied okuma iş
+     * parçacığında çağrılır; çağıran yanıt gelince veya kendi zaman aşımında
+     * {@link #finishNegotiation} ile sonucu alır.
+     */
+    public void requestNegotiation(Runnable onReplied) {
+        synchronized (handshakeLock) {
+            handshakeAcked = false;
+            handshakeListener = onReplied;
+        }
+        sink.submit(HANDSHAKE, CommandEncoder.NO_ARGUMENT, 0);
+    }
+
+    // El sıkışmayı bitirir; o ana kadar ACK geldiyse kimlikli komutlar açılır
+    public boolean finishNegotiation() {
+        synchronized (handshakeLock) {
+            handshakeListener = null;
+            enabled = handshakeAcked;
+            return enabled;
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void send(String command) {
+        send(command, CommandEncoder.NO_ARGUMENT);
+    }
+
+    // name + ondalık argüman ("SPEED_", 40); argümansız komutlar için CommandEncoder.NO_ARGUMENT
+    public void send(String name, int argument) {
+        if (!enabled) {
+            sink.submit(name, argument, CommandEncoder.NO_REQUEST_ID);
+            listener.onCommandResolved(name, argument, Outcome.UNCONFIRMED, 0);
+            return;
+        }
+        CommandScheduler.Kind kind = CommandScheduler.classify(name);
+        RetryPolicy policy = kind == CommandScheduler.Kind.STOP ? STOP_POLICY : DEFAULT_POLICY;
+        Pending pending;
+        Pending evicted;
+        Pending[] superseded = null;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            superseded = collectSuperseded(kind);
+            int id = nextId;
+            nextId = nextId == MAX_ID ? 1 : nextId + 1;
+            pending = new Pending(id, name, argument, kind, policy);
+            int slot = id & (TABLE_SIZE - 1);
+            // Tablo sarmışsa en eski bekleyen komut zaman aşımına uğramış sayılır
+            evicted = table[slot];
+            table[slot] = pending;
+            transmit(pending);
+        }
+        if (evicted != null) {
+            resolve(evicted, Outcome.TIMED_OUT, 0);
+        }
+        if (superseded != null) {
+            for (Pending old : superseded) {
+                if (old != null) {
+                    resolve(old, Outcome.SUPERSEDED, 0);
+                }
+            }
+        }
+    }
+
+    /**
+     * Bekleyen tüm komutları iptal eder.
+     */
+    public void close() {
+        Pending[] remaining = new Pending[TABLE_SIZE];
+        int count = 0;
+        synchronized (this) {
+            closed = true;
+            for (int i = 0; i < TABLE_SIZE; i++) {
+                if (table[i] != null) {
+                    remaining[count++] = table[i];
+                    table[i] = null;
+                }
+            }
+        }
+        for (int i = 0; i < count; i++) {
+            resolve(remaining[i], Outcome.CANCELLED, 0);
+        }
+    }
+
+    public synchronized int getOutstandingCount() {
+        int count = 0;
+        for (Pending pending : table) {
+            if (pending != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    // Okuma iş parçacığından çağrılır
+    @Override
+    public void onReply(boolean ack, int requestId, int code) {
+        if (requestId == 0) {
+            Runnable listener;
+            synchronized (handshakeLock) {
+                handshakeAcked = ack;
+                handshakeLock.notifyAll();
+                listener = handshakeListener;
+            }
+            if (listener != null) {
+                listener.run();
+            }
+            return;
+        }
+        long now = System.nanoTime();
+        Pending pending;
+        synchronized (this) {
+            int slot = requestId & (TABLE_SIZE - 1);
+            pending = table[slot];
+            if (pending == null || pending.id != requestId) {
+                stats.unmatched.incrementAndGet();
+                return;
+            }
+            table[slot] = null;
+        }
+        if (pending.attempts == 1) {
+            stats.getRoundTrip(pending.kind).record(TimeUnit.NANOSECONDS.toMicros(now - pending.firstSentNanos));
+        } else {
+            stats.retriedReplies.incrementAndGet();
+        }
+        resolve(pending, ack ? Outcome.ACKED : Outcome.NAKED, code);
+    }
+
+    // Kilit altında çağrılır
+    private void transmit(final Pending pending) {
+        if (pending.attempts++ == 0) {
+            pending.firstSentNanos = System.nanoTime();
+        }
+        sink.submit(pending.name, pending.argument, pending.id);
+        pending.timeout = timer.schedule(() -> onTimeout(pending), pending.policy.timeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void onTimeout(Pending pending) {
+        synchronized (this) {
+            int slot = pending.id & (TABLE_SIZE - 1);
+            if (table[slot] != pending) {
+                return;
+            }
+            if (!closed && pending.attempts < pending.policy.maxAttempts) {
+                stats.retries.incrementAndGet();
+                transmit(pending);
+                return;
+            }
+            table[slot] = null;
+        }
+        resolve(pending, Outcome.TIMED_OUT, 0);
+    }
+
+    // Kilit altında: yeni komutun geçersiz kıldığı bekleyen komutları tablodan çıkarır
+    private Pending[] collectSuperseded(CommandScheduler.Kind kind) {
+        Pending[] result = null;
+        int count = 0;
+        for (int i = 0; i < TABLE_SIZE; i++) {
+            Pending old = table[i];
+            if (old == null) {
+                continue;
+            }
+            boolean supersede;
+            if (kind == CommandScheduler.Kind.STOP) {
+                supersede = CommandScheduler.is(old.name, CommandScheduler.COMMAND_START);
+            } else if (kind == CommandScheduler.Kind.OTHER) {
+                supersede = false;
+            } else {
+                supersede = old.kind == kind;
+            }
+            if (supersede) {
+                if (result == null) {
+                    result = new Pending[4];
+                } else if (count == result.length) {
+                    result = java.util.Arrays.copyOf(result, count * 2);
+                }
+                result[count++] = old;
+                table[i] = null;
+            }
+        }
+        return result;
+    }
+
+    private void resolve(Pending pending, Outcome outcome, int code) {
+        if (pending.timeout != null) {
+            pending.timeout.cancel(false);
+        }
+        switch (outcome) {
+            case ACKED:
+                stats.acked.incrementAndGet();
+                break;
+            case NAKED:
+                stats.naked.incrementAndGet();
+                break;
+            case TIMED_OUT:
+                stats.timedOut.incrementAndGet();
+                break;
+            case SUPERSEDED:
+                stats.superseded.incrementAndGet();
+                break;
+            default:
+                break;
+        }
+        listener.onCommandResolved(pending.name, pending.argument, outcome, code);
+    }
+}
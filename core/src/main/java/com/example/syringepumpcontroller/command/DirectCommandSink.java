@@ -0,0 +1,43 @@
+package com.example.syringepumpcontroller.command;
+
+import com.example.syringepumpcontroller.serial.SerialTransport;
+
+/**
+ * Komutları zamanlayıcı olmadan, çağıran iş parçacığında doğrudan porta satır olarak yazar.
+ * Tek bir yeniden kullanılan tampona kodlanır; yazmalar bu yüzden sıralanır.
+ */
+public class DirectCommandSink implements CommandSink {
+
+    private final SerialTransport transport;
+    // Kilit (this) altında
+    private byte[] line = new byte[32];
+
+    public DirectCommandSink(SerialTransport transport) {
+        this.transport = transport;
+    }
+
+    @Override
+    public void submit(String command) {
+        write(command, CommandEncoder.NO_ARGUMENT, CommandEncoder.NO_REQUEST_ID);
+    }
+
+    @Override
+    public void submit(String name, int argument) {
+        write(name, argument, CommandEncoder.NO_REQUEST_ID);
+    }
+
+    @Override
+    public void submit(String name, int argument, int requestId) {
+        write(name, argument, requestId);
+    }
+
+    private synchronized void write(String name, int argument, int requestId) {
+        int length = CommandEncoder.encodedLength(name, argument, requestId) + 1;
+        if (length > line.length) {
+            line = new byte[length];
+        }
+        int end = CommandEncoder.encode(name, argument, requestId, line, 0);
+        line[end++] = '\n';
+        transport.write(line, 0, end);
+    }
+}
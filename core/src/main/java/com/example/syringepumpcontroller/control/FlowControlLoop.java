@@ -0,0 +1,271 @@
+package com.example.syringepumpcontroller.control;
+
+import com.example.syringepumpcontroller.data.SampleBuffer;
+import com.example.syringepumpcontroller.metrics.Metrics;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sensör akışına göre pompa hızını ayarlayan kapalı çevrim denetim motoru.
+ *
+ * Sabit kontrol periyodunun her adımında son adımdan bu yana {@link SampleBuffer}'a gelen
+ * örneklerin ortalaması ölçüm olarak alınır, {@link PidController} ile yeni hız hesaplanır,
+ * değişim hızı sınırlanır ve tamsayı hız yalnızca değiştiğinde gönderilir. Hız komutları
+ * komut zamanlayıcısında ayrıca birleştirilir.
+ *
+ * Zamanlama sapması (adımın ideal zamanından farkı) ölçülür. Sapmanın etkisi sınırlıdır:
+ * hesapta ölçülen adım süresi kullanılır ama [periyot/4, 2·periyot] aralığına kırpılır,
+ * geciken zamanlayıcının art arda ateşlediği yarım periyottan kısa adımlar atlanır.
+ *
+ * Pompa çalışmıyorken (çıkış tesise ulaşmazken) denetim askıda kalır; yeniden devreye
+ * girdiğinde çıkış mevcut hızdan başlayıp değişim hızı sınırıyla hedefe ilerler.
+ */
+public class FlowControlLoop {
+
+    public interface Actuator {
+        // Pompa bağlı ve çalışıyorsa true; değilse hesaplanan hız tesise ulaşmaz
+        boolean isActive();
+
+        int getSpeed();
+
+        void setSpeed(int speed);
+    }
+
+    public static final long DEFAULT_PERIOD_MS = 100;
+    public static final int MIN_SPEED = 0;
+    public static final int MAX_SPEED = 100;
+    // Tek adımda işlenen en fazla örnek; daha hızlı akışta en yenileri kullanılır
+    private static final int MAX_SAMPLES_PER_TICK = 4096;
+
+    private final SampleBuffer sampleBuffer;
+    private final ScheduledExecutorService executor;
+    private final Actuator actuator;
+    private final SampleBuffer.Snapshot snapshot = new SampleBuffer.Snapshot(256);
+
+    // Yapılandırma; yalnızca durdurulmuşken değiştirilir
+    private PidController pid = defaultPid();
+    private double maxSlewPerSecond = 50;
+    private long periodNanos = TimeUnit.MILLISECONDS.toNanos(DEFAULT_PERIOD_MS);
+
+    private volatile double setpoint = 2.5;
+    private ScheduledFuture<?> task;
+
+    // Yürütücü iş parçacığına ait denetim durumu
+    private long nextSequence;
+    private long firstTickNanos;
+    private long tickIndex;
+    private long lastFireNanos;
+    private long lastControlNanos;
+    private boolean engaged;
+    private double output;
+    private int lastSentSpeed = -1;
+
+    private volatile double lastMeasurement = Double.NaN;
+    private volatile long ticks;
+    private volatile long skippedTicks;
+    private volatile long starvedTicks;
+    private volatile long lateTicks;
+    private volatile long speedCommands;
+    private volatile long maxJitterNanos;
+
+    /**
+     * @param executor adımların çalışacağı zamanlayıcı; null ise adımlar {@link #tick(long)} ile
+     *                 dışarıdan sürülür (testler)
+     */
+    public FlowControlLoop(SampleBuffer sampleBuffer, ScheduledExecutorService executor, Actuator actuator) {
+        this.sampleBuffer = sampleBuffer;
+        this.executor = executor;
+        this.actuator = actuator;
+    }
+
+    /**
+     * Simülatör tesisine (0.03 V/%, 1.0 V taban) göre ayarlanmış başlangıç kazançları;
+     * ileri besleme durağan hal hızını verir, PI yalnızca kalan hatayı kapatır.
+     */
+    public static PidController defaultPid() {
+        PidController pid = new PidController(8.0, 12.0, 0.0, MIN_SPEED, MAX_SPEED);
+        pid.setFeedForward(1 / 0.03, -1.0 / 0.03);
+        return pid;
+    }
+
+    public synchronized void configure(PidController pid, double maxSlewPerSecond, long periodMillis) {
+        if (task != null) {
+            throw new IllegalStateException("Denetim çalışırken yapılandırılamaz");
+        }
+        if (periodMillis <= 0 || maxSlewPerSecond <= 0) {
+            throw new IllegalArgumentException("Geçersiz periyot veya değişim hızı");
+        }
+        this.pid = pid;
+        this.maxSlewPerSecond = maxSlewPerSecond;
+        this.periodNanos = TimeUnit.MILLISECONDS.toNanos(periodMillis);
+    }
+
+    // Hedef sensör gerilimi (V); çalışırken değiştirilebilir
+    public void setSetpoint(double setpoint) {
+        this.setpoint = setpoint;
+    }
+
+    public double getSetpoint() {
+        return setpoint;
+    }
+
+    public synchronized void start() {
+        if (task != null) {
+            return;
+        }
+        long period = periodNanos;
+        task = executor.scheduleAtFixedRate(() -> tick(System.nanoTime()), period, period, TimeUnit.NANOSECONDS);
+        executor.execute(this::resetState);
+    }
+
+    public synchronized void stop() {
+        if (task != null) {
+            task.cancel(false);
+            task = null;
+        }
+    }
+
+    public synchronized boolean isRunning() {
+        return task != null;
+    }
+
+    // Yürütücüde: yeni bir başlatmada eski örnekler ve zamanlama geçmişi kullanılmaz
+    void resetState() {
+        nextSequence = sampleBuffer.getHeadSequence();
+        firstTickNanos = 0;
+        tickIndex = 0;
+        lastFireNanos = 0;
+        engaged = false;
+        lastSentSpeed = -1;
+    }
+
+    /**
+     * Bir kontrol adımı. Zamanlayıcıdan veya testlerde benzetilmiş zamanla çağrılır; denetim
+     * durumu tek iş parçacığına aittir, eşzamanlı çağrılmamalıdır.
+     */
+    public void tick(long nowNanos) {
+        if (lastFireNanos != 0 && nowNanos - lastFireNanos < periodNanos / 2) {
+            // Geciken zamanlayıcının yetişme ateşlemesi
+            skippedTicks++;
+            return;
+        }
+        lastFireNanos = nowNanos;
+        recordJitter(nowNanos);
+        ticks++;
+
+        double measurement = readMeasurement();
+        if (Double.isNaN(measurement)) {
+            starvedTicks++;
+            return;
+        }
+        lastMeasurement = measurement;
+
+        if (!actuator.isActive()) {
+            engaged = false;
+            return;
+        }
+        double target = setpoint;
+        if (!engaged) {
+            // İleri besleme hedef hızı hemen verir; geçiş, değişim hızı sınırıyla mevcut hızdan yumuşar
+            output = actuator.getSpeed();
+            lastSentSpeed = (int) output;
+            pid.reset();
+            engaged = true;
+            lastControlNanos = nowNanos;
+            return;
+        }
+
+        double dt = (nowNanos - lastControlNanos) / 1e9;
+        lastControlNanos = nowNanos;
+        double nominal = periodNanos / 1e9;
+        dt = Math.max(nominal / 4, Math.min(2 * nominal, dt));
+
+        double computed = pid.update(target, measurement, dt);
+        double maxStep = maxSlewPerSecond * dt;
+        output = Math.max(output - maxStep, Math.min(output + maxStep, computed));
+        if (output != computed && (computed > output) == (target > measurement)) {
+            // Değişim sınırına takılan çıkışı aynı yönde iten hata biriktirilmez (anti-windup)
+            pid.undoIntegration();
+        }
+
+        int speed = (int) Math.round(output);
+        if (speed != lastSentSpeed) {
+            lastSentSpeed = speed;
+            speedCommands++;
+            actuator.setSpeed(speed);
+        }
+    }
+
+    // Son adımdan bu yana gelen örneklerin ortalaması; örnek yoksa NaN
+    private double readMeasurement() {
+        sampleBuffer.snapshot(nextSequence, MAX_SAMPLES_PER_TICK, snapshot);
+        nextSequence = snapshot.nextSequence();
+        if (snapshot.count == 0) {
+            return Double.NaN;
+        }
+        double sum = 0;
+        for (int i = 0; i < snapshot.count; i++) {
+            sum += snapshot.values[i];
+        }
+        return sum / snapshot.count;
+    }
+
+    // Sapma, adımın ilk adımdan itibaren hesaplanan ideal zamanına göre ölçülür
+    private void recordJitter(long nowNanos) {
+        if (firstTickNanos == 0) {
+            firstTickNanos = nowNanos;
+            tickIndex = 0;
+            return;
+        }
+        tickIndex++;
+        long ideal = firstTickNanos + tickIndex * periodNanos;
+        long jitter = Math.abs(nowNanos - ideal);
+        if (jitter > periodNanos) {
+            // Bir periyottan fazla gecikme: ideal zaman çizelgesi buradan yeniden başlar
+            lateTicks++;
+            firstTickNanos = nowNanos;
+            tickIndex = 0;
+        }
+        if (jitter > maxJitterNanos) {
+            maxJitterNanos = jitter;
+        }
+        Metrics.CONTROL_JITTER.record(jitter / 1000);
+    }
+
+    public double getLastMeasurement() {
+        return lastMeasurement;
+    }
+
+    public long getTicks() {
+        return ticks;
+    }
+
+    // Yetişme ateşlemesi olduğu için atlanan adımlar
+    public long getSkippedTicks() {
+        return skippedTicks;
+    }
+
+    // Yeni örnek gelmediği için çıkışın tutulduğu adımlar
+    public long getStarvedTicks() {
+        return starvedTicks;
+    }
+
+    // İdeal zamanından bir periyottan fazla geciken adımlar
+    public long getLateTicks() {
+        return lateTicks;
+    }
+
+    public long getSpeedCommands() {
+        return speedCommands;
+    }
+
+    public long getMaxJitterNanos() {
+        return maxJitterNanos;
+    }
+
+    public long getPeriodNanos() {
+        return periodNanos;
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.syringepumpcontroller.control;
+
+/**
+ * Çıkış sınırlı, ileri beslemeli PID hesaplayıcısı. Zamanlama ve G/Ç içermez; her çağrıda
+ * geçen süre verilir, böylece testlerde benzetilmiş bir tesisle adım adım sürülebilir.
+ *
+ * - İleri besleme: u_ff = ffGain * hedef + ffOffset; tesisin durağan hal eğrisinin tahminidir,
+ *   integral yalnızca kalan hatayı düzeltir.
+ * - Türev ölçüm üzerinden alınır (hedef değişiminde sıçrama olmaz) ve alçak geçiren
+ *   süzgeçten geçirilir.
+ * - Anti-windup: çıkış doymuşken hata doymayı artıracak yöndeyse integral büyütülmez
+ *   (koşullu integrasyon) ve integral terimi çıkış aralığıyla sınırlanır.
+ */
+public class PidController {
+
+    private final double kp;
+    private final double ki;
+    private final double kd;
+    private final double outputMin;
+    private final double outputMax;
+
+    private double ffGain;
+    private double ffOffset;
+    // Türev süzgecinin zaman sabiti (s); 0 ise süzgeç yok
+    private double derivativeFilterSeconds;
+
+    private double integral;
+    private double lastIntegralStep;
+    private double derivative;
+    private double lastMeasurement;
+    private boolean initialized;
+    private boolean saturated;
+
+    public PidController(double kp, double ki, double kd, double outputMin, double outputMax) {
+        if (outputMin >= outputMax) {
+            throw new IllegalArgumentException("Geçersiz çıkış aralığı: " + outputMin + ".." + outputMax);
+        }
+        this.kp = kp;
+        this.ki = ki;
+        this.kd = kd;
+        this.outputMin = outputMin;
+        this.outputMax = outputMax;
+    }
+
+    public void setFeedForward(double gain, double offset) {
+        this.ffGain = gain;
+        this.ffOffset = offset;
+    }
+
+    public void setDerivativeFilter(double timeConstantSeconds) {
+        this.derivativeFilterSeconds = timeConstantSeconds;
+    }
+
+    /**
+     * Bir kontrol adımı hesaplar.
+     *
+     * @param dtSeconds önceki adımdan bu yana geçen süre; pozitif olmalı
+     * @return sınırlanmış çıkış
+     */
+    public double update(double setpoint, double measurement, double dtSeconds) {
+        if (dtSeconds <= 0) {
+            throw new IllegalArgumentException("Geçersiz adım süresi: " + dtSeconds);
+        }
+        double error = setpoint - measurement;
+
+        if (initialized && kd != 0) {
+            double raw = -(measurement - lastMeasurement) / dtSeconds;
+            double alpha = derivativeFilterSeconds > 0 ? dtSeconds / (derivativeFilterSeconds + dtSeconds) : 1.0;
+            derivative += alpha * (raw - derivative);
+        }
+        lastMeasurement = measurement;
+        initialized = true;
+
+        double feedForward = ffGain * setpoint + ffOffset;
+        double proportional = kp * error;
+
+        // Koşullu integrasyon: doymuş çıkışı daha da iten hata biriktirilmez
+        double candidate = integral + ki * error * dtSeconds;
+        double unclamped = feedForward + proportional + candidate + kd * derivative;
+        boolean pushesHigh = unclamped > outputMax && error > 0;
+        boolean pushesLow = unclamped < outputMin && error < 0;
+        double previous = integral;
+        if (!pushesHigh && !pushesLow) {
+            integral = clampIntegral(candidate);
+        }
+        lastIntegralStep = integral - previous;
+
+        double output = feedForward + proportional + integral + kd * derivative;
+        saturated = output > outputMax || output < outputMin;
+        return Math.max(outputMin, Math.min(outputMax, output));
+    }
+
+    /**
+     * Çıkış dışarıda ayrıca sınırlandıysa (ör. değişim hızı sınırı) son adımın integral artışını
+     * geri alır; sınıra takılmış çıkış için hata biriktirilmez.
+     */
+    public void undoIntegration() {
+        integral -= lastIntegralStep;
+        lastIntegralStep = 0;
+    }
+
+    public void reset() {
+        integral = 0;
+        lastIntegralStep = 0;
+        derivative = 0;
+        initialized = false;
+        saturated = false;
+    }
+
+    public double getIntegral() {
+        return integral;
+    }
+
+    // Son adımda sınırlanmadan önceki çıkış aralık dışındaydıysa true
+    public boolean isSaturated() {
+        return saturated;
+    }
+
+    private double clampIntegral(double value) {
+        double span = outputMax - outputMin;
+        return Math.max(-span, Math.min(span, value));
+    }
+}
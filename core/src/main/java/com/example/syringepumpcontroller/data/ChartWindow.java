@@ -0,0 +1,195 @@
+package com.example.syringepumpcontroller.data;
+
+/**
+ * Canlı grafik için sabit boyutlu kayan pencere ve oturum boyu özet.
+ *
+ * Pencere son windowMillis milisaniyeyi en fazla capacity noktayla tutar; aynı zaman dilimine
+ * (windowMillis / capacity) düşen örnekler tek noktada ortalanır ve en eski noktalar atılır.
+ * Özet ise tüm oturumu overviewBuckets adet min/maks kovasında tutar; kovalar dolunca komşu
+ * çiftler birleştirilip kova genişliği ikiye katlanır. Böylece bellek ve nokta başına maliyet
+ * grafiğin ne kadar süredir açık olduğundan bağımsızdır.
+ *
+ * İş parçacığı güvenli değildir; UI iş parçacığından kullanılmak üzere tasarlanmıştır.
+ */
+public class ChartWindow {
+
+    private final int capacity;
+    private final long windowMillis;
+    private final long slotMillis;
+
+    // Pencere halkası: head en eski nokta, size nokta sayısı
+    private final long[] times;
+    private final float[] values;
+    private final int[] slotCounts;
+    private int head;
+    private int size;
+
+    // Oturum özeti
+    private final long[] overviewTimes;
+    private final float[] overviewMin;
+    private final float[] overviewMax;
+    private long overviewOrigin = Long.MIN_VALUE;
+    private long overviewBucketMillis;
+    private int overviewCount;
+
+    private long lastTimestamp = Long.MIN_VALUE;
+    // Her değişiklikte artar; çizim tarafı gereksiz güncellemeleri atlamak için kullanır
+    private long version;
+
+    public ChartWindow(int capacity, long windowMillis, int overviewBuckets) {
+        if (capacity < 2 || windowMillis <= 0 || overviewBuckets < 2 || (overviewBuckets & 1) != 0) {
+            throw new IllegalArgumentException("Geçersiz pencere ayarı");
+        }
+        this.capacity = capacity;
+        this.windowMillis = windowMillis;
+        this.slotMillis = Math.max(1, windowMillis / capacity);
+        this.times = new long[capacity];
+        this.values = new float[capacity];
+        this.slotCounts = new int[capacity];
+        this.overviewTimes = new long[overviewBuckets];
+        this.overviewMin = new float[overviewBuckets];
+        this.overviewMax = new float[overviewBuckets];
+        this.overviewBucketMillis = Math.max(1, windowMillis / overviewBuckets);
+    }
+
+    public void append(long timestampMillis, float value) {
+        // Saat geri giderse (ör. sistem saati ayarı) sıralama bozulmasın
+        long t = Math.max(timestampMillis, lastTimestamp);
+        lastTimestamp = t;
+        version++;
+        appendOverview(t, value);
+
+        if (size > 0) {
+            int newest = index(size - 1);
+            if (t / slotMillis == times[newest] / slotMillis) {
+                // Aynı dilim: en yeni noktayı ortalamaya çevir
+                int n = ++slotCounts[newest];
+                values[newest] += (value - values[newest]) / n;
+                return;
+            }
+        }
+        if (size == capacity) {
+            evictOldest();
+        }
+        int slot = index(size);
+        times[slot] = t;
+        values[slot] = value;
+        slotCounts[slot] = 1;
+        size++;
+
+        long oldestAllowed = t - windowMillis;
+        while (size > 1 && times[head] < oldestAllowed) {
+            evictOldest();
+        }
+    }
+
+    public void clear() {
+        head = 0;
+        size = 0;
+        overviewCount = 0;
+        overviewOrigin = Long.MIN_VALUE;
+        overviewBucketMillis = Math.max(1, windowMillis / overviewTimes.length);
+        lastTimestamp = Long.MIN_VALUE;
+        version++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    // i = 0 en eski nokta
+    public long timeAt(int i) {
+        return times[index(i)];
+    }
+
+    public float valueAt(int i) {
+        return values[index(i)];
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public int getOverviewCount() {
+        return overviewCount;
+    }
+
+    public long getOverviewBucketMillis() {
+        return overviewBucketMillis;
+    }
+
+    // Kovanın başlangıç zamanı; boş kovalarda min > maks olur
+    public long overviewTimeAt(int i) {
+        return overviewTimes[i];
+    }
+
+    public float overviewMinAt(int i) {
+        return overviewMin[i];
+    }
+
+    public float overviewMaxAt(int i) {
+        return overviewMax[i];
+    }
+
+    public boolean isOverviewBucketEmpty(int i) {
+        return overviewMin[i] > overviewMax[i];
+    }
+
+    private void appendOverview(long t, float value) {
+        if (overviewOrigin == Long.MIN_VALUE) {
+            overviewOrigin = t;
+        }
+        long bucket = (t - overviewOrigin) / overviewBucketMillis;
+        while (bucket >= overviewTimes.length) {
+            mergeOverview();
+            bucket = (t - overviewOrigin) / overviewBucketMillis;
+        }
+        int b = (int) bucket;
+        while (overviewCount <= b) {
+            overviewTimes[overviewCount] = overviewOrigin + overviewCount * overviewBucketMillis;
+            overviewMin[overviewCount] = Float.POSITIVE_INFINITY;
+            overviewMax[overviewCount] = Float.NEGATIVE_INFINITY;
+            overviewCount++;
+        }
+        if (value < overviewMin[b]) {
+            overviewMin[b] = value;
+        }
+        if (value > overviewMax[b]) {
+            overviewMax[b] = value;
+        }
+    }
+
+    // Komşu kova çiftlerini birleştirir, kova genişliğini ikiye katlar
+    private void mergeOverview() {
+        int merged = (overviewCount + 1) / 2;
+        for (int i = 0; i < merged; i++) {
+            int a = 2 * i;
+            int b = a + 1;
+            float min = overviewMin[a];
+            float max = overviewMax[a];
+            if (b < overviewCount) {
+                min = Math.min(min, overviewMin[b]);
+                max = Math.max(max, overviewMax[b]);
+            }
+            overviewTimes[i] = overviewTimes[a];
+            overviewMin[i] = min;
+            overviewMax[i] = max;
+        }
+        overviewCount = merged;
+        overviewBucketMillis *= 2;
+    }
+
+    private void evictOldest() {
+        head = head + 1 == capacity ? 0 : head + 1;
+        size--;
+    }
+
+    private int index(int i) {
+        int slot = head + i;
+        return slot >= capacity ? slot - capacity : slot;
+    }
+}
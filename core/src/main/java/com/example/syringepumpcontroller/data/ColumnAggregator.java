@@ -0,0 +1,165 @@
+package com.example.syringepumpcontroller.data;
+
+/**
+ * Çizim öncesi piksel sütunu başına seyreltme (M4, Jugel ve ark., VLDB 2014).
+ *
+ * Görünen zaman aralığı sütunlara bölünür; her sütunda ilk, en küçük, en büyük ve son örnek
+ * tutulur. Bu dört nokta sütunun içinden geçen çizginin piksel karşılığını birebir verir,
+ * böylece yüz binlerce örnek en fazla 4 × sütun sayısı noktalı tek bir çizgiye iner ve
+ * çizim maliyeti örnek sayısından bağımsız olur.
+ *
+ * Tek geçişte çalışır, diziler yapıcıda ayrılır. İş parçacığı güvenli değildir; arka plan
+ * çizim iş parçacığından kullanılmak üzere tasarlanmıştır.
+ */
+public class ColumnAggregator {
+
+    // Sütun başına en fazla dört nokta, nokta başına x ve y
+    public static final int FLOATS_PER_COLUMN = 8;
+
+    private final int maxColumns;
+    private final float[] first;
+    private final float[] min;
+    private final float[] max;
+    private final float[] last;
+    // En küçük değer en büyükten önce geldiyse true; çizgi zaman sırasını korur
+    private final boolean[] minFirst;
+    private final int[] counts;
+    private int columns;
+    private int samples;
+
+    public ColumnAggregator(int maxColumns) {
+        if (maxColumns < 1) {
+            throw new IllegalArgumentException("Geçersiz sütun sayısı: " + maxColumns);
+        }
+        this.maxColumns = maxColumns;
+        this.first = new float[maxColumns];
+        this.min = new float[maxColumns];
+        this.max = new float[maxColumns];
+        this.last = new float[maxColumns];
+        this.minFirst = new boolean[maxColumns];
+        this.counts = new int[maxColumns];
+    }
+
+    public int getMaxColumns() {
+        return maxColumns;
+    }
+
+    /**
+     * times/values[offset, offset + count) aralığındaki örneklerden [fromMillis, toMillis]
+     * içindekileri columns sütuna dağıtır. Zamanlar artan sırada olmalıdır; NaN değerler atlanır.
+     *
+     * @return sütunlara düşen örnek sayısı
+     */
+    public int aggregate(long[] times, float[] values, int offset, int count,
+                         long fromMillis, long toMillis, int columns) {
+        if (columns < 1 || columns > maxColumns || toMillis <= fromMillis) {
+            throw new IllegalArgumentException("Geçersiz aralık veya sütun sayısı: " + columns);
+        }
+        this.columns = columns;
+        for (int c = 0; c < columns; c++) {
+            counts[c] = 0;
+        }
+        long span = toMillis - fromMillis;
+        int end = offset + count;
+        int i = offset;
+        while (i < end && times[i] < fromMillis) {
+            i++;
+        }
+        int accepted = 0;
+        for (; i < end; i++) {
+            long t = times[i];
+            if (t > toMillis) {
+                break;
+            }
+            float v = values[i];
+            if (v != v) {
+                continue;
+            }
+            int c = (int) ((t - fromMillis) * columns / span);
+            if (c == columns) {
+                c--;
+            }
+            if (counts[c]++ == 0) {
+                first[c] = v;
+                min[c] = v;
+                max[c] = v;
+                minFirst[c] = true;
+            } else if (v < min[c]) {
+                min[c] = v;
+                minFirst[c] = false;
+            } else if (v > max[c]) {
+                max[c] = v;
+                minFirst[c] = true;
+            }
+            last[c] = v;
+            accepted++;
+        }
+        samples = accepted;
+        return accepted;
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+
+    public int getSampleCount() {
+        return samples;
+    }
+
+    public boolean isEmpty(int column) {
+        return counts[column] == 0;
+    }
+
+    public float firstAt(int column) {
+        return first[column];
+    }
+
+    public float minAt(int column) {
+        return min[column];
+    }
+
+    public float maxAt(int column) {
+        return max[column];
+    }
+
+    public float lastAt(int column) {
+        return last[column];
+    }
+
+    /**
+     * Sütunları (x, y) çiftleri halinde out dizisine yazar. Sütunun x'i ortasıdır
+     * (left + (c + 0.5) × width / sütun); y, maxValue üstte olacak şekilde [top, top + height]
+     * aralığına ölçeklenir. Boş sütunlar atlanır, çizgi komşu dolu sütunu doğrudan birleştirir.
+     * out en az {@link #FLOATS_PER_COLUMN} × sütun uzunluğunda olmalıdır.
+     *
+     * @return yazılan float sayısı (nokta sayısının iki katı)
+     */
+    public int toPolyline(float[] out, float left, float top, float width, float height,
+                          float minValue, float maxValue) {
+        float columnWidth = width / columns;
+        float scale = height / (maxValue - minValue);
+        float bottom = top + height;
+        int n = 0;
+        for (int c = 0; c < columns; c++) {
+            if (counts[c] == 0) {
+                continue;
+            }
+            float x = left + (c + 0.5f) * columnWidth;
+            n = put(out, n, x, bottom - (first[c] - minValue) * scale);
+            if (counts[c] > 1) {
+                float a = minFirst[c] ? min[c] : max[c];
+                float b = minFirst[c] ? max[c] : min[c];
+                n = put(out, n, x, bottom - (a - minValue) * scale);
+                n = put(out, n, x, bottom - (b - minValue) * scale);
+                n = put(out, n, x, bottom - (last[c] - minValue) * scale);
+            }
+        }
+        return n;
+    }
+
+    private static int put(float[] out, int n, float x, float y) {
+        out[n] = x;
+        out[n + 1] = y;
+        return n + 2;
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.syringepumpcontroller.data;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Sabit kapasiteli, halka şeklinde zaman serisi deposu.
+ *
+ * Zaman damgaları (epoch ms) ve değerler paralel ilkel dizilerde tutulur. Tek bir üretici
+ * (seri okuma iş parçacığı) kilitsiz olarak ekleme yapar; herhangi sayıda okuyucu
+ * {@link #snapshot(long, Snapshot)} ile tutarlı kopya alır. Kapasite dolunca en eski örneklerin
+ * üzerine yazılır, böylece bellek kullanımı ölçüm süresinden bağımsız kalır.
+ *
+ * Her örneğe artan bir sıra numarası verilir; okuyucular son gördükleri sıra numarasından
+ * itibaren yalnızca yeni örnekleri okuyabilir. Bir yuva üreticinin yazmakta olduğu örneğe
+ * ayrıldığından okunabilir pencere capacity - 1 örnektir.
+ */
+public class SampleBuffer {
+
+    /**
+     * Okuyucunun yeniden kullandığı kopya. Diziler gerektiğinde büyütülür.
+     */
+    public static class Snapshot {
+        public long firstSequence;
+        public int count;
+        public long[] timestamps;
+        public float[] values;
+
+        public Snapshot() {
+            this(0);
+        }
+
+        public Snapshot(int initialCapacity) {
+            timestamps = new long[initialCapacity];
+            values = new float[initialCapacity];
+        }
+
+        // Bir sonraki okumanın başlayacağı sıra numarası
+        public long nextSequence() {
+            return firstSequence + count;
+        }
+
+        void ensureCapacity(int size) {
+            if (timestamps.length < size) {
+                timestamps = new long[size];
+                values = new float[size];
+            }
+        }
+    }
+
+    // Elemanlara volatile/lazySet erişimi, okuyucunun üzerine yazılmış yuvaları güvenle ayıklamasını sağlar
+    private final AtomicLongArray timestamps;
+    private final AtomicIntegerArray valueBits;
+    private final int capacity;
+    private final int mask;
+
+    // Yayınlanmış örnek sayısı (bir sonraki sıra numarası)
+    private final AtomicLong published = new AtomicLong();
+
+    public SampleBuffer(int capacity) {
+        if (capacity < 2 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Kapasite 2'nin kuvveti olmalı: " + capacity);
+        }
+        this.capacity = capacity;
+        this.mask = capacity - 1;
+        this.timestamps = new AtomicLongArray(capacity);
+        this.valueBits = new AtomicIntegerArray(capacity);
+    }
+
+    // Yalnızca tek bir üretici iş parçacığından çağrılmalıdır
+    public long append(long timestampMillis, float value) {
+        long sequence = published.get();
+        int index = (int) (sequence & mask);
+        timestamps.lazySet(index, timestampMillis);
+        valueBits.lazySet(index, Float.floatToRawIntBits(value));
+        published.lazySet(sequence + 1);
+        return sequence;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    // Bir sonraki eklenecek örneğin sıra numarası (toplam eklenen örnek sayısı)
+    public long getHeadSequence() {
+        return published.get();
+    }
+
+    // Hâlâ okunabilen en eski örneğin sıra numarası
+    public long getOldestSequence() {
+        return Math.max(0, published.get() - capacity + 1);
+    }
+
+    public int size() {
+        return (int) Math.min(published.get(), capacity - 1);
+    }
+
+    /**
+     * fromSequence'tan (veya mevcut en eski örnekten) başlayarak tüm yayınlanmış örnekleri kopyalar.
+     */
+    public void snapshot(long fromSequence, Snapshot out) {
+        snapshot(fromSequence, Integer.MAX_VALUE, out);
+    }
+
+    /**
+     * En fazla maxCount örnek kopyalar. Okuyucu üreticinin gerisinde kaldıysa yalnızca en yeni
+     * maxCount örnek döner; aradaki örnekler atlanır.
+     */
+    public void snapshot(long fromSequence, int maxCount, Snapshot out) {
+        long head = published.get();
+        long start = Math.max(fromSequence, head - capacity + 1);
+        start = Math.max(start, head - maxCount);
+        start = Math.max(start, 0);
+        int count = (int) Math.max(0, head - start);
+        out.ensureCapacity(count);
+
+        for (int i = 0; i < count; i++) {
+            int index = (int) ((start + i) & mask);
+            out.timestamps[i] = timestamps.get(index);
+            out.values[i] = Float.intBitsToFloat(valueBits.get(index));
+        }
+
+        // Kopyalama sırasında üretici en eski yuvaların üzerine yazmış olabilir; onları at.
+        // Üretici bir sonraki yuvayı (sıra head2) yayınlamadan önce yazabileceği için +1.
+        long head2 = published.get();
+        long firstValid = head2 + 1 - capacity;
+        if (firstValid > start) {
+            int skip = (int) Math.min(count, firstValid - start);
+            count -= skip;
+            System.arraycopy(out.timestamps, skip, out.timestamps, 0, count);
+            System.arraycopy(out.values, skip, out.values, 0, count);
+            start += skip;
+        }
+
+        out.firstSequence = start;
+        out.count = count;
+    }
+
+    /**
+     * Yalnızca en son örneğin değerini döndürür; örnek yoksa NaN.
+     */
+    public float latestValue() {
+        long head = published.get();
+        if (head == 0) {
+            return Float.NaN;
+        }
+        return Float.intBitsToFloat(valueBits.get((int) ((head - 1) & mask)));
+    }
+}
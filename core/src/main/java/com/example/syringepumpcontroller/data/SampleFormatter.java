@@ -0,0 +1,110 @@
+package com.example.syringepumpcontroller.data;
+
+import java.util.TimeZone;
+
+/**
+ * Zaman damgası ve voltaj değerlerini nesne ayırmadan char[] tamponlarına yazar.
+ * SimpleDateFormat/String.format yerine liste satırlarını doldurmak için kullanılır.
+ * İş parçacığı güvenli değildir; her UI bileşeni kendi örneğini kullanmalıdır.
+ */
+public class SampleFormatter {
+
+    public static final int TIME_LENGTH = 8; // HH:mm:ss
+
+    // Saat dilimi farkı bu aralıklarla yeniden hesaplanır (yaz saati geçişleri için)
+    private static final long OFFSET_WINDOW_MS = 15 * 60 * 1000L;
+
+    private static final long[] POW10 = {1L, 10L, 100L, 1000L, 10000L, 100000L, 1000000L};
+
+    private final TimeZone timeZone;
+    private long offsetWindowStart = Long.MIN_VALUE;
+    private int offsetMillis;
+
+    public SampleFormatter(TimeZone timeZone) {
+        this.timeZone = timeZone;
+    }
+
+    /**
+     * Yerel saati "HH:mm:ss" olarak yazar, yazılan karakter sayısını döndürür.
+     */
+    public int formatTime(long epochMillis, char[] out, int offset) {
+        long window = Math.floorDiv(epochMillis, OFFSET_WINDOW_MS);
+        if (window != offsetWindowStart) {
+            offsetWindowStart = window;
+            offsetMillis = timeZone.getOffset(epochMillis);
+        }
+        long local = epochMillis + offsetMillis;
+        int secondOfDay = (int) Math.floorMod(Math.floorDiv(local, 1000L), 86400L);
+        int hours = secondOfDay / 3600;
+        int minutes = (secondOfDay / 60) % 60;
+        int seconds = secondOfDay % 60;
+
+        int p = offset;
+        p = twoDigits(hours, out, p);
+        out[p++] = ':';
+        p = twoDigits(minutes, out, p);
+        out[p++] = ':';
+        twoDigits(seconds, out, p);
+        return TIME_LENGTH;
+    }
+
+    /**
+     * Değeri sabit ondalık basamakla yazar (ör. 2 basamak için "3.14"), yazılan karakter sayısını döndürür.
+     * out en az 24 karakterlik yer içermelidir.
+     */
+    public static int formatFixed(float value, int decimals, char[] out, int offset) {
+        if (decimals < 0 || decimals >= POW10.length) {
+            throw new IllegalArgumentException("Desteklenmeyen basamak sayısı: " + decimals);
+        }
+        int p = offset;
+        if (Float.isNaN(value)) {
+            out[p++] = 'N';
+            out[p++] = 'a';
+            out[p++] = 'N';
+            return p - offset;
+        }
+        if (Float.isInfinite(value)) {
+            if (value < 0) {
+                out[p++] = '-';
+            }
+            out[p++] = '∞';
+            return p - offset;
+        }
+
+        long scaled = Math.round(Math.abs((double) value) * POW10[decimals]);
+        if (value < 0 && scaled != 0) {
+            out[p++] = '-';
+        }
+        long integerPart = scaled / POW10[decimals];
+        long fraction = scaled % POW10[decimals];
+
+        p += writeLong(integerPart, out, p);
+        if (decimals > 0) {
+            out[p++] = '.';
+            for (int i = decimals - 1; i >= 0; i--) {
+                out[p + i] = (char) ('0' + fraction % 10);
+                fraction /= 10;
+            }
+            p += decimals;
+        }
+        return p - offset;
+    }
+
+    private static int writeLong(long value, char[] out, int offset) {
+        int digits = 1;
+        for (long v = value / 10; v > 0; v /= 10) {
+            digits++;
+        }
+        for (int i = digits - 1; i >= 0; i--) {
+            out[offset + i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+        return digits;
+    }
+
+    private static int twoDigits(int value, char[] out, int p) {
+        out[p] = (char) ('0' + value / 10);
+        out[p + 1] = (char) ('0' + value % 10);
+        return p + 2;
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.syringepumpcontroller.dsp;
+
+/**
+ * Sinyali değiştirmeden geçiren ve bir koşulu izleyen alarm adımı. Koşul holdSamples ardışık
+ * örnekte sağlanınca alarm etkinleşir, temizlenme koşulu aynı sayıda örnekte sağlanınca söner;
+ * tek örneklik gürültü alarmı açıp kapatmaz. Durum değişiklikleri dinleyiciye okuma iş
+ * parçacığında bildirilir; dinleyici bloklamamalıdır. Etkin bir alarm {@link #reset} ile
+ * sıfırlanırsa sönme de bildirilir (reset'i çağıran iş parçacığında, değer NaN).
+ */
+public abstract class AlarmStage extends SignalStage {
+
+    public enum Action {
+        // Yalnızca bildirilir
+        NOTIFY,
+        // Etkinleşince pompa hemen durdurulur (STOP komutu okuma iş parçacığından kuyruğa girer)
+        STOP_PUMP
+    }
+
+    public interface Listener {
+        void onAlarm(AlarmStage alarm, boolean active, long timestampMillis, float value);
+    }
+
+    // evaluate sonuçları
+    protected static final int CLEAR = 0;
+    protected static final int TRIGGER = 1;
+    // Eşikler arasındaki ölü bölge; mevcut durum korunur
+    protected static final int HOLD = 2;
+
+    private final String name;
+    private final Action action;
+    private final int holdSamples;
+    private volatile Listener listener;
+
+    // Yalnızca geçişlerde yazılır; diğer iş parçacıkları okuyabilir
+    private volatile boolean active;
+    private int streak;
+    private long lastTimestampMillis;
+    private volatile long activations;
+
+    protected AlarmStage(String name, Action action, int holdSamples) {
+        if (holdSamples < 1) {
+            throw new IllegalArgumentException("Geçersiz bekleme: " + holdSamples);
+        }
+        this.name = name;
+        this.action = action;
+        this.holdSamples = holdSamples;
+    }
+
+    // Örnek için CLEAR, TRIGGER veya HOLD
+    protected abstract int evaluate(long timestampMillis, float value);
+
+    @Override
+    public final void process(long timestampMillis, float value) {
+        lastTimestampMillis = timestampMillis;
+        if (value == value) {
+            int result = evaluate(timestampMillis, value);
+            if (result != HOLD && (result == TRIGGER) != active) {
+                if (++streak >= holdSamples) {
+                    streak = 0;
+                    active = !active;
+                    if (active) {
+                        activations++;
+                    }
+                    Listener current = listener;
+                    if (current != null) {
+                        current.onAlarm(this, active, timestampMillis, value);
+                    }
+                }
+            } else {
+                streak = 0;
+            }
+        }
+        emit(timestampMillis, value);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Action getAction() {
+        return action;
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    public long getActivations() {
+        return activations;
+    }
+
+    void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    @Override
+    public void reset() {
+        streak = 0;
+        if (active) {
+            // Tüketiciler alarmı etkin sanmaya devam etmesin; zaman son görülen örneğinki
+            active = false;
+            Listener current = listener;
+            if (current != null) {
+                current.onAlarm(this, false, lastTimestampMillis, Float.NaN);
+            }
+        }
+    }
+}
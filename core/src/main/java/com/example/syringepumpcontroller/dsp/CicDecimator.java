@@ -0,0 +1,69 @@
+package com.example.syringepumpcontroller.dsp;
+
+import java.util.Arrays;
+
+/**
+ * Cascaded integrator-comb (CIC) seyreltici: order adet tümleyici giriş hızında, order adet
+ * tarak çıkış hızında çalışır; çarpma yapmaz. Kazanç factor^order olduğundan çıktı bu değere
+ * bölünerek volta çevrilir.
+ *
+ * Örnekler 1 µV çözünürlüklü tamsayıya çevrilir. Tümleyiciler long'da taşabilir; iki tümleyen
+ * aritmetiğinde taşma taraklarda birebir geri alındığından sonuç doğrudur (Hogenauer).
+ * Çıktının zaman damgası, son giriş örneğininkidir.
+ */
+public final class CicDecimator extends SignalStage {
+
+    public static final int MAX_ORDER = 5;
+    private static final double SCALE = 1e6;
+
+    private final int factor;
+    private final long[] integrators;
+    private final long[] combDelays;
+    private final double outputScale;
+    private int phase;
+
+    public CicDecimator(int factor, int order) {
+        if (factor < 2) {
+            throw new IllegalArgumentException("Seyreltme oranı en az 2 olmalı: " + factor);
+        }
+        if (order < 1 || order > MAX_ORDER) {
+            throw new IllegalArgumentException("Derece 1.." + MAX_ORDER + " olmalı: " + order);
+        }
+        this.factor = factor;
+        this.integrators = new long[order];
+        this.combDelays = new long[order];
+        this.outputScale = 1 / (Math.pow(factor, order) * SCALE);
+    }
+
+    public int getFactor() {
+        return factor;
+    }
+
+    @Override
+    public void process(long timestampMillis, float value) {
+        long x = Math.round(value * SCALE);
+        long[] integrators = this.integrators;
+        for (int i = 0; i < integrators.length; i++) {
+            x += integrators[i];
+            integrators[i] = x;
+        }
+        if (++phase < factor) {
+            return;
+        }
+        phase = 0;
+        long[] delays = combDelays;
+        for (int i = 0; i < delays.length; i++) {
+            long previous = delays[i];
+            delays[i] = x;
+            x -= previous;
+        }
+        emit(timestampMillis, (float) (x * outputScale));
+    }
+
+    @Override
+    public void reset() {
+        Arrays.fill(integrators, 0);
+        Arrays.fill(combDelays, 0);
+        phase = 0;
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.syringepumpcontroller.dsp;
+
+/**
+ * Üstel hareketli ortalama: y += α·(x − y). İlk örnek doğrudan çıktı olur.
+ */
+public final class ExponentialAverage extends SignalStage {
+
+    private final float alpha;
+    private float state = Float.NaN;
+
+    public ExponentialAverage(double alpha) {
+        if (!(alpha > 0 && alpha <= 1)) {
+            throw new IllegalArgumentException("α (0, 1] aralığında olmalı: " + alpha);
+        }
+        this.alpha = (float) alpha;
+    }
+
+    /**
+     * Örnekleme hızı sampleRateHz iken zaman sabiti timeConstantSeconds olan ortalama.
+     */
+    public static ExponentialAverage withTimeConstant(double timeConstantSeconds, double sampleRateHz) {
+        return new ExponentialAverage(1 - Math.exp(-1 / (timeConstantSeconds * sampleRateHz)));
+    }
+
+    @Override
+    public void process(long timestampMillis, float value) {
+        float y = state;
+        y = y != y ? value : y + alpha * (value - y);
+        state = y;
+        emit(timestampMillis, y);
+    }
+
+    @Override
+    public void reset() {
+        state = Float.NaN;
+    }
+}
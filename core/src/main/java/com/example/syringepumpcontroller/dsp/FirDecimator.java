@@ -0,0 +1,98 @@
+package com.example.syringepumpcontroller.dsp;
+
+import java.util.Arrays;
+
+/**
+ * FIR süzgeçli seyreltici: her factor örnekte bir çıktı üretir ve çarpım toplamı yalnızca
+ * çıktı örneklerinde hesaplanır (örnek başına taps/factor çarpma).
+ *
+ * Geçmiş, iki kat uzunlukta bir dizide iki kez yazılır; böylece her çıktıda son taps örnek
+ * kesintisiz bir dilimdir ve iç döngüde mod işlemi yoktur. factor 1 verilirse seyreltmeyen
+ * sıradan FIR süzgeci olur.
+ */
+public final class FirDecimator extends SignalStage {
+
+    private final float[] taps;
+    private final int factor;
+    private final float[] history;
+    private int position;
+    private int phase;
+
+    /**
+     * @param taps katsayılar; taps[0] en yeni örneğe uygulanır
+     */
+    public FirDecimator(float[] taps, int factor) {
+        if (taps.length == 0) {
+            throw new IllegalArgumentException("En az bir katsayı gerekli");
+        }
+        if (factor < 1) {
+            throw new IllegalArgumentException("Geçersiz seyreltme oranı: " + factor);
+        }
+        // En yeni örnek dilimin sonunda olacağından katsayılar ters sırada saklanır
+        this.taps = new float[taps.length];
+        for (int i = 0; i < taps.length; i++) {
+            this.taps[i] = taps[taps.length - 1 - i];
+        }
+        this.factor = factor;
+        this.history = new float[2 * taps.length];
+    }
+
+    /**
+     * Hamming pencereli sinc alçak geçiren süzgeç; DC kazancı 1.
+     *
+     * @param cutoff kesim frekansı, örnekleme hızına oranla (0, 0.5)
+     */
+    public static float[] lowPass(int length, double cutoff) {
+        if (length < 1 || !(cutoff > 0 && cutoff < 0.5)) {
+            throw new IllegalArgumentException("Geçersiz süzgeç: " + length + ", " + cutoff);
+        }
+        double[] h = new double[length];
+        double sum = 0;
+        double middle = (length - 1) / 2.0;
+        for (int i = 0; i < length; i++) {
+            double t = i - middle;
+            double sinc = t == 0 ? 2 * cutoff : Math.sin(2 * Math.PI * cutoff * t) / (Math.PI * t);
+            double window = length == 1 ? 1 : 0.54 - 0.46 * Math.cos(2 * Math.PI * i / (length - 1));
+            h[i] = sinc * window;
+            sum += h[i];
+        }
+        float[] taps = new float[length];
+        for (int i = 0; i < length; i++) {
+            taps[i] = (float) (h[i] / sum);
+        }
+        return taps;
+    }
+
+    public int getFactor() {
+        return factor;
+    }
+
+    @Override
+    public void process(long timestampMillis, float value) {
+        int n = taps.length;
+        history[position] = value;
+        history[position + n] = value;
+        if (++position == n) {
+            position = 0;
+        }
+        if (++phase < factor) {
+            return;
+        }
+        phase = 0;
+        // history[position, position + n) en eskiden en yeniye son n örnektir
+        float[] h = history;
+        float[] t = taps;
+        float acc = 0;
+        for (int i = 0, j = position; i < n; i++, j++) {
+            acc += t[i] * h[j];
+        }
+        emit(timestampMillis, acc);
+    }
+
+    @Override
+    public void reset() {
+        Arrays.fill(history, 0);
+        position = 0;
+        phase = 0;
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.syringepumpcontroller.dsp;
+
+import java.util.Arrays;
+
+/**
+ * Kayan medyan ile tek örneklik sıçramaların (parazit, bozuk çerçeve) ayıklanması.
+ *
+ * Pencere hem geliş sırasıyla (halka) hem de sıralı olarak tutulur; her örnekte en eski değer
+ * sıralı diziden ikili aramayla çıkarılır ve yenisi yerine kaydırılarak eklenir. Küçük
+ * pencerelerde (≤ 31) bu O(pencere) kaydırma önbellek içinde kalır.
+ *
+ * spikeThreshold &gt; 0 ise örnek yalnızca medyandan bu kadar (V) uzaksa medyanla değiştirilir
+ * (Hampel benzeri); böylece sıçrama olmayan örneklerde ayrıntı ve gecikme korunur. Aksi halde
+ * çıktı her zaman medyandır.
+ */
+public final class MedianFilter extends SignalStage {
+
+    public static final int MAX_WINDOW = 31;
+
+    private final float[] ring;
+    private final float[] sorted;
+    private final float spikeThreshold;
+    private int position;
+    private int count;
+    private long spikesRejected;
+
+    public MedianFilter(int window) {
+        this(window, 0);
+    }
+
+    public MedianFilter(int window, double spikeThreshold) {
+        if (window < 1 || window > MAX_WINDOW || window % 2 == 0) {
+            throw new IllegalArgumentException("Pencere tek ve 1.." + MAX_WINDOW + " olmalı: " + window);
+        }
+        this.ring = new float[window];
+        this.sorted = new float[window];
+        this.spikeThreshold = (float) spikeThreshold;
+    }
+
+    @Override
+    public void process(long timestampMillis, float value) {
+        if (value != value) {
+            return; // NaN sıralamayı bozar; eksik örnek sayılır
+        }
+        if (count == ring.length) {
+            remove(ring[position]);
+        } else {
+            count++;
+        }
+        ring[position] = value;
+        if (++position == ring.length) {
+            position = 0;
+        }
+        insert(value, count - 1);
+
+        float median = sorted[(count - 1) >> 1];
+        if (spikeThreshold > 0) {
+            if (Math.abs(value - median) <= spikeThreshold) {
+                emit(timestampMillis, value);
+                return;
+            }
+            spikesRejected++;
+        }
+        emit(timestampMillis, median);
+    }
+
+    // Değiştirilen örnek sayısı (yalnızca eşik verilmişse)
+    public long getSpikesRejected() {
+        return spikesRejected;
+    }
+
+    @Override
+    public void reset() {
+        position = 0;
+        count = 0;
+        spikesRejected = 0;
+    }
+
+    // sorted[0, size) içine ekler; size yeni değer hariç doluluk
+    private void insert(float value, int size) {
+        int index = Arrays.binarySearch(sorted, 0, size, value);
+        if (index < 0) {
+            index = -index - 1;
+        }
+        System.arraycopy(sorted, index, sorted, index + 1, size - index);
+        sorted[index] = value;
+    }
+
+    // Tam dolu sıralı diziden çıkarır
+    private void remove(float value) {
+        int size = ring.length;
+        int index = Arrays.binarySearch(sorted, 0, size, value);
+        System.arraycopy(sorted, index + 1, sorted, index, size - index - 1);
+    }
+}
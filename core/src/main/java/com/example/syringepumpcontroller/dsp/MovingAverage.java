@@ -0,0 +1,48 @@
+package com.example.syringepumpcontroller.dsp;
+
+/**
+ * Son window örneğin kayan ortalaması. Toplam her örnekte güncellenir; kayan nokta hatası
+ * birikmesin diye halka her dolaşımında toplam yeniden hesaplanır (örnek başına sabit maliyet).
+ * Pencere dolana kadar gelen örneklerin ortalaması verilir.
+ */
+public final class MovingAverage extends SignalStage {
+
+    private final float[] window;
+    private int position;
+    private int count;
+    private double sum;
+
+    public MovingAverage(int window) {
+        if (window < 1) {
+            throw new IllegalArgumentException("Geçersiz pencere: " + window);
+        }
+        this.window = new float[window];
+    }
+
+    @Override
+    public void process(long timestampMillis, float value) {
+        if (count == window.length) {
+            sum -= window[position];
+        } else {
+            count++;
+        }
+        window[position] = value;
+        sum += value;
+        if (++position == window.length) {
+            position = 0;
+            double exact = 0;
+            for (float sample : window) {
+                exact += sample;
+            }
+            sum = exact;
+        }
+        emit(timestampMillis, (float) (sum / count));
+    }
+
+    @Override
+    public void reset() {
+        position = 0;
+        count = 0;
+        sum = 0;
+    }
+}
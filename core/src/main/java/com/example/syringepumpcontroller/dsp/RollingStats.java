@@ -0,0 +1,199 @@
+package com.example.syringepumpcontroller.dsp;
+
+/**
+ * Son window örneğin en küçük, en büyük, ortalama ve standart sapması. Örnekler değişmeden
+ * sonraki adıma geçer; sonraki adımlar (ör. alarmlar) istatistikleri aynı iş parçacığında
+ * okuyabilir.
+ *
+ * En küçük/en büyük için tekdüze kuyruk kullanılır (örnek başına amorti O(1)). Ortalama ve
+ * varyans, sayısal kaybı azaltmak için ilk örneğe göre kaydırılmış toplamlardan hesaplanır ve
+ * halka her dolaşımında yeniden toplanır.
+ *
+ * Diğer iş parçacıkları için son değerler {@link #getMin()} vb. ile yayınlanır; yayın her
+ * publishEvery örnekte bir yapılır, böylece kHz akışta örnek başına volatile yazılmaz.
+ */
+public final class RollingStats extends SignalStage {
+
+    private final float[] window;
+    private final int publishEvery;
+    private int position;
+    private int count;
+    private long sequence;
+
+    // Kaydırılmış toplamlar: Σ(x − shift), Σ(x − shift)²
+    private float shift = Float.NaN;
+    private double sum;
+    private double sumSquares;
+
+    // Tekdüze kuyruklar: sıra numaraları, baştan sona artan (min) / azalan (maks) değerler
+    private final long[] minSequences;
+    private final float[] minValues;
+    private int minHead;
+    private int minSize;
+    private final long[] maxSequences;
+    private final float[] maxValues;
+    private int maxHead;
+    private int maxSize;
+
+    private int untilPublish;
+    private volatile float publishedMin = Float.NaN;
+    private volatile float publishedMax = Float.NaN;
+    private volatile float publishedMean = Float.NaN;
+    private volatile float publishedStdDev = Float.NaN;
+
+    public RollingStats(int window) {
+        this(window, 1);
+    }
+
+    public RollingStats(int window, int publishEvery) {
+        if (window < 1 || publishEvery < 1) {
+            throw new IllegalArgumentException("Geçersiz pencere: " + window + ", " + publishEvery);
+        }
+        this.window = new float[window];
+        this.publishEvery = publishEvery;
+        this.minSequences = new long[window];
+        this.minValues = new float[window];
+        this.maxSequences = new long[window];
+        this.maxValues = new float[window];
+    }
+
+    @Override
+    public void process(long timestampMillis, float value) {
+        if (value != value) {
+            emit(timestampMillis, value);
+            return;
+        }
+        if (count == 0) {
+            shift = value;
+        }
+        double d = value - shift;
+        if (count == window.length) {
+            double old = window[position] - shift;
+            sum -= old;
+            sumSquares -= old * old;
+        } else {
+            count++;
+        }
+        window[position] = value;
+        sum += d;
+        sumSquares += d * d;
+        if (++position == window.length) {
+            position = 0;
+            recomputeSums();
+        }
+
+        long oldest = sequence - window.length + 1;
+        pushMin(value, oldest);
+        pushMax(value, oldest);
+        sequence++;
+
+        if (--untilPublish <= 0) {
+            untilPublish = publishEvery;
+            publishedMin = getWindowMin();
+            publishedMax = getWindowMax();
+            publishedMean = getWindowMean();
+            publishedStdDev = getWindowStdDev();
+        }
+        emit(timestampMillis, value);
+    }
+
+    // Aynı iş parçacığından (sonraki adımlar) okunan anlık değerler
+    public int getWindowCount() {
+        return count;
+    }
+
+    public float getWindowMin() {
+        return minSize == 0 ? Float.NaN : minValues[minHead];
+    }
+
+    public float getWindowMax() {
+        return maxSize == 0 ? Float.NaN : maxValues[maxHead];
+    }
+
+    public float getWindowMean() {
+        return count == 0 ? Float.NaN : (float) (shift + sum / count);
+    }
+
+    // Örneklem (n − 1) standart sapması
+    public float getWindowStdDev() {
+        if (count < 2) {
+            return count == 0 ? Float.NaN : 0f;
+        }
+        double variance = (sumSquares - sum * sum / count) / (count - 1);
+        return (float) Math.sqrt(Math.max(0, variance));
+    }
+
+    // Diğer iş parçacıklarından okunan, en fazla publishEvery örnek eski değerler
+    public float getMin() {
+        return publishedMin;
+    }
+
+    public float getMax() {
+        return publishedMax;
+    }
+
+    public float getMean() {
+        return publishedMean;
+    }
+
+    public float getStdDev() {
+        return publishedStdDev;
+    }
+
+    @Override
+    public void reset() {
+        position = 0;
+        count = 0;
+        sequence = 0;
+        shift = Float.NaN;
+        sum = 0;
+        sumSquares = 0;
+        minHead = minSize = 0;
+        maxHead = maxSize = 0;
+        untilPublish = 0;
+        publishedMin = publishedMax = publishedMean = publishedStdDev = Float.NaN;
+    }
+
+    private void recomputeSums() {
+        double s = 0;
+        double s2 = 0;
+        for (float sample : window) {
+            double d = sample - shift;
+            s += d;
+            s2 += d * d;
+        }
+        sum = s;
+        sumSquares = s2;
+    }
+
+    // Kuyrukların kapasitesi pencere boyudur: süresi dolanlar baştan, baskın olunanlar sondan çıkar
+    private void pushMin(float value, long oldest) {
+        int capacity = window.length;
+        if (minSize > 0 && minSequences[minHead] < oldest) {
+            minHead = (minHead + 1) % capacity;
+            minSize--;
+        }
+        while (minSize > 0 && minValues[(minHead + minSize - 1) % capacity] >= value) {
+            minSize--;
+        }
+        int tail = (minHead + minSize) % capacity;
+        minSequences[tail] = sequence;
+        minValues[tail] = value;
+        minSize++;
+    }
+
+    private void pushMax(float value, long oldest) {
+        int capacity = window.length;
+        if (maxSize > 0 && maxSequences[maxHead] < oldest) {
+            maxHead = (maxHead + 1) % capacity;
+            maxSize--;
+        }
+        while (maxSize > 0 && maxValues[(maxHead + maxSize - 1) % capacity] <= value) {
+            maxSize--;
+        }
+        int tail = (maxHead + maxSize) % capacity;
+        maxSequences[tail] = sequence;
+        maxValues[tail] = value;
+        maxSize++;
+    }
+}
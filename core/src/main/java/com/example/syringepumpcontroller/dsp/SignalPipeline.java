@@ -0,0 +1,119 @@
+package com.example.syringepumpcontroller.dsp;
+
+import com.example.syringepumpcontroller.data.SampleBuffer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Ham sensör örnekleriyle depolar/UI arasındaki işleme hattı: adımlar verilen sırayla
+ * zincirlenir, son adımın çıktısı (seyreltilmişse seyreltilmiş hızda) çıkış deposuna yazılır.
+ *
+ * Örnek: sıçrama ayıklama → yumuşatma → istatistik → alarmlar
+ * <pre>
+ * new SignalPipeline(filtered,
+ *         new MedianFilter(5, 0.2),
+ *         ExponentialAverage.withTimeConstant(0.05, 1000),
+ *         new ThresholdAlarm("tıkanma", AlarmStage.Action.STOP_PUMP, Double.NaN, 4.5, 0.1, 50));
+ * </pre>
+ *
+ * {@link #process} tek bir iş parçacığından (seri okuma) çağrılmalıdır; örnek başına bellek
+ * ayrılmaz.
+ */
+public final class SignalPipeline {
+
+    private final SampleBuffer output;
+    private final SignalStage head;
+    private final List<SignalStage> stages;
+    private final List<AlarmStage> alarms;
+    private volatile long samplesProcessed;
+
+    /**
+     * @param output son adımın çıktısının yazılacağı depo; null ise çıktı yalnızca adımlarda kalır
+     */
+    public SignalPipeline(final SampleBuffer output, SignalStage... stages) {
+        if (stages.length == 0 && output == null) {
+            throw new IllegalArgumentException("Boş hat");
+        }
+        List<SignalStage> chain = new ArrayList<>(Arrays.asList(stages));
+        List<AlarmStage> alarms = new ArrayList<>();
+        for (SignalStage stage : stages) {
+            if (stage instanceof AlarmStage) {
+                alarms.add((AlarmStage) stage);
+            }
+        }
+        if (output != null) {
+            chain.add(new SignalStage() {
+                @Override
+                public void process(long timestampMillis, float value) {
+                    output.append(timestampMillis, value);
+                }
+            });
+        }
+        for (int i = 0; i + 1 < chain.size(); i++) {
+            chain.get(i).setNext(chain.get(i + 1));
+        }
+        this.output = output;
+        this.head = chain.get(0);
+        this.stages = Collections.unmodifiableList(Arrays.asList(stages));
+        this.alarms = Collections.unmodifiableList(alarms);
+    }
+
+    public void process(long timestampMillis, float value) {
+        samplesProcessed++;
+        head.process(timestampMillis, value);
+    }
+
+    // Tüm alarm adımlarının dinleyicisi; okuma iş parçacığında çağrılır
+    public void setAlarmListener(AlarmStage.Listener listener) {
+        for (AlarmStage alarm : alarms) {
+            alarm.setListener(listener);
+        }
+    }
+
+    // Yeni bağlantıda eski bağlantının geçmişi süzgeçlere karışmaz
+    public void reset() {
+        for (SignalStage stage : stages) {
+            stage.reset();
+        }
+    }
+
+    // Süzülmüş çıktının deposu; verilmediyse null
+    public SampleBuffer getOutput() {
+        return output;
+    }
+
+    // Verilen türdeki ilk adım; yoksa null (ör. ekranda gösterilecek istatistikler)
+    public <T extends SignalStage> T findStage(Class<T> type) {
+        for (SignalStage stage : stages) {
+            if (type.isInstance(stage)) {
+                return type.cast(stage);
+            }
+        }
+        return null;
+    }
+
+    public List<SignalStage> getStages() {
+        return stages;
+    }
+
+    public List<AlarmStage> getAlarms() {
+        return alarms;
+    }
+
+    // Hattın etkin alarmlarından biri pompayı durduruyorsa true
+    public boolean isStopAlarmActive() {
+        for (AlarmStage alarm : alarms) {
+            if (alarm.isActive() && alarm.getAction() == AlarmStage.Action.STOP_PUMP) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public long getSamplesProcessed() {
+        return samplesProcessed;
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.syringepumpcontroller.dsp;
+
+/**
+ * {@link SignalPipeline} içindeki bir işleme adımı. Her örnek {@link #process} ile gelir;
+ * adım sonucu {@link #emit} ile bir sonraki adıma iletir. Seyreltici adımlar her örnekte
+ * değil, yalnızca çıktı ürettiğinde iletir.
+ *
+ * Adımlar tek bir iş parçacığında (seri okuma) çalışır ve örnek başına bellek ayırmaz; tüm
+ * durum kurulumda ayrılan ilkel dizilerde tutulur.
+ */
+public abstract class SignalStage {
+
+    private SignalStage next;
+
+    public abstract void process(long timestampMillis, float value);
+
+    // Durum ilk örnekten önceki haline döner (ör. yeni bağlantı)
+    public void reset() {
+    }
+
+    protected final void emit(long timestampMillis, float value) {
+        SignalStage target = next;
+        if (target != null) {
+            target.process(timestampMillis, value);
+        }
+    }
+
+    final void setNext(SignalStage next) {
+        this.next = next;
+    }
+}
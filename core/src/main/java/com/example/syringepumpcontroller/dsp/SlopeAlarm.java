@@ -0,0 +1,70 @@
+package com.example.syringepumpcontroller.dsp;
+
+/**
+ * Değişim hızı (V/s) sınır dışına çıkınca etkinleşen alarm. Eğim, son windowSamples örnek
+ * boyunca baştaki ve sondaki örnekten hesaplanır; gürültüyü azaltmak için alarm öncesinde
+ * bir yumuşatma adımı kullanılmalıdır. Tıkanmada basınç hızla yükselir, boşalan şırıngada
+ * düşer. Sınırlardan biri NaN verilirse o taraf izlenmez.
+ */
+public final class SlopeAlarm extends AlarmStage {
+
+    private final float minSlope;
+    private final float maxSlope;
+    private final long[] times;
+    private final float[] values;
+    private int position;
+    private int count;
+    private float lastSlope = Float.NaN;
+
+    public SlopeAlarm(String name, Action action, int windowSamples, double minSlope, double maxSlope,
+                      int holdSamples) {
+        super(name, action, holdSamples);
+        if (windowSamples < 2) {
+            throw new IllegalArgumentException("Eğim için en az 2 örnek gerekli: " + windowSamples);
+        }
+        this.times = new long[windowSamples];
+        this.values = new float[windowSamples];
+        this.minSlope = (float) minSlope;
+        this.maxSlope = (float) maxSlope;
+    }
+
+    @Override
+    protected int evaluate(long timestampMillis, float value) {
+        // position, pencere doluyken en eski örneği gösterir
+        long oldTime = times[position];
+        float oldValue = values[position];
+        times[position] = timestampMillis;
+        values[position] = value;
+        if (++position == times.length) {
+            position = 0;
+        }
+        if (count < times.length) {
+            count++;
+            if (count < times.length) {
+                return HOLD;
+            }
+            oldTime = times[position];
+            oldValue = values[position];
+        }
+        long elapsed = timestampMillis - oldTime;
+        if (elapsed <= 0) {
+            return HOLD;
+        }
+        float slope = (value - oldValue) * 1000f / elapsed;
+        lastSlope = slope;
+        return slope > maxSlope || slope < minSlope ? TRIGGER : CLEAR;
+    }
+
+    // Son hesaplanan eğim (V/s); okuma iş parçacığından
+    public float getLastSlope() {
+        return lastSlope;
+    }
+
+    @Override
+    public void reset() {
+        super.reset();
+        position = 0;
+        count = 0;
+        lastSlope = Float.NaN;
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.syringepumpcontroller.dsp;
+
+/**
+ * Değer [low, high] dışına çıkınca etkinleşen alarm (ör. tıkanmada basınç geriliminin
+ * yükselmesi, boş şırıngada düşmesi). Sönmesi için değerin sınırlardan hysteresis kadar içeri
+ * dönmesi gerekir. Sınırlardan biri NaN verilirse o taraf izlenmez.
+ */
+public final class ThresholdAlarm extends AlarmStage {
+
+    private final float low;
+    private final float high;
+    private final float hysteresis;
+
+    public ThresholdAlarm(String name, Action action, double low, double high, double hysteresis, int holdSamples) {
+        super(name, action, holdSamples);
+        if (hysteresis < 0 || (!Double.isNaN(low) && !Double.isNaN(high) && low + 2 * hysteresis > high)) {
+            throw new IllegalArgumentException("Geçersiz sınırlar: " + low + ".." + high + " ±" + hysteresis);
+        }
+        this.low = (float) low;
+        this.high = (float) high;
+        this.hysteresis = (float) hysteresis;
+    }
+
+    // Karşılaştırmalar NaN sınırda her zaman false olduğundan o taraf kendiliğinden devre dışıdır
+    @Override
+    protected int evaluate(long timestampMillis, float value) {
+        if (value > high || value < low) {
+            return TRIGGER;
+        }
+        if (value > high - hysteresis || value < low + hysteresis) {
+            return HOLD;
+        }
+        return CLEAR;
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.syringepumpcontroller.metrics;
+
+/**
+ * Anlık değer (ör. kuyruk derinliği). Değer yalnızca okunurken hesaplanır,
+ * bu yüzden sıcak yola maliyeti yoktur.
+ */
+public final class Gauge implements Metric {
+
+    public interface Source {
+        long value();
+    }
+
+    private final String name;
+    private volatile Source source;
+
+    Gauge(String name, Source source) {
+        this.name = name;
+        this.source = source;
+    }
+
+    void setSource(Source source) {
+        this.source = source;
+    }
+
+    public long get() {
+        return source.value();
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public void reset() {
+    }
+
+    @Override
+    public void appendTo(StringBuilder out) {
+        out.append(name).append(" = ").append(get()).append('\n');
+    }
+}
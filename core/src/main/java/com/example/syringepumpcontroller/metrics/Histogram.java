@@ -0,0 +1,233 @@
+package com.example.syringepumpcontroller.metrics;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Sabit kova sınırlı, kilitsiz histogram. Sınırlar kayıt anındaki birimdedir (ör. µs);
+ * son sınırdan büyük değerler taşma kovasına düşer. Kayıt bellek ayırmaz.
+ *
+ * Kayıttan bağımsız örnekler (ör. bağlantı başına komut gecikmeleri) doğrudan oluşturulur;
+ * göreli hassasiyet gereken yerlerde {@link #geometricBounds} ile sık sınırlar kullanılır.
+ */
+public final class Histogram implements Metric {
+
+    // Gecikme ve kare süresi için µs sınırları: 60 Hz kare bütçesi (16.7 ms) civarı sık tutulur
+    public static final long[] LATENCY_MICROS = {
+            100, 250, 500, 1_000, 2_000, 4_000, 8_000, 12_000, 16_700, 25_000, 33_300,
+            50_000, 100_000, 250_000, 500_000, 1_000_000
+    };
+
+    // Bu sayıdan fazla sınırda (ör. geometricBounds) kova ikili aramayla bulunur
+    private static final int LINEAR_SCAN_LIMIT = 32;
+
+    private final String name;
+    private final String unit;
+    private final long[] bounds;
+    // bounds.length + 1 kova; sonuncusu taşma
+    private final AtomicLongArray counts;
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    public Histogram(String name, String unit, long[] bounds) {
+        for (int i = 1; i < bounds.length; i++) {
+            if (bounds[i] <= bounds[i - 1]) {
+                throw new IllegalArgumentException("Kova sınırları artan sırada olmalı: " + name);
+            }
+        }
+        this.name = name;
+        this.unit = unit;
+        this.bounds = bounds.clone();
+        this.counts = new AtomicLongArray(bounds.length + 1);
+    }
+
+    public void record(long value) {
+        if (!Metrics.enabled) {
+            return;
+        }
+        counts.incrementAndGet(bucketOf(value));
+        count.incrementAndGet();
+        sum.addAndGet(value);
+        long current;
+        while (value > (current = max.get())) {
+            if (max.compareAndSet(current, value)) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * first ile last arasında ardışık oranı en fazla ratio olan sınırlar. Yüzdelikler kova üst
+     * sınırı olarak verildiğinden göreli hata en fazla ratio - 1 olur.
+     */
+    public static long[] geometricBounds(long first, long last, double ratio) {
+        if (first < 1 || last < first || ratio <= 1.0) {
+            throw new IllegalArgumentException("Geçersiz sınır aralığı: " + first + ".." + last + " x" + ratio);
+        }
+        long[] bounds = new long[64];
+        int n = 0;
+        for (long bound = first; ; bound = Math.max(bound + 1, (long) Math.ceil(bound * ratio))) {
+            if (n == bounds.length) {
+                bounds = Arrays.copyOf(bounds, n * 2);
+            }
+            bounds[n++] = Math.min(bound, last);
+            if (bound >= last) {
+                break;
+            }
+        }
+        return Arrays.copyOf(bounds, n);
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    public double getMean() {
+        long n = count.get();
+        return n == 0 ? 0.0 : (double) sum.get() / n;
+    }
+
+    public int getBucketCount() {
+        return counts.length();
+    }
+
+    public long getBucketValue(int bucket) {
+        return counts.get(bucket);
+    }
+
+    // Kovanın üst sınırı; taşma kovası için Long.MAX_VALUE
+    public long getBucketBound(int bucket) {
+        return bucket < bounds.length ? bounds[bucket] : Long.MAX_VALUE;
+    }
+
+    /**
+     * Yüzdeliğin düştüğü kovanın üst sınırı (en büyük kayıtla sınırlı). Kova çözünürlüğünde yaklaşıktır.
+     */
+    public long getValueAtPercentile(double percentile) {
+        long total = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            total += counts.get(i);
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(Math.min(percentile, 100.0) / 100.0 * total));
+        long seen = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            seen += counts.get(i);
+            if (seen >= target) {
+                return Math.min(getBucketBound(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    /**
+     * HdrHistogram yüzdelik dağılımı metin biçimi; çıktı HdrHistogram araçlarıyla çizilebilir.
+     * Değerler kova üst sınırlarıdır ve valueUnitsPerOutputUnit ile bölünür (ör. µs için 1000.0
+     * ile milisaniye).
+     */
+    public void outputPercentileDistribution(Appendable out, double valueUnitsPerOutputUnit) throws IOException {
+        final int ticksPerHalfDistance = 5;
+        int buckets = counts.length();
+        long[] snapshot = new long[buckets];
+        long total = 0;
+        for (int i = 0; i < buckets; i++) {
+            snapshot[i] = counts.get(i);
+            total += snapshot[i];
+        }
+        long maxValue = max.get();
+        out.append(String.format(Locale.US, "%12s %14s %10s %14s%n%n",
+                "Value", "Percentile", "TotalCount", "1/(1-Percentile)"));
+
+        if (total > 0) {
+            double percentile = 0.0;
+            int index = 0;
+            long seen = snapshot[0];
+            while (true) {
+                long target = Math.max(1, (long) Math.ceil(percentile / 100.0 * total));
+                while (seen < target && index < buckets - 1) {
+                    seen += snapshot[++index];
+                }
+                double value = Math.min(getBucketBound(index), maxValue) / valueUnitsPerOutputUnit;
+                if (seen >= total) {
+                    out.append(String.format(Locale.US, "%12.3f %2.12f %10d%n", value, 1.0, total));
+                    break;
+                }
+                double fraction = percentile / 100.0;
+                out.append(String.format(Locale.US, "%12.3f %2.12f %10d %14.2f%n",
+                        value, fraction, seen, 1.0 / (1.0 - fraction)));
+                // Her yarı mesafede (50%, 75%, 87.5% ...) ticksPerHalfDistance satır
+                double remaining = 100.0 - percentile;
+                long ticks = ticksPerHalfDistance * (1L << ((int) (Math.log(100.0 / remaining) / Math.log(2)) + 1));
+                percentile += 100.0 / ticks;
+            }
+        }
+
+        out.append(String.format(Locale.US, "#[Mean    = %12.3f, StdDeviation   = %12.3f]%n",
+                getMean() / valueUnitsPerOutputUnit,
+                standardDeviation(snapshot, total, getMean(), maxValue) / valueUnitsPerOutputUnit));
+        out.append(String.format(Locale.US, "#[Max     = %12.3f, Total count    = %12d]%n",
+                maxValue / valueUnitsPerOutputUnit, total));
+        out.append(String.format(Locale.US, "#[Buckets = %12d, SubBuckets     = %12d]%n", buckets, 1));
+    }
+
+    // Kova içindeki değerler kovanın ortasında varsayılır; taşma kovası en büyük kayda kadar uzanır
+    private double standardDeviation(long[] snapshot, long total, double mean, long maxValue) {
+        if (total == 0) {
+            return 0.0;
+        }
+        double sum = 0.0;
+        for (int i = 0; i < snapshot.length; i++) {
+            if (snapshot[i] != 0) {
+                long lower = i == 0 ? 0 : bounds[i - 1];
+                long upper = i < bounds.length ? bounds[i] : Math.max(lower, maxValue);
+                double deviation = (lower + upper) / 2.0 - mean;
+                sum += deviation * deviation * snapshot[i];
+            }
+        }
+        return Math.sqrt(sum / total);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public void reset() {
+        for (int i = 0; i < counts.length(); i++) {
+            counts.set(i, 0);
+        }
+        count.set(0);
+        sum.set(0);
+        max.set(0);
+    }
+
+    @Override
+    public void appendTo(StringBuilder out) {
+        out.append(String.format(Locale.US, "%s: n=%d ort=%.0f p50=%d p99=%d maks=%d %s%n",
+                name, getCount(), getMean(), getValueAtPercentile(50), getValueAtPercentile(99), getMax(), unit));
+    }
+
+    private int bucketOf(long value) {
+        if (bounds.length > LINEAR_SCAN_LIMIT) {
+            int found = Arrays.binarySearch(bounds, value);
+            return found >= 0 ? found : -found - 1;
+        }
+        // Kova sayısı küçük; ikili arama dallanması doğrusal taramadan kazançlı değil
+        int i = 0;
+        while (i < bounds.length && value > bounds[i]) {
+            i++;
+        }
+        return i;
+    }
+}
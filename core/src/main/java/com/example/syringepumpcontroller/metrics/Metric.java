@@ -0,0 +1,11 @@
+package com.example.syringepumpcontroller.metrics;
+
+public interface Metric {
+
+    String getName();
+
+    void reset();
+
+    // Hata ayıklama ekranı ve dışa aktarma için okunabilir satır(lar)
+    void appendTo(StringBuilder out);
+}
@@ -0,0 +1,78 @@
+package com.example.syringepumpcontroller.metrics;
+
+/**
+ * Uygulama genelindeki ölçüm kaydı ve seri/ayrıştırma/UI hatlarının standart ölçümleri.
+ *
+ * Kapalıyken her kayıt çağrısı tek bir volatile okuma ve dallanmadan ibarettir; sayaçlar
+ * ve histogramlar güncellenmez. Göstergeler zaten yalnızca okunurken hesaplanır.
+ */
+public final class Metrics {
+
+    static volatile boolean enabled = true;
+
+    private static final MetricsRegistry REGISTRY = new MetricsRegistry();
+
+    // Seri hat
+    public static final Counter SERIAL_BYTES_READ = REGISTRY.counter("serial.bytes_read");
+    public static final Counter SERIAL_BYTES_WRITTEN = REGISTRY.counter("serial.bytes_written");
+    public static final Counter SERIAL_READ_CHUNKS = REGISTRY.counter("serial.read_chunks");
+
+    // Ayrıştırma
+    public static final Counter FRAMES_PARSED = REGISTRY.counter("parser.frames");
+    public static final Counter PARSE_ERRORS = REGISTRY.counter("parser.errors");
+    public static final Counter FRAMES_LOST = REGISTRY.counter("parser.frames_lost");
+
+    // Örnek hattı
+    public static final Counter SAMPLES_RECEIVED = REGISTRY.counter("samples.received");
+    public static final Counter SAMPLES_DROPPED = REGISTRY.counter("samples.dropped");
+
+    // Sinyal işleme alarmları: etkinleşmeler ve pompayı durduranlar
+    public static final Counter ALARMS_RAISED = REGISTRY.counter("dsp.alarms");
+    public static final Counter ALARM_STOPS = REGISTRY.counter("dsp.alarm_stops");
+
+    // UI: örneğin alındığı andan ekrana çizildiği kareye kadar geçen süre ve grafik çizim süresi
+    public static final Histogram CALLBACK_TO_UI_LATENCY =
+            REGISTRY.histogram("ui.callback_to_ui", "µs", Histogram.LATENCY_MICROS);
+    public static final Histogram CHART_FRAME_TIME =
+            REGISTRY.histogram("ui.chart_frame", "µs", Histogram.LATENCY_MICROS);
+    // Yüksek yoğunluklu grafikte arka planda sütun seyreltme ve yol oluşturma süresi
+    public static final Histogram CHART_RENDER_TIME =
+            REGISTRY.histogram("ui.chart_render", "µs", Histogram.LATENCY_MICROS);
+
+    // Kapalı çevrim denetim adımlarının ideal zamandan sapması
+    public static final Histogram CONTROL_JITTER =
+            REGISTRY.histogram("control.jitter", "µs", Histogram.LATENCY_MICROS);
+
+    // Profil komutlarının planlanan zamanlarından gecikmesi
+    public static final Histogram PROFILE_LATENESS =
+            REGISTRY.histogram("profile.lateness", "µs", Histogram.LATENCY_MICROS);
+
+    // Bağlantı kurulumu (ms): uygulama açılışından veya cihaz takılmasından ilk örneğe kadar
+    // geçen süre, bunun USB portunu açma ve cihazla el sıkışma payları
+    public static final long[] STARTUP_MILLIS = {
+            25, 50, 100, 200, 300, 500, 750, 1_000, 1_500, 2_000, 3_000, 5_000, 10_000, 30_000
+    };
+    public static final Histogram TIME_TO_FIRST_SAMPLE =
+            REGISTRY.histogram("connection.time_to_first_sample", "ms", STARTUP_MILLIS);
+    public static final Histogram USB_OPEN_TIME =
+            REGISTRY.histogram("connection.usb_open", "ms", STARTUP_MILLIS);
+    public static final Histogram HANDSHAKE_TIME =
+            REGISTRY.histogram("connection.handshake", "ms", STARTUP_MILLIS);
+    public static final Counter RECONNECT_ATTEMPTS = REGISTRY.counter("connection.reconnect_attempts");
+    public static final Counter COMMAND_REPLAYS = REGISTRY.counter("connection.replays");
+
+    private Metrics() {
+    }
+
+    public static MetricsRegistry registry() {
+        return REGISTRY;
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static void setEnabled(boolean enabled) {
+        Metrics.enabled = enabled;
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.syringepumpcontroller.metrics;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Adlandırılmış sayaç, gösterge ve histogramların kaydı. Kayıt nadir olduğundan kilitlidir;
+ * dönen ölçüm nesneleri alanlarda tutulup sıcak yolda kilitsiz kullanılır.
+ */
+public class MetricsRegistry {
+
+    // Kayıt sırası ekrandaki sırayı belirler
+    private final Map<String, Metric> metrics = new LinkedHashMap<>();
+
+    public synchronized Counter counter(String name) {
+        Metric existing = metrics.get(name);
+        if (existing == null) {
+            Counter counter = new Counter(name);
+            metrics.put(name, counter);
+            return counter;
+        }
+        return cast(existing, Counter.class);
+    }
+
+    // Aynı adla yeniden kayıt kaynağı değiştirir (ör. yeni bağlantı)
+    public synchronized Gauge gauge(String name, Gauge.Source source) {
+        Metric existing = metrics.get(name);
+        if (existing == null) {
+            Gauge gauge = new Gauge(name, source);
+            metrics.put(name, gauge);
+            return gauge;
+        }
+        Gauge gauge = cast(existing, Gauge.class);
+        gauge.setSource(source);
+        return gauge;
+    }
+
+    public synchronized Histogram histogram(String name, String unit, long[] bounds) {
+        Metric existing = metrics.get(name);
+        if (existing == null) {
+            Histogram histogram = new Histogram(name, unit, bounds);
+            metrics.put(name, histogram);
+            return histogram;
+        }
+        return cast(existing, Histogram.class);
+    }
+
+    public synchronized Metric get(String name) {
+        return metrics.get(name);
+    }
+
+    public synchronized List<Metric> getMetrics() {
+        return new ArrayList<>(metrics.values());
+    }
+
+    public void reset() {
+        for (Metric metric : getMetrics()) {
+            metric.reset();
+        }
+    }
+
+    // Tüm ölçümlerin okunabilir dökümü
+    public String dump() {
+        StringBuilder out = new StringBuilder();
+        for (Metric metric : getMetrics()) {
+            metric.appendTo(out);
+        }
+        return out.toString();
+    }
+
+    private static <T extends Metric> T cast(Metric metric, Class<T> type) {
+        if (!type.isInstance(metric)) {
+            throw new IllegalArgumentException(metric.getName() + " zaten farklı türde kayıtlı");
+        }
+        return type.cast(metric);
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.syringepumpcontroller.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sıcak yoldaki olaylar için hız sınırlı günlük: aralık başına en fazla bir satır yazılır,
+ * arada bastırılan olay sayısı sonraki satıra eklenir. Mesaj yalnızca {@link #shouldLog}
+ * true döndüğünde oluşturulmalıdır; böylece bastırılan olaylar hiç bellek ayırmaz.
+ *
+ * Günlük çıktısı platforma {@link #setSink} ile bağlanır (Android'de Log); bağlanmadıysa yazılmaz.
+ */
+public final class RateLimitedLog {
+
+    public interface Sink {
+        void log(String tag, String message);
+    }
+
+    private static volatile Sink sink;
+
+    private final String tag;
+    private final long intervalNanos;
+    // İlk satır hemen yazılabilsin diye en eski zamandan başlar
+    private final AtomicLong nextAllowedNanos = new AtomicLong(Long.MIN_VALUE);
+    private final AtomicLong suppressed = new AtomicLong();
+
+    public RateLimitedLog(String tag, long intervalMillis) {
+        this.tag = tag;
+        this.intervalNanos = TimeUnit.MILLISECONDS.toNanos(intervalMillis);
+    }
+
+    public static void setSink(Sink newSink) {
+        sink = newSink;
+    }
+
+    // Bu olay yazılmalıysa true; aksi halde olay bastırılmış sayılır
+    public boolean shouldLog() {
+        return sink != null && shouldLog(System.nanoTime());
+    }
+
+    boolean shouldLog(long nowNanos) {
+        long next = nextAllowedNanos.get();
+        if (nowNanos - next < 0 && next != Long.MIN_VALUE) {
+            suppressed.incrementAndGet();
+            return false;
+        }
+        // Aynı anda gelen diğer iş parçacıkları bu aralıkta bastırılır
+        if (!nextAllowedNanos.compareAndSet(next, nowNanos + intervalNanos)) {
+            suppressed.incrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    // shouldLog true döndükten sonra çağrılır
+    public void log(String message) {
+        Sink current = sink;
+        if (current != null) {
+            current.log(tag, format(message));
+        }
+    }
+
+    String format(String message) {
+        long count = suppressed.getAndSet(0);
+        return count == 0 ? message : message + " (+" + count + " benzer olay bastırıldı)";
+    }
+}
@@ -0,0 +1,153 @@
+package com.example.syringepumpcontroller.profile;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Sırayla çalıştırılan infüzyon bölümlerinden oluşan program (değişmez).
+ *
+ * Bölüm türleri:
+ * - STEP : süre boyunca sabit hız
+ * - RAMP : başlangıç hızından bitiş hızına doğrusal geçiş
+ * - BOLUS: kısa süreli yüksek hız; süresi {@link #MAX_BOLUS_MILLIS} ile sınırlıdır
+ * - PAUSE: pompa durdurulur
+ *
+ * Her bölümün yönü vardır; yön değişimi bölüm başında gönderilir. Program bitince pompa durur.
+ */
+public final class InfusionProfile {
+
+    public enum Type {
+        STEP, RAMP, BOLUS, PAUSE
+    }
+
+    public static final int MIN_SPEED = 0;
+    public static final int MAX_SPEED = 100;
+    public static final long MAX_BOLUS_MILLIS = 60_000;
+
+    public static final class Segment {
+        public final Type type;
+        public final long durationMillis;
+        public final int startSpeed;
+        // RAMP dışında başlangıç hızına eşittir
+        public final int endSpeed;
+        public final boolean forward;
+
+        private Segment(Type type, long durationMillis, int startSpeed, int endSpeed, boolean forward) {
+            if (durationMillis <= 0) {
+                throw new IllegalArgumentException("Geçersiz bölüm süresi: " + durationMillis);
+            }
+            checkSpeed(startSpeed);
+            checkSpeed(endSpeed);
+            if (type == Type.BOLUS && durationMillis > MAX_BOLUS_MILLIS) {
+                throw new IllegalArgumentException("Bolus en fazla " + MAX_BOLUS_MILLIS / 1000 + " s sürebilir");
+            }
+            this.type = type;
+            this.durationMillis = durationMillis;
+            this.startSpeed = startSpeed;
+            this.endSpeed = endSpeed;
+            this.forward = forward;
+        }
+
+        public static Segment step(long durationMillis, int speed, boolean forward) {
+            return new Segment(Type.STEP, durationMillis, speed, speed, forward);
+        }
+
+        public static Segment ramp(long durationMillis, int fromSpeed, int toSpeed, boolean forward) {
+            return new Segment(Type.RAMP, durationMillis, fromSpeed, toSpeed, forward);
+        }
+
+        public static Segment bolus(long durationMillis, int speed, boolean forward) {
+            return new Segment(Type.BOLUS, durationMillis, speed, speed, forward);
+        }
+
+        // Durakta yön değişmez; önceki bölümün yönü taşınır
+        public static Segment pause(long durationMillis, boolean forward) {
+            return new Segment(Type.PAUSE, durationMillis, 0, 0, forward);
+        }
+
+        private static void checkSpeed(int speed) {
+            if (speed < MIN_SPEED || speed > MAX_SPEED) {
+                throw new IllegalArgumentException("Geçersiz hız: " + speed);
+            }
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Segment)) {
+                return false;
+            }
+            Segment other = (Segment) o;
+            return type == other.type && durationMillis == other.durationMillis
+                    && startSpeed == other.startSpeed && endSpeed == other.endSpeed
+                    && forward == other.forward;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = type.hashCode();
+            result = 31 * result + (int) (durationMillis ^ (durationMillis >>> 32));
+            result = 31 * result + startSpeed;
+            result = 31 * result + endSpeed;
+            return 31 * result + (forward ? 1 : 0);
+        }
+
+        @Override
+        public String toString() {
+            return type + "{" + durationMillis + " ms, " + startSpeed
+                    + (type == Type.RAMP ? ".." + endSpeed : "") + ", " + (forward ? "ileri" : "geri") + '}';
+        }
+    }
+
+    private final String name;
+    private final List<Segment> segments;
+    private final long totalMillis;
+
+    public InfusionProfile(String name, List<Segment> segments) {
+        if (segments.isEmpty()) {
+            throw new IllegalArgumentException("Profil en az bir bölüm içermeli");
+        }
+        long total = 0;
+        for (Segment segment : segments) {
+            total += segment.durationMillis;
+        }
+        this.name = name;
+        this.segments = Collections.unmodifiableList(new ArrayList<>(segments));
+        this.totalMillis = total;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public List<Segment> getSegments() {
+        return segments;
+    }
+
+    public long getTotalMillis() {
+        return totalMillis;
+    }
+
+    // Programın başından itibaren verilen bölümün başlama zamanı
+    public long getSegmentStartMillis(int index) {
+        long start = 0;
+        for (int i = 0; i < index; i++) {
+            start += segments.get(i).durationMillis;
+        }
+        return start;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof InfusionProfile)) {
+            return false;
+        }
+        InfusionProfile other = (InfusionProfile) o;
+        return (name == null ? other.name == null : name.equals(other.name)) && segments.equals(other.segments);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (name == null ? 0 : name.hashCode()) + segments.hashCode();
+    }
+}
@@ -0,0 +1,199 @@
+package com.example.syringepumpcontroller.profile;
+
+import com.example.syringepumpcontroller.profile.InfusionProfile.Segment;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Profil dosyası biçimi: satır başına bir bölüm, elle yazılabilecek kadar kısa.
+ *
+ * <pre>
+ * # Yorum satırı
+ * name Yükleme protokolü
+ * step  30s    40     fwd
+ * ramp  2m     20-80
+ * bolus 5s     100    rev
+ * pause 1m30s
+ * </pre>
+ *
+ * Süre birimleri ms, s ve m'dir; birleştirilebilir (1m30s). Yön (fwd/rev) yazılmazsa önceki
+ * bölümün yönü kullanılır, ilk bölümde ileridir. Hatalar satır numarasıyla bildirilir.
+ */
+public final class ProfileFormat {
+
+    private ProfileFormat() {
+    }
+
+    public static InfusionProfile parse(String text) {
+        try {
+            return read(new StringReader(text));
+        } catch (IOException e) {
+            // StringReader G/Ç hatası vermez
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * @throws IllegalArgumentException biçim hatası; mesaj satır numarasını içerir
+     */
+    public static InfusionProfile read(Reader reader) throws IOException {
+        BufferedReader in = new BufferedReader(reader);
+        List<Segment> segments = new ArrayList<>();
+        String name = null;
+        boolean forward = true;
+        String line;
+        int lineNumber = 0;
+        while ((line = in.readLine()) != null) {
+            lineNumber++;
+            int comment = line.indexOf('#');
+            if (comment >= 0) {
+                line = line.substring(0, comment);
+            }
+            line = line.trim();
+            if (line.isEmpty()) {
+                continue;
+            }
+            String[] fields = line.split("\\s+");
+            String keyword = fields[0].toLowerCase(Locale.ROOT);
+            try {
+                if (keyword.equals("name")) {
+                    name = line.substring(fields[0].length()).trim();
+                    continue;
+                }
+                Segment segment = parseSegment(keyword, fields, forward);
+                forward = segment.forward;
+                segments.add(segment);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Satır " + lineNumber + ": " + e.getMessage());
+            }
+        }
+        if (segments.isEmpty()) {
+            throw new IllegalArgumentException("Profil en az bir bölüm içermeli");
+        }
+        return new InfusionProfile(name, segments);
+    }
+
+    private static Segment parseSegment(String keyword, String[] fields, boolean previousForward) {
+        if (fields.length < 2) {
+            throw new IllegalArgumentException("Süre eksik");
+        }
+        long duration = parseDuration(fields[1]);
+        if (keyword.equals("pause")) {
+            expectFields(fields, 2);
+            return Segment.pause(duration, previousForward);
+        }
+        if (fields.length < 3) {
+            throw new IllegalArgumentException("Hız eksik");
+        }
+        expectFields(fields, 4);
+        boolean forward = fields.length == 4 ? parseDirection(fields[3]) : previousForward;
+        switch (keyword) {
+            case "step":
+                return Segment.step(duration, parseSpeed(fields[2]), forward);
+            case "bolus":
+                return Segment.bolus(duration, parseSpeed(fields[2]), forward);
+            case "ramp": {
+                int dash = fields[2].indexOf('-');
+                if (dash <= 0) {
+                    throw new IllegalArgumentException("Rampa hızı başlangıç-bitiş biçiminde olmalı: " + fields[2]);
+                }
+                return Segment.ramp(duration, parseSpeed(fields[2].substring(0, dash)),
+                        parseSpeed(fields[2].substring(dash + 1)), forward);
+            }
+            default:
+                throw new IllegalArgumentException("Bilinmeyen bölüm türü: " + keyword);
+        }
+    }
+
+    private static void expectFields(String[] fields, int max) {
+        if (fields.length > max) {
+            throw new IllegalArgumentException("Fazla alan: " + fields[max]);
+        }
+    }
+
+    private static boolean parseDirection(String field) {
+        switch (field.toLowerCase(Locale.ROOT)) {
+            case "fwd":
+                return true;
+            case "rev":
+                return false;
+            default:
+                throw new IllegalArgumentException("Geçersiz yön: " + field);
+        }
+    }
+
+    private static int parseSpeed(String field) {
+        try {
+            return Integer.parseInt(field);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Geçersiz hız: " + field);
+        }
+    }
+
+    // "250ms", "30s", "2m", "1m30s"
+    static long parseDuration(String field) {
+        String text = field.toLowerCase(Locale.ROOT);
+        long total = 0;
+        int i = 0;
+        while (i < text.length()) {
+            int digits = i;
+            while (i < text.length() && Character.isDigit(text.charAt(i))) {
+                i++;
+            }
+            if (digits == i) {
+                throw new IllegalArgumentException("Geçersiz süre: " + field);
+            }
+            long value = Long.parseLong(text.substring(digits, i));
+            if (text.startsWith("ms", i)) {
+                total += value;
+                i += 2;
+            } else if (text.startsWith("s", i)) {
+                total += value * 1000;
+                i += 1;
+            } else if (text.startsWith("m", i)) {
+                total += value * 60_000;
+                i += 1;
+            } else {
+                throw new IllegalArgumentException("Süre birimi eksik: " + field);
+            }
+        }
+        return total;
+    }
+
+    public static String format(InfusionProfile profile) {
+        StringBuilder out = new StringBuilder();
+        if (profile.getName() != null) {
+            out.append("name ").append(profile.getName()).append('\n');
+        }
+        for (Segment segment : profile.getSegments()) {
+            out.append(segment.type.name().toLowerCase(Locale.ROOT)).append(' ')
+                    .append(formatDuration(segment.durationMillis));
+            if (segment.type == InfusionProfile.Type.PAUSE) {
+                out.append('\n');
+                continue;
+            }
+            out.append(' ').append(segment.startSpeed);
+            if (segment.type == InfusionProfile.Type.RAMP) {
+                out.append('-').append(segment.endSpeed);
+            }
+            out.append(segment.forward ? " fwd" : " rev").append('\n');
+        }
+        return out.toString();
+    }
+
+    static String formatDuration(long millis) {
+        if (millis % 60_000 == 0) {
+            return millis / 60_000 + "m";
+        }
+        if (millis % 1000 == 0) {
+            return millis / 1000 + "s";
+        }
+        return millis + "ms";
+    }
+}
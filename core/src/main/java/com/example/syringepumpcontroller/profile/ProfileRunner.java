@@ -0,0 +1,329 @@
+package com.example.syringepumpcontroller.profile;
+
+import com.example.syringepumpcontroller.metrics.Metrics;
+import com.example.syringepumpcontroller.profile.InfusionProfile.Segment;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link InfusionProfile}'ı zaman çizelgesine göre pompaya uygular.
+ *
+ * Profil önce zaman damgalı komut listesine ({@link #plan}) çevrilir; her komutun zamanı
+ * başlangıca göre mutlak olarak bellidir. Çalıştırırken her seferinde yalnızca sıradaki komut
+ * için tek bir gecikmeli görev kurulur ve gecikme, önceki görevin ne zaman çalıştığından değil
+ * başlangıç anından hesaplanır; böylece geç kalan bir adım sonrakileri kaydırmaz (sapma
+ * birikmez). Gecikmiş komutlar gelince sırayla hemen gönderilir.
+ *
+ * Zaman çizelgesi monoton saatle yürür. Duvar saati yalnızca başlangıçta bir kez okunur;
+ * raporlanan duvar saati zamanları monoton ofsetlerden türetilir, sistem saatinin ayarlanması
+ * programı uzatmaz veya kısaltmaz. Duvar saatinin monoton saatten ne kadar kaydığı ayrıca
+ * raporlanır.
+ *
+ * Görevler denetleyicinin G/Ç şeridinde kısa işler olarak çalışır; bekleme veya uyuma yoktur,
+ * rampa adımları {@link #RAMP_STEP_MILLIS} ile seyreltilir. Aynı şeritteki sensör ve denetim
+ * işleri bu sayede aç kalmaz, bağlantıya giden komut trafiği sınırlı kalır.
+ */
+public class ProfileRunner {
+
+    public interface Actuator {
+        void start();
+
+        void stop();
+
+        void setSpeed(int speed);
+
+        void setDirection(boolean forward);
+    }
+
+    public enum Action {
+        DIRECTION, SPEED, START, STOP,
+        // Komut göndermez; programın bittiği anı işaretler
+        END
+    }
+
+    // Rampada iki hız komutu arasındaki en kısa süre
+    public static final long RAMP_STEP_MILLIS = 100;
+
+    public static final class PlannedCommand {
+        public final long offsetMillis;
+        public final Action action;
+        // SPEED için hız, DIRECTION için ileri 1 / geri 0
+        public final int value;
+        public final int segmentIndex;
+
+        PlannedCommand(long offsetMillis, Action action, int value, int segmentIndex) {
+            this.offsetMillis = offsetMillis;
+            this.action = action;
+            this.value = value;
+            this.segmentIndex = segmentIndex;
+        }
+
+        @Override
+        public String toString() {
+            return offsetMillis + "ms " + action + (action == Action.SPEED || action == Action.DIRECTION ? " " + value : "");
+        }
+    }
+
+    // Gönderilen bir komutun planlanan ve gerçekleşen zamanı
+    public static final class Timing {
+        public final PlannedCommand command;
+        public final long plannedOffsetNanos;
+        public final long actualOffsetNanos;
+        public final long wallClockMillis;
+
+        Timing(PlannedCommand command, long actualOffsetNanos, long wallClockMillis) {
+            this.command = command;
+            this.plannedOffsetNanos = TimeUnit.MILLISECONDS.toNanos(command.offsetMillis);
+            this.actualOffsetNanos = actualOffsetNanos;
+            this.wallClockMillis = wallClockMillis;
+        }
+
+        public long getLatenessNanos() {
+            return actualOffsetNanos - plannedOffsetNanos;
+        }
+    }
+
+    // Bir çalıştırmanın durumu; iptal edilen çalıştırmanın geciken görevleri bunu karşılaştırıp çıkar
+    private final class Run {
+        final InfusionProfile profile;
+        final List<PlannedCommand> plan;
+        final long startNanos;
+        final long startWallMillis;
+        final List<Timing> timings = new ArrayList<>();
+        int next;
+        ScheduledFuture<?> pending;
+
+        Run(InfusionProfile profile, List<PlannedCommand> plan) {
+            this.profile = profile;
+            this.plan = plan;
+            this.startNanos = System.nanoTime();
+            this.startWallMillis = System.currentTimeMillis();
+        }
+    }
+
+    private final ScheduledExecutorService executor;
+    private final Actuator actuator;
+
+    // this ile korunur
+    private Run current;
+    private Run last;
+
+    public ProfileRunner(ScheduledExecutorService executor, Actuator actuator) {
+        this.executor = executor;
+        this.actuator = actuator;
+    }
+
+    /**
+     * Profili zaman damgalı komutlara çevirir. Aynı andaki komutlar yön, hız, başlat sırasıyla
+     * verilir; değişmeyen hız ve yön tekrar gönderilmez. Program sonunda pompa durdurulur.
+     */
+    public static List<PlannedCommand> plan(InfusionProfile profile) {
+        List<PlannedCommand> plan = new ArrayList<>();
+        List<Segment> segments = profile.getSegments();
+        boolean running = false;
+        int speed = -1;
+        Boolean forward = null;
+        long offset = 0;
+        for (int index = 0; index < segments.size(); index++) {
+            Segment segment = segments.get(index);
+            if (segment.type == InfusionProfile.Type.PAUSE) {
+                if (running) {
+                    plan.add(new PlannedCommand(offset, Action.STOP, 0, index));
+                    running = false;
+                }
+                offset += segment.durationMillis;
+                continue;
+            }
+            if (forward == null || forward != segment.forward) {
+                forward = segment.forward;
+                plan.add(new PlannedCommand(offset, Action.DIRECTION, forward ? 1 : 0, index));
+            }
+            if (speed != segment.startSpeed) {
+                speed = segment.startSpeed;
+                plan.add(new PlannedCommand(offset, Action.SPEED, speed, index));
+            }
+            if (!running) {
+                plan.add(new PlannedCommand(offset, Action.START, 0, index));
+                running = true;
+            }
+            if (segment.type == InfusionProfile.Type.RAMP) {
+                // Basamaklar bölüme eşit aralıkla yayılır; son basamak bitiş hızıdır
+                int delta = segment.endSpeed - segment.startSpeed;
+                long levels = Math.min(Math.abs(delta) + 1,
+                        Math.max(2, segment.durationMillis / RAMP_STEP_MILLIS));
+                for (int level = 1; level < levels; level++) {
+                    int levelSpeed = (int) Math.round(segment.startSpeed + (double) delta * level / (levels - 1));
+                    if (levelSpeed != speed) {
+                        speed = levelSpeed;
+                        plan.add(new PlannedCommand(offset + segment.durationMillis * level / levels,
+                                Action.SPEED, speed, index));
+                    }
+                }
+            }
+            offset += segment.durationMillis;
+        }
+        int lastIndex = segments.size() - 1;
+        if (running) {
+            plan.add(new PlannedCommand(offset, Action.STOP, 0, lastIndex));
+        }
+        plan.add(new PlannedCommand(offset, Action.END, 0, lastIndex));
+        return plan;
+    }
+
+    /**
+     * Profili hemen başlatır.
+     *
+     * @throws IllegalStateException başka bir profil çalışıyorsa
+     */
+    public synchronized void start(InfusionProfile profile) {
+        if (current != null) {
+            throw new IllegalStateException("Profil zaten çalışıyor");
+        }
+        current = new Run(profile, plan(profile));
+        last = current;
+        scheduleNext(current);
+    }
+
+    /**
+     * Çalışan profili iptal eder ve pompayı durdurur. Profil çalışmıyorsa bir şey yapmaz.
+     */
+    public void stop() {
+        synchronized (this) {
+            if (current == null) {
+                return;
+            }
+            if (current.pending != null) {
+                current.pending.cancel(false);
+            }
+            current = null;
+        }
+        actuator.stop();
+    }
+
+    public synchronized boolean isRunning() {
+        return current != null;
+    }
+
+    // Çalışan veya en son çalışan profil; hiç çalıştırılmadıysa null
+    public synchronized InfusionProfile getProfile() {
+        return last == null ? null : last.profile;
+    }
+
+    // Çalışan bölümün sırası; çalışmıyorsa -1
+    public synchronized int getCurrentSegment() {
+        if (current == null) {
+            return -1;
+        }
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - current.startNanos);
+        List<Segment> segments = current.profile.getSegments();
+        long end = 0;
+        for (int i = 0; i < segments.size(); i++) {
+            end += segments.get(i).durationMillis;
+            if (elapsed < end) {
+                return i;
+            }
+        }
+        return segments.size() - 1;
+    }
+
+    // Çalışan profilin başından beri geçen süre; çalışmıyorsa 0
+    public synchronized long getElapsedMillis() {
+        return current == null ? 0 : TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - current.startNanos);
+    }
+
+    // Son çalıştırmada gönderilen komutların planlanan ve gerçekleşen zamanları
+    public synchronized List<Timing> getTimings() {
+        return last == null ? Collections.<Timing>emptyList() : new ArrayList<>(last.timings);
+    }
+
+    public synchronized long getMaxLatenessNanos() {
+        long max = 0;
+        if (last != null) {
+            for (Timing timing : last.timings) {
+                max = Math.max(max, timing.getLatenessNanos());
+            }
+        }
+        return max;
+    }
+
+    public synchronized long getMeanLatenessNanos() {
+        if (last == null || last.timings.isEmpty()) {
+            return 0;
+        }
+        long sum = 0;
+        for (Timing timing : last.timings) {
+            sum += timing.getLatenessNanos();
+        }
+        return sum / last.timings.size();
+    }
+
+    /**
+     * Son çalıştırma başından beri duvar saatinin monoton saatten farkı (ms); pozitifse duvar
+     * saati ileri alınmış veya daha hızlı işlemiştir. Zaman çizelgesini etkilemez.
+     */
+    public synchronized long getWallClockDriftMillis() {
+        if (last == null) {
+            return 0;
+        }
+        long monotonic = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - last.startNanos);
+        return System.currentTimeMillis() - last.startWallMillis - monotonic;
+    }
+
+    // Kilit altında: sıradaki komut için gecikme başlangıç anından hesaplanır
+    private void scheduleNext(final Run run) {
+        PlannedCommand command = run.plan.get(run.next);
+        long deadline = run.startNanos + TimeUnit.MILLISECONDS.toNanos(command.offsetMillis);
+        long delay = Math.max(0, deadline - System.nanoTime());
+        run.pending = executor.schedule(() -> fire(run), delay, TimeUnit.NANOSECONDS);
+    }
+
+    // Zamanı gelen komutlar kilit altında uygulanır; eşzamanlı stop() sonrasında komut gönderilmez.
+    // Eyleyici çağrıları yalnızca kuyruğa yazar, beklemez.
+    private synchronized void fire(Run run) {
+        if (run != current) {
+            return;
+        }
+        long elapsed = System.nanoTime() - run.startNanos;
+        while (run.next < run.plan.size()) {
+            PlannedCommand command = run.plan.get(run.next);
+            if (TimeUnit.MILLISECONDS.toNanos(command.offsetMillis) > elapsed) {
+                break;
+            }
+            Timing timing = new Timing(command, elapsed,
+                    run.startWallMillis + TimeUnit.NANOSECONDS.toMillis(elapsed));
+            run.timings.add(timing);
+            Metrics.PROFILE_LATENESS.record(timing.getLatenessNanos() / 1000);
+            apply(command);
+            run.next++;
+        }
+        if (run.next < run.plan.size()) {
+            scheduleNext(run);
+        } else {
+            current = null;
+        }
+    }
+
+    private void apply(PlannedCommand command) {
+        switch (command.action) {
+            case DIRECTION:
+                actuator.setDirection(command.value != 0);
+                break;
+            case SPEED:
+                actuator.setSpeed(command.value);
+                break;
+            case START:
+                actuator.start();
+                break;
+            case STOP:
+                actuator.stop();
+                break;
+            default:
+                break;
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.syringepumpcontroller.protocol;
+
+/**
+ * İkili telemetri çerçeve biçimi.
+ *
+ * <pre>
+ * [0xA5][tip u8][sıra u16][uzunluk u16][yük ...][CRC16 u16]
+ * </pre>
+ *
+ * Tüm çok baytlı alanlar little-endian'dır. CRC, tip alanından yükün sonuna kadar hesaplanır.
+ * Örnek yükü: [cihaz zamanı µs u32][örnek aralığı µs u16][kanal u8][satır u8][float32 ...]
+ * (değerler satır satır, her satırda kanal sayısı kadar).
+ * Olay yükü: [olay u8][istek kimliği u16][kod u8] (komut ACK/NAK yanıtları).
+ */
+public final class BinaryFrameCodec {
+
+    public static final byte SYNC = (byte) 0xA5;
+
+    public static final int TYPE_SAMPLES = 0x01;
+    public static final int TYPE_EVENT = 0x02;
+
+    public static final int HEADER_SIZE = 6;
+    public static final int CRC_SIZE = 2;
+    public static final int MAX_PAYLOAD = 1024;
+    public static final int MAX_FRAME = HEADER_SIZE + MAX_PAYLOAD + CRC_SIZE;
+
+    public static final int SAMPLE_HEADER_SIZE = 8;
+
+    public static final int EVENT_ACK = 0x01;
+    public static final int EVENT_NAK = 0x02;
+    public static final int EVENT_PAYLOAD_SIZE = 4;
+
+    // ASCII el sıkışma: uygulama HANDSHAKE gönderir, ikili kipi destekleyen cihaz HANDSHAKE_ACK ile yanıtlar
+    public static final String HANDSHAKE = "PROTO_BIN";
+    public static final String HANDSHAKE_ACK = "PROTO_BIN_OK";
+
+    private BinaryFrameCodec() {
+    }
+
+    /**
+     * Çerçeveyi out dizisine yazar ve yazılan bayt sayısını döndürür.
+     */
+    public static int encode(int type, int sequence, byte[] payload, int payloadOffset, int payloadLength,
+                             byte[] out, int outOffset) {
+        if (payloadLength < 0 || payloadLength > MAX_PAYLOAD) {
+            throw new IllegalArgumentException("Geçersiz yük uzunluğu: " + payloadLength);
+        }
+        int p = outOffset;
+        out[p++] = SYNC;
+        out[p++] = (byte) type;
+        p = putShort(out, p, sequence);
+        p = putShort(out, p, payloadLength);
+        System.arraycopy(payload, payloadOffset, out, p, payloadLength);
+        p += payloadLength;
+        int crc = Crc16.compute(out, outOffset + 1, HEADER_SIZE - 1 + payloadLength);
+        p = putShort(out, p, crc);
+        return p - outOffset;
+    }
+
+    /**
+     * Örnek yükünü out dizisine yazar ve yük uzunluğunu döndürür.
+     */
+    public static int encodeSamplePayload(long deviceTimeMicros, int intervalMicros, int channels,
+                                          float[] values, int rows, byte[] out, int outOffset) {
+        if (channels < 1 || channels > 255 || rows < 1 || rows > 255) {
+            throw new IllegalArgumentException("Geçersiz kanal/satır sayısı");
+        }
+        int length = SAMPLE_HEADER_SIZE + rows * channels * 4;
+        if (length > MAX_PAYLOAD) {
+            throw new IllegalArgumentException("Yük çok büyük: " + length);
+        }
+        int p = outOffset;
+        p = putInt(out, p, (int) deviceTimeMicros);
+        p = putShort(out, p, intervalMicros);
+        out[p++] = (byte) channels;
+        out[p++] = (byte) rows;
+        for (int i = 0; i < rows * channels; i++) {
+            p = putInt(out, p, Float.floatToRawIntBits(values[i]));
+        }
+        return p - outOffset;
+    }
+
+    /**
+     * Olay yükünü out dizisine yazar ve yük uzunluğunu döndürür.
+     */
+    public static int encodeEventPayload(int event, int requestId, int code, byte[] out, int outOffset) {
+        int p = outOffset;
+        out[p++] = (byte) event;
+        p = putShort(out, p, requestId);
+        out[p++] = (byte) code;
+        return p - outOffset;
+    }
+
+    public static int eventType(byte[] payload, int offset) {
+        return payload[offset] & 0xFF;
+    }
+
+    public static int eventRequestId(byte[] payload, int offset) {
+        return getShort(payload, offset + 1);
+    }
+
+    public static int eventCode(byte[] payload, int offset) {
+        return payload[offset + 3] & 0xFF;
+    }
+
+    public static long sampleDeviceTime(byte[] payload, int offset) {
+        return getInt(payload, offset) & 0xFFFFFFFFL;
+    }
+
+    public static int sampleInterval(byte[] payload, int offset) {
+        return getShort(payload, offset + 4);
+    }
+
+    public static int sampleChannels(byte[] payload, int offset) {
+        return payload[offset + 6] & 0xFF;
+    }
+
+    public static int sampleRows(byte[] payload, int offset) {
+        return payload[offset + 7] & 0xFF;
+    }
+
+    public static float sampleValue(byte[] payload, int offset, int index) {
+        return Float.intBitsToFloat(getInt(payload, offset + SAMPLE_HEADER_SIZE + index * 4));
+    }
+
+    static int putShort(byte[] out, int p, int value) {
+        out[p] = (byte) value;
+        out[p + 1] = (byte) (value >>> 8);
+        return p + 2;
+    }
+
+    static int putInt(byte[] out, int p, int value) {
+        out[p] = (byte) value;
+        out[p + 1] = (byte) (value >>> 8);
+        out[p + 2] = (byte) (value >>> 16);
+        out[p + 3] = (byte) (value >>> 24);
+        return p + 4;
+    }
+
+    static int getShort(byte[] in, int p) {
+        return (in[p] & 0xFF) | (in[p + 1] & 0xFF) << 8;
+    }
+
+    static int getInt(byte[] in, int p) {
+        return (in[p] & 0xFF)
+                | (in[p + 1] & 0xFF) << 8
+                | (in[p + 2] & 0xFF) << 16
+                | (in[p + 3] & 0xFF) << 24;
+    }
+}
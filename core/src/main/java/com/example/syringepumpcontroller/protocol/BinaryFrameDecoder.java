@@ -0,0 +1,143 @@
+package com.example.syringepumpcontroller.protocol;
+
+import com.example.syringepumpcontroller.metrics.Metrics;
+
+/**
+ * İkili telemetri çerçevelerini akıştan çözen durum makinesi.
+ *
+ * Aday çerçevenin baytları tek bir tamponda biriktirilir; parçalı gelen çerçeveler çağrılar
+ * arasında korunur. Geçersiz uzunluk veya bozuk CRC görülünce aday atılmaz: tampondaki baytlar
+ * eşitleme baytının bir sonrasından yeniden taranır, böylece yükün içinde başlayan gerçek bir
+ * çerçeve kaybolmaz. Sıra numarası atlamaları 2^16 modunda kayıp çerçeve olarak sayılır; geriye
+ * giden sıra numarası cihazın sıfırlanması sayılır. İş parçacığı güvenli değildir.
+ */
+public class BinaryFrameDecoder {
+
+    public interface Listener {
+        // payload dizisi yeniden kullanılır; çağrı dönünce içeriği geçersizdir
+        void onFrame(int type, int sequence, byte[] payload, int offset, int length);
+
+        void onFrameError();
+    }
+
+    private final Listener listener;
+    // Aday çerçeve; frame[0] her zaman eşitleme baytıdır
+    private final byte[] frame = new byte[BinaryFrameCodec.MAX_FRAME];
+    private int filled;
+
+    private int expectedSequence = -1;
+
+    private long framesDecoded;
+    private long frameErrors;
+    private long lostFrames;
+
+    public BinaryFrameDecoder(Listener listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("listener null olamaz");
+        }
+        this.listener = listener;
+    }
+
+    public void feed(byte[] data, int offset, int length) {
+        int end = offset + length;
+        int i = offset;
+        while (i < end) {
+            if (filled == 0) {
+                while (i < end && data[i] != BinaryFrameCodec.SYNC) {
+                    i++;
+                }
+                if (i == end) {
+                    return;
+                }
+            }
+            int n = Math.min(end - i, needed() - filled);
+            System.arraycopy(data, i, frame, filled, n);
+            filled += n;
+            i += n;
+            process();
+        }
+    }
+
+    public void reset() {
+        filled = 0;
+        expectedSequence = -1;
+    }
+
+    public long getFramesDecoded() {
+        return framesDecoded;
+    }
+
+    public long getFrameErrors() {
+        return frameErrors;
+    }
+
+    public long getLostFrames() {
+        return lostFrames;
+    }
+
+    // Tampondaki adayı tamamlamak için gereken bayt sayısı; uzunluk process() içinde denetlenmiştir
+    private int needed() {
+        if (filled < BinaryFrameCodec.HEADER_SIZE) {
+            return BinaryFrameCodec.HEADER_SIZE;
+        }
+        return BinaryFrameCodec.HEADER_SIZE + BinaryFrameCodec.getShort(frame, 4) + BinaryFrameCodec.CRC_SIZE;
+    }
+
+    private void process() {
+        while (filled >= BinaryFrameCodec.HEADER_SIZE) {
+            int payloadLength = BinaryFrameCodec.getShort(frame, 4);
+            if (payloadLength > BinaryFrameCodec.MAX_PAYLOAD) {
+                error();
+                resync(1);
+                continue;
+            }
+            int frameLength = BinaryFrameCodec.HEADER_SIZE + payloadLength + BinaryFrameCodec.CRC_SIZE;
+            if (filled < frameLength) {
+                return;
+            }
+            int crcOffset = frameLength - BinaryFrameCodec.CRC_SIZE;
+            if (Crc16.compute(frame, 1, crcOffset - 1) != BinaryFrameCodec.getShort(frame, crcOffset)) {
+                error();
+                resync(1);
+                continue;
+            }
+            completeFrame(payloadLength);
+            resync(frameLength);
+        }
+    }
+
+    // İlk skip baytı atar ve tamponu kalan baytlardaki ilk eşitleme baytına kaydırır
+    private void resync(int skip) {
+        int k = skip;
+        while (k < filled && frame[k] != BinaryFrameCodec.SYNC) {
+            k++;
+        }
+        if (k >= filled) {
+            filled = 0;
+            return;
+        }
+        filled -= k;
+        System.arraycopy(frame, k, frame, 0, filled);
+    }
+
+    private void completeFrame(int payloadLength) {
+        int sequence = BinaryFrameCodec.getShort(frame, 2);
+        if (expectedSequence >= 0 && sequence != expectedSequence) {
+            int gap = (sequence - expectedSequence) & 0xFFFF;
+            // Yarım halkadan büyük fark geriye gidiştir: cihaz sıfırlanmış, kayıp sayılmaz
+            if (gap < 0x8000) {
+                lostFrames += gap;
+                Metrics.FRAMES_LOST.add(gap);
+            }
+        }
+        expectedSequence = (sequence + 1) & 0xFFFF;
+
+        framesDecoded++;
+        listener.onFrame(frame[1] & 0xFF, sequence, frame, BinaryFrameCodec.HEADER_SIZE, payloadLength);
+    }
+
+    private void error() {
+        frameErrors++;
+        listener.onFrameError();
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.syringepumpcontroller.protocol;
+
+/**
+ * CRC-16/CCITT-FALSE (polinom 0x1021, başlangıç 0xFFFF), tablo tabanlı.
+ */
+public final class Crc16 {
+
+    public static final int INITIAL = 0xFFFF;
+
+    private static final int[] TABLE = new int[256];
+
+    static {
+        for (int i = 0; i < 256; i++) {
+            int crc = i << 8;
+            for (int bit = 0; bit < 8; bit++) {
+                crc = (crc & 0x8000) != 0 ? (crc << 1) ^ 0x1021 : crc << 1;
+            }
+            TABLE[i] = crc & 0xFFFF;
+        }
+    }
+
+    private Crc16() {
+    }
+
+    public static int update(int crc, byte b) {
+        return ((crc << 8) ^ TABLE[((crc >>> 8) ^ b) & 0xFF]) & 0xFFFF;
+    }
+
+    public static int compute(byte[] data, int offset, int length) {
+        int crc = INITIAL;
+        for (int i = offset; i < offset + length; i++) {
+            crc = update(crc, data[i]);
+        }
+        return crc;
+    }
+}
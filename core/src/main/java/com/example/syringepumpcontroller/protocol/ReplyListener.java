@@ -0,0 +1,10 @@
+package com.example.syringepumpcontroller.protocol;
+
+/**
+ * Cihazın komut yanıtları: ASCII kipte "ACK:&lt;id&gt;" / "NAK:&lt;id&gt;[:kod]" satırları,
+ * ikili kipte olay çerçeveleri.
+ */
+public interface ReplyListener {
+    // ack false ise code cihazın hata kodudur (yoksa 0)
+    void onReply(boolean ack, int requestId, int code);
+}
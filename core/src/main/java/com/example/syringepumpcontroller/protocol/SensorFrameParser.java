@@ -0,0 +1,330 @@
+package com.example.syringepumpcontroller.protocol;
+
+/**
+ * Seri porttan gelen ham baytları satır satır ayrıştıran, bellek ayırmayan çözücü.
+ *
+ * USB parçaları doğrudan bir halka tampona kopyalanır; yarım kalan satırlar bir sonraki
+ * geri çağrıya kadar tamponda bekler. "SV:&lt;float&gt;" satırları String veya
+ * Float.parseFloat kullanılmadan ilkel float değere çevrilir. {@link #setReplyListener} ile
+ * "ACK:&lt;id&gt;" / "NAK:&lt;id&gt;[:kod]" komut yanıtları da aynı şekilde çözülür.
+ *
+ * Bu sınıf iş parçacığı güvenli değildir; tek bir okuma iş parçacığından beslenmelidir.
+ */
+public class SensorFrameParser {
+
+    public interface Listener {
+        // Geçerli bir "SV:" satırı çözüldüğünde çağrılır
+        void onSensorValue(float value);
+
+        // Tanınmayan, bozuk veya çok uzun satırlarda çağrılır
+        void onParseError();
+    }
+
+    public static final int DEFAULT_CAPACITY = 256;
+
+    private static final byte LF = '\n';
+    private static final byte CR = '\r';
+
+    // 10^0 .. 10^18, mantis/ölçek hesabı için
+    private static final double[] POW10 = new double[19];
+    private static final int MAX_MANTISSA_DIGITS = 18;
+    private static final int MAX_EXPONENT = 38;
+
+    static {
+        double p = 1.0;
+        for (int i = 0; i < POW10.length; i++) {
+            POW10[i] = p;
+            p *= 10.0;
+        }
+    }
+
+    private final Listener listener;
+    private ReplyListener replyListener;
+    private final byte[] ring;
+    private final int mask;
+
+    // Halka tampon okuma/yazma konumları (mutlak sayaçlar, mask ile indekslenir)
+    private long head;
+    private long tail;
+    // Tampon taşarsa bir sonraki satır sonuna kadar baytlar atlanır
+    private boolean discarding;
+
+    private long framesParsed;
+    private long parseErrors;
+
+    public SensorFrameParser(Listener listener) {
+        this(listener, DEFAULT_CAPACITY);
+    }
+
+    public SensorFrameParser(Listener listener, int capacity) {
+        if (listener == null) {
+            throw new IllegalArgumentException("listener null olamaz");
+        }
+        if (capacity < 8 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Kapasite 2'nin kuvveti olmalı: " + capacity);
+        }
+        this.listener = listener;
+        this.ring = new byte[capacity];
+        this.mask = capacity - 1;
+    }
+
+    public void feed(byte[] data) {
+        if (data != null) {
+            feed(data, 0, data.length);
+        }
+    }
+
+    public void feed(byte[] data, int offset, int length) {
+        int end = offset + length;
+        for (int i = offset; i < end; i++) {
+            byte b = data[i];
+            if (b == LF) {
+                if (discarding) {
+                    discarding = false;
+                    head = tail;
+                } else {
+                    parseLine(head, tail);
+                    head = tail;
+                }
+                continue;
+            }
+            if (discarding) {
+                continue;
+            }
+            if (tail - head == ring.length) {
+                // Satır tampona sığmıyor, satır sonuna kadar at
+                discarding = true;
+                head = tail;
+                parseErrors++;
+                listener.onParseError();
+                continue;
+            }
+            ring[(int) (tail & mask)] = b;
+            tail++;
+        }
+    }
+
+    // Ayarlanmazsa yanıt satırları ayrıştırma hatası sayılır
+    public void setReplyListener(ReplyListener replyListener) {
+        this.replyListener = replyListener;
+    }
+
+    // Yarım kalmış satırı temizle (ör. bağlantı koptuğunda)
+    public void reset() {
+        head = tail;
+        discarding = false;
+    }
+
+    public long getFramesParsed() {
+        return framesParsed;
+    }
+
+    public long getParseErrors() {
+        return parseErrors;
+    }
+
+    public int getPendingBytes() {
+        return (int) (tail - head);
+    }
+
+    private void parseLine(long start, long end) {
+        // Baştaki/sondaki boşlukları ve CR'yi atla
+        while (start < end && isSpace(byteAt(start))) {
+            start++;
+        }
+        while (end > start && isSpace(byteAt(end - 1))) {
+            end--;
+        }
+        if (start == end) {
+            return; // Boş satır, hata sayılmaz
+        }
+
+        if (replyListener != null && end - start > 4 && byteAt(start + 3) == ':'
+                && ((byteAt(start) == 'A' && byteAt(start + 1) == 'C' && byteAt(start + 2) == 'K')
+                || (byteAt(start) == 'N' && byteAt(start + 1) == 'A' && byteAt(start + 2) == 'K'))) {
+            parseReply(byteAt(start) == 'A', start + 4, end);
+            return;
+        }
+
+        if (end - start < 4
+                || byteAt(start) != 'S'
+                || byteAt(start + 1) != 'V'
+                || byteAt(start + 2) != ':') {
+            fail();
+            return;
+        }
+
+        long pos = start + 3;
+        while (pos < end && isSpace(byteAt(pos))) {
+            pos++;
+        }
+
+        boolean negative = false;
+        byte c = byteAt(pos);
+        if (c == '-' || c == '+') {
+            negative = c == '-';
+            pos++;
+        }
+
+        long mantissa = 0;
+        int digits = 0;
+        int scale = 0;
+        boolean anyDigit = false;
+
+        // Tam sayı kısmı
+        while (pos < end) {
+            c = byteAt(pos);
+            if (c < '0' || c > '9') {
+                break;
+            }
+            anyDigit = true;
+            if (digits < MAX_MANTISSA_DIGITS) {
+                if (mantissa != 0 || c != '0') {
+                    mantissa = mantissa * 10 + (c - '0');
+                    digits++;
+                }
+            } else {
+                scale++;
+            }
+            pos++;
+        }
+
+        // Ondalık kısım
+        if (pos < end && byteAt(pos) == '.') {
+            pos++;
+            while (pos < end) {
+                c = byteAt(pos);
+                if (c < '0' || c > '9') {
+                    break;
+                }
+                anyDigit = true;
+                if (digits < MAX_MANTISSA_DIGITS) {
+                    if (mantissa != 0 || c != '0') {
+                        digits++;
+                    }
+                    mantissa = mantissa * 10 + (c - '0');
+                    scale--;
+                }
+                pos++;
+            }
+        }
+
+        if (!anyDigit) {
+            fail();
+            return;
+        }
+
+        // Üs kısmı (ör. 1.5e-3)
+        if (pos < end && (byteAt(pos) == 'e' || byteAt(pos) == 'E')) {
+            pos++;
+            boolean expNegative = false;
+            if (pos < end && (byteAt(pos) == '-' || byteAt(pos) == '+')) {
+                expNegative = byteAt(pos) == '-';
+                pos++;
+            }
+            int exp = 0;
+            boolean expDigit = false;
+            while (pos < end) {
+                c = byteAt(pos);
+                if (c < '0' || c > '9') {
+                    break;
+                }
+                expDigit = true;
+                if (exp < 1000) {
+                    exp = exp * 10 + (c - '0');
+                }
+                pos++;
+            }
+            if (!expDigit) {
+                fail();
+                return;
+            }
+            scale += expNegative ? -exp : exp;
+        }
+
+        if (pos != end) {
+            fail();
+            return;
+        }
+
+        float value = toFloat(mantissa, scale);
+        if (Float.isInfinite(value)) {
+            fail();
+            return;
+        }
+
+        framesParsed++;
+        listener.onSensorValue(negative ? -value : value);
+    }
+
+    // "<id>" veya "<id>:<kod>"; her ikisi de işaretsiz ondalık tam sayı
+    private void parseReply(boolean ack, long pos, long end) {
+        int id = 0;
+        int code = 0;
+        int digits = 0;
+        while (pos < end && byteAt(pos) >= '0' && byteAt(pos) <= '9' && digits < 9) {
+            id = id * 10 + (byteAt(pos) - '0');
+            digits++;
+            pos++;
+        }
+        if (digits == 0) {
+            fail();
+            return;
+        }
+        if (pos < end && byteAt(pos) == ':') {
+            pos++;
+            digits = 0;
+            while (pos < end && byteAt(pos) >= '0' && byteAt(pos) <= '9' && digits < 9) {
+                code = code * 10 + (byteAt(pos) - '0');
+                digits++;
+                pos++;
+            }
+            if (digits == 0) {
+                fail();
+                return;
+            }
+        }
+        if (pos != end) {
+            fail();
+            return;
+        }
+        framesParsed++;
+        replyListener.onReply(ack, id, code);
+    }
+
+    private static float toFloat(long mantissa, int scale) {
+        if (mantissa == 0) {
+            return 0f;
+        }
+        if (scale < -MAX_EXPONENT - MAX_MANTISSA_DIGITS) {
+            return 0f;
+        }
+        if (scale > MAX_EXPONENT) {
+            return Float.POSITIVE_INFINITY;
+        }
+        double value = mantissa;
+        while (scale < -18) {
+            value /= POW10[18];
+            scale += 18;
+        }
+        while (scale > 18) {
+            value *= POW10[18];
+            scale -= 18;
+        }
+        value = scale < 0 ? value / POW10[-scale] : value * POW10[scale];
+        return (float) value;
+    }
+
+    private void fail() {
+        parseErrors++;
+        listener.onParseError();
+    }
+
+    private byte byteAt(long position) {
+        return ring[(int) (position & mask)];
+    }
+
+    private static boolean isSpace(byte b) {
+        return b == ' ' || b == '\t' || b == CR;
+    }
+}
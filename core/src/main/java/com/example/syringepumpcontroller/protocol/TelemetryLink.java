@@ -0,0 +1,372 @@
+package com.example.syringepumpcontroller.protocol;
+
+import com.example.syringepumpcontroller.metrics.Metrics;
+import com.example.syringepumpcontroller.metrics.RateLimitedLog;
+import com.example.syringepumpcontroller.serial.SerialTransport;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Seri porttan gelen telemetriyi ASCII ("SV:") veya ikili çerçeve kipinde çözer.
+ *
+ * Bağlantı kurulduktan sonra {@link #requestBinary} (veya bloklayan {@link #negotiateBinary(long)})
+ * ile ikili kip istenir. Cihaz el sıkışmaya süresi içinde yanıt vermezse bağlantı ASCII kipinde
+ * kalır; onay sonradan gelirse cihaz ikili kipe geçmiş demektir, bağlantı da o noktadan itibaren
+ * ikili çözer. Komutlar her iki kipte de ASCII satırları olarak gönderilir; komut yanıtları
+ * {@link ReplyListener}'a iletilir.
+ *
+ * Port kapatılırken {@link #close} süren okuma geri çağrısının bitmesini bekler. Portlar okuma
+ * iş parçacığını kapatmada beklemediğinden (USB kütüphanesi, simülatör) bu yapılmazsa eski
+ * bağlantının son parçası yeni bağlantınınkiyle aynı anda tek yazıcılı yapılara (örnek deposu,
+ * olay halkası) yazabilir.
+ */
+public class TelemetryLink implements SerialTransport.Listener {
+
+    public static final long NO_DEVICE_TIME = -1L;
+
+    public enum Mode {
+        ASCII,
+        NEGOTIATING,
+        BINARY
+    }
+
+    public interface Listener {
+        // deviceTimeMicros ASCII kipinde NO_DEVICE_TIME'dır
+        void onSample(long deviceTimeMicros, int channel, float value);
+
+        void onFrameError();
+    }
+
+    private static final byte[] HANDSHAKE_BYTES =
+            (BinaryFrameCodec.HANDSHAKE + "\n").getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] ACK_BYTES =
+            BinaryFrameCodec.HANDSHAKE_ACK.getBytes(StandardCharsets.US_ASCII);
+
+    private final SerialTransport transport;
+    private final Listener listener;
+    private volatile ReplyListener replyListener;
+    private volatile Runnable disconnectListener;
+    private final SensorFrameParser asciiParser;
+    private final BinaryFrameDecoder binaryDecoder;
+
+    private final Object modeLock = new Object();
+    private volatile Mode mode = Mode.ASCII;
+    // El sıkışma yanıtı için eşleşen bayt sayısı (okuma iş parçacığı)
+    private int ackMatched;
+    // Süresi dolan el sıkışmanın onayı ASCII kipinde de aranır (modeLock ile yazılır)
+    private volatile boolean awaitingLateAck;
+    // Zamanında gelen onayda okuma iş parçacığında çağrılır (modeLock ile korunur)
+    private Runnable ackListener;
+    private volatile long lateAcks;
+    // CRC'si geçerli ama yükü çözülemeyen çerçeveler (okuma iş parçacığı)
+    private long payloadErrors;
+
+    // Okuma geri çağrıları okuma tarafında çalışır; close() yazma tarafını alıp bitmelerini bekler
+    private final ReentrantReadWriteLock callbackLock = new ReentrantReadWriteLock();
+    private volatile boolean closed;
+
+    // Bozuk hatta her çerçeve için günlük yazmak okuma iş parçacığını yavaşlatır
+    private static final RateLimitedLog FRAME_ERROR_LOG = new RateLimitedLog("TelemetryLink", 5000);
+
+    public TelemetryLink(SerialTransport transport, Listener listener) {
+        this.transport = transport;
+        this.listener = listener;
+        this.asciiParser = new SensorFrameParser(new SensorFrameParser.Listener() {
+            @Override
+            public void onSensorValue(float value) {
+                Metrics.FRAMES_PARSED.increment();
+                TelemetryLink.this.listener.onSample(NO_DEVICE_TIME, 0, value);
+            }
+
+            @Override
+            public void onParseError() {
+                reportFrameError();
+            }
+        });
+        this.binaryDecoder = new BinaryFrameDecoder(new BinaryFrameDecoder.Listener() {
+            @Override
+            public void onFrame(int type, int sequence, byte[] payload, int offset, int length) {
+                Metrics.FRAMES_PARSED.increment();
+                if (type == BinaryFrameCodec.TYPE_SAMPLES) {
+                    dispatchSamples(payload, offset, length);
+                } else if (type == BinaryFrameCodec.TYPE_EVENT) {
+                    dispatchEvent(payload, offset, length);
+                }
+            }
+
+            @Override
+            public void onFrameError() {
+                reportFrameError();
+            }
+        });
+        transport.setListener(this);
+    }
+
+    /**
+     * İkili kipi ister ve yanıtı bekler. Çağıran iş parçacığını en fazla timeoutMillis kadar
+     * bloklar; UI iş parçacığından çağrılmamalıdır.
+     *
+     * @return cihaz ikili kipi kabul ettiyse true, aksi halde ASCII kipine dönülür
+     */
+    public boolean negotiateBinary(long timeoutMillis) throws InterruptedException {
+        requestBinary(null);
+        long deadline = System.nanoTime() + timeoutMillis * 1_000_000L;
+        synchronized (modeLock) {
+            while (mode == Mode.NEGOTIATING) {
+                long remaining = (deadline - System.nanoTime()) / 1_000_000L;
+                if (remaining <= 0) {
+                    break;
+                }
+                modeLock.wait(remaining);
+            }
+        }
+        return finishNegotiation();
+    }
+
+    /**
+     * İkili kipi bloklamadan ister. Onay gelirse onAcknowledged okuma iş parçacığında çağrılır;
+     * çağıran onayda veya kendi zaman aşımında {@link #finishNegotiation} ile sonucu alır.
+     */
+    public void requestBinary(Runnable onAcknowledged) {
+        synchronized (modeLock) {
+            ackMatched = 0;
+            awaitingLateAck = false;
+            ackListener = onAcknowledged;
+            mode = Mode.NEGOTIATING;
+        }
+        transport.write(HANDSHAKE_BYTES, 0, HANDSHAKE_BYTES.length);
+    }
+
+    /**
+     * El sıkışmayı bitirir: onay gelmediyse ASCII kipine dönülür (sonradan gelen onay yine
+     * ikili kipe geçirir). İkili kipteyse true döndürür.
+     */
+    public boolean finishNegotiation() {
+        synchronized (modeLock) {
+            ackListener = null;
+            if (mode == Mode.NEGOTIATING) {
+                mode = Mode.ASCII;
+                awaitingLateAck = true;
+            }
+            return mode == Mode.BINARY;
+        }
+    }
+
+    public void setReplyListener(ReplyListener replyListener) {
+        this.replyListener = replyListener;
+        asciiParser.setReplyListener(replyListener);
+    }
+
+    // Okuma iş parçacığında, port cihaz tarafında kapandığında çağrılır
+    public void setDisconnectListener(Runnable disconnectListener) {
+        this.disconnectListener = disconnectListener;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    // El sıkışma süresi dolduktan sonra gelen ve ikili kipe geçiren onay sayısı
+    public long getLateAcks() {
+        return lateAcks;
+    }
+
+    public void reset() {
+        synchronized (modeLock) {
+            mode = Mode.ASCII;
+            awaitingLateAck = false;
+            ackListener = null;
+            modeLock.notifyAll();
+        }
+        asciiParser.reset();
+        binaryDecoder.reset();
+    }
+
+    /**
+     * Veri teslimini durdurur ve süren okuma geri çağrısının bitmesini en fazla timeoutMillis
+     * bekler. true dönerse bu bağlantıdan artık örnek, yanıt veya kopma bildirimi gelmez.
+     * Okuma iş parçacığından çağrılmamalıdır.
+     */
+    public boolean close(long timeoutMillis) {
+        closed = true;
+        ReentrantReadWriteLock.WriteLock lock = callbackLock.writeLock();
+        try {
+            if (!lock.tryLock(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                return false;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        lock.unlock();
+        return true;
+    }
+
+    public long getFramesParsed() {
+        return asciiParser.getFramesParsed() + binaryDecoder.getFramesDecoded();
+    }
+
+    public long getFrameErrors() {
+        return asciiParser.getParseErrors() + binaryDecoder.getFrameErrors() + payloadErrors;
+    }
+
+    public long getLostFrames() {
+        return binaryDecoder.getLostFrames();
+    }
+
+    @Override
+    public void onData(byte[] data, int offset, int length) {
+        // Yazma tarafı yalnızca close() içinde alınır; alınamıyorsa bağlantı kapanıyordur.
+        // closed önce denetlenir: kapatma başladıktan sonra okuyucu kilidi yeniden alıp yazıcıyı
+        // bekletemez.
+        if (closed) {
+            return;
+        }
+        ReentrantReadWriteLock.ReadLock lock = callbackLock.readLock();
+        if (!lock.tryLock()) {
+            return;
+        }
+        try {
+            if (!closed) {
+                dispatch(data, offset, length);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void dispatch(byte[] data, int offset, int length) {
+        Metrics.SERIAL_READ_CHUNKS.increment();
+        Metrics.SERIAL_BYTES_READ.add(length);
+        Mode current = mode;
+        if (current == Mode.BINARY) {
+            binaryDecoder.feed(data, offset, length);
+        } else if (current == Mode.ASCII && !awaitingLateAck) {
+            asciiParser.feed(data, offset, length);
+        } else {
+            int end = offset + length;
+            int lineEnd = findAck(data, offset, end);
+            if (lineEnd < 0) {
+                asciiParser.feed(data, offset, length);
+                return;
+            }
+            // Onay satırından önceki ASCII verisini işle, onay satırını at, kalanı ikili çöz
+            asciiParser.feed(data, offset, lineEnd - offset);
+            asciiParser.reset();
+            boolean late;
+            Runnable acknowledged;
+            synchronized (modeLock) {
+                late = mode == Mode.ASCII;
+                awaitingLateAck = false;
+                mode = Mode.BINARY;
+                modeLock.notifyAll();
+                acknowledged = ackListener;
+                ackListener = null;
+            }
+            if (acknowledged != null) {
+                acknowledged.run();
+            }
+            if (late) {
+                // Cihaz ikili kipe geçti; ASCII çözmeye devam etmek oturumun geri kalanını bozardı
+                lateAcks++;
+                if (FRAME_ERROR_LOG.shouldLog()) {
+                    FRAME_ERROR_LOG.log("İkili kip onayı süre dolduktan sonra geldi; ikili kipe geçildi");
+                }
+            }
+            binaryDecoder.reset();
+            binaryDecoder.feed(data, lineEnd + 1, end - lineEnd - 1);
+        }
+    }
+
+    @Override
+    public void onDisconnected() {
+        if (closed) {
+            return;
+        }
+        synchronized (modeLock) {
+            // El sıkışma bekleniyorsa hemen bırak
+            if (mode == Mode.NEGOTIATING) {
+                mode = Mode.ASCII;
+                ackListener = null;
+                modeLock.notifyAll();
+            }
+        }
+        Runnable listener = disconnectListener;
+        if (listener != null) {
+            listener.run();
+        }
+    }
+
+    // Onay satırının sonundaki '\n' indeksini döndürür, bulunamazsa -1
+    private int findAck(byte[] data, int offset, int end) {
+        for (int i = offset; i < end; i++) {
+            byte b = data[i];
+            if (ackMatched == ACK_BYTES.length) {
+                if (b == '\n') {
+                    ackMatched = 0;
+                    return i;
+                }
+                if (b == '\r') {
+                    continue;
+                }
+                ackMatched = 0;
+            }
+            if (b == ACK_BYTES[ackMatched]) {
+                ackMatched++;
+            } else {
+                ackMatched = b == ACK_BYTES[0] ? 1 : 0;
+            }
+        }
+        return -1;
+    }
+
+    private void reportFrameError() {
+        Metrics.PARSE_ERRORS.increment();
+        if (FRAME_ERROR_LOG.shouldLog()) {
+            FRAME_ERROR_LOG.log("Geçersiz çerçeve (" + mode + " kipi, bu bağlantıda " + getFrameErrors() + ")");
+        }
+        listener.onFrameError();
+    }
+
+    private void payloadError() {
+        payloadErrors++;
+        reportFrameError();
+    }
+
+    private void dispatchEvent(byte[] payload, int offset, int length) {
+        if (length != BinaryFrameCodec.EVENT_PAYLOAD_SIZE) {
+            payloadError();
+            return;
+        }
+        ReplyListener replies = replyListener;
+        int event = BinaryFrameCodec.eventType(payload, offset);
+        if (replies != null && (event == BinaryFrameCodec.EVENT_ACK || event == BinaryFrameCodec.EVENT_NAK)) {
+            replies.onReply(event == BinaryFrameCodec.EVENT_ACK,
+                    BinaryFrameCodec.eventRequestId(payload, offset), BinaryFrameCodec.eventCode(payload, offset));
+        }
+    }
+
+    private void dispatchSamples(byte[] payload, int offset, int length) {
+        if (length < BinaryFrameCodec.SAMPLE_HEADER_SIZE) {
+            payloadError();
+            return;
+        }
+        int channels = BinaryFrameCodec.sampleChannels(payload, offset);
+        int rows = BinaryFrameCodec.sampleRows(payload, offset);
+        if (length != BinaryFrameCodec.SAMPLE_HEADER_SIZE + channels * rows * 4) {
+            payloadError();
+            return;
+        }
+        long time = BinaryFrameCodec.sampleDeviceTime(payload, offset);
+        int interval = BinaryFrameCodec.sampleInterval(payload, offset);
+        int index = 0;
+        for (int row = 0; row < rows; row++) {
+            for (int channel = 0; channel < channels; channel++) {
+                listener.onSample(time, channel, BinaryFrameCodec.sampleValue(payload, offset, index++));
+            }
+            time += interval;
+        }
+    }
+}
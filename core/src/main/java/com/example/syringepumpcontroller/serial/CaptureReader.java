@@ -0,0 +1,148 @@
+package com.example.syringepumpcontroller.serial;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+/**
+ * {@link CaptureWriter} kaydını sırayla okur. Her {@link #next()} çağrısı bir kaydı
+ * {@link #getKind()}, {@link #getOffsetNanos()} ve {@link #getData()} alanlarına yükler; veri
+ * dizisi sonraki çağrıda yeniden kullanılır.
+ */
+public class CaptureReader implements Closeable {
+
+    private final InputStream in;
+    private final long startMillis;
+
+    private int kind;
+    private long offsetNanos;
+    private byte[] data = new byte[4096];
+    private int length;
+    private boolean truncated;
+
+    public CaptureReader(File file) throws IOException {
+        this(new FileInputStream(file));
+    }
+
+    /**
+     * @throws IOException akış bir ham seri kaydı değilse
+     */
+    public CaptureReader(InputStream stream) throws IOException {
+        this.in = new BufferedInputStream(stream, 64 * 1024);
+        try {
+            if (readInt() != CaptureWriter.MAGIC) {
+                throw new IOException("Ham seri kaydı değil");
+            }
+            int version = (readByte() << 8) | readByte();
+            if (version != CaptureWriter.VERSION) {
+                throw new IOException("Desteklenmeyen kayıt sürümü: " + version);
+            }
+            readByte();
+            readByte();
+            long high = readInt() & 0xFFFFFFFFL;
+            startMillis = high << 32 | (readInt() & 0xFFFFFFFFL);
+        } catch (IOException e) {
+            in.close();
+            throw e;
+        }
+    }
+
+    // Kaydın başladığı an (epoch ms)
+    public long getStartMillis() {
+        return startMillis;
+    }
+
+    /**
+     * Sonraki kaydı okur.
+     *
+     * @return kayıt kalmadıysa false; dosya bir kaydın ortasında bittiyse o kayıt atılır
+     */
+    public boolean next() throws IOException {
+        int b = in.read();
+        if (b < 0) {
+            return false;
+        }
+        try {
+            long delta = readVarLong();
+            int size = (int) readVarLong();
+            if (b < CaptureWriter.KIND_INBOUND || b > CaptureWriter.KIND_DISCONNECT || size < 0) {
+                throw new IOException("Bozuk kayıt");
+            }
+            if (data.length < size) {
+                data = Arrays.copyOf(data, Math.max(size, data.length * 2));
+            }
+            for (int read = 0; read < size; ) {
+                int n = in.read(data, read, size - read);
+                if (n < 0) {
+                    throw new EOFException();
+                }
+                read += n;
+            }
+            kind = b;
+            offsetNanos += delta;
+            length = size;
+            return true;
+        } catch (EOFException e) {
+            // Uygulama kayıt sürerken öldürüldü: yarım son kayıt yok sayılır
+            truncated = true;
+            return false;
+        }
+    }
+
+    // CaptureWriter.KIND_*
+    public int getKind() {
+        return kind;
+    }
+
+    // Kayıt başlangıcından bu kayda kadar geçen süre
+    public long getOffsetNanos() {
+        return offsetNanos;
+    }
+
+    public byte[] getData() {
+        return data;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    // Dosya bir kaydın ortasında bitti mi
+    public boolean isTruncated() {
+        return truncated;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private int readByte() throws IOException {
+        int b = in.read();
+        if (b < 0) {
+            throw new EOFException("Beklenmeyen dosya sonu");
+        }
+        return b;
+    }
+
+    private int readInt() throws IOException {
+        return readByte() << 24 | readByte() << 16 | readByte() << 8 | readByte();
+    }
+
+    private long readVarLong() throws IOException {
+        long result = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = readByte();
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new IOException("Bozuk değişken uzunluklu tamsayı");
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.syringepumpcontroller.serial;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Seri hattın ham kaydı: cihazdan gelen USB parçaları ve cihaza yazılan baytlar, zamanlarıyla
+ * birlikte. {@link ReplayTransport} kaydı aynı ayrıştırma, filtre, denetim ve grafik yolundan
+ * yeniden geçirir.
+ *
+ * <pre>
+ * "SPRC" [sürüm u16][ayrılmış u16][kayıt başlangıcı epoch ms i64]     büyük endian
+ * Kayıt: [tür u8][Δ zaman ns varint (önceki kayda göre)][uzunluk varint][bayt]
+ *   tür 1 gelen parça, 2 yazılan veri, 3 cihaz tarafında kopma (uzunluk 0)
+ * </pre>
+ *
+ * Kapanmadan kesilen dosyanın yarım son kaydı okuyucu tarafından yok sayılır. Metotlar
+ * senkronize edilmiştir; yazma çağıranın iş parçacığında yapıldığından okuma geri çağrısından
+ * doğrudan değil {@link RecordingTransport} üzerinden kullanılmalıdır.
+ */
+public class CaptureWriter implements Closeable {
+
+    static final int MAGIC = 0x53505243; // "SPRC"
+    static final int VERSION = 1;
+
+    public static final int KIND_INBOUND = 1;
+    public static final int KIND_OUTBOUND = 2;
+    public static final int KIND_DISCONNECT = 3;
+
+    private final OutputStream out;
+    private final long startNanos;
+    private long lastOffsetNanos;
+    private long records;
+    private boolean closed;
+
+    public CaptureWriter(File file) throws IOException {
+        this(new FileOutputStream(file), System.currentTimeMillis(), System.nanoTime());
+    }
+
+    /**
+     * @param startMillis kaydın başladığı an (epoch ms); yeniden oynatmada örnek zamanları buna göre verilir
+     * @param startNanos  aynı anın {@link System#nanoTime()} karşılığı
+     */
+    public CaptureWriter(OutputStream stream, long startMillis, long startNanos) throws IOException {
+        this.out = new BufferedOutputStream(stream, 64 * 1024);
+        this.startNanos = startNanos;
+        writeInt(MAGIC);
+        out.write(VERSION >>> 8);
+        out.write(VERSION);
+        out.write(0);
+        out.write(0);
+        writeInt((int) (startMillis >>> 32));
+        writeInt((int) startMillis);
+    }
+
+    // Kaydı kayıt başlangıcından itibaren atNanos (System.nanoTime) anına yazar
+    public void append(int kind, long atNanos, byte[] data, int offset, int length) throws IOException {
+        appendAt(kind, atNanos - startNanos, data, offset, length);
+    }
+
+    /**
+     * Kaydı başlangıçtan offsetNanos sonrasına yazar (sentetik kayıtlar, dönüştürücüler).
+     * Zaman geri giderse önceki kaydın zamanı kullanılır.
+     */
+    public synchronized void appendAt(int kind, long offsetNanos, byte[] data, int offset, int length)
+            throws IOException {
+        if (closed) {
+            throw new IOException("Kayıt kapalı");
+        }
+        if (kind < KIND_INBOUND || kind > KIND_DISCONNECT) {
+            throw new IllegalArgumentException("Bilinmeyen kayıt türü: " + kind);
+        }
+        long offsetClamped = Math.max(offsetNanos, lastOffsetNanos);
+        out.write(kind);
+        writeVarLong(offsetClamped - lastOffsetNanos);
+        writeVarLong(length);
+        if (length > 0) {
+            out.write(data, offset, length);
+        }
+        lastOffsetNanos = offsetClamped;
+        records++;
+    }
+
+    public synchronized long getRecordCount() {
+        return records;
+    }
+
+    public synchronized void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        out.close();
+    }
+
+    private void writeInt(int value) throws IOException {
+        out.write(value >>> 24);
+        out.write(value >>> 16);
+        out.write(value >>> 8);
+        out.write(value);
+    }
+
+    private void writeVarLong(long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+}
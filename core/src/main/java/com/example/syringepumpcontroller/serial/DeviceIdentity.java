@@ -0,0 +1,84 @@
+package com.example.syringepumpcontroller.serial;
+
+import java.util.Locale;
+
+/**
+ * USB cihazının kalıcı kimliği: üretici (VID), ürün (PID) ve varsa seri numarası. Aygıt yolu
+ * (ör. /dev/bus/usb/001/005) her takışta değiştiğinden cihazı yeniden tanımak için bu kimlik
+ * saklanır. Android 10+ seri numarasını yalnızca izin verildikten sonra gösterir; izin öncesi
+ * eşleştirme VID/PID ile yapılır.
+ */
+public final class DeviceIdentity {
+
+    public final int vendorId;
+    public final int productId;
+    // Bilinmiyorsa null
+    public final String serialNumber;
+
+    public DeviceIdentity(int vendorId, int productId, String serialNumber) {
+        this.vendorId = vendorId;
+        this.productId = productId;
+        this.serialNumber = serialNumber == null || serialNumber.isEmpty() ? null : serialNumber;
+    }
+
+    /**
+     * "vvvv:pppp" veya "vvvv:pppp:seri" (onaltılık VID/PID) biçimi.
+     *
+     * @throws IllegalArgumentException biçim hatalıysa
+     */
+    public static DeviceIdentity parse(String key) {
+        String[] parts = key.split(":", 3);
+        if (parts.length < 2) {
+            throw new IllegalArgumentException("Geçersiz cihaz kimliği: " + key);
+        }
+        try {
+            return new DeviceIdentity(Integer.parseInt(parts[0], 16), Integer.parseInt(parts[1], 16),
+                    parts.length == 3 ? parts[2] : null);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Geçersiz cihaz kimliği: " + key, e);
+        }
+    }
+
+    public String key() {
+        String ids = String.format(Locale.US, "%04x:%04x", vendorId, productId);
+        return serialNumber == null ? ids : ids + ":" + serialNumber;
+    }
+
+    public boolean hasSerialNumber() {
+        return serialNumber != null;
+    }
+
+    /**
+     * VID/PID aynıysa ve iki tarafın da seri numarası biliniyorsa onlar da aynıysa eşleşir.
+     */
+    public boolean matches(int vendorId, int productId, String serialNumber) {
+        if (this.vendorId != vendorId || this.productId != productId) {
+            return false;
+        }
+        return this.serialNumber == null || serialNumber == null || serialNumber.isEmpty()
+                || this.serialNumber.equals(serialNumber);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof DeviceIdentity)) {
+            return false;
+        }
+        DeviceIdentity other = (DeviceIdentity) o;
+        return vendorId == other.vendorId && productId == other.productId
+                && (serialNumber == null ? other.serialNumber == null : serialNumber.equals(other.serialNumber));
+    }
+
+    @Override
+    public int hashCode() {
+        return (vendorId * 31 + productId) * 31 + (serialNumber == null ? 0 : serialNumber.hashCode());
+    }
+
+    @Override
+    public String toString() {
+        return key();
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.syringepumpcontroller.serial;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Daha önce bağlanılmış cihazların en son kullanılan önde olacak şekilde sıralı listesi.
+ * Taramada bilinen cihazlar önce denenir; böylece açılışta ve takmada ilk bulunan ilgisiz
+ * cihaz için izin istenmez. Satır başına bir kimlik olarak saklanır (ör. SharedPreferences).
+ * İş parçacığı güvenli değildir.
+ */
+public final class KnownDevices {
+
+    public static final int DEFAULT_CAPACITY = 8;
+
+    private final int capacity;
+    private final List<DeviceIdentity> devices = new ArrayList<>();
+
+    public KnownDevices() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public KnownDevices(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Kapasite en az 1 olmalı");
+        }
+        this.capacity = capacity;
+    }
+
+    // Bozuk satırlar atlanır
+    public static KnownDevices parse(String text, int capacity) {
+        KnownDevices known = new KnownDevices(capacity);
+        if (text == null) {
+            return known;
+        }
+        for (String line : text.split("\n")) {
+            line = line.trim();
+            if (line.isEmpty() || known.devices.size() == capacity) {
+                continue;
+            }
+            try {
+                DeviceIdentity identity = DeviceIdentity.parse(line);
+                if (!known.devices.contains(identity)) {
+                    known.devices.add(identity);
+                }
+            } catch (IllegalArgumentException e) {
+                // Eski sürümden kalan veya bozulmuş satır
+            }
+        }
+        return known;
+    }
+
+    public String serialize() {
+        StringBuilder text = new StringBuilder();
+        for (DeviceIdentity identity : devices) {
+            text.append(identity.key()).append('\n');
+        }
+        return text.toString();
+    }
+
+    /**
+     * Kimliği listenin başına taşır. Seri numarası bilinen kimlik, aynı VID/PID'li seri
+     * numarasız kaydın yerini alır.
+     *
+     * @return liste değiştiyse true (saklanması gerekir)
+     */
+    public boolean remember(DeviceIdentity identity) {
+        if (!devices.isEmpty() && devices.get(0).equals(identity)) {
+            return false;
+        }
+        for (int i = devices.size() - 1; i >= 0; i--) {
+            DeviceIdentity existing = devices.get(i);
+            if (existing.equals(identity) || (!existing.hasSerialNumber()
+                    && existing.vendorId == identity.vendorId && existing.productId == identity.productId)) {
+                devices.remove(i);
+            }
+        }
+        devices.add(0, identity);
+        while (devices.size() > capacity) {
+            devices.remove(devices.size() - 1);
+        }
+        return true;
+    }
+
+    /**
+     * Cihazın listedeki sırası (0 en son kullanılan); bilinmiyorsa -1.
+     */
+    public int rank(int vendorId, int productId, String serialNumber) {
+        for (int i = 0; i < devices.size(); i++) {
+            if (devices.get(i).matches(vendorId, productId, serialNumber)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public List<DeviceIdentity> getDevices() {
+        return Collections.unmodifiableList(new ArrayList<>(devices));
+    }
+}
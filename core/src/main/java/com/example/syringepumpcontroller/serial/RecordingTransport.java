@@ -0,0 +1,135 @@
+package com.example.syringepumpcontroller.serial;
+
+import com.example.syringepumpcontroller.metrics.RateLimitedLog;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Gerçek portun önüne takılan ve hattı ham haliyle {@link CaptureWriter}'a kaydeden sarmalayıcı.
+ *
+ * Gelen parçalar ve yazılan veriler çağrı anında zamanlanır, kopyalanır ve kendi iş
+ * parçacığında diske yazılır; okuma geri çağrısı disk G/Ç'sini hiç beklemez. Disk yetişemez
+ * ve bekleyen kayıt sayısı sınırı aşarsa kayıt atılır ({@link #getDroppedRecords()}).
+ * Port kapanınca kayıt da kapatılır.
+ */
+public class RecordingTransport implements SerialTransport {
+
+    private static final RateLimitedLog LOG = new RateLimitedLog("RecordingTransport", 5000);
+    private static final int MAX_PENDING_RECORDS = 4096;
+
+    private final SerialTransport delegate;
+    private final CaptureWriter writer;
+    private final ExecutorService diskExecutor;
+    private final AtomicInteger pending = new AtomicInteger();
+    // Okuma ve yazıcı iş parçacıklarından artırılır
+    private final AtomicLong droppedRecords = new AtomicLong();
+    private volatile boolean failed;
+
+    public RecordingTransport(SerialTransport delegate, CaptureWriter writer) {
+        this.delegate = delegate;
+        this.writer = writer;
+        this.diskExecutor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "CaptureWriter");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public void setListener(final Listener listener) {
+        if (listener == null) {
+            delegate.setListener(null);
+            return;
+        }
+        delegate.setListener(new Listener() {
+            @Override
+            public void onData(byte[] data, int offset, int length) {
+                record(CaptureWriter.KIND_INBOUND, data, offset, length);
+                listener.onData(data, offset, length);
+            }
+
+            @Override
+            public void onDisconnected() {
+                record(CaptureWriter.KIND_DISCONNECT, null, 0, 0);
+                listener.onDisconnected();
+            }
+        });
+    }
+
+    @Override
+    public void write(byte[] data, int offset, int length) {
+        record(CaptureWriter.KIND_OUTBOUND, data, offset, length);
+        delegate.write(data, offset, length);
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+        if (diskExecutor.isShutdown()) {
+            return;
+        }
+        diskExecutor.execute(() -> {
+            try {
+                writer.close();
+            } catch (IOException e) {
+                if (LOG.shouldLog()) {
+                    LOG.log("Ham kayıt kapatılamadı: " + e);
+                }
+            }
+        });
+        diskExecutor.shutdown();
+    }
+
+    @Override
+    public long currentTimeMillis() {
+        return delegate.currentTimeMillis();
+    }
+
+    // Bekleyen kayıtlar diske yazılana kadar bekler (testler ve uygulama kapanışı için)
+    public boolean awaitClosed(long timeoutMillis) throws InterruptedException {
+        return diskExecutor.awaitTermination(timeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public long getDroppedRecords() {
+        return droppedRecords.get();
+    }
+
+    public SerialTransport getDelegate() {
+        return delegate;
+    }
+
+    private void record(final int kind, byte[] data, int offset, int length) {
+        final long atNanos = System.nanoTime();
+        if (failed || pending.incrementAndGet() > MAX_PENDING_RECORDS) {
+            pending.decrementAndGet();
+            droppedRecords.incrementAndGet();
+            return;
+        }
+        // USB kütüphanesi diziyi yeniden kullanabileceğinden kopyalanır
+        final byte[] copy = data == null ? null : Arrays.copyOfRange(data, offset, offset + length);
+        try {
+            diskExecutor.execute(() -> {
+                pending.decrementAndGet();
+                try {
+                    writer.append(kind, atNanos, copy, 0, copy == null ? 0 : copy.length);
+                } catch (IOException e) {
+                    // Kayıt hatası ölçümü durdurmamalı; kayıt bırakılır
+                    failed = true;
+                    if (LOG.shouldLog()) {
+                        LOG.log("Ham kayıt yazılamadı, kayıt durduruldu: " + e);
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Port kapandıktan sonra gelen geç veri
+            pending.decrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.syringepumpcontroller.serial;
+
+/**
+ * Seri port soyutlaması. Gerçek USB portu, test portları ve simülatörler bu arayüzü uygular.
+ */
+public interface SerialTransport {
+
+    interface Listener {
+        // Okuma iş parçacığında, gelen her parça için çağrılır
+        void onData(byte[] data, int offset, int length);
+
+        // Port cihaz tarafında kapandı (kablo çekildi, cihaz sıfırlandı); sonrasında veri gelmez
+        default void onDisconnected() {
+        }
+    }
+
+    void setListener(Listener listener);
+
+    void write(byte[] data, int offset, int length);
+
+    void close();
+
+    /**
+     * Gelen verinin zaman damgaları için saat (epoch ms). Gerçek portlarda sistem saatidir;
+     * yeniden oynatmada kaydedilen zaman verilir, böylece örnekler oynatma hızından bağımsız
+     * olarak kayıttaki zamanlarıyla depolanır.
+     */
+    default long currentTimeMillis() {
+        return System.currentTimeMillis();
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.syringepumpcontroller.simulation;
+
+/**
+ * Pompa hızından sensör gerilimine giden basit tesis modeli: ölü zaman + birinci dereceden
+ * gecikme (hat esnekliği, şırınga sürtünmesi) ve isteğe bağlı sabit bozucu (ör. karşı basınç).
+ *
+ * Durağan halde çıkış = taban + kazanç · hız + bozucu. Model sabit iç adımla (1 ms) ilerletilir,
+ * böylece sonuç çağrıların zamanlamasından bağımsızdır ve testlerde tekrarlanabilir.
+ */
+public class PlantModel {
+
+    private static final double STEP_SECONDS = 0.001;
+
+    private final double baseVolts;
+    private final double voltsPerPercent;
+    private final double timeConstantSeconds;
+    // Ölü zaman boyunca uygulanan girişlerin halka tamponu
+    private final double[] delayLine;
+    private int delayIndex;
+
+    private double output;
+    private double disturbance;
+    private double pendingSeconds;
+
+    /**
+     * @param deadTimeSeconds hız değişiminin ölçüme yansımaya başlaması için geçen süre
+     */
+    public PlantModel(double baseVolts, double voltsPerPercent, double timeConstantSeconds, double deadTimeSeconds) {
+        if (timeConstantSeconds <= 0 || deadTimeSeconds < 0) {
+            throw new IllegalArgumentException("Geçersiz tesis zaman sabitleri");
+        }
+        this.baseVolts = baseVolts;
+        this.voltsPerPercent = voltsPerPercent;
+        this.timeConstantSeconds = timeConstantSeconds;
+        this.delayLine = new double[Math.max(1, (int) Math.round(deadTimeSeconds / STEP_SECONDS))];
+        this.output = baseVolts;
+    }
+
+    // Simülatörün varsayılan sensör modeliyle aynı durağan eğri (1.0 V + 0.03 V/%)
+    public static PlantModel syringeLine() {
+        return new PlantModel(1.0, 0.03, 0.4, 0.05);
+    }
+
+    public synchronized void setDisturbance(double volts) {
+        this.disturbance = volts;
+    }
+
+    /**
+     * Modeli verilen süre kadar, bu süre boyunca sabit tutulan hızla ilerletir.
+     *
+     * @param speedPercent 0–100 pompa hızı; durmuş pompa için 0
+     * @return ölçülen gerilim (0–5 V aralığına kırpılmış)
+     */
+    public synchronized float advance(double speedPercent, double seconds) {
+        pendingSeconds += seconds;
+        double alpha = STEP_SECONDS / (timeConstantSeconds + STEP_SECONDS);
+        while (pendingSeconds >= STEP_SECONDS) {
+            pendingSeconds -= STEP_SECONDS;
+            double delayed = delayLine[delayIndex];
+            delayLine[delayIndex] = speedPercent;
+            delayIndex = (delayIndex + 1) % delayLine.length;
+            double target = baseVolts + voltsPerPercent * delayed + disturbance;
+            output += alpha * (target - output);
+        }
+        return (float) Math.max(0.0, Math.min(5.0, output));
+    }
+
+    // Verilen hız için durağan haldeki çıkış
+    public synchronized double steadyState(double speedPercent) {
+        return baseVolts + voltsPerPercent * speedPercent + disturbance;
+    }
+}
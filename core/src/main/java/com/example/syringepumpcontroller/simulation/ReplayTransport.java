@@ -0,0 +1,266 @@
+package com.example.syringepumpcontroller.simulation;
+
+import com.example.syringepumpcontroller.command.CommandTracker;
+import com.example.syringepumpcontroller.protocol.BinaryFrameCodec;
+import com.example.syringepumpcontroller.serial.CaptureReader;
+import com.example.syringepumpcontroller.serial.CaptureWriter;
+import com.example.syringepumpcontroller.serial.SerialTransport;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Ham seri kaydını ({@link CaptureWriter}) gerçek port yerine oynatan port. Kaydedilen USB
+ * parçaları kendi iş parçacığından, USB okuma geri çağrısı gibi ve aynı parça sınırlarıyla
+ * teslim edilir; böylece ayrıştırma, sinyal hattı, denetim ve grafik kodu kayıttakiyle aynı
+ * bayt akışını görür.
+ *
+ * Hız 1 gerçek zamanlı, N kat hızlı, {@link #MAX_SPEED} ise beklemesizdir. Örnek zaman damgaları
+ * {@link #currentTimeMillis()} ile kayıttaki zamanlardan verilir, hızdan etkilenmez.
+ *
+ * Bağlantı kurulumu (ikili kip ve komut onayı el sıkışmaları) canlı denetleyiciyle eşlenir:
+ * kayıtta bu komutlardan birinin yazıldığı noktaya gelinince denetleyici aynı satırı yazana
+ * kadar (en fazla {@link #setSyncTimeoutMillis} kadar) beklenir ve zamanlama o andan yeniden
+ * başlar. Kayıttaki diğer yazmalar (kullanıcı komutları) yok sayılır; oynatma sırasında
+ * denetleyicinin yazdıkları cihaza ulaşmaz.
+ */
+public class ReplayTransport implements SerialTransport {
+
+    public static final double MAX_SPEED = Double.POSITIVE_INFINITY;
+    public static final long DEFAULT_SYNC_TIMEOUT_MILLIS = 2000;
+
+    private static final String[] SYNC_COMMANDS = {BinaryFrameCodec.HANDSHAKE, CommandTracker.HANDSHAKE};
+
+    private final CaptureReader reader;
+    private final double speed;
+    private final Thread thread;
+    private final CountDownLatch finished = new CountDownLatch(1);
+
+    private volatile Listener listener;
+    private volatile long syncTimeoutMillis = DEFAULT_SYNC_TIMEOUT_MILLIS;
+    private volatile boolean disconnectAtEnd;
+    private volatile boolean closed;
+
+    // Canlı denetleyicinin yazdığı, henüz kayıttaki karşılığıyla eşlenmemiş el sıkışma satırları
+    private final Object syncLock = new Object();
+    private final List<String> writtenSyncLines = new ArrayList<>();
+    private final StringBuilder lineBuffer = new StringBuilder();
+
+    // Oynatma iş parçacığı yazar
+    private volatile long replayedOffsetNanos;
+    private volatile long chunksDelivered;
+    private volatile long bytesDelivered;
+    private volatile int syncTimeouts;
+    private volatile IOException failure;
+
+    public ReplayTransport(File capture, double speed) throws IOException {
+        this(new CaptureReader(capture), speed);
+    }
+
+    /**
+     * @param speed 1 gerçek zaman, 10 on kat hızlı, {@link #MAX_SPEED} beklemesiz
+     */
+    public ReplayTransport(CaptureReader reader, double speed) {
+        if (!(speed > 0)) {
+            throw new IllegalArgumentException("Geçersiz oynatma hızı: " + speed);
+        }
+        this.reader = reader;
+        this.speed = speed;
+        this.thread = new Thread(this::run, "ReplayTransport");
+        thread.setDaemon(true);
+    }
+
+    public void setSyncTimeoutMillis(long millis) {
+        this.syncTimeoutMillis = millis;
+    }
+
+    // true ise kayıt bitince port cihaz tarafında kopmuş gibi bildirilir
+    public void setDisconnectAtEnd(boolean disconnectAtEnd) {
+        this.disconnectAtEnd = disconnectAtEnd;
+    }
+
+    // Oynatma ilk dinleyici verildiğinde başlar (TelemetryLink bağlanınca)
+    @Override
+    public synchronized void setListener(Listener listener) {
+        this.listener = listener;
+        if (listener != null && thread.getState() == Thread.State.NEW && !closed) {
+            thread.start();
+        }
+    }
+
+    @Override
+    public void write(byte[] data, int offset, int length) {
+        synchronized (syncLock) {
+            for (int i = offset; i < offset + length; i++) {
+                char c = (char) (data[i] & 0xFF);
+                if (c != '\n') {
+                    lineBuffer.append(c);
+                    continue;
+                }
+                String line = lineBuffer.toString().trim();
+                lineBuffer.setLength(0);
+                if (isSyncCommand(line)) {
+                    writtenSyncLines.add(line);
+                    syncLock.notifyAll();
+                }
+            }
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        closed = true;
+        thread.interrupt();
+        if (thread.getState() == Thread.State.NEW) {
+            closeReader();
+            finished.countDown();
+        }
+    }
+
+    // Kayıttaki an: son teslim edilen parçanın kayıt başlangıcına göre zamanı
+    @Override
+    public long currentTimeMillis() {
+        return reader.getStartMillis() + replayedOffsetNanos / 1_000_000L;
+    }
+
+    public boolean awaitCompletion(long timeoutMillis) throws InterruptedException {
+        return finished.await(timeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public boolean isFinished() {
+        return finished.getCount() == 0;
+    }
+
+    public double getSpeed() {
+        return speed;
+    }
+
+    public long getChunksDelivered() {
+        return chunksDelivered;
+    }
+
+    public long getBytesDelivered() {
+        return bytesDelivered;
+    }
+
+    // Denetleyicinin kayıttaki el sıkışmayı yinelemediği nokta sayısı
+    public int getSyncTimeouts() {
+        return syncTimeouts;
+    }
+
+    // Kayıt okunurken hata olduysa; oynatma o noktada biter
+    public IOException getFailure() {
+        return failure;
+    }
+
+    private void run() {
+        try {
+            replay();
+        } catch (IOException e) {
+            failure = e;
+        } catch (InterruptedException e) {
+            // close() ile durduruldu
+        } finally {
+            closeReader();
+            finished.countDown();
+        }
+    }
+
+    private void replay() throws IOException, InterruptedException {
+        long baseNanos = System.nanoTime();
+        long baseOffset = 0;
+        while (!closed && reader.next()) {
+            long offset = reader.getOffsetNanos();
+            int kind = reader.getKind();
+            if (kind == CaptureWriter.KIND_OUTBOUND) {
+                if (syncWrites(reader.getData(), reader.getLength())) {
+                    // Denetleyicinin el sıkışma süresi kayıttakinden farklıdır; zamanlama buradan sürer
+                    baseNanos = System.nanoTime();
+                    baseOffset = offset;
+                }
+                continue;
+            }
+            if (speed != MAX_SPEED) {
+                long due = baseNanos + (long) ((offset - baseOffset) / speed);
+                for (long wait = due - System.nanoTime(); wait > 0; wait = due - System.nanoTime()) {
+                    LockSupport.parkNanos(this, wait);
+                    if (Thread.interrupted()) {
+                        throw new InterruptedException();
+                    }
+                }
+            }
+            replayedOffsetNanos = offset;
+            Listener current = listener;
+            if (current == null) {
+                continue;
+            }
+            if (kind == CaptureWriter.KIND_INBOUND) {
+                chunksDelivered++;
+                bytesDelivered += reader.getLength();
+                current.onData(reader.getData(), 0, reader.getLength());
+            } else if (kind == CaptureWriter.KIND_DISCONNECT) {
+                current.onDisconnected();
+                return;
+            }
+        }
+        Listener current = listener;
+        if (!closed && disconnectAtEnd && current != null) {
+            current.onDisconnected();
+        }
+    }
+
+    private void awaitSync(String line) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(syncTimeoutMillis);
+        synchronized (syncLock) {
+            while (!writtenSyncLines.remove(line)) {
+                long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remaining <= 0) {
+                    syncTimeouts++;
+                    return;
+                }
+                syncLock.wait(remaining);
+            }
+        }
+    }
+
+    // Kayıttaki yazmanın el sıkışma satırlarını canlı denetleyiciyle eşler; satır varsa true
+    private boolean syncWrites(byte[] data, int length) throws InterruptedException {
+        boolean synced = false;
+        int lineStart = 0;
+        for (int i = 0; i < length; i++) {
+            if (data[i] != '\n') {
+                continue;
+            }
+            String line = new String(data, lineStart, i - lineStart, StandardCharsets.US_ASCII).trim();
+            lineStart = i + 1;
+            if (isSyncCommand(line)) {
+                awaitSync(line);
+                synced = true;
+            }
+        }
+        return synced;
+    }
+
+    private static boolean isSyncCommand(String line) {
+        for (String command : SYNC_COMMANDS) {
+            if (line.equals(command) || line.startsWith(command + CommandTracker.ID_SEPARATOR)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void closeReader() {
+        try {
+            reader.close();
+        } catch (IOException e) {
+            // Yalnızca okunuyordu
+        }
+    }
+}
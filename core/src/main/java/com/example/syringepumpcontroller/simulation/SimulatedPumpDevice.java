@@ -0,0 +1,441 @@
+package com.example.syringepumpcontroller.simulation;
+
+import com.example.syringepumpcontroller.protocol.BinaryFrameCodec;
+import com.example.syringepumpcontroller.serial.SerialTransport;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ESP32 şırınga pompası donanım yazılımını taklit eden bellek içi seri port.
+ *
+ * START/STOP/SPEED_n/DIR_FWD/DIR_REV, GET_SENSOR, STREAM_n ve PROTO_BIN komutlarını anlar.
+ * "&lt;komut&gt;@&lt;id&gt;" biçimindeki komutlar ACK/NAK ile yanıtlanır (ASCII kipte satır,
+ * ikili kipte olay çerçevesi); yanıtlar geciktirilebilir veya düşürülebilir. Sayı olmayan argüman
+ * veya kimlik {@link #NAK_PARSE_ERROR} ile reddedilir ve komut uygulanmaz; kimliği çözülemeyen
+ * komutun yanıtı hiçbir isteğe ait olamayacağından 0 kimliğine gider.
+ * Yanıtlar kendi iş parçacığından, gerçek USB okuma geri çağrısı gibi teslim edilir.
+ * İkili kipte cihaz zamanı, {@link #getStartNanos()} anından itibaren mikrosaniyedir.
+ *
+ * Donanımsız yük ve dayanıklılık testleri için hat bozulmaları eklenebilir: USB parçalarının
+ * rastgele bölünmesi, akış zamanlamasında sapma, bayt bozulması ve bağlantı kopması.
+ * Bozulma kararları verilen tohumdan üretilir; aynı tohum ve aynı trafik aynı bozulmaları verir.
+ */
+public class SimulatedPumpDevice implements SerialTransport {
+
+    private static final int MAX_BATCH_ROWS = 64;
+
+    private final boolean binaryCapable;
+    private final ScheduledExecutorService executor;
+    private final long startNanos = System.nanoTime();
+
+    private final StringBuilder lineBuffer = new StringBuilder();
+    private final byte[] payload = new byte[BinaryFrameCodec.MAX_PAYLOAD];
+    private final byte[] frame = new byte[BinaryFrameCodec.MAX_FRAME];
+    private final float[] batch = new float[MAX_BATCH_ROWS];
+
+    private volatile Listener listener;
+
+    // Pompa durumu
+    private volatile boolean running;
+    private volatile int speed = 50;
+    private volatile boolean forward = true;
+    private volatile boolean binary;
+
+    // Akış durumu (simülatör iş parçacığı)
+    private ScheduledFuture<?> streamTask;
+    private int rateHz;
+    private long streamStartNanos;
+    private long emitted;
+    private int sequence;
+
+    private volatile long samplesSent;
+
+    // İsteğe bağlı tesis modeli; simülatör iş parçacığında ilerletilir
+    private volatile PlantModel plant;
+    private long plantTimeNanos;
+
+    // Hat bozulmaları; random yalnızca simülatör iş parçacığında kullanılır
+    private final Random random;
+    private volatile int minChunkBytes;
+    private volatile int maxChunkBytes;
+    private volatile long jitterMillis;
+    private volatile double corruptionRate;
+    private volatile boolean disconnected;
+    private volatile long bytesSent;
+    private volatile long chunksSent;
+    private volatile long bytesCorrupted;
+
+    // Komut yanıtları
+    public static final int NAK_UNKNOWN_COMMAND = 1;
+    public static final int NAK_BAD_ARGUMENT = 2;
+    public static final int NAK_PARSE_ERROR = 3;
+    private static final int MAX_REQUEST_ID = 0xFFFF;
+    // parseInt'in çözülemeyen girdi için döndürdüğü değer
+    private static final int NOT_A_NUMBER = Integer.MIN_VALUE;
+    private volatile boolean ackCapable = true;
+    private volatile long replyDelayMillis;
+    private volatile int repliesToDrop;
+    private final byte[] eventPayload = new byte[BinaryFrameCodec.EVENT_PAYLOAD_SIZE];
+    private final byte[] eventFrame = new byte[BinaryFrameCodec.HEADER_SIZE + BinaryFrameCodec.EVENT_PAYLOAD_SIZE
+            + BinaryFrameCodec.CRC_SIZE];
+
+    public SimulatedPumpDevice(boolean binaryCapable) {
+        this(binaryCapable, 1L);
+    }
+
+    public SimulatedPumpDevice(boolean binaryCapable, long seed) {
+        this.binaryCapable = binaryCapable;
+        this.random = new Random(seed);
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "SimulatedPumpDevice");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    @Override
+    public synchronized void write(byte[] data, int offset, int length) {
+        if (disconnected) {
+            return;
+        }
+        for (int i = offset; i < offset + length; i++) {
+            char c = (char) (data[i] & 0xFF);
+            if (c == '\n') {
+                final String command = lineBuffer.toString().trim();
+                lineBuffer.setLength(0);
+                executor.execute(() -> handleCommand(command));
+            } else {
+                lineBuffer.append(c);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Sensör değerlerini varsayılan anlık eğri yerine verilen tesisin dinamiğiyle üretir
+     * (kapalı çevrim denetim testleri için).
+     */
+    public void setPlant(PlantModel plant) {
+        executor.execute(() -> {
+            plantTimeNanos = System.nanoTime();
+            this.plant = plant;
+        });
+    }
+
+    // false ise "@id" sonekli komutlar eski donanım yazılımı gibi tanınmaz ve yanıtlanmaz
+    public void setAckCapable(boolean ackCapable) {
+        this.ackCapable = ackCapable;
+    }
+
+    public void setReplyDelayMillis(long replyDelayMillis) {
+        this.replyDelayMillis = replyDelayMillis;
+    }
+
+    // Sonraki count yanıtı gönderme (kayıp yanıt benzetimi); komutlar yine uygulanır
+    public void dropReplies(int count) {
+        this.repliesToDrop = count;
+    }
+
+    /**
+     * Giden her veri bloğunu [minBytes, maxBytes] aralığında rastgele boyutlu USB parçalarına böler.
+     * maxBytes 0 ise bloklar bölünmeden teslim edilir.
+     */
+    public void setChunking(int minBytes, int maxBytes) {
+        if (maxBytes < 0 || (maxBytes > 0 && (minBytes < 1 || minBytes > maxBytes))) {
+            throw new IllegalArgumentException("Geçersiz parça aralığı: " + minBytes + ".." + maxBytes);
+        }
+        this.minChunkBytes = minBytes;
+        this.maxChunkBytes = maxBytes;
+    }
+
+    // Akış tick'leri 0..jitterMillis kadar rastgele gecikir; geciken örnekler sonraki parçada toplanır
+    public void setJitterMillis(long jitterMillis) {
+        this.jitterMillis = jitterMillis;
+    }
+
+    // Giden her baytın bir bitinin bu olasılıkla ters çevrilmesi
+    public void setCorruptionRate(double probabilityPerByte) {
+        this.corruptionRate = probabilityPerByte;
+    }
+
+    // Belirtilen süre sonra cihaz tarafında bağlantıyı koparır
+    public void disconnectAfter(long delayMillis) {
+        executor.schedule(this::disconnectNow, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    // Kablo çekilmiş gibi: akış durur, yazmalar yok sayılır, dinleyiciye bildirilir
+    public void disconnect() {
+        executor.execute(this::disconnectNow);
+    }
+
+    public boolean isDisconnected() {
+        return disconnected;
+    }
+
+    public long getBytesSent() {
+        return bytesSent;
+    }
+
+    public long getChunksSent() {
+        return chunksSent;
+    }
+
+    public long getBytesCorrupted() {
+        return bytesCorrupted;
+    }
+
+    public long getStartNanos() {
+        return startNanos;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    public int getSpeed() {
+        return speed;
+    }
+
+    public boolean isForward() {
+        return forward;
+    }
+
+    public long getSamplesSent() {
+        return samplesSent;
+    }
+
+    private void handleCommand(String line) {
+        int separator = line.lastIndexOf('@');
+        if (separator < 0) {
+            execute(line);
+            return;
+        }
+        if (!ackCapable) {
+            return;
+        }
+        int id = parseInt(line.substring(separator + 1));
+        if (id < 0 || id > MAX_REQUEST_ID) {
+            reply(false, 0, NAK_PARSE_ERROR);
+            return;
+        }
+        int result = execute(line.substring(0, separator));
+        reply(result == 0, id, result);
+    }
+
+    // Komutu uygular; başarılıysa 0, aksi halde NAK kodu döndürür
+    private int execute(String command) {
+        if (command.equals("PROTO_ACK")) {
+            return 0;
+        } else if (command.equals(BinaryFrameCodec.HANDSHAKE)) {
+            if (binaryCapable) {
+                deliver((BinaryFrameCodec.HANDSHAKE_ACK + "\n").getBytes(StandardCharsets.US_ASCII));
+                binary = true;
+            }
+        } else if (command.equals("GET_SENSOR")) {
+            long now = System.nanoTime();
+            batch[0] = signal(now);
+            emit(now, 0, 1);
+        } else if (command.startsWith("STREAM_")) {
+            int hz = parseInt(command.substring(7));
+            if (hz == NOT_A_NUMBER) {
+                return NAK_PARSE_ERROR;
+            }
+            setStreamRate(hz);
+        } else if (command.equals("START")) {
+            running = true;
+        } else if (command.equals("STOP")) {
+            running = false;
+        } else if (command.startsWith("SPEED_")) {
+            int value = parseInt(command.substring(6));
+            if (value == NOT_A_NUMBER) {
+                return NAK_PARSE_ERROR;
+            }
+            if (value < 0 || value > 100) {
+                return NAK_BAD_ARGUMENT;
+            }
+            speed = value;
+        } else if (command.equals("DIR_FWD")) {
+            forward = true;
+        } else if (command.equals("DIR_REV")) {
+            forward = false;
+        } else {
+            return NAK_UNKNOWN_COMMAND;
+        }
+        return 0;
+    }
+
+    private void reply(boolean ack, int id, int code) {
+        if (repliesToDrop > 0) {
+            repliesToDrop--;
+            return;
+        }
+        final byte[] bytes;
+        if (binary) {
+            BinaryFrameCodec.encodeEventPayload(ack ? BinaryFrameCodec.EVENT_ACK : BinaryFrameCodec.EVENT_NAK,
+                    id, code, eventPayload, 0);
+            int length = BinaryFrameCodec.encode(BinaryFrameCodec.TYPE_EVENT, sequence, eventPayload, 0,
+                    BinaryFrameCodec.EVENT_PAYLOAD_SIZE, eventFrame, 0);
+            sequence = (sequence + 1) & 0xFFFF;
+            bytes = java.util.Arrays.copyOf(eventFrame, length);
+        } else {
+            bytes = ((ack ? "ACK:" + id : "NAK:" + id + ":" + code) + "\r\n").getBytes(StandardCharsets.US_ASCII);
+        }
+        long delay = replyDelayMillis;
+        if (delay > 0) {
+            executor.schedule(() -> deliver(bytes), delay, TimeUnit.MILLISECONDS);
+        } else {
+            deliver(bytes);
+        }
+    }
+
+    private void setStreamRate(int hz) {
+        if (streamTask != null) {
+            streamTask.cancel(false);
+            streamTask = null;
+        }
+        rateHz = hz;
+        if (hz <= 0) {
+            return;
+        }
+        streamStartNanos = System.nanoTime();
+        emitted = 0;
+        scheduleStreamTick();
+    }
+
+    // Her tick bir sonrakini planlar; sapma varsa aralık rastgele uzar
+    private void scheduleStreamTick() {
+        long tickNanos = Math.max(1_000_000L, 1_000_000_000L / rateHz);
+        long jitter = jitterMillis;
+        if (jitter > 0) {
+            tickNanos += (long) (random.nextDouble() * TimeUnit.MILLISECONDS.toNanos(jitter));
+        }
+        streamTask = executor.schedule(this::streamTick, tickNanos, TimeUnit.NANOSECONDS);
+    }
+
+    // Son tick'ten bu yana vadesi gelen tüm örnekleri tek USB parçası olarak gönder
+    private void streamTick() {
+        if (disconnected || rateHz <= 0) {
+            return;
+        }
+        scheduleStreamTick();
+        long now = System.nanoTime();
+        long due = (now - streamStartNanos) * rateHz / 1_000_000_000L;
+        long intervalNanos = 1_000_000_000L / rateHz;
+        while (emitted < due) {
+            int rows = (int) Math.min(due - emitted, MAX_BATCH_ROWS);
+            long firstTime = streamStartNanos + (emitted + 1) * intervalNanos;
+            for (int i = 0; i < rows; i++) {
+                batch[i] = signal(firstTime + i * intervalNanos);
+            }
+            emit(firstTime, (int) (intervalNanos / 1000), rows);
+            emitted += rows;
+        }
+    }
+
+    private void emit(long firstTimeNanos, int intervalMicros, int rows) {
+        if (binary) {
+            long deviceMicros = (firstTimeNanos - startNanos) / 1000;
+            int payloadLength = BinaryFrameCodec.encodeSamplePayload(
+                    deviceMicros, intervalMicros, 1, batch, rows, payload, 0);
+            int length = BinaryFrameCodec.encode(BinaryFrameCodec.TYPE_SAMPLES, sequence, payload, 0, payloadLength, frame, 0);
+            sequence = (sequence + 1) & 0xFFFF;
+            deliver(java.util.Arrays.copyOf(frame, length));
+        } else {
+            StringBuilder sb = new StringBuilder(rows * 10);
+            for (int i = 0; i < rows; i++) {
+                sb.append("SV:").append(String.format(Locale.US, "%.3f", batch[i])).append("\r\n");
+            }
+            deliver(sb.toString().getBytes(StandardCharsets.US_ASCII));
+        }
+        samplesSent += rows;
+    }
+
+    // Basit sensör modeli: taban gerilim + hıza bağlı basınç + yavaş dalgalanma.
+    // Tesis modeli verildiyse ölçüm onun dinamiğini izler.
+    private float signal(long timeNanos) {
+        PlantModel model = plant;
+        if (model != null) {
+            long elapsed = Math.max(0, timeNanos - plantTimeNanos);
+            plantTimeNanos = Math.max(plantTimeNanos, timeNanos);
+            return model.advance(running ? speed : 0, elapsed / 1e9);
+        }
+        double t = (timeNanos - startNanos) / 1e9;
+        double pressure = running ? 0.03 * speed : 0.0;
+        double value = 1.0 + pressure + 0.1 * Math.sin(2 * Math.PI * 0.5 * t);
+        return (float) Math.max(0.0, Math.min(5.0, value));
+    }
+
+    private void deliver(byte[] bytes) {
+        Listener current = listener;
+        if (current == null || disconnected) {
+            return;
+        }
+        corrupt(bytes);
+        bytesSent += bytes.length;
+        int max = maxChunkBytes;
+        if (max <= 0) {
+            chunksSent++;
+            current.onData(bytes, 0, bytes.length);
+            return;
+        }
+        int min = minChunkBytes;
+        for (int pos = 0; pos < bytes.length; ) {
+            int length = Math.min(min + random.nextInt(max - min + 1), bytes.length - pos);
+            chunksSent++;
+            current.onData(bytes, pos, length);
+            pos += length;
+        }
+    }
+
+    private void corrupt(byte[] bytes) {
+        double rate = corruptionRate;
+        if (rate <= 0) {
+            return;
+        }
+        for (int i = 0; i < bytes.length; i++) {
+            if (random.nextDouble() < rate) {
+                bytes[i] ^= (byte) (1 << random.nextInt(8));
+                bytesCorrupted++;
+            }
+        }
+    }
+
+    private void disconnectNow() {
+        if (disconnected) {
+            return;
+        }
+        disconnected = true;
+        if (streamTask != null) {
+            streamTask.cancel(false);
+            streamTask = null;
+        }
+        rateHz = 0;
+        Listener current = listener;
+        if (current != null) {
+            current.onDisconnected();
+        }
+    }
+
+    private static int parseInt(String s) {
+        try {
+            return Integer.parseInt(s.trim());
+        } catch (NumberFormatException e) {
+            return NOT_A_NUMBER;
+        }
+    }
+}
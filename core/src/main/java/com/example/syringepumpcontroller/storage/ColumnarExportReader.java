@@ -0,0 +1,250 @@
+package com.example.syringepumpcontroller.storage;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * {@link ColumnarExportWriter} biçimindeki dosyayı okur. Altbilgi açılışta bir kez okunur;
+ * aralık sorgularında aralıkla kesişmeyen satır grupları açılmaz. Aynı zamanlı kayıtlarda
+ * örnekler komutlardan önce verilir. İş parçacığı güvenli değildir.
+ */
+public final class ColumnarExportReader implements Closeable {
+
+    private final RandomAccessFile file;
+    private final List<ColumnarExportWriter.Group> groups = new ArrayList<>();
+    private final Inflater inflater = new Inflater();
+
+    // Bir satır grubunun çözülmüş sütunları; yeniden kullanılır
+    private final long[] times = new long[ColumnarExportWriter.ROW_GROUP_SAMPLES];
+    private final float[] values = new float[ColumnarExportWriter.ROW_GROUP_SAMPLES];
+    private final byte[] raw = new byte[ColumnarExportWriter.ROW_GROUP_SAMPLES * 10];
+    private byte[] compressed = new byte[64 * 1024];
+
+    public ColumnarExportReader(File path) throws IOException {
+        this.file = new RandomAccessFile(path, "r");
+        try {
+            readFooter();
+        } catch (IOException e) {
+            close();
+            throw e;
+        }
+    }
+
+    private void readFooter() throws IOException {
+        long length = file.length();
+        if (length < ColumnarExportWriter.HEADER_SIZE + 4 + ColumnarExportWriter.TRAILER_SIZE) {
+            throw new IOException("Sütunlu dışa aktarma dosyası değil");
+        }
+        ExportStreams.Input header = input(0, ColumnarExportWriter.HEADER_SIZE);
+        if (header.readInt() != ColumnarExportWriter.MAGIC || header.readShort() != ColumnarExportWriter.VERSION) {
+            throw new IOException("Sütunlu dışa aktarma dosyası değil");
+        }
+        ExportStreams.Input trailer = input(length - ColumnarExportWriter.TRAILER_SIZE, ColumnarExportWriter.TRAILER_SIZE);
+        int footerLength = trailer.readInt();
+        if (trailer.readInt() != ColumnarExportWriter.MAGIC) {
+            throw new IOException("Altbilgi eksik; dosya yarım yazılmış");
+        }
+        long footerStart = length - ColumnarExportWriter.TRAILER_SIZE - footerLength;
+        if (footerLength < 4 || footerStart < ColumnarExportWriter.HEADER_SIZE) {
+            throw new IOException("Bozuk altbilgi");
+        }
+        ExportStreams.Input footer = input(footerStart, footerLength);
+        int count = footer.readInt();
+        if (footerLength != 4 + count * ColumnarExportWriter.GROUP_FOOTER_SIZE) {
+            throw new IOException("Bozuk altbilgi");
+        }
+        for (int i = 0; i < count; i++) {
+            ColumnarExportWriter.Group group = new ColumnarExportWriter.Group();
+            group.offset = footer.readLong();
+            group.samples = footer.readInt();
+            group.commands = footer.readInt();
+            group.firstMillis = footer.readLong();
+            group.lastMillis = footer.readLong();
+            group.min = Float.intBitsToFloat(footer.readInt());
+            group.max = Float.intBitsToFloat(footer.readInt());
+            group.timeLength = footer.readInt();
+            group.valueLength = footer.readInt();
+            group.commandLength = footer.readInt();
+            groups.add(group);
+        }
+    }
+
+    public int getGroupCount() {
+        return groups.size();
+    }
+
+    public long getSampleCount() {
+        long total = 0;
+        for (ColumnarExportWriter.Group group : groups) {
+            total += group.samples;
+        }
+        return total;
+    }
+
+    public long getCommandCount() {
+        long total = 0;
+        for (ColumnarExportWriter.Group group : groups) {
+            total += group.commands;
+        }
+        return total;
+    }
+
+    /**
+     * [fromMillis, toMillis] aralığındaki kayıtları zaman sırasıyla ziyaret eder.
+     *
+     * @return ziyaret edilen kayıt sayısı
+     */
+    public long read(long fromMillis, long toMillis, SegmentReader.Visitor visitor) throws IOException {
+        long visited = 0;
+        for (ColumnarExportWriter.Group group : groups) {
+            if (group.lastMillis < fromMillis || group.firstMillis > toMillis) {
+                continue;
+            }
+            visited += readGroup(group, fromMillis, toMillis, visitor);
+        }
+        return visited;
+    }
+
+    private long readGroup(ColumnarExportWriter.Group group, long fromMillis, long toMillis,
+                           SegmentReader.Visitor visitor) throws IOException {
+        long position = group.offset;
+        int n = group.samples;
+        if (n > 0) {
+            inflate(position, group.timeLength, 8 + (n - 1) * 10);
+            int p = 0;
+            long time = 0;
+            for (int i = 0; i < 8; i++) {
+                time |= (long) (raw[p++] & 0xFF) << (8 * i);
+            }
+            times[0] = time;
+            for (int i = 1; i < n; i++) {
+                long value = 0;
+                int shift = 0;
+                int b;
+                do {
+                    b = raw[p++];
+                    value |= (long) (b & 0x7F) << shift;
+                    shift += 7;
+                } while ((b & 0x80) != 0);
+                time += ExportStreams.unzigzag(value);
+                times[i] = time;
+            }
+            position += group.timeLength;
+
+            int produced = inflate(position, group.valueLength, 4 * n);
+            if (produced != 4 * n) {
+                throw new IOException("Bozuk değer sütunu");
+            }
+            for (int i = 0; i < n; i++) {
+                int bits = (raw[i] & 0xFF) | (raw[n + i] & 0xFF) << 8
+                        | (raw[2 * n + i] & 0xFF) << 16 | (raw[3 * n + i] & 0xFF) << 24;
+                values[i] = Float.intBitsToFloat(bits);
+            }
+            position += group.valueLength;
+        }
+
+        // Komutlar az olduğundan örneklerle sırayla birleştirilirken doğrudan çözülür
+        int commandBytes = group.commands > 0 ? inflate(position, group.commandLength, raw.length) : 0;
+        int[] cursor = new int[1];
+        int commandsLeft = group.commands;
+        long nextCommandMillis = 0;
+        String nextCommand = null;
+        long visited = 0;
+        int sample = 0;
+        while (sample < n || commandsLeft > 0 || nextCommand != null) {
+            if (nextCommand == null && commandsLeft > 0) {
+                nextCommandMillis = group.firstMillis + ExportStreams.unzigzag(readVarLong(raw, cursor, commandBytes));
+                int length = (int) readVarLong(raw, cursor, commandBytes);
+                if (cursor[0] + length > commandBytes) {
+                    throw new IOException("Bozuk komut sütunu");
+                }
+                char[] chars = new char[length];
+                for (int c = 0; c < length; c++) {
+                    chars[c] = (char) (raw[cursor[0] + c] & 0xFF);
+                }
+                cursor[0] += length;
+                nextCommand = new String(chars);
+                commandsLeft--;
+            }
+            boolean takeSample = sample < n && (nextCommand == null || times[sample] <= nextCommandMillis);
+            long time = takeSample ? times[sample] : nextCommandMillis;
+            if (time > toMillis) {
+                break;
+            }
+            if (takeSample) {
+                if (time >= fromMillis) {
+                    visitor.onSample(time, values[sample]);
+                    visited++;
+                }
+                sample++;
+            } else {
+                if (time >= fromMillis) {
+                    visitor.onCommand(time, nextCommand);
+                    visited++;
+                }
+                nextCommand = null;
+            }
+        }
+        return visited;
+    }
+
+    // Dosyadaki sıkıştırılmış sütunu raw dizisine açar; açılan bayt sayısı döner
+    private int inflate(long position, int length, int maxOutput) throws IOException {
+        if (compressed.length < length) {
+            compressed = new byte[length];
+        }
+        file.seek(position);
+        file.readFully(compressed, 0, length);
+        inflater.reset();
+        inflater.setInput(compressed, 0, length);
+        try {
+            int produced = 0;
+            while (!inflater.finished()) {
+                int count = inflater.inflate(raw, produced, Math.min(raw.length, maxOutput) - produced);
+                if (count == 0 && (inflater.needsInput() || produced == Math.min(raw.length, maxOutput))) {
+                    throw new IOException("Bozuk sütun");
+                }
+                produced += count;
+            }
+            return produced;
+        } catch (DataFormatException e) {
+            throw new IOException("Bozuk sütun", e);
+        }
+    }
+
+    private static long readVarLong(byte[] source, int[] cursor, int limit) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            if (cursor[0] >= limit) {
+                throw new EOFException("Bozuk komut sütunu");
+            }
+            int b = source[cursor[0]++];
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Bozuk değişken uzunluklu tamsayı");
+    }
+
+    private ExportStreams.Input input(long position, int length) throws IOException {
+        byte[] bytes = new byte[length];
+        file.seek(position);
+        file.readFully(bytes);
+        return new ExportStreams.Input(new ByteArrayInputStream(bytes), Math.max(1, length));
+    }
+
+    @Override
+    public void close() throws IOException {
+        inflater.end();
+        file.close();
+    }
+}
@@ -0,0 +1,236 @@
+package com.example.syringepumpcontroller.storage;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.Deflater;
+
+/**
+ * Parquet benzeri sütunlu, parçalı dışa aktarma biçimi. Kayıtlar satır gruplarına bölünür;
+ * her grupta zaman, değer ve komut sütunları ayrı ayrı sıkıştırılır. Dosya sonundaki
+ * altbilgi grupların konumunu ve istatistiklerini taşır, böylece okuyucu yalnızca istenen
+ * aralıktaki grupları açar.
+ *
+ * <pre>
+ * "SPCF" [sürüm u16][ayrılmış u16]
+ * Satır grubu: [zaman sütunu][değer sütunu][komut sütunu]   her biri ayrı Deflate/zlib akışı
+ *   zaman : [ilk örnek zamanı i64] + (n − 1) × varint zigzag(Δzaman ms)
+ *   değer : n float, bayt düzlemlerine ayrılmış (tüm 0. baytlar, sonra 1., 2., 3.)
+ *   komut : k × ([varint zigzag(zaman − grup ilk zamanı)][varint uzunluk][ASCII])
+ * Altbilgi: [grup sayısı u32]
+ *           grup başına [konum i64][örnek u32][komut u32][ilk ms i64][son ms i64][min f32][maks f32]
+ *                       [zaman uzunluğu u32][değer uzunluğu u32][komut uzunluğu u32]
+ *           [altbilgi uzunluğu u32] "SPCF"
+ * </pre>
+ *
+ * Bayt düzlemleri, yavaş değişen sinyalde üs ve yüksek mantis baytlarını art arda getirir ve
+ * Deflate'in tekrarları bulmasını kolaylaştırır. Bellek kullanımı bir satır grubuyla sınırlıdır.
+ */
+final class ColumnarExportWriter implements ExportWriter {
+
+    static final int MAGIC = 0x46435053; // "SPCF"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 8;
+    static final int GROUP_FOOTER_SIZE = 8 + 4 + 4 + 8 + 8 + 4 + 4 + 4 + 4 + 4;
+    static final int TRAILER_SIZE = 8;
+
+    static final int ROW_GROUP_SAMPLES = 64 * 1024;
+    static final int ROW_GROUP_COMMANDS = 4 * 1024;
+
+    static final class Group {
+        long offset;
+        int samples;
+        int commands;
+        long firstMillis;
+        long lastMillis;
+        float min;
+        float max;
+        int timeLength;
+        int valueLength;
+        int commandLength;
+    }
+
+    private final ExportStreams.Output out;
+    private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+    private final List<Group> groups = new ArrayList<>();
+
+    // Açık satır grubu
+    private final long[] times = new long[ROW_GROUP_SAMPLES];
+    private final float[] values = new float[ROW_GROUP_SAMPLES];
+    private int sampleCount;
+    private final long[] commandTimes = new long[ROW_GROUP_COMMANDS];
+    private final String[] commandTexts = new String[ROW_GROUP_COMMANDS];
+    private int commandCount;
+
+    // Sütun kodlama ve sıkıştırma için yeniden kullanılan diziler
+    private final byte[] raw = new byte[ROW_GROUP_SAMPLES * 10];
+    private final byte[] compressed = new byte[64 * 1024];
+
+    ColumnarExportWriter(OutputStream stream) throws IOException {
+        this.out = new ExportStreams.Output(stream, 64 * 1024);
+        out.putInt(MAGIC);
+        out.putShort(VERSION);
+        out.putShort(0);
+    }
+
+    @Override
+    public void sample(long timestampMillis, float value) throws IOException {
+        times[sampleCount] = timestampMillis;
+        values[sampleCount] = value;
+        if (++sampleCount == ROW_GROUP_SAMPLES) {
+            flushGroup();
+        }
+    }
+
+    @Override
+    public void command(long timestampMillis, String command) throws IOException {
+        commandTimes[commandCount] = timestampMillis;
+        commandTexts[commandCount] = command;
+        if (++commandCount == ROW_GROUP_COMMANDS) {
+            flushGroup();
+        }
+    }
+
+    @Override
+    public void finish() throws IOException {
+        try {
+            flushGroup();
+            long footerStart = out.getWrittenBytes();
+            out.putInt(groups.size());
+            for (Group group : groups) {
+                out.putLong(group.offset);
+                out.putInt(group.samples);
+                out.putInt(group.commands);
+                out.putLong(group.firstMillis);
+                out.putLong(group.lastMillis);
+                out.putInt(Float.floatToRawIntBits(group.min));
+                out.putInt(Float.floatToRawIntBits(group.max));
+                out.putInt(group.timeLength);
+                out.putInt(group.valueLength);
+                out.putInt(group.commandLength);
+            }
+            out.putInt((int) (out.getWrittenBytes() - footerStart));
+            out.putInt(MAGIC);
+            out.flushBuffer();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    @Override
+    public void abort() {
+        deflater.end();
+    }
+
+    private void flushGroup() throws IOException {
+        if (sampleCount == 0 && commandCount == 0) {
+            return;
+        }
+        Group group = new Group();
+        group.offset = out.getWrittenBytes();
+        group.samples = sampleCount;
+        group.commands = commandCount;
+        group.min = Float.NaN;
+        group.max = Float.NaN;
+        long first = Long.MAX_VALUE;
+        long last = Long.MIN_VALUE;
+        if (sampleCount > 0) {
+            first = times[0];
+            last = times[sampleCount - 1];
+            float min = Float.POSITIVE_INFINITY;
+            float max = Float.NEGATIVE_INFINITY;
+            for (int i = 0; i < sampleCount; i++) {
+                min = Math.min(min, values[i]);
+                max = Math.max(max, values[i]);
+            }
+            group.min = min;
+            group.max = max;
+        }
+        if (commandCount > 0) {
+            first = Math.min(first, commandTimes[0]);
+            last = Math.max(last, commandTimes[commandCount - 1]);
+        }
+        group.firstMillis = first;
+        group.lastMillis = last;
+
+        group.timeLength = writeColumn(encodeTimes());
+        group.valueLength = writeColumn(encodeValues());
+        group.commandLength = writeColumn(encodeCommands(first));
+        groups.add(group);
+        sampleCount = 0;
+        commandCount = 0;
+        // Komut dizgelerine referans tutulmaz
+        Arrays.fill(commandTexts, null);
+    }
+
+    private int encodeTimes() {
+        if (sampleCount == 0) {
+            return 0;
+        }
+        int length = putLong(raw, 0, times[0]);
+        for (int i = 1; i < sampleCount; i++) {
+            length = putVarLong(raw, length, ExportStreams.zigzag(times[i] - times[i - 1]));
+        }
+        return length;
+    }
+
+    private int encodeValues() {
+        int n = sampleCount;
+        for (int i = 0; i < n; i++) {
+            int bits = Float.floatToRawIntBits(values[i]);
+            raw[i] = (byte) bits;
+            raw[n + i] = (byte) (bits >>> 8);
+            raw[2 * n + i] = (byte) (bits >>> 16);
+            raw[3 * n + i] = (byte) (bits >>> 24);
+        }
+        return 4 * n;
+    }
+
+    private int encodeCommands(long groupFirstMillis) {
+        int length = 0;
+        for (int i = 0; i < commandCount; i++) {
+            String text = commandTexts[i];
+            length = putVarLong(raw, length, ExportStreams.zigzag(commandTimes[i] - groupFirstMillis));
+            length = putVarLong(raw, length, text.length());
+            for (int c = 0; c < text.length(); c++) {
+                raw[length++] = (byte) text.charAt(c);
+            }
+        }
+        return length;
+    }
+
+    // raw[0, length) sıkıştırılıp yazılır; sıkıştırılmış uzunluk döner
+    private int writeColumn(int length) throws IOException {
+        if (length == 0) {
+            return 0;
+        }
+        deflater.reset();
+        deflater.setInput(raw, 0, length);
+        deflater.finish();
+        int total = 0;
+        while (!deflater.finished()) {
+            int produced = deflater.deflate(compressed);
+            out.putBytes(compressed, 0, produced);
+            total += produced;
+        }
+        return total;
+    }
+
+    private static int putLong(byte[] target, int position, long value) {
+        for (int i = 0; i < 8; i++) {
+            target[position++] = (byte) (value >>> (8 * i));
+        }
+        return position;
+    }
+
+    private static int putVarLong(byte[] target, int position, long value) {
+        while ((value & ~0x7FL) != 0) {
+            target[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        target[position++] = (byte) value;
+        return position;
+    }
+}
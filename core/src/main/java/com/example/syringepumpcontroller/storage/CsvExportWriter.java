@@ -0,0 +1,79 @@
+package com.example.syringepumpcontroller.storage;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Tablo programları için CSV: "timestamp_ms,value_v,command" başlıklı, satır başına bir kayıt.
+ * Örnek satırlarında komut, komut satırlarında değer boştur. Sayılar yerel ayardan bağımsız
+ * yazılır (ondalık ayırıcı her zaman nokta).
+ */
+final class CsvExportWriter implements ExportWriter {
+
+    static final String HEADER = "timestamp_ms,value_v,command\n";
+
+    private final ExportStreams.Output out;
+    private final byte[] digits = new byte[20];
+
+    CsvExportWriter(OutputStream stream) throws IOException {
+        this.out = new ExportStreams.Output(stream, 64 * 1024);
+        putAscii(HEADER);
+    }
+
+    @Override
+    public void sample(long timestampMillis, float value) throws IOException {
+        putLong(timestampMillis);
+        out.putByte(',');
+        putAscii(Float.toString(value));
+        out.putByte(',');
+        out.putByte('\n');
+    }
+
+    @Override
+    public void command(long timestampMillis, String command) throws IOException {
+        putLong(timestampMillis);
+        out.putByte(',');
+        out.putByte(',');
+        // Komutlar ASCII'dir ve tırnak içermez
+        out.putByte('"');
+        putAscii(command);
+        out.putByte('"');
+        out.putByte('\n');
+    }
+
+    @Override
+    public void finish() throws IOException {
+        out.flushBuffer();
+    }
+
+    @Override
+    public void abort() {
+    }
+
+    // Long.toString ayırmasını önlemek için basamaklar sabit diziye yazılır
+    private void putLong(long value) throws IOException {
+        if (value < 0) {
+            out.putByte('-');
+            if (value == Long.MIN_VALUE) {
+                putAscii("9223372036854775808");
+                return;
+            }
+            value = -value;
+        }
+        int count = 0;
+        do {
+            digits[count++] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value != 0);
+        out.ensure(count);
+        for (int i = count - 1; i >= 0; i--) {
+            out.putByte(digits[i]);
+        }
+    }
+
+    private void putAscii(String text) throws IOException {
+        for (int i = 0; i < text.length(); i++) {
+            out.putByte(text.charAt(i));
+        }
+    }
+}
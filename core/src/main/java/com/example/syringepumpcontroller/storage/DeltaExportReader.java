@@ -0,0 +1,67 @@
+package com.example.syringepumpcontroller.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * {@link DeltaExportWriter} biçimindeki dosyayı baştan sona okur.
+ */
+public final class DeltaExportReader {
+
+    private DeltaExportReader() {
+    }
+
+    /**
+     * @return okunan kayıt sayısı
+     * @throws IOException biçim hatalıysa veya dosya yarım kalmışsa
+     */
+    public static long read(InputStream stream, SegmentReader.Visitor visitor) throws IOException {
+        ExportStreams.Input header = new ExportStreams.Input(stream, 1);
+        if (header.readInt() != DeltaExportWriter.MAGIC || header.readShort() != DeltaExportWriter.VERSION) {
+            throw new IOException("Delta dışa aktarma dosyası değil");
+        }
+        header.readShort();
+
+        Inflater inflater = new Inflater();
+        try {
+            ExportStreams.Input in = new ExportStreams.Input(
+                    new InflaterInputStream(stream, inflater, 64 * 1024), 64 * 1024);
+            long millis = 0;
+            int bits = 0;
+            long samples = 0;
+            long commands = 0;
+            while (true) {
+                long head = in.readVarLong();
+                millis += ExportStreams.unzigzag(head >>> 2);
+                switch ((int) (head & 3)) {
+                    case DeltaExportWriter.KIND_SAMPLE:
+                        bits += (int) ExportStreams.unzigzag(in.readVarLong());
+                        visitor.onSample(millis, Float.intBitsToFloat(bits));
+                        samples++;
+                        break;
+                    case DeltaExportWriter.KIND_COMMAND: {
+                        int length = (int) in.readVarLong();
+                        char[] chars = new char[length];
+                        for (int i = 0; i < length; i++) {
+                            chars[i] = (char) in.readByte();
+                        }
+                        visitor.onCommand(millis, new String(chars));
+                        commands++;
+                        break;
+                    }
+                    case DeltaExportWriter.KIND_END:
+                        if (in.readVarLong() != samples || in.readVarLong() != commands) {
+                            throw new IOException("Kayıt sayıları tutmuyor");
+                        }
+                        return samples + commands;
+                    default:
+                        throw new IOException("Bilinmeyen kayıt türü");
+                }
+            }
+        } finally {
+            inflater.end();
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.syringepumpcontroller.storage;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Sıkıştırılmış delta ikili dışa aktarma biçimi.
+ *
+ * <pre>
+ * Başlık (8 bayt, sıkıştırılmamış): "SPDX" [sürüm u16][ayrılmış u16]
+ * Gövde (Deflate/zlib) kayıtları:
+ *   kayıt başı : varint (zigzag(Δzaman ms) &lt;&lt; 2 | tür)   tür 0 örnek, 1 komut, 2 son
+ *   örnek      : varint zigzag(bitler − önceki bitler)    bitler = float'ın ham IEEE gösterimi
+ *   komut      : varint uzunluk, ASCII
+ *   son        : varint örnek sayısı, varint komut sayısı
+ * </pre>
+ *
+ * Sabit aralıklı örneklerde zaman farkı tek bayta iner; yavaş değişen sinyalde ardışık float
+ * bitlerinin farkı küçüktür. Deflate kalan tekrarları sıkıştırır. Son kaydı olmayan dosya
+ * yarım yazılmıştır. Tamsayılar little-endian'dır.
+ */
+final class DeltaExportWriter implements ExportWriter {
+
+    static final int MAGIC = 0x58445053; // "SPDX"
+    static final int VERSION = 1;
+    static final int KIND_SAMPLE = 0;
+    static final int KIND_COMMAND = 1;
+    static final int KIND_END = 2;
+
+    private final OutputStream stream;
+    private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+    private final DeflaterOutputStream deflated;
+    private final ExportStreams.Output out;
+
+    private long previousMillis;
+    private int previousBits;
+    private long samples;
+    private long commands;
+
+    DeltaExportWriter(OutputStream stream) throws IOException {
+        this.stream = stream;
+        ExportStreams.Output header = new ExportStreams.Output(stream, 8);
+        header.putInt(MAGIC);
+        header.putShort(VERSION);
+        header.putShort(0);
+        header.flushBuffer();
+        this.deflated = new DeflaterOutputStream(stream, deflater, 64 * 1024);
+        this.out = new ExportStreams.Output(deflated, 64 * 1024);
+    }
+
+    @Override
+    public void sample(long timestampMillis, float value) throws IOException {
+        putHead(timestampMillis, KIND_SAMPLE);
+        int bits = Float.floatToRawIntBits(value);
+        out.putVarLong(ExportStreams.zigzag(bits - previousBits));
+        previousBits = bits;
+        samples++;
+    }
+
+    @Override
+    public void command(long timestampMillis, String command) throws IOException {
+        putHead(timestampMillis, KIND_COMMAND);
+        out.putVarLong(command.length());
+        for (int i = 0; i < command.length(); i++) {
+            out.putByte(command.charAt(i));
+        }
+        commands++;
+    }
+
+    @Override
+    public void finish() throws IOException {
+        putHead(previousMillis, KIND_END);
+        out.putVarLong(samples);
+        out.putVarLong(commands);
+        out.flushBuffer();
+        try {
+            deflated.finish();
+        } finally {
+            deflater.end();
+        }
+        stream.flush();
+    }
+
+    @Override
+    public void abort() {
+        deflater.end();
+    }
+
+    private void putHead(long timestampMillis, int kind) throws IOException {
+        out.putVarLong(ExportStreams.zigzag(timestampMillis - previousMillis) << 2 | kind);
+        previousMillis = timestampMillis;
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.syringepumpcontroller.storage;
+
+/**
+ * Aralık sorgusunun sonucu: her zaman kovası için en küçük ve en büyük değer.
+ * Boş kovalar atlanır. Diziler yeniden kullanılır, gerektiğinde büyütülür.
+ */
+public class DownsampledSeries {
+
+    public int count;
+    // Kovanın başlangıç zamanı (epoch ms)
+    public long[] times = new long[0];
+    public float[] minValues = new float[0];
+    public float[] maxValues = new float[0];
+
+    void reset(int capacity) {
+        if (times.length < capacity) {
+            times = new long[capacity];
+            minValues = new float[capacity];
+            maxValues = new float[capacity];
+        }
+        count = 0;
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.syringepumpcontroller.storage;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Dışa aktarma biçimlerinin ortak bayt düzeyi yardımcıları: tamponlu little-endian yazma/okuma
+ * ve zigzag değişken uzunluklu tamsayılar (küçük mutlak değerler 1–2 bayt).
+ */
+final class ExportStreams {
+
+    private ExportStreams() {
+    }
+
+    static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    // Her çağrıda akışa yazmamak için sabit boyutlu dizi üzerinde biriktirir
+    static final class Output {
+        private final OutputStream out;
+        private final byte[] buffer;
+        private int position;
+        private long flushed;
+
+        Output(OutputStream out, int bufferSize) {
+            this.out = out;
+            this.buffer = new byte[bufferSize];
+        }
+
+        // En az bytes baytlık yer açar; bytes tampon boyutunu aşmamalı
+        void ensure(int bytes) throws IOException {
+            if (buffer.length - position < bytes) {
+                flushBuffer();
+            }
+        }
+
+        void putByte(int value) throws IOException {
+            ensure(1);
+            buffer[position++] = (byte) value;
+        }
+
+        void putVarLong(long value) throws IOException {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[position++] = (byte) value;
+        }
+
+        void putShort(int value) throws IOException {
+            ensure(2);
+            buffer[position++] = (byte) value;
+            buffer[position++] = (byte) (value >>> 8);
+        }
+
+        void putInt(int value) throws IOException {
+            ensure(4);
+            buffer[position++] = (byte) value;
+            buffer[position++] = (byte) (value >>> 8);
+            buffer[position++] = (byte) (value >>> 16);
+            buffer[position++] = (byte) (value >>> 24);
+        }
+
+        void putLong(long value) throws IOException {
+            putInt((int) value);
+            putInt((int) (value >>> 32));
+        }
+
+        void putBytes(byte[] bytes, int offset, int length) throws IOException {
+            if (length > buffer.length - position) {
+                flushBuffer();
+                out.write(bytes, offset, length);
+                flushed += length;
+                return;
+            }
+            System.arraycopy(bytes, offset, buffer, position, length);
+            position += length;
+        }
+
+        // Tampon akışa yazılır; alttaki akış flush edilmez
+        void flushBuffer() throws IOException {
+            if (position > 0) {
+                out.write(buffer, 0, position);
+                flushed += position;
+                position = 0;
+            }
+        }
+
+        // Şimdiye kadar yazılan (tamponda bekleyenler dahil) bayt sayısı
+        long getWrittenBytes() {
+            return flushed + position;
+        }
+    }
+
+    static final class Input {
+        private final InputStream in;
+        private final byte[] buffer;
+        private int position;
+        private int limit;
+
+        Input(InputStream in, int bufferSize) {
+            this.in = in;
+            this.buffer = new byte[bufferSize];
+        }
+
+        int readByte() throws IOException {
+            if (position == limit && !fill()) {
+                throw new EOFException("Beklenmeyen dosya sonu");
+            }
+            return buffer[position++] & 0xFF;
+        }
+
+        long readVarLong() throws IOException {
+            long result = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = readByte();
+                result |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return result;
+                }
+            }
+            throw new IOException("Bozuk değişken uzunluklu tamsayı");
+        }
+
+        int readShort() throws IOException {
+            return readByte() | (readByte() << 8);
+        }
+
+        int readInt() throws IOException {
+            return readByte() | (readByte() << 8) | (readByte() << 16) | (readByte() << 24);
+        }
+
+        long readLong() throws IOException {
+            return (readInt() & 0xFFFFFFFFL) | ((long) readInt() << 32);
+        }
+
+        void readFully(byte[] target, int offset, int length) throws IOException {
+            for (int i = 0; i < length; i++) {
+                target[offset + i] = (byte) readByte();
+            }
+        }
+
+        private boolean fill() throws IOException {
+            int read = in.read(buffer, 0, buffer.length);
+            if (read <= 0) {
+                return false;
+            }
+            position = 0;
+            limit = read;
+            return true;
+        }
+    }
+}
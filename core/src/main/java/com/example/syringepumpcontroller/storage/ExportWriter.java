@@ -0,0 +1,20 @@
+package com.example.syringepumpcontroller.storage;
+
+import java.io.IOException;
+
+/**
+ * Dışa aktarma biçimi yazıcısı. Kayıtlar zaman sırasıyla verilir; yazıcı yalnızca sabit boyutlu
+ * tamponlar tutar, oturumun tamamını belleğe almaz.
+ */
+interface ExportWriter {
+
+    void sample(long timestampMillis, float value) throws IOException;
+
+    void command(long timestampMillis, String command) throws IOException;
+
+    // Kalan tamponları ve biçim sonlandırıcısını yazar; alttaki akış kapatılmaz
+    void finish() throws IOException;
+
+    // Hata veya iptalde yerel kaynakları (ör. Deflater) bırakır; finish sonrasında da güvenlidir
+    void abort();
+}
@@ -0,0 +1,253 @@
+package com.example.syringepumpcontroller.storage;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Gorilla tarzı zaman serisi kodlayıcısı (Pelkonen ve ark., VLDB 2015): zamanlar farkın
+ * farkıyla, değerler bir öncekiyle XOR'lanarak bit düzeyinde yazılır. Bir blok bağımsız
+ * çözülebilir; ilk örneğin zamanı ve değeri bloğun başında tam yazılır.
+ *
+ * <pre>
+ * Zaman   : ilk örnek 64 bit; sonra D = Δ − önceki Δ
+ *           D = 0            '0'
+ *           [-63, 64]        '10'   + 7 bit
+ *           [-255, 256]      '110'  + 9 bit
+ *           [-2047, 2048]    '1110' + 12 bit
+ *           diğer            '1111' + 64 bit
+ * Değer   : ilk örnek 32 bit; sonra x = bitler XOR önceki bitler
+ *           x = 0            '0'
+ *           önceki pencerede '10' + anlamlı bitler (önceki baştaki/sondaki sıfırlarla)
+ *           yeni pencere     '11' + baştaki sıfır 5 bit + anlamlı uzunluk − 1 5 bit + anlamlı bitler
+ * </pre>
+ *
+ * Sabit aralıklı örneklerde zaman örnek başına 1 bite, değişmeyen değer 1 bite iner.
+ * Float'lar ham IEEE bitleriyle saklanır; NaN yükleri dahil birebir geri döner.
+ */
+final class GorillaCodec {
+
+    private GorillaCodec() {
+    }
+
+    /**
+     * Tek bloğu kodlar; {@link #reset()} ile yeniden kullanılır. Tampon gerektiğinde büyür,
+     * böylece blok boyutu çağıranın sorumluluğundadır.
+     */
+    static final class Encoder {
+        private byte[] buffer;
+        private int position;
+        private long accumulator;
+        private int pendingBits;
+
+        private int count;
+        private long previousMillis;
+        private long previousDelta;
+        private int previousBits;
+        private int previousLeading = -1;
+        private int previousTrailing;
+
+        Encoder(int initialCapacity) {
+            this.buffer = new byte[Math.max(16, initialCapacity)];
+        }
+
+        void reset() {
+            position = 0;
+            accumulator = 0;
+            pendingBits = 0;
+            count = 0;
+            previousDelta = 0;
+            previousLeading = -1;
+        }
+
+        int count() {
+            return count;
+        }
+
+        void append(long timestampMillis, float value) {
+            int bits = Float.floatToRawIntBits(value);
+            if (count == 0) {
+                writeLong(timestampMillis);
+                write(bits, 32);
+            } else {
+                long delta = timestampMillis - previousMillis;
+                writeDeltaOfDelta(delta - previousDelta);
+                previousDelta = delta;
+                writeXor(bits ^ previousBits);
+            }
+            previousMillis = timestampMillis;
+            previousBits = bits;
+            count++;
+        }
+
+        private void writeDeltaOfDelta(long dod) {
+            if (dod == 0) {
+                write(0, 1);
+            } else if (dod >= -63 && dod <= 64) {
+                write(0b10, 2);
+                write((int) (dod + 63), 7);
+            } else if (dod >= -255 && dod <= 256) {
+                write(0b110, 3);
+                write((int) (dod + 255), 9);
+            } else if (dod >= -2047 && dod <= 2048) {
+                write(0b1110, 4);
+                write((int) (dod + 2047), 12);
+            } else {
+                write(0b1111, 4);
+                writeLong(dod);
+            }
+        }
+
+        private void writeXor(int xor) {
+            if (xor == 0) {
+                write(0, 1);
+                return;
+            }
+            int leading = Integer.numberOfLeadingZeros(xor);
+            int trailing = Integer.numberOfTrailingZeros(xor);
+            if (previousLeading >= 0 && leading >= previousLeading && trailing >= previousTrailing) {
+                write(0b10, 2);
+                write(xor >>> previousTrailing, 32 - previousLeading - previousTrailing);
+            } else {
+                int significant = 32 - leading - trailing;
+                write(0b11, 2);
+                write(leading, 5);
+                write(significant - 1, 5);
+                write(xor >>> trailing, significant);
+                previousLeading = leading;
+                previousTrailing = trailing;
+            }
+        }
+
+        private void writeLong(long value) {
+            write((int) (value >>> 32), 32);
+            write((int) value, 32);
+        }
+
+        // value'nun düşük n biti (1..32), en anlamlı bit önce
+        private void write(int value, int n) {
+            accumulator = (accumulator << n) | (value & (0xFFFFFFFFL >>> (32 - n)));
+            pendingBits += n;
+            if (buffer.length - position < 8) {
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            }
+            while (pendingBits >= 8) {
+                pendingBits -= 8;
+                buffer[position++] = (byte) (accumulator >>> pendingBits);
+            }
+        }
+
+        /**
+         * Kalan bitleri bayta tamamlar ve blok uzunluğunu döndürür. Sonrasında yalnızca
+         * {@link #buffer()} okunabilir veya {@link #reset()} çağrılabilir.
+         */
+        int finish() {
+            if (pendingBits > 0) {
+                buffer[position++] = (byte) (accumulator << (8 - pendingBits));
+                pendingBits = 0;
+            }
+            return position;
+        }
+
+        byte[] buffer() {
+            return buffer;
+        }
+    }
+
+    /**
+     * data[offset, offset + length) aralığındaki bloğun count örneğini çözer.
+     *
+     * @throws IOException blok verilen uzunluktan önce bitiyorsa veya bozuksa
+     */
+    static void decode(byte[] data, int offset, int length, int count,
+                       long[] times, float[] values) throws IOException {
+        if (count == 0) {
+            return;
+        }
+        BitInput in = new BitInput(data, offset, length);
+        long millis = in.readLong();
+        int bits = in.read(32);
+        times[0] = millis;
+        values[0] = Float.intBitsToFloat(bits);
+        long delta = 0;
+        int leading = -1;
+        int trailing = 0;
+        for (int i = 1; i < count; i++) {
+            // Zaman: önekteki ardışık 1'ler kovayı seçer
+            if (in.readBit() != 0) {
+                long dod;
+                if (in.readBit() == 0) {
+                    dod = in.read(7) - 63;
+                } else if (in.readBit() == 0) {
+                    dod = in.read(9) - 255;
+                } else if (in.readBit() == 0) {
+                    dod = in.read(12) - 2047;
+                } else {
+                    dod = in.readLong();
+                }
+                delta += dod;
+            }
+            millis += delta;
+            times[i] = millis;
+
+            if (in.readBit() != 0) {
+                if (in.readBit() != 0) {
+                    leading = in.read(5);
+                    int significant = in.read(5) + 1;
+                    trailing = 32 - leading - significant;
+                    if (trailing < 0) {
+                        throw new IOException("Bozuk Gorilla bloğu");
+                    }
+                } else if (leading < 0) {
+                    throw new IOException("Bozuk Gorilla bloğu");
+                }
+                bits ^= in.read(32 - leading - trailing) << trailing;
+            }
+            values[i] = Float.intBitsToFloat(bits);
+        }
+    }
+
+    private static final class BitInput {
+        private final byte[] data;
+        private int position;
+        private final int limit;
+        private long accumulator;
+        private int available;
+
+        BitInput(byte[] data, int offset, int length) {
+            this.data = data;
+            this.position = offset;
+            this.limit = offset + length;
+        }
+
+        int readBit() throws IOException {
+            if (available == 0) {
+                refill();
+            }
+            available--;
+            return (int) (accumulator >>> available) & 1;
+        }
+
+        // n bit (1..32), en anlamlı bit önce
+        int read(int n) throws IOException {
+            while (available < n) {
+                refill();
+            }
+            available -= n;
+            return (int) ((accumulator >>> available) & (0xFFFFFFFFL >>> (32 - n)));
+        }
+
+        long readLong() throws IOException {
+            long high = read(32) & 0xFFFFFFFFL;
+            return high << 32 | (read(32) & 0xFFFFFFFFL);
+        }
+
+        private void refill() throws IOException {
+            if (position >= limit) {
+                throw new EOFException("Gorilla bloğu beklenenden kısa");
+            }
+            accumulator = (accumulator << 8) | (data[position++] & 0xFF);
+            available += 8;
+        }
+    }
+}
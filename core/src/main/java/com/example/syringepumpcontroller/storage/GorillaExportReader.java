@@ -0,0 +1,208 @@
+package com.example.syringepumpcontroller.storage;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+/**
+ * {@link GorillaExportWriter} biçimindeki dosyayı okur. Blok dizini açılışta bir kez okunur;
+ * aralık sorgusu ilk bloğu ikili aramayla bulur ve yalnızca aralıkla kesişen blokları çözer.
+ * İş parçacığı güvenli değildir.
+ */
+public final class GorillaExportReader implements Closeable {
+
+    private final RandomAccessFile file;
+    private long[] offsets;
+    private long[] firstMillis;
+    private long[] lastMillis;
+    private int[] sampleCounts;
+    private int[] commandCounts;
+    private int[] sampleBytes;
+    private int[] commandBytes;
+    private long sampleCount;
+    private long commandCount;
+
+    // Bir bloğun çözülmüş örnekleri; yeniden kullanılır
+    private final long[] times = new long[GorillaExportWriter.BLOCK_SAMPLES];
+    private final float[] values = new float[GorillaExportWriter.BLOCK_SAMPLES];
+    private byte[] block = new byte[16 * 1024];
+
+    public GorillaExportReader(File path) throws IOException {
+        this.file = new RandomAccessFile(path, "r");
+        try {
+            readFooter();
+        } catch (IOException e) {
+            close();
+            throw e;
+        }
+    }
+
+    private void readFooter() throws IOException {
+        long length = file.length();
+        if (length < GorillaExportWriter.HEADER_SIZE + 4 + GorillaExportWriter.TRAILER_SIZE) {
+            throw new IOException("Gorilla dışa aktarma dosyası değil");
+        }
+        ExportStreams.Input header = input(0, GorillaExportWriter.HEADER_SIZE);
+        if (header.readInt() != GorillaExportWriter.MAGIC || header.readShort() != GorillaExportWriter.VERSION) {
+            throw new IOException("Gorilla dışa aktarma dosyası değil");
+        }
+        ExportStreams.Input trailer = input(length - GorillaExportWriter.TRAILER_SIZE, GorillaExportWriter.TRAILER_SIZE);
+        int footerLength = trailer.readInt();
+        if (trailer.readInt() != GorillaExportWriter.MAGIC) {
+            throw new IOException("Altbilgi eksik; dosya yarım yazılmış");
+        }
+        long footerStart = length - GorillaExportWriter.TRAILER_SIZE - footerLength;
+        if (footerLength < 4 || footerStart < GorillaExportWriter.HEADER_SIZE) {
+            throw new IOException("Bozuk altbilgi");
+        }
+        ExportStreams.Input footer = input(footerStart, footerLength);
+        int count = footer.readInt();
+        if (footerLength != 4 + (long) count * GorillaExportWriter.BLOCK_FOOTER_SIZE) {
+            throw new IOException("Bozuk altbilgi");
+        }
+        offsets = new long[count];
+        firstMillis = new long[count];
+        lastMillis = new long[count];
+        sampleCounts = new int[count];
+        commandCounts = new int[count];
+        sampleBytes = new int[count];
+        commandBytes = new int[count];
+        for (int i = 0; i < count; i++) {
+            offsets[i] = footer.readLong();
+            firstMillis[i] = footer.readLong();
+            lastMillis[i] = footer.readLong();
+            sampleCounts[i] = footer.readInt();
+            commandCounts[i] = footer.readInt();
+            sampleBytes[i] = footer.readInt();
+            commandBytes[i] = footer.readInt();
+            if (sampleCounts[i] < 0 || sampleCounts[i] > GorillaExportWriter.BLOCK_SAMPLES
+                    || sampleBytes[i] < 0 || commandBytes[i] < 0
+                    || offsets[i] + sampleBytes[i] + commandBytes[i] > footerStart) {
+                throw new IOException("Bozuk blok dizini");
+            }
+            sampleCount += sampleCounts[i];
+            commandCount += commandCounts[i];
+        }
+    }
+
+    public int getBlockCount() {
+        return offsets.length;
+    }
+
+    public long getSampleCount() {
+        return sampleCount;
+    }
+
+    public long getCommandCount() {
+        return commandCount;
+    }
+
+    /**
+     * [fromMillis, toMillis] aralığındaki kayıtları yazıldıkları sırayla ziyaret eder.
+     *
+     * @return ziyaret edilen kayıt sayısı
+     */
+    public long read(long fromMillis, long toMillis, SegmentReader.Visitor visitor) throws IOException {
+        // Son zamanı fromMillis'ten küçük olmayan ilk blok
+        int low = 0;
+        int high = offsets.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (lastMillis[mid] < fromMillis) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        long visited = 0;
+        for (int i = low; i < offsets.length && firstMillis[i] <= toMillis; i++) {
+            visited += readBlock(i, fromMillis, toMillis, visitor);
+        }
+        return visited;
+    }
+
+    private long readBlock(int index, long fromMillis, long toMillis,
+                           SegmentReader.Visitor visitor) throws IOException {
+        int length = sampleBytes[index] + commandBytes[index];
+        if (block.length < length) {
+            block = new byte[length];
+        }
+        file.seek(offsets[index]);
+        file.readFully(block, 0, length);
+        int n = sampleCounts[index];
+        GorillaCodec.decode(block, 0, sampleBytes[index], n, times, values);
+
+        long visited = 0;
+        int sample = 0;
+        int[] cursor = {sampleBytes[index]};
+        for (int c = 0; c < commandCounts[index]; c++) {
+            int before = sample + (int) readVarLong(block, cursor, length);
+            long commandMillis = firstMillis[index] + ExportStreams.unzigzag(readVarLong(block, cursor, length));
+            int textLength = (int) readVarLong(block, cursor, length);
+            if (before > n || cursor[0] + textLength > length) {
+                throw new IOException("Bozuk komut bloğu");
+            }
+            for (; sample < before; sample++) {
+                if (times[sample] > toMillis) {
+                    return visited;
+                }
+                if (times[sample] >= fromMillis) {
+                    visitor.onSample(times[sample], values[sample]);
+                    visited++;
+                }
+            }
+            if (commandMillis > toMillis) {
+                return visited;
+            }
+            if (commandMillis >= fromMillis) {
+                char[] chars = new char[textLength];
+                for (int k = 0; k < textLength; k++) {
+                    chars[k] = (char) (block[cursor[0] + k] & 0xFF);
+                }
+                visitor.onCommand(commandMillis, new String(chars));
+                visited++;
+            }
+            cursor[0] += textLength;
+        }
+        for (; sample < n; sample++) {
+            if (times[sample] > toMillis) {
+                return visited;
+            }
+            if (times[sample] >= fromMillis) {
+                visitor.onSample(times[sample], values[sample]);
+                visited++;
+            }
+        }
+        return visited;
+    }
+
+    private static long readVarLong(byte[] source, int[] cursor, int limit) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            if (cursor[0] >= limit) {
+                throw new EOFException("Bozuk komut bloğu");
+            }
+            int b = source[cursor[0]++];
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Bozuk değişken uzunluklu tamsayı");
+    }
+
+    private ExportStreams.Input input(long position, int length) throws IOException {
+        byte[] bytes = new byte[length];
+        file.seek(position);
+        file.readFully(bytes);
+        return new ExportStreams.Input(new ByteArrayInputStream(bytes), Math.max(1, length));
+    }
+
+    @Override
+    public void close() throws IOException {
+        file.close();
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.syringepumpcontroller.storage;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Gorilla kodlu, bloklara bölünmüş dışa aktarma biçimi. Her blok {@link GorillaCodec} ile
+ * bağımsız kodlanır; altbilgideki blok dizini zamana göre atlama noktası olarak kullanılır,
+ * böylece okuyucu yalnızca istenen aralıktaki blokları çözer.
+ *
+ * <pre>
+ * "SPGR" [sürüm u16][ayrılmış u16]
+ * Blok  : [Gorilla örnek bitleri][komutlar]
+ *   komut : [varint öncesindeki örnek sayısı farkı][varint zigzag(zaman − blok ilk zamanı)]
+ *           [varint uzunluk][ASCII]
+ * Altbilgi: [blok sayısı u32]
+ *           blok başına [konum i64][ilk ms i64][son ms i64][örnek u32][komut u32]
+ *                       [örnek bayt u32][komut bayt u32]
+ *           [altbilgi uzunluğu u32] "SPGR"
+ * </pre>
+ *
+ * Komutlar örnekler arasındaki konumlarıyla saklandığından özgün kayıt sırası birebir korunur.
+ * Bellek kullanımı bir blokla sınırlıdır.
+ */
+final class GorillaExportWriter implements ExportWriter {
+
+    static final int MAGIC = 0x52475053; // "SPGR"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 8;
+    static final int BLOCK_FOOTER_SIZE = 8 + 8 + 8 + 4 + 4 + 4 + 4;
+    static final int TRAILER_SIZE = 8;
+
+    // Atlama ayrıntısı ile blok başı (ilk zaman ve değer, 12 bayt) yükü arasındaki denge
+    static final int BLOCK_SAMPLES = 1024;
+    static final int BLOCK_COMMANDS = 256;
+
+    static final class Block {
+        long offset;
+        long firstMillis;
+        long lastMillis;
+        int samples;
+        int commands;
+        int sampleBytes;
+        int commandBytes;
+    }
+
+    private final ExportStreams.Output out;
+    private final List<Block> blocks = new ArrayList<>();
+    private final GorillaCodec.Encoder encoder =
+            new GorillaCodec.Encoder(BLOCK_SAMPLES * 8);
+
+    // Açık blok
+    private byte[] commandBuffer = new byte[4 * 1024];
+    private int commandLength;
+    private int commandCount;
+    private int samplesAtLastCommand;
+    private long firstMillis;
+    private long lastMillis;
+
+    GorillaExportWriter(OutputStream stream) throws IOException {
+        this.out = new ExportStreams.Output(stream, 64 * 1024);
+        out.putInt(MAGIC);
+        out.putShort(VERSION);
+        out.putShort(0);
+    }
+
+    @Override
+    public void sample(long timestampMillis, float value) throws IOException {
+        opened(timestampMillis);
+        encoder.append(timestampMillis, value);
+        if (encoder.count() == BLOCK_SAMPLES) {
+            flushBlock();
+        }
+    }
+
+    @Override
+    public void command(long timestampMillis, String command) throws IOException {
+        opened(timestampMillis);
+        int samples = encoder.count();
+        if (commandBuffer.length - commandLength < 30 + command.length()) {
+            commandBuffer = Arrays.copyOf(commandBuffer, Math.max(commandBuffer.length * 2,
+                    commandLength + 30 + command.length()));
+        }
+        commandLength = putVarLong(commandBuffer, commandLength, samples - samplesAtLastCommand);
+        commandLength = putVarLong(commandBuffer, commandLength, ExportStreams.zigzag(timestampMillis - firstMillis));
+        commandLength = putVarLong(commandBuffer, commandLength, command.length());
+        for (int i = 0; i < command.length(); i++) {
+            commandBuffer[commandLength++] = (byte) command.charAt(i);
+        }
+        samplesAtLastCommand = samples;
+        if (++commandCount == BLOCK_COMMANDS) {
+            flushBlock();
+        }
+    }
+
+    @Override
+    public void finish() throws IOException {
+        flushBlock();
+        long footerStart = out.getWrittenBytes();
+        out.putInt(blocks.size());
+        for (Block block : blocks) {
+            out.putLong(block.offset);
+            out.putLong(block.firstMillis);
+            out.putLong(block.lastMillis);
+            out.putInt(block.samples);
+            out.putInt(block.commands);
+            out.putInt(block.sampleBytes);
+            out.putInt(block.commandBytes);
+        }
+        out.putInt((int) (out.getWrittenBytes() - footerStart));
+        out.putInt(MAGIC);
+        out.flushBuffer();
+    }
+
+    @Override
+    public void abort() {
+        // Yerel kaynak yok
+    }
+
+    private void opened(long timestampMillis) {
+        if (encoder.count() == 0 && commandCount == 0) {
+            firstMillis = timestampMillis;
+        }
+        lastMillis = timestampMillis;
+    }
+
+    private void flushBlock() throws IOException {
+        if (encoder.count() == 0 && commandCount == 0) {
+            return;
+        }
+        Block block = new Block();
+        block.offset = out.getWrittenBytes();
+        block.firstMillis = firstMillis;
+        block.lastMillis = lastMillis;
+        block.samples = encoder.count();
+        block.commands = commandCount;
+        block.sampleBytes = block.samples > 0 ? encoder.finish() : 0;
+        block.commandBytes = commandLength;
+        out.putBytes(encoder.buffer(), 0, block.sampleBytes);
+        out.putBytes(commandBuffer, 0, commandLength);
+        blocks.add(block);
+
+        encoder.reset();
+        commandLength = 0;
+        commandCount = 0;
+        samplesAtLastCommand = 0;
+    }
+
+    private static int putVarLong(byte[] target, int position, long value) {
+        while ((value & ~0x7FL) != 0) {
+            target[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        target[position++] = (byte) value;
+        return position;
+    }
+}
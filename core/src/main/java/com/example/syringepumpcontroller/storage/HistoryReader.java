@@ -0,0 +1,219 @@
+package com.example.syringepumpcontroller.storage;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Kayıtlı ölçüm segmentleri üzerinde aralık sorguları.
+ *
+ * Segmentler belleğe eşlenir (mmap) ve her biri için {@link SummaryPyramid} kullanılır.
+ * "[a, b] aralığını N kovada göster" sorgusu, aralıkta en az N kovası olan en kaba seviyeden
+ * cevaplanır; bu yüzden maliyet toplam örnek sayısına değil gösterilen nokta sayısına bağlıdır.
+ * Aralık çok darsa seviye 0 kovalarının dosya konumlarından ham örneklere inilir.
+ *
+ * Okuyucu açıldığı andaki segment listesinin anlık görüntüsüdür; iş parçacığı güvenli değildir.
+ */
+public class HistoryReader {
+
+    private static class Segment {
+        final SegmentIndex index;
+        final MappedByteBuffer data;
+        final SummaryPyramid pyramid;
+
+        Segment(SegmentIndex index, MappedByteBuffer data, SummaryPyramid pyramid) {
+            this.index = index;
+            this.data = data;
+            this.pyramid = pyramid;
+        }
+    }
+
+    private final List<Segment> segments = new ArrayList<>();
+    private long sampleCount;
+
+    /**
+     * Segmentleri eşler ve özetleri yükler. Kapatılmış segmentlerin eksik özetleri bir kez
+     * oluşturulup diske yazılır. Uzun sürebilir; UI iş parçacığından çağrılmamalıdır.
+     */
+    public HistoryReader(List<SegmentIndex> indexes) throws IOException {
+        for (SegmentIndex index : indexes) {
+            if (index.getSampleCount() == 0) {
+                continue;
+            }
+            MappedByteBuffer data;
+            try (RandomAccessFile raf = new RandomAccessFile(index.getSegmentFile(), "r");
+                 FileChannel channel = raf.getChannel()) {
+                data = channel.map(FileChannel.MapMode.READ_ONLY, 0, index.getDataLength());
+            }
+            data.order(ByteOrder.LITTLE_ENDIAN);
+
+            SummaryPyramid pyramid = null;
+            File summaryFile = summaryFile(index);
+            if (index.isSealed()) {
+                pyramid = SummaryPyramid.readFrom(summaryFile, index.getDataLength());
+            }
+            if (pyramid == null) {
+                pyramid = SummaryPyramid.build(data, index.getDataLength());
+                if (index.isSealed()) {
+                    pyramid.writeTo(summaryFile);
+                }
+            }
+            segments.add(new Segment(index, data, pyramid));
+            sampleCount += index.getSampleCount();
+        }
+    }
+
+    public long getSampleCount() {
+        return sampleCount;
+    }
+
+    public long getFirstMillis() {
+        return segments.isEmpty() ? Long.MIN_VALUE : segments.get(0).index.getFirstMillis();
+    }
+
+    public long getLastMillis() {
+        return segments.isEmpty() ? Long.MIN_VALUE : segments.get(segments.size() - 1).index.getLastMillis();
+    }
+
+    /**
+     * [fromMillis, toMillis] aralığını en fazla bucketCount kovada min/max olarak özetler.
+     */
+    public void query(long fromMillis, long toMillis, int bucketCount, DownsampledSeries out) {
+        if (bucketCount < 1 || toMillis < fromMillis) {
+            throw new IllegalArgumentException("Geçersiz sorgu aralığı");
+        }
+        out.reset(bucketCount);
+        long[] times = out.times;
+        float[] mins = out.minValues;
+        float[] maxs = out.maxValues;
+        for (int i = 0; i < bucketCount; i++) {
+            mins[i] = Float.NaN;
+        }
+        double bucketWidth = (toMillis - fromMillis + 1) / (double) bucketCount;
+
+        int level = chooseLevel(fromMillis, toMillis, bucketCount);
+        for (Segment segment : segments) {
+            SegmentIndex index = segment.index;
+            if (index.getLastMillis() < fromMillis || index.getFirstMillis() > toMillis) {
+                continue;
+            }
+            if (level >= 0) {
+                accumulateLevel(segment.pyramid, level, fromMillis, toMillis, bucketWidth, bucketCount, mins, maxs);
+            } else {
+                accumulateRaw(segment, fromMillis, toMillis, bucketWidth, bucketCount, mins, maxs);
+            }
+        }
+
+        // Boş kovaları atarak sıkıştır
+        int count = 0;
+        for (int i = 0; i < bucketCount; i++) {
+            if (!Float.isNaN(mins[i])) {
+                times[count] = fromMillis + (long) (i * bucketWidth);
+                mins[count] = mins[i];
+                maxs[count] = maxs[i];
+                count++;
+            }
+        }
+        out.count = count;
+    }
+
+    // Aralıkta en az bucketCount kovası olan en kaba seviye; seviye 0 bile yetmezse -1 (ham veri)
+    private int chooseLevel(long fromMillis, long toMillis, int bucketCount) {
+        int maxLevels = 0;
+        for (Segment segment : segments) {
+            maxLevels = Math.max(maxLevels, segment.pyramid.levels());
+        }
+        for (int level = maxLevels - 1; level >= 0; level--) {
+            long total = 0;
+            for (Segment segment : segments) {
+                SummaryPyramid pyramid = segment.pyramid;
+                if (level >= pyramid.levels() || pyramid.bucketCount(level) == 0) {
+                    continue;
+                }
+                int first = Math.max(0, pyramid.floorBucket(level, fromMillis));
+                int last = pyramid.floorBucket(level, toMillis);
+                if (last >= first) {
+                    total += last - first + 1;
+                }
+            }
+            if (total >= bucketCount) {
+                return level;
+            }
+        }
+        return -1;
+    }
+
+    private static void accumulateLevel(SummaryPyramid pyramid, int level, long fromMillis, long toMillis,
+                                        double bucketWidth, int bucketCount, float[] mins, float[] maxs) {
+        if (level >= pyramid.levels()) {
+            return;
+        }
+        long[] starts = pyramid.firstMillis[level];
+        float[] levelMin = pyramid.minValues[level];
+        float[] levelMax = pyramid.maxValues[level];
+        int first = Math.max(0, pyramid.floorBucket(level, fromMillis));
+        for (int i = first; i < starts.length && starts[i] <= toMillis; i++) {
+            int bucket = bucketOf(starts[i], fromMillis, bucketWidth, bucketCount);
+            merge(bucket, levelMin[i], levelMax[i], mins, maxs);
+        }
+    }
+
+    private static void accumulateRaw(Segment segment, long fromMillis, long toMillis,
+                                      double bucketWidth, int bucketCount, float[] mins, float[] maxs) {
+        SummaryPyramid pyramid = segment.pyramid;
+        if (pyramid.bucketCount(0) == 0) {
+            return;
+        }
+        MappedByteBuffer data = segment.data;
+        int limit = (int) segment.index.getDataLength();
+        int startBucket = Math.max(0, pyramid.floorBucket(0, fromMillis));
+        int position = (int) pyramid.offsets[startBucket];
+        while (true) {
+            int length = LogFormat.validateRecord(data, position, limit);
+            if (length < 0) {
+                return;
+            }
+            long timestamp = LogFormat.recordTimestamp(data, position);
+            if (timestamp > toMillis) {
+                return;
+            }
+            if (timestamp >= fromMillis && LogFormat.recordType(data, position) == LogFormat.TYPE_SAMPLE) {
+                float value = LogFormat.sampleValue(data, position);
+                merge(bucketOf(timestamp, fromMillis, bucketWidth, bucketCount), value, value, mins, maxs);
+            }
+            position += length;
+        }
+    }
+
+    private static int bucketOf(long timestamp, long fromMillis, double bucketWidth, int bucketCount) {
+        if (timestamp <= fromMillis) {
+            return 0;
+        }
+        return (int) Math.min(bucketCount - 1, (long) ((timestamp - fromMillis) / bucketWidth));
+    }
+
+    private static void merge(int bucket, float min, float max, float[] mins, float[] maxs) {
+        if (Float.isNaN(mins[bucket])) {
+            mins[bucket] = min;
+            maxs[bucket] = max;
+        } else {
+            if (min < mins[bucket]) {
+                mins[bucket] = min;
+            }
+            if (max > maxs[bucket]) {
+                maxs[bucket] = max;
+            }
+        }
+    }
+
+    private static File summaryFile(SegmentIndex index) {
+        String name = index.getSegmentFile().getName();
+        String base = name.substring(0, name.length() - LogFormat.SEGMENT_SUFFIX.length());
+        return new File(index.getSegmentFile().getParentFile(), base + SummaryPyramid.SUFFIX);
+    }
+}
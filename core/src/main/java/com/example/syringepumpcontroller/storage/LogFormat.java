@@ -0,0 +1,132 @@
+package com.example.syringepumpcontroller.storage;
+
+import com.example.syringepumpcontroller.protocol.Crc16;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Ölçüm günlüğü segment dosyası biçimi.
+ *
+ * <pre>
+ * Başlık (16 bayt): "SPLG" [sürüm u16][ayrılmış u16][oluşturma zamanı ms i64]
+ * Kayıt: [tip u8][uzunluk u8][yük ...][CRC16 u16]
+ *   Örnek yükü : [zaman ms i64][değer f32]
+ *   Komut yükü : [zaman ms i64][ASCII komut]
+ * </pre>
+ *
+ * Tüm alanlar little-endian'dır. CRC tip, uzunluk ve yük üzerinden hesaplanır; yarım
+ * yazılmış kuyruk kayıtları açılışta bu sayede ayıklanır.
+ */
+final class LogFormat {
+
+    static final int MAGIC = 0x474C5053; // "SPLG"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 16;
+
+    static final int TYPE_SAMPLE = 1;
+    static final int TYPE_COMMAND = 2;
+
+    static final int RECORD_OVERHEAD = 4;
+    static final int SAMPLE_PAYLOAD = 12;
+    static final int SAMPLE_RECORD_SIZE = RECORD_OVERHEAD + SAMPLE_PAYLOAD;
+    static final int MAX_COMMAND_LENGTH = 64;
+    static final int MAX_RECORD_SIZE = RECORD_OVERHEAD + 8 + MAX_COMMAND_LENGTH;
+
+    static final String SEGMENT_SUFFIX = ".seg";
+    static final String INDEX_SUFFIX = ".idx";
+
+    private LogFormat() {
+    }
+
+    static void writeHeader(ByteBuffer out, long createdMillis) {
+        out.putInt(MAGIC);
+        out.putShort((short) VERSION);
+        out.putShort((short) 0);
+        out.putLong(createdMillis);
+    }
+
+    static boolean isValidHeader(ByteBuffer in) {
+        return in.remaining() >= HEADER_SIZE
+                && in.getInt(in.position()) == MAGIC
+                && in.getShort(in.position() + 4) == VERSION;
+    }
+
+    static void putSample(ByteBuffer out, long timestampMillis, float value) {
+        int start = out.position();
+        out.put((byte) TYPE_SAMPLE);
+        out.put((byte) SAMPLE_PAYLOAD);
+        out.putLong(timestampMillis);
+        out.putFloat(value);
+        out.putShort((short) crc(out, start, RECORD_OVERHEAD - 2 + SAMPLE_PAYLOAD));
+    }
+
+    static void putCommand(ByteBuffer out, long timestampMillis, CharSequence command) {
+        int length = Math.min(command.length(), MAX_COMMAND_LENGTH);
+        int start = out.position();
+        out.put((byte) TYPE_COMMAND);
+        out.put((byte) (8 + length));
+        out.putLong(timestampMillis);
+        for (int i = 0; i < length; i++) {
+            out.put((byte) command.charAt(i));
+        }
+        out.putShort((short) crc(out, start, 2 + 8 + length));
+    }
+
+    static int commandRecordSize(CharSequence command) {
+        return RECORD_OVERHEAD + 8 + Math.min(command.length(), MAX_COMMAND_LENGTH);
+    }
+
+    /**
+     * position'daki kaydı doğrular ve kaydın toplam uzunluğunu döndürür. Kayıt eksik veya
+     * bozuksa -1 döner. Buffer konumu değişmez.
+     */
+    static int validateRecord(ByteBuffer in, int position, int limit) {
+        if (limit - position < RECORD_OVERHEAD) {
+            return -1;
+        }
+        int type = in.get(position) & 0xFF;
+        int length = in.get(position + 1) & 0xFF;
+        if ((type != TYPE_SAMPLE && type != TYPE_COMMAND) || length < 8
+                || (type == TYPE_SAMPLE && length != SAMPLE_PAYLOAD)) {
+            return -1;
+        }
+        int total = RECORD_OVERHEAD + length;
+        if (limit - position < total) {
+            return -1;
+        }
+        int stored = in.getShort(position + 2 + length) & 0xFFFF;
+        if (crc(in, position, 2 + length) != stored) {
+            return -1;
+        }
+        return total;
+    }
+
+    static int recordType(ByteBuffer in, int position) {
+        return in.get(position) & 0xFF;
+    }
+
+    static long recordTimestamp(ByteBuffer in, int position) {
+        return in.getLong(position + 2);
+    }
+
+    static float sampleValue(ByteBuffer in, int position) {
+        return in.getFloat(position + 10);
+    }
+
+    static String commandText(ByteBuffer in, int position) {
+        int length = (in.get(position + 1) & 0xFF) - 8;
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = (char) (in.get(position + 10 + i) & 0xFF);
+        }
+        return new String(chars);
+    }
+
+    private static int crc(ByteBuffer buffer, int start, int length) {
+        int crc = Crc16.INITIAL;
+        for (int i = start; i < start + length; i++) {
+            crc = Crc16.update(crc, buffer.get(i));
+        }
+        return crc;
+    }
+}
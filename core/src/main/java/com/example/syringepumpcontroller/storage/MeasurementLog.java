@@ -0,0 +1,469 @@
+package com.example.syringepumpcontroller.storage;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Sensör örneklerinin ve pompa komutlarının kalıcı, yalnızca eklemeli günlüğü.
+ *
+ * Kayıtlar önce bellek tamponuna yazılır; arka plandaki yazıcı iş parçacığı tamponları
+ * FileChannel ile diske aktarır ve fsync'i belirli aralıklarla toplu yapar. Segmentler boyut
+ * veya yaşa göre kapatılır ve her kapatılan segment için bir özet indeks dosyası yazılır.
+ *
+ * Açılışta son segment taranır: süreç öldürüldüğü için yarım kalan kuyruk kayıtları kesilir
+ * ve ekleme aynı segmentten devam eder. Ekleme metotları engellemez; tampon doluysa kayıt
+ * atılır ve {@link #getDroppedRecords()} artar.
+ */
+public class MeasurementLog implements Closeable {
+
+    public static final long DEFAULT_MAX_SEGMENT_BYTES = 4L * 1024 * 1024;
+    public static final long DEFAULT_MAX_SEGMENT_MILLIS = 60L * 60 * 1000;
+    public static final long DEFAULT_FLUSH_INTERVAL_MILLIS = 250;
+    public static final long DEFAULT_FSYNC_INTERVAL_MILLIS = 2000;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final File directory;
+    private final long maxSegmentBytes;
+    private final long maxSegmentMillis;
+    private final long flushIntervalMillis;
+    private final long fsyncIntervalMillis;
+
+    // Üretici tarafı (lock ile korunur)
+    private final Object lock = new Object();
+    private ByteBuffer active = ByteBuffer.allocate(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+    private ByteBuffer spare = ByteBuffer.allocate(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+    private long lastAppendMillis = Long.MIN_VALUE;
+    private long droppedRecords;
+    private long syncRequested;
+    private long syncCompleted;
+    private boolean closed;
+    private boolean writerFinished;
+    private Thread writerThread;
+    private volatile IOException failure;
+
+    // Segment listesi (indexLock ile korunur)
+    private final Object indexLock = new Object();
+    private final List<SegmentIndex> sealedSegments = new ArrayList<>();
+    private SegmentIndex current;
+
+    // Yazıcı iş parçacığı durumu
+    private FileChannel channel;
+    private long nextSegmentId;
+    private long lastFsyncNanos;
+    private long recoveredTruncatedBytes;
+
+    public MeasurementLog(File directory) {
+        this(directory, DEFAULT_MAX_SEGMENT_BYTES, DEFAULT_MAX_SEGMENT_MILLIS,
+                DEFAULT_FLUSH_INTERVAL_MILLIS, DEFAULT_FSYNC_INTERVAL_MILLIS);
+    }
+
+    public MeasurementLog(File directory, long maxSegmentBytes, long maxSegmentMillis,
+                          long flushIntervalMillis, long fsyncIntervalMillis) {
+        this.directory = directory;
+        this.maxSegmentBytes = maxSegmentBytes;
+        this.maxSegmentMillis = maxSegmentMillis;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.fsyncIntervalMillis = fsyncIntervalMillis;
+    }
+
+    /**
+     * Yazıcı iş parçacığını başlatır. Kurtarma (son segmentin taranması) bu iş parçacığında
+     * yapılır, çağıran bloklanmaz. Bu arada eklenen kayıtlar tamponda bekler.
+     */
+    public void open() {
+        synchronized (lock) {
+            if (writerThread != null) {
+                throw new IllegalStateException("Günlük zaten açık");
+            }
+            writerThread = new Thread(this::runWriter, "MeasurementLogWriter");
+            writerThread.setDaemon(true);
+            writerThread.start();
+        }
+    }
+
+    public void appendSample(long timestampMillis, float value) {
+        synchronized (lock) {
+            if (closed || active.remaining() < LogFormat.SAMPLE_RECORD_SIZE) {
+                droppedRecords++;
+                return;
+            }
+            LogFormat.putSample(active, monotonic(timestampMillis), value);
+            wakeWriterIfHalfFull(LogFormat.SAMPLE_RECORD_SIZE);
+        }
+    }
+
+    public void appendCommand(long timestampMillis, CharSequence command) {
+        int size = LogFormat.commandRecordSize(command);
+        synchronized (lock) {
+            if (closed || active.remaining() < size) {
+                droppedRecords++;
+                return;
+            }
+            LogFormat.putCommand(active, monotonic(timestampMillis), command);
+            wakeWriterIfHalfFull(size);
+        }
+    }
+
+    /**
+     * Tampondaki tüm kayıtların diske yazılmasını ve fsync yapılmasını bekler.
+     */
+    public void sync() throws IOException, InterruptedException {
+        synchronized (lock) {
+            long target = ++syncRequested;
+            lock.notifyAll();
+            while (syncCompleted < target && !writerFinished) {
+                lock.wait();
+            }
+        }
+        IOException error = failure;
+        if (error != null) {
+            throw error;
+        }
+    }
+
+    /**
+     * Bekleyen kayıtları yazar, açık segmenti kapatır ve yazıcıyı durdurur.
+     */
+    @Override
+    public void close() throws IOException {
+        Thread thread;
+        synchronized (lock) {
+            closed = true;
+            lock.notifyAll();
+            thread = writerThread;
+        }
+        if (thread != null) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        IOException error = failure;
+        if (error != null) {
+            throw error;
+        }
+    }
+
+    /**
+     * Tüm segmentlerin özetlerini (eskiden yeniye) döndürür. Dosyalar taranmaz.
+     */
+    public List<SegmentIndex> listSegments() {
+        synchronized (indexLock) {
+            List<SegmentIndex> result = new ArrayList<>(sealedSegments.size() + 1);
+            result.addAll(sealedSegments);
+            if (current != null && !current.isEmpty()) {
+                result.add(current.copy());
+            }
+            return result;
+        }
+    }
+
+    public File getDirectory() {
+        return directory;
+    }
+
+    public long getDroppedRecords() {
+        synchronized (lock) {
+            return droppedRecords;
+        }
+    }
+
+    // Son açılışta kesilen bozuk kuyruk bayt sayısı
+    public long getRecoveredTruncatedBytes() {
+        return recoveredTruncatedBytes;
+    }
+
+    public IOException getFailure() {
+        return failure;
+    }
+
+    // Zaman damgalarının segment içinde azalmaması indeks aramasını güvenli kılar
+    private long monotonic(long timestampMillis) {
+        if (timestampMillis < lastAppendMillis) {
+            timestampMillis = lastAppendMillis;
+        }
+        lastAppendMillis = timestampMillis;
+        return timestampMillis;
+    }
+
+    private void wakeWriterIfHalfFull(int justWritten) {
+        int position = active.position();
+        if (position >= BUFFER_SIZE / 2 && position - justWritten < BUFFER_SIZE / 2) {
+            lock.notifyAll();
+        }
+    }
+
+    private void runWriter() {
+        try {
+            recover();
+            writeLoop();
+        } catch (IOException e) {
+            failure = e;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            closeChannelQuietly();
+            synchronized (lock) {
+                writerFinished = true;
+                closed = true;
+                lock.notifyAll();
+            }
+        }
+    }
+
+    private void writeLoop() throws IOException, InterruptedException {
+        long nextFlushNanos = System.nanoTime() + flushIntervalMillis * 1_000_000L;
+        while (true) {
+            ByteBuffer toWrite;
+            long syncTarget;
+            boolean stop;
+            synchronized (lock) {
+                while (!closed && syncRequested == syncCompleted
+                        && active.position() < BUFFER_SIZE / 2) {
+                    long waitMillis = (nextFlushNanos - System.nanoTime()) / 1_000_000L;
+                    if (waitMillis <= 0) {
+                        break;
+                    }
+                    lock.wait(waitMillis);
+                }
+                toWrite = active;
+                active = spare;
+                spare = toWrite;
+                syncTarget = syncRequested;
+                stop = closed;
+            }
+            nextFlushNanos = System.nanoTime() + flushIntervalMillis * 1_000_000L;
+
+            toWrite.flip();
+            if (toWrite.hasRemaining()) {
+                writeRecords(toWrite);
+            }
+            toWrite.clear();
+
+            long now = System.nanoTime();
+            boolean syncDue = syncTarget > syncCompletedSnapshot()
+                    || now - lastFsyncNanos >= fsyncIntervalMillis * 1_000_000L;
+            if (syncDue || stop) {
+                channel.force(false);
+                lastFsyncNanos = now;
+            }
+
+            synchronized (lock) {
+                syncCompleted = syncTarget;
+                lock.notifyAll();
+            }
+
+            if (stop) {
+                finishCurrentSegment();
+                return;
+            }
+        }
+    }
+
+    private long syncCompletedSnapshot() {
+        synchronized (lock) {
+            return syncCompleted;
+        }
+    }
+
+    // Tampondaki kayıtları yazar; gerekirse kayıt sınırında yeni segmente geçer
+    private void writeRecords(ByteBuffer buffer) throws IOException {
+        if (!current.isEmpty()
+                && System.currentTimeMillis() - current.getCreatedMillis() >= maxSegmentMillis) {
+            rollSegment();
+        }
+
+        int sliceStart = buffer.position();
+        int position = sliceStart;
+        int limit = buffer.limit();
+        long fileOffset = current.getDataLength();
+        synchronized (indexLock) {
+            while (position < limit) {
+                int size = LogFormat.RECORD_OVERHEAD + (buffer.get(position + 1) & 0xFF);
+                if (!current.isEmpty() && fileOffset + size > maxSegmentBytes) {
+                    writeSlice(buffer, sliceStart, position);
+                    rollSegment();
+                    sliceStart = position;
+                    fileOffset = current.getDataLength();
+                }
+                current.onRecord(LogFormat.recordType(buffer, position),
+                        LogFormat.recordTimestamp(buffer, position), fileOffset, size);
+                fileOffset += size;
+                position += size;
+            }
+        }
+        writeSlice(buffer, sliceStart, limit);
+    }
+
+    private void writeSlice(ByteBuffer buffer, int from, int to) throws IOException {
+        if (from == to) {
+            return;
+        }
+        ByteBuffer slice = buffer.duplicate();
+        slice.limit(to);
+        slice.position(from);
+        while (slice.hasRemaining()) {
+            channel.write(slice);
+        }
+    }
+
+    private void recover() throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Günlük dizini oluşturulamadı: " + directory);
+        }
+        File[] files = directory.listFiles((dir, name) -> name.endsWith(LogFormat.SEGMENT_SUFFIX));
+        long[] ids = new long[files == null ? 0 : files.length];
+        int count = 0;
+        if (files != null) {
+            for (File file : files) {
+                long id = parseSegmentId(file.getName());
+                if (id >= 0) {
+                    ids[count++] = id;
+                }
+            }
+        }
+        Arrays.sort(ids, 0, count);
+
+        for (int i = 0; i < count; i++) {
+            long id = ids[i];
+            boolean last = i == count - 1;
+            File segmentFile = segmentFile(id);
+            SegmentIndex index = SegmentIndex.readFrom(indexFile(id), segmentFile);
+            if (index != null) {
+                addSealed(index);
+                continue;
+            }
+
+            // İndeks yok veya geçersiz: segmenti tara ve bozuk kuyruğu kes
+            RandomAccessFile raf = new RandomAccessFile(segmentFile, "rw");
+            FileChannel scanChannel = raf.getChannel();
+            SegmentIndex scanned = SegmentIndex.scan(id, segmentFile, scanChannel);
+            if (scanned == null) {
+                scanChannel.close();
+                // Başlığı bile yazılamamış segment: kullanılamaz
+                if (!segmentFile.delete()) {
+                    throw new IOException("Bozuk segment silinemedi: " + segmentFile);
+                }
+                continue;
+            }
+            long size = scanChannel.size();
+            if (size > scanned.getDataLength()) {
+                recoveredTruncatedBytes += size - scanned.getDataLength();
+                scanChannel.truncate(scanned.getDataLength());
+                scanChannel.force(true);
+            }
+
+            if (last) {
+                // Öldürülmeden önceki son segmente eklemeye devam et
+                scanChannel.position(scanned.getDataLength());
+                channel = scanChannel;
+                synchronized (indexLock) {
+                    current = scanned;
+                }
+            } else {
+                scanChannel.close();
+                scanned.writeTo(indexFile(id));
+                scanned.markSealed();
+                addSealed(scanned);
+            }
+        }
+
+        nextSegmentId = count == 0 ? 0 : ids[count - 1] + 1;
+        if (channel == null) {
+            openNewSegment();
+        }
+        lastFsyncNanos = System.nanoTime();
+    }
+
+    private void rollSegment() throws IOException {
+        finishCurrentSegment();
+        openNewSegment();
+    }
+
+    private void finishCurrentSegment() throws IOException {
+        channel.force(true);
+        channel.close();
+        channel = null;
+        SegmentIndex finished = current;
+        if (finished.isEmpty()) {
+            // Boş segment bırakma
+            if (!finished.getSegmentFile().delete()) {
+                throw new IOException("Boş segment silinemedi: " + finished.getSegmentFile());
+            }
+            synchronized (indexLock) {
+                current = null;
+            }
+            return;
+        }
+        finished.writeTo(indexFile(finished.getSegmentId()));
+        synchronized (indexLock) {
+            finished.markSealed();
+            sealedSegments.add(finished);
+            current = null;
+        }
+    }
+
+    private void openNewSegment() throws IOException {
+        long id = nextSegmentId++;
+        File file = segmentFile(id);
+        long now = System.currentTimeMillis();
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        FileChannel newChannel = raf.getChannel();
+        newChannel.truncate(0);
+        ByteBuffer header = ByteBuffer.allocate(LogFormat.HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        LogFormat.writeHeader(header, now);
+        header.flip();
+        while (header.hasRemaining()) {
+            newChannel.write(header);
+        }
+        channel = newChannel;
+        synchronized (indexLock) {
+            current = new SegmentIndex(id, file, now);
+        }
+    }
+
+    private void addSealed(SegmentIndex index) {
+        synchronized (indexLock) {
+            sealedSegments.add(index);
+        }
+    }
+
+    private void closeChannelQuietly() {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+                // kapanışta yapılacak başka bir şey yok
+            }
+            channel = null;
+        }
+    }
+
+    private File segmentFile(long id) {
+        return new File(directory, String.format(Locale.US, "%016x", id) + LogFormat.SEGMENT_SUFFIX);
+    }
+
+    private File indexFile(long id) {
+        return new File(directory, String.format(Locale.US, "%016x", id) + LogFormat.INDEX_SUFFIX);
+    }
+
+    private static long parseSegmentId(String name) {
+        String hex = name.substring(0, name.length() - LogFormat.SEGMENT_SUFFIX.length());
+        try {
+            return Long.parseLong(hex, 16);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,272 @@
+package com.example.syringepumpcontroller.storage;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+/**
+ * Bir segmentin özet bilgisi ve seyrek zaman indeksi.
+ *
+ * Kapatılan segmentler için ".idx" dosyasına yazılır; geçmiş ekranı segment listesini ve
+ * zaman aralıklarını dosyaları taramadan bu özetlerden okur. İndeks girişleri yaklaşık
+ * {@link #ENTRY_INTERVAL_BYTES} baytta bir (zaman, dosya konumu) çiftidir.
+ */
+public class SegmentIndex {
+
+    static final int ENTRY_INTERVAL_BYTES = 16 * 1024;
+
+    private static final int INDEX_MAGIC = 0x58495053; // "SPIX"
+    private static final int INDEX_HEADER_SIZE = 4 + 2 + 2 + 8 * 7 + 4;
+
+    private final long segmentId;
+    private final File segmentFile;
+    private long createdMillis;
+    private long firstMillis = Long.MIN_VALUE;
+    private long lastMillis = Long.MIN_VALUE;
+    private long sampleCount;
+    private long commandCount;
+    private long dataLength = LogFormat.HEADER_SIZE;
+    private boolean sealed;
+
+    private long[] entryMillis = new long[16];
+    private long[] entryOffsets = new long[16];
+    private int entryCount;
+
+    SegmentIndex(long segmentId, File segmentFile, long createdMillis) {
+        this.segmentId = segmentId;
+        this.segmentFile = segmentFile;
+        this.createdMillis = createdMillis;
+    }
+
+    void onRecord(int type, long timestampMillis, long offset, int size) {
+        if (entryCount == 0 || offset - entryOffsets[entryCount - 1] >= ENTRY_INTERVAL_BYTES) {
+            if (entryCount == entryMillis.length) {
+                entryMillis = Arrays.copyOf(entryMillis, entryCount * 2);
+                entryOffsets = Arrays.copyOf(entryOffsets, entryCount * 2);
+            }
+            entryMillis[entryCount] = timestampMillis;
+            entryOffsets[entryCount] = offset;
+            entryCount++;
+        }
+        if (firstMillis == Long.MIN_VALUE) {
+            firstMillis = timestampMillis;
+        }
+        lastMillis = timestampMillis;
+        if (type == LogFormat.TYPE_SAMPLE) {
+            sampleCount++;
+        } else {
+            commandCount++;
+        }
+        dataLength = offset + size;
+    }
+
+    /**
+     * fromMillis anından önceki en yakın indeks girişinin dosya konumu.
+     */
+    public long findOffset(long fromMillis) {
+        int low = 0;
+        int high = entryCount - 1;
+        int found = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (entryMillis[mid] <= fromMillis) {
+                found = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return found < 0 ? LogFormat.HEADER_SIZE : entryOffsets[found];
+    }
+
+    public long getSegmentId() {
+        return segmentId;
+    }
+
+    public File getSegmentFile() {
+        return segmentFile;
+    }
+
+    public long getCreatedMillis() {
+        return createdMillis;
+    }
+
+    // Segmentte kayıt yoksa Long.MIN_VALUE
+    public long getFirstMillis() {
+        return firstMillis;
+    }
+
+    public long getLastMillis() {
+        return lastMillis;
+    }
+
+    public long getSampleCount() {
+        return sampleCount;
+    }
+
+    public long getCommandCount() {
+        return commandCount;
+    }
+
+    // Segmentteki geçerli verinin uzunluğu (başlık dahil)
+    public long getDataLength() {
+        return dataLength;
+    }
+
+    public boolean isSealed() {
+        return sealed;
+    }
+
+    public boolean isEmpty() {
+        return sampleCount + commandCount == 0;
+    }
+
+    void markSealed() {
+        sealed = true;
+    }
+
+    SegmentIndex copy() {
+        SegmentIndex copy = new SegmentIndex(segmentId, segmentFile, createdMillis);
+        copy.firstMillis = firstMillis;
+        copy.lastMillis = lastMillis;
+        copy.sampleCount = sampleCount;
+        copy.commandCount = commandCount;
+        copy.dataLength = dataLength;
+        copy.sealed = sealed;
+        copy.entryMillis = Arrays.copyOf(entryMillis, Math.max(1, entryCount));
+        copy.entryOffsets = Arrays.copyOf(entryOffsets, Math.max(1, entryCount));
+        copy.entryCount = entryCount;
+        return copy;
+    }
+
+    void writeTo(File indexFile) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(INDEX_HEADER_SIZE + entryCount * 16 + 8)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(INDEX_MAGIC);
+        buffer.putShort((short) LogFormat.VERSION);
+        buffer.putShort((short) 0);
+        buffer.putLong(segmentId);
+        buffer.putLong(createdMillis);
+        buffer.putLong(firstMillis);
+        buffer.putLong(lastMillis);
+        buffer.putLong(sampleCount);
+        buffer.putLong(commandCount);
+        buffer.putLong(dataLength);
+        buffer.putInt(entryCount);
+        for (int i = 0; i < entryCount; i++) {
+            buffer.putLong(entryMillis[i]);
+            buffer.putLong(entryOffsets[i]);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), 0, buffer.position());
+        buffer.putLong(crc.getValue());
+        buffer.flip();
+
+        // Önce geçici dosyaya yaz, sonra yeniden adlandır; yarım indeks dosyası kalmaz
+        File temp = new File(indexFile.getPath() + ".tmp");
+        try (RandomAccessFile raf = new RandomAccessFile(temp, "rw");
+             FileChannel channel = raf.getChannel()) {
+            channel.truncate(0);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        if (!temp.renameTo(indexFile)) {
+            throw new IOException("İndeks dosyası yazılamadı: " + indexFile);
+        }
+    }
+
+    /**
+     * İndeks dosyasını okur; dosya yoksa, bozuksa veya segment boyutuyla uyuşmuyorsa null döner.
+     */
+    static SegmentIndex readFrom(File indexFile, File segmentFile) {
+        if (!indexFile.isFile()) {
+            return null;
+        }
+        try (RandomAccessFile raf = new RandomAccessFile(indexFile, "r");
+             FileChannel channel = raf.getChannel()) {
+            long size = channel.size();
+            if (size < INDEX_HEADER_SIZE + 8 || size > Integer.MAX_VALUE) {
+                return null;
+            }
+            ByteBuffer buffer = ByteBuffer.allocate((int) size).order(ByteOrder.LITTLE_ENDIAN);
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                // tamamı okunana kadar
+            }
+            buffer.flip();
+
+            CRC32 crc = new CRC32();
+            crc.update(buffer.array(), 0, (int) size - 8);
+            if (crc.getValue() != buffer.getLong((int) size - 8)
+                    || buffer.getInt() != INDEX_MAGIC
+                    || buffer.getShort() != LogFormat.VERSION) {
+                return null;
+            }
+            buffer.getShort();
+            SegmentIndex index = new SegmentIndex(buffer.getLong(), segmentFile, buffer.getLong());
+            index.firstMillis = buffer.getLong();
+            index.lastMillis = buffer.getLong();
+            index.sampleCount = buffer.getLong();
+            index.commandCount = buffer.getLong();
+            index.dataLength = buffer.getLong();
+            int count = buffer.getInt();
+            if (count < 0 || INDEX_HEADER_SIZE + (long) count * 16 + 8 != size
+                    || segmentFile.length() != index.dataLength) {
+                return null;
+            }
+            index.entryMillis = new long[Math.max(1, count)];
+            index.entryOffsets = new long[Math.max(1, count)];
+            for (int i = 0; i < count; i++) {
+                index.entryMillis[i] = buffer.getLong();
+                index.entryOffsets[i] = buffer.getLong();
+            }
+            index.entryCount = count;
+            index.sealed = true;
+            return index;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Segment dosyasını baştan tarayarak indeksi yeniden oluşturur. Geçerli son kayıttan sonraki
+     * bozuk veya yarım bayt varsa dataLength bu noktada kalır; kesme işlemi çağırana aittir.
+     * Başlık geçersizse null döner.
+     */
+    static SegmentIndex scan(long segmentId, File segmentFile, FileChannel channel) throws IOException {
+        long size = channel.size();
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Segment çok büyük: " + segmentFile);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate((int) size).order(ByteOrder.LITTLE_ENDIAN);
+        channel.position(0);
+        while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+            // tamamı okunana kadar
+        }
+        buffer.flip();
+        if (!LogFormat.isValidHeader(buffer)) {
+            return null;
+        }
+
+        SegmentIndex index = new SegmentIndex(segmentId, segmentFile, buffer.getLong(8));
+        int position = LogFormat.HEADER_SIZE;
+        int limit = buffer.limit();
+        while (true) {
+            int length = LogFormat.validateRecord(buffer, position, limit);
+            if (length < 0) {
+                break;
+            }
+            index.onRecord(LogFormat.recordType(buffer, position),
+                    LogFormat.recordTimestamp(buffer, position), position, length);
+            position += length;
+        }
+        index.dataLength = position;
+        return index;
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.syringepumpcontroller.storage;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+
+/**
+ * Bir segmentteki kayıtları zaman aralığına göre okur. Başlangıç konumu segment indeksinden
+ * bulunur, böylece dosyanın yalnızca ilgili kısmı okunur.
+ */
+public final class SegmentReader {
+
+    public interface Visitor {
+        void onSample(long timestampMillis, float value);
+
+        void onCommand(long timestampMillis, String command);
+    }
+
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    private SegmentReader() {
+    }
+
+    /**
+     * [fromMillis, toMillis] aralığındaki kayıtları sırayla ziyaret eder.
+     *
+     * @return ziyaret edilen kayıt sayısı
+     */
+    public static long read(SegmentIndex segment, long fromMillis, long toMillis, Visitor visitor)
+            throws IOException {
+        if (segment.isEmpty() || segment.getLastMillis() < fromMillis || segment.getFirstMillis() > toMillis) {
+            return 0;
+        }
+        long visited = 0;
+        long end = segment.getDataLength();
+        long filePosition = segment.findOffset(fromMillis);
+        ByteBuffer buffer = ByteBuffer.allocate(CHUNK_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+
+        try (RandomAccessFile raf = new RandomAccessFile(segment.getSegmentFile(), "r");
+             FileChannel channel = raf.getChannel()) {
+            while (filePosition < end) {
+                buffer.clear();
+                buffer.limit((int) Math.min(CHUNK_SIZE, end - filePosition));
+                while (buffer.hasRemaining()) {
+                    if (channel.read(buffer, filePosition + buffer.position()) < 0) {
+                        break;
+                    }
+                }
+                buffer.flip();
+
+                int position = 0;
+                int limit = buffer.limit();
+                while (true) {
+                    int length = LogFormat.validateRecord(buffer, position, limit);
+                    if (length < 0) {
+                        break;
+                    }
+                    long timestamp = LogFormat.recordTimestamp(buffer, position);
+                    if (timestamp > toMillis) {
+                        return visited;
+                    }
+                    if (timestamp >= fromMillis) {
+                        if (LogFormat.recordType(buffer, position) == LogFormat.TYPE_SAMPLE) {
+                            visitor.onSample(timestamp, LogFormat.sampleValue(buffer, position));
+                        } else {
+                            visitor.onCommand(timestamp, LogFormat.commandText(buffer, position));
+                        }
+                        visited++;
+                    }
+                    position += length;
+                }
+                if (position == 0) {
+                    // Parça sınırında bile tek kayıt çözülemiyorsa dosya bozuktur
+                    throw new IOException("Bozuk kayıt: " + segment.getSegmentFile() + " @" + filePosition);
+                }
+                filePosition += position;
+            }
+        }
+        return visited;
+    }
+}
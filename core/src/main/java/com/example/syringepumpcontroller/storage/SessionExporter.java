@@ -0,0 +1,232 @@
+package com.example.syringepumpcontroller.storage;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Kayıtlı bir ölçüm oturumunu (segmentlerin bir zaman aralığını) dosya biçimlerinden birine
+ * akış halinde aktarır.
+ *
+ * Segmentler {@link SegmentReader} ile 64 KB'lık parçalar halinde okunur ve kayıtlar doğrudan
+ * biçim yazıcısına verilir; oturum hiçbir zaman belleğe alınmaz, bellek kullanımı biçimin
+ * sabit tamponlarıyla sınırlıdır. İlerleme belirli kayıt aralıklarıyla bildirilir.
+ *
+ * Uzun sürebilir; arka plan iş parçacığında çalıştırılmalıdır. {@link #cancel()} veya çalışan
+ * iş parçacığının kesilmesi aktarımı en geç bir ilerleme aralığı içinde durdurur.
+ */
+public class SessionExporter {
+
+    public enum Format {
+        CSV("csv", "text/csv"),
+        DELTA("spd", "application/octet-stream"),
+        COLUMNAR("spc", "application/octet-stream"),
+        GORILLA("spg", "application/octet-stream");
+
+        public final String extension;
+        public final String mimeType;
+
+        Format(String extension, String mimeType) {
+            this.extension = extension;
+            this.mimeType = mimeType;
+        }
+    }
+
+    public interface ProgressListener {
+        // Aktarım iş parçacığında çağrılır; total segment indekslerinden hesaplanan üst sınırdır
+        void onProgress(long records, long total);
+    }
+
+    public static final class Result {
+        public final long samples;
+        public final long commands;
+        public final long bytes;
+
+        Result(long samples, long commands, long bytes) {
+            this.samples = samples;
+            this.commands = commands;
+            this.bytes = bytes;
+        }
+
+        // Örnek başına çıktı boyutu
+        public double getBytesPerSample() {
+            return samples == 0 ? 0 : (double) bytes / samples;
+        }
+    }
+
+    // İlerleme bildirimi ve iptal denetimi bu kadar kayıtta bir yapılır
+    static final int PROGRESS_INTERVAL = 64 * 1024;
+
+    private final List<SegmentIndex> segments;
+    private final long fromMillis;
+    private final long toMillis;
+    private volatile boolean cancelled;
+
+    public SessionExporter(List<SegmentIndex> segments, long fromMillis, long toMillis) {
+        this.segments = new ArrayList<>(segments);
+        this.fromMillis = fromMillis;
+        this.toMillis = toMillis;
+    }
+
+    // Segmentlerin tamamı
+    public SessionExporter(List<SegmentIndex> segments) {
+        this(segments, Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    // Aralıkla kesişen segmentlerin kayıt sayısı; aralık segmentleri kısmen kesiyorsa üst sınırdır
+    public long estimateRecords() {
+        long total = 0;
+        for (SegmentIndex segment : segments) {
+            if (overlaps(segment)) {
+                total += segment.getSampleCount() + segment.getCommandCount();
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Oturumu verilen biçimde yazar. Akış kapatılmaz.
+     *
+     * @param listener null olabilir
+     * @throws CancellationException iptal edildiyse; yarım çıktı çağıran tarafından silinmelidir
+     */
+    public Result export(Format format, OutputStream stream, ProgressListener listener) throws IOException {
+        CountingOutputStream counting = new CountingOutputStream(stream);
+        ExportWriter writer = createWriter(format, counting);
+        RecordPump pump = new RecordPump(writer, listener, estimateRecords());
+        boolean finished = false;
+        try {
+            for (SegmentIndex segment : segments) {
+                if (overlaps(segment)) {
+                    SegmentReader.read(segment, fromMillis, toMillis, pump);
+                }
+            }
+            writer.finish();
+            finished = true;
+        } catch (WriteFailure failure) {
+            throw failure.failure;
+        } finally {
+            if (!finished) {
+                writer.abort();
+            }
+        }
+        if (listener != null) {
+            listener.onProgress(pump.records, pump.records);
+        }
+        return new Result(pump.samples, pump.commands, counting.count);
+    }
+
+    static ExportWriter createWriter(Format format, OutputStream stream) throws IOException {
+        switch (format) {
+            case CSV:
+                return new CsvExportWriter(stream);
+            case DELTA:
+                return new DeltaExportWriter(stream);
+            case COLUMNAR:
+                return new ColumnarExportWriter(stream);
+            case GORILLA:
+                return new GorillaExportWriter(stream);
+            default:
+                throw new IllegalArgumentException("Bilinmeyen biçim: " + format);
+        }
+    }
+
+    private boolean overlaps(SegmentIndex segment) {
+        return !segment.isEmpty() && segment.getLastMillis() >= fromMillis && segment.getFirstMillis() <= toMillis;
+    }
+
+    // Okuyucu ziyaretçisi G/Ç hatası bildiremediğinden yazma hatası sarılıp dışarıda açılır
+    private static final class WriteFailure extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        final IOException failure;
+
+        WriteFailure(IOException cause) {
+            super(cause);
+            this.failure = cause;
+        }
+    }
+
+    private final class RecordPump implements SegmentReader.Visitor {
+        final ExportWriter writer;
+        final ProgressListener listener;
+        final long total;
+        long records;
+        long samples;
+        long commands;
+        int untilCheck = PROGRESS_INTERVAL;
+
+        RecordPump(ExportWriter writer, ProgressListener listener, long total) {
+            this.writer = writer;
+            this.listener = listener;
+            this.total = total;
+        }
+
+        @Override
+        public void onSample(long timestampMillis, float value) {
+            try {
+                writer.sample(timestampMillis, value);
+            } catch (IOException e) {
+                throw new WriteFailure(e);
+            }
+            samples++;
+            counted();
+        }
+
+        @Override
+        public void onCommand(long timestampMillis, String command) {
+            try {
+                writer.command(timestampMillis, command);
+            } catch (IOException e) {
+                throw new WriteFailure(e);
+            }
+            commands++;
+            counted();
+        }
+
+        private void counted() {
+            records++;
+            if (--untilCheck > 0) {
+                return;
+            }
+            untilCheck = PROGRESS_INTERVAL;
+            if (cancelled || Thread.currentThread().isInterrupted()) {
+                throw new CancellationException("Dışa aktarma iptal edildi");
+            }
+            if (listener != null) {
+                listener.onProgress(records, Math.max(records, total));
+            }
+        }
+    }
+
+    private static final class CountingOutputStream extends FilterOutputStream {
+        long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
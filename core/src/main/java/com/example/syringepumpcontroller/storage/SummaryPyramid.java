@@ -0,0 +1,250 @@
+package com.example.syringepumpcontroller.storage;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.zip.CRC32;
+
+/**
+ * Bir segmentin çok çözünürlüklü min/max özeti.
+ *
+ * Seviye 0'daki her kova {@link #BASE_BUCKET} ardışık örneği, üst seviyelerdeki her kova bir alt
+ * seviyenin {@link #FANOUT} kovasını özetler. Seviye 0 kovaları ayrıca ilk örneğin dosya
+ * konumunu tutar; dar aralıklarda ham örneklere bu konumdan inilir.
+ *
+ * Kapatılmış segmentlerin özeti ".sum" dosyasına yazılır ve sonraki açılışlarda segment
+ * taranmadan okunur.
+ */
+final class SummaryPyramid {
+
+    static final int BASE_BUCKET = 64;
+    static final int FANOUT = 8;
+    static final String SUFFIX = ".sum";
+
+    private static final int MAGIC = 0x4D535053; // "SPSM"
+
+    final long[][] firstMillis;
+    final float[][] minValues;
+    final float[][] maxValues;
+    // Yalnızca seviye 0: kovanın ilk kaydının dosya konumu
+    final long[] offsets;
+    final long dataLength;
+
+    private SummaryPyramid(long[][] firstMillis, float[][] minValues, float[][] maxValues,
+                           long[] offsets, long dataLength) {
+        this.firstMillis = firstMillis;
+        this.minValues = minValues;
+        this.maxValues = maxValues;
+        this.offsets = offsets;
+        this.dataLength = dataLength;
+    }
+
+    int levels() {
+        return firstMillis.length;
+    }
+
+    int bucketCount(int level) {
+        return firstMillis[level].length;
+    }
+
+    /**
+     * firstMillis[level] içinde değeri millis'ten küçük veya eşit son kovanın indeksi; yoksa -1.
+     */
+    int floorBucket(int level, long millis) {
+        long[] times = firstMillis[level];
+        int low = 0;
+        int high = times.length - 1;
+        int found = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (times[mid] <= millis) {
+                found = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Eşlenmiş segment verisini tarayarak özeti oluşturur.
+     */
+    static SummaryPyramid build(ByteBuffer segment, long dataLength) {
+        int limit = (int) dataLength;
+        long sampleCount = 0;
+        int position = LogFormat.HEADER_SIZE;
+        while (true) {
+            int length = LogFormat.validateRecord(segment, position, limit);
+            if (length < 0) {
+                break;
+            }
+            if (LogFormat.recordType(segment, position) == LogFormat.TYPE_SAMPLE) {
+                sampleCount++;
+            }
+            position += length;
+        }
+
+        int baseCount = (int) ((sampleCount + BASE_BUCKET - 1) / BASE_BUCKET);
+        long[] baseTimes = new long[baseCount];
+        float[] baseMin = new float[baseCount];
+        float[] baseMax = new float[baseCount];
+        long[] offsets = new long[baseCount];
+
+        position = LogFormat.HEADER_SIZE;
+        long index = 0;
+        while (index < sampleCount) {
+            int length = LogFormat.validateRecord(segment, position, limit);
+            if (LogFormat.recordType(segment, position) == LogFormat.TYPE_SAMPLE) {
+                int bucket = (int) (index / BASE_BUCKET);
+                float value = LogFormat.sampleValue(segment, position);
+                if (index % BASE_BUCKET == 0) {
+                    baseTimes[bucket] = LogFormat.recordTimestamp(segment, position);
+                    offsets[bucket] = position;
+                    baseMin[bucket] = value;
+                    baseMax[bucket] = value;
+                } else {
+                    if (value < baseMin[bucket]) {
+                        baseMin[bucket] = value;
+                    }
+                    if (value > baseMax[bucket]) {
+                        baseMax[bucket] = value;
+                    }
+                }
+                index++;
+            }
+            position += length;
+        }
+
+        int levels = 1;
+        for (int n = baseCount; n > 1; n = (n + FANOUT - 1) / FANOUT) {
+            levels++;
+        }
+        long[][] times = new long[levels][];
+        float[][] mins = new float[levels][];
+        float[][] maxs = new float[levels][];
+        times[0] = baseTimes;
+        mins[0] = baseMin;
+        maxs[0] = baseMax;
+        for (int level = 1; level < levels; level++) {
+            int below = times[level - 1].length;
+            int n = (below + FANOUT - 1) / FANOUT;
+            times[level] = new long[n];
+            mins[level] = new float[n];
+            maxs[level] = new float[n];
+            for (int i = 0; i < n; i++) {
+                int from = i * FANOUT;
+                int to = Math.min(below, from + FANOUT);
+                times[level][i] = times[level - 1][from];
+                float min = mins[level - 1][from];
+                float max = maxs[level - 1][from];
+                for (int k = from + 1; k < to; k++) {
+                    min = Math.min(min, mins[level - 1][k]);
+                    max = Math.max(max, maxs[level - 1][k]);
+                }
+                mins[level][i] = min;
+                maxs[level][i] = max;
+            }
+        }
+        return new SummaryPyramid(times, mins, maxs, offsets, dataLength);
+    }
+
+    void writeTo(File file) throws IOException {
+        int size = 4 + 2 + 2 + 8 + 4;
+        for (int level = 0; level < levels(); level++) {
+            size += 4 + bucketCount(level) * 16;
+        }
+        size += bucketCount(0) * 8 + 8;
+
+        ByteBuffer buffer = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC);
+        buffer.putShort((short) LogFormat.VERSION);
+        buffer.putShort((short) 0);
+        buffer.putLong(dataLength);
+        buffer.putInt(levels());
+        for (int level = 0; level < levels(); level++) {
+            int n = bucketCount(level);
+            buffer.putInt(n);
+            for (int i = 0; i < n; i++) {
+                buffer.putLong(firstMillis[level][i]);
+                buffer.putFloat(minValues[level][i]);
+                buffer.putFloat(maxValues[level][i]);
+            }
+        }
+        for (long offset : offsets) {
+            buffer.putLong(offset);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), 0, buffer.position());
+        buffer.putLong(crc.getValue());
+        buffer.flip();
+
+        File temp = new File(file.getPath() + ".tmp");
+        try (RandomAccessFile raf = new RandomAccessFile(temp, "rw");
+             FileChannel channel = raf.getChannel()) {
+            channel.truncate(0);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+        if (!temp.renameTo(file)) {
+            throw new IOException("Özet dosyası yazılamadı: " + file);
+        }
+    }
+
+    /**
+     * Özet dosyasını okur; yoksa, bozuksa veya segment uzunluğu değişmişse null döner.
+     */
+    static SummaryPyramid readFrom(File file, long expectedDataLength) {
+        if (!file.isFile()) {
+            return null;
+        }
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r");
+             FileChannel channel = raf.getChannel()) {
+            long size = channel.size();
+            if (size < 28 || size > Integer.MAX_VALUE) {
+                return null;
+            }
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size)
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            CRC32 crc = new CRC32();
+            ByteBuffer body = buffer.duplicate();
+            body.limit((int) size - 8);
+            crc.update(body);
+            if (crc.getValue() != buffer.getLong((int) size - 8)
+                    || buffer.getInt() != MAGIC || buffer.getShort() != LogFormat.VERSION) {
+                return null;
+            }
+            buffer.getShort();
+            long dataLength = buffer.getLong();
+            if (dataLength != expectedDataLength) {
+                return null;
+            }
+            int levels = buffer.getInt();
+            long[][] times = new long[levels][];
+            float[][] mins = new float[levels][];
+            float[][] maxs = new float[levels][];
+            for (int level = 0; level < levels; level++) {
+                int n = buffer.getInt();
+                times[level] = new long[n];
+                mins[level] = new float[n];
+                maxs[level] = new float[n];
+                for (int i = 0; i < n; i++) {
+                    times[level][i] = buffer.getLong();
+                    mins[level][i] = buffer.getFloat();
+                    maxs[level][i] = buffer.getFloat();
+                }
+            }
+            long[] offsets = new long[levels == 0 ? 0 : times[0].length];
+            for (int i = 0; i < offsets.length; i++) {
+                offsets[i] = buffer.getLong();
+            }
+            return new SummaryPyramid(times, mins, maxs, offsets, dataLength);
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+}
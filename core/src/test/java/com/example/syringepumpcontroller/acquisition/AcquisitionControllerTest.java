@@ -0,0 +1,599 @@
+package com.example.syringepumpcontroller.acquisition;
+
+import com.example.syringepumpcontroller.acquisition.AcquisitionController.ConnectionState;
+import com.example.syringepumpcontroller.bus.EventRing;
+import com.example.syringepumpcontroller.bus.OverrunPolicy;
+import com.example.syringepumpcontroller.bus.WaitStrategy;
+import com.example.syringepumpcontroller.command.CommandTracker;
+import com.example.syringepumpcontroller.control.FlowControlLoop;
+import com.example.syringepumpcontroller.data.SampleBuffer;
+import com.example.syringepumpcontroller.dsp.AlarmStage;
+import com.example.syringepumpcontroller.dsp.MovingAverage;
+import com.example.syringepumpcontroller.dsp.SignalPipeline;
+import com.example.syringepumpcontroller.dsp.ThresholdAlarm;
+import com.example.syringepumpcontroller.serial.SerialTransport;
+import com.example.syringepumpcontroller.simulation.PlantModel;
+import com.example.syringepumpcontroller.simulation.SimulatedPumpDevice;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.Assert.*;
+
+public class AcquisitionControllerTest {
+
+    // Yazılan komut satırlarını kaydeden, hiçbir şeye yanıt vermeyen sahte port
+    static class RecordingTransport implements SerialTransport {
+        final List<String> lines = Collections.synchronizedList(new ArrayList<String>());
+        private final StringBuilder pending = new StringBuilder();
+        volatile boolean closed;
+
+        @Override
+        public void setListener(Listener listener) {
+        }
+
+        @Override
+        public synchronized void write(byte[] data, int offset, int length) {
+            pending.append(new String(data, offset, length, StandardCharsets.US_ASCII));
+            int newline;
+            while ((newline = pending.indexOf("\n")) >= 0) {
+                lines.add(pending.substring(0, newline));
+                pending.delete(0, newline + 1);
+            }
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+
+    /**
+     * Okuma iş parçacığı kapatmada beklenmeyen, sürekli veri basan port. Okuyucu dinleyiciyi bir
+     * tur boyunca elinde tutar ve kapatmayı ancak tur sonunda görür (USB kütüphanesindeki gibi).
+     * Her örneğin değeri portun numarasıdır.
+     */
+    static class FloodTransport implements SerialTransport {
+        private static final int CHUNKS_PER_ROUND = 20;
+
+        final Thread reader;
+        private final byte[] chunk;
+        private volatile Listener listener;
+        private volatile boolean closed;
+        volatile long delivered;
+
+        FloodTransport(int number) {
+            StringBuilder samples = new StringBuilder();
+            for (int i = 0; i < 8; i++) {
+                samples.append("SV:").append(number).append('\n');
+            }
+            chunk = samples.toString().getBytes(StandardCharsets.US_ASCII);
+            reader = new Thread(this::read, "flood-" + number);
+            reader.setDaemon(true);
+            reader.start();
+        }
+
+        private void read() {
+            while (!closed) {
+                Listener current = listener;
+                if (current == null) {
+                    LockSupport.parkNanos(200_000);
+                    continue;
+                }
+                for (int i = 0; i < CHUNKS_PER_ROUND; i++) {
+                    current.onData(chunk, 0, chunk.length);
+                    delivered++;
+                }
+                LockSupport.parkNanos(100_000);
+            }
+        }
+
+        @Override
+        public void setListener(Listener listener) {
+            this.listener = listener;
+        }
+
+        @Override
+        public void write(byte[] data, int offset, int length) {
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+
+    static class RecordingListener implements AcquisitionController.Listener {
+        final List<ConnectionState> states = Collections.synchronizedList(new ArrayList<ConnectionState>());
+        final List<String> failures = Collections.synchronizedList(new ArrayList<String>());
+        volatile boolean running;
+        volatile int speed;
+        volatile boolean sawUnsettled;
+
+        @Override
+        public void onConnectionStateChanged(ConnectionState state) {
+            states.add(state);
+        }
+
+        @Override
+        public void onPumpStateChanged(PumpState state) {
+            running = state.running;
+            speed = state.speed;
+            if (!state.isSettled()) {
+                sawUnsettled = true;
+            }
+        }
+
+        @Override
+        public void onCommandFailed(String command, CommandTracker.Outcome outcome, int code) {
+            failures.add(command + ":" + outcome + ":" + code);
+        }
+    }
+
+    private SampleBuffer buffer;
+    private AcquisitionController controller;
+
+    @Before
+    public void setUp() {
+        buffer = new SampleBuffer(1 << 12);
+        controller = new AcquisitionController(buffer, null);
+    }
+
+    @After
+    public void tearDown() {
+        controller.shutdown();
+    }
+
+    @Test
+    public void connectStreamsSamplesIntoBuffer() throws Exception {
+        RecordingListener listener = new RecordingListener();
+        controller.addListener(listener, Runnable::run);
+        controller.connect(new SimulatedPumpDevice(true));
+
+        assertTrue(controller.awaitIdle(2000));
+        assertEquals(ConnectionState.CONNECTED, controller.getConnectionState());
+        assertEquals(ConnectionState.CONNECTING, listener.states.get(1));
+        assertEquals(ConnectionState.CONNECTED, listener.states.get(2));
+        assertTrue(waitFor(() -> buffer.getHeadSequence() >= 5, 3000));
+    }
+
+    @Test
+    public void eventBusCarriesSamplesStateAndCommandOutcomes() throws Exception {
+        final List<Integer> types = new ArrayList<>();
+        final List<Object> payloads = new ArrayList<>();
+        EventRing.Subscriber state = controller.getEventBus().getState().subscribe(
+                (event, sequence, endOfBatch) -> {
+                    types.add(event.getType());
+                    payloads.add(event.getPayload());
+                }, OverrunPolicy.DROP_OLDEST);
+        final SampleBuffer.Snapshot published = new SampleBuffer.Snapshot(64);
+        EventRing.Subscriber samples = controller.getEventBus().getSamples().subscribe("test-samples",
+                (event, sequence, endOfBatch) -> {
+                    if (published.count < 64 && event.getType() == PumpEventBus.TYPE_SAMPLE) {
+                        published.timestamps[published.count] = event.getTimestampMillis();
+                        published.values[published.count++] = event.getValue();
+                    }
+                }, WaitStrategy.blocking(), OverrunPolicy.BLOCK_PUBLISHER);
+
+        controller.setStreamRateHz(200);
+        controller.connect(new SimulatedPumpDevice(true));
+        assertTrue(controller.awaitIdle(2000));
+        controller.startPump();
+        assertTrue(waitFor(() -> controller.getPumpState().confirmedRunning, 2000));
+        assertTrue(controller.awaitIdle(2000));
+        assertTrue(waitFor(() -> samples.getConsumed() >= 64, 3000));
+
+        state.poll(Integer.MAX_VALUE);
+        assertEquals(0, state.getOverruns());
+        assertEquals(ConnectionState.CONNECTING, payloads.get(types.indexOf(PumpEventBus.TYPE_CONNECTION)));
+        assertTrue(payloads.contains(ConnectionState.CONNECTED));
+        assertTrue(payloads.contains("START"));
+        assertTrue(payloads.contains(controller.getPumpState()));
+
+        // Yayımlanan örnekler depodakilerle aynıdır
+        SampleBuffer.Snapshot stored = new SampleBuffer.Snapshot();
+        buffer.snapshot(0, stored);
+        for (int i = 0; i < published.count; i++) {
+            assertEquals(stored.timestamps[i], published.timestamps[i]);
+            assertEquals(stored.values[i], published.values[i], 0f);
+        }
+        samples.close();
+        assertTrue(samples.awaitStopped(1000));
+        state.close();
+    }
+
+    @Test
+    public void pumpCommandsReachDevice() throws Exception {
+        SimulatedPumpDevice device = new SimulatedPumpDevice(true);
+        RecordingListener listener = new RecordingListener();
+        controller.addListener(listener, Runnable::run);
+        controller.connect(device);
+
+        controller.setSpeed(80);
+        controller.setDirection(false);
+        controller.startPump();
+        assertTrue(controller.awaitIdle(2000));
+        assertTrue(listener.running);
+        assertEquals(80, listener.speed);
+        assertTrue(waitFor(() -> device.isRunning() && device.getSpeed() == 80 && !device.isForward(), 2000));
+
+        controller.stopPump();
+        assertTrue(controller.awaitIdle(2000));
+        assertFalse(controller.isPumpRunning());
+        assertTrue(waitFor(() -> !device.isRunning(), 2000));
+    }
+
+    @Test
+    public void acknowledgedCommandsConfirmPumpState() throws Exception {
+        SimulatedPumpDevice device = new SimulatedPumpDevice(true);
+        device.setReplyDelayMillis(50);
+        RecordingListener listener = new RecordingListener();
+        controller.addListener(listener, Runnable::run);
+        controller.connect(device);
+        assertTrue(controller.awaitIdle(2000));
+        assertTrue(controller.getPumpState().acknowledged);
+
+        controller.startPump();
+        assertTrue(controller.awaitIdle(2000));
+        // İstek hemen görünür, onay cihaz yanıtıyla gelir
+        assertTrue(controller.getPumpState().running);
+        assertTrue(waitFor(() -> controller.getPumpState().confirmedRunning, 2000));
+        assertTrue(controller.getPumpState().isSettled());
+        assertTrue(listener.sawUnsettled);
+        assertTrue(controller.getCommandStats().getAcked() >= 3);
+    }
+
+    @Test
+    public void lostRepliesAreRetried() throws Exception {
+        SimulatedPumpDevice device = new SimulatedPumpDevice(true);
+        controller.connect(device);
+        assertTrue(controller.awaitIdle(2000));
+        device.dropReplies(1);
+
+        controller.startPump();
+        // Yanıtı kaybolan komut yeniden gönderilir; üç komutun tamamı onaylanır
+        assertTrue(waitFor(() -> controller.getCommandStats().getAcked() >= 3, 3000));
+        assertTrue(controller.getCommandStats().getRetries() >= 1);
+        assertEquals(0, controller.getCommandStats().getTimedOut());
+        assertTrue(controller.getPumpState().isSettled());
+        assertTrue(controller.getPumpState().confirmedRunning);
+    }
+
+    @Test
+    public void rejectedCommandRevertsRequestedState() throws Exception {
+        SimulatedPumpDevice device = new SimulatedPumpDevice(true);
+        RecordingListener listener = new RecordingListener();
+        controller.addListener(listener, Runnable::run);
+        controller.connect(device);
+        controller.setSpeed(60);
+        controller.startPump();
+        assertTrue(waitFor(() -> controller.getPumpState().confirmedRunning, 2000));
+
+        // Cihaz 0..100 dışını reddeder
+        controller.setSpeed(150);
+        assertTrue(waitFor(() -> !listener.failures.isEmpty(), 2000));
+        assertEquals("SPEED_150:NAKED:" + SimulatedPumpDevice.NAK_BAD_ARGUMENT, listener.failures.get(0));
+        assertTrue(controller.awaitIdle(2000));
+        assertEquals(60, controller.getPumpSpeed());
+        assertEquals(60, listener.speed);
+        assertEquals(60, device.getSpeed());
+    }
+
+    @Test
+    public void legacyDeviceIsNotAskedForAcks() throws Exception {
+        SimulatedPumpDevice device = new SimulatedPumpDevice(false);
+        device.setAckCapable(false);
+        controller.connect(device);
+        controller.startPump();
+        assertTrue(controller.awaitIdle(2000));
+        assertFalse(controller.getPumpState().acknowledged);
+        assertTrue(waitFor(device::isRunning, 2000));
+        assertTrue(waitFor(() -> controller.getPumpState().confirmedRunning, 2000));
+    }
+
+    @Test
+    public void speedIsOnlySentWhileRunning() throws Exception {
+        RecordingTransport port = new RecordingTransport();
+        controller.connect(port);
+        controller.setSpeed(30);
+        assertTrue(controller.awaitIdle(2000));
+        assertFalse(port.lines.contains("SPEED_30"));
+
+        controller.startPump();
+        assertTrue(waitFor(() -> port.lines.contains("START"), 2000));
+        controller.setSpeed(40);
+        assertTrue(waitFor(() -> port.lines.contains("SPEED_40"), 2000));
+
+        int start = port.lines.indexOf("START");
+        assertTrue(start > 0);
+        assertEquals("SPEED_30", port.lines.get(start - 1));
+        assertEquals("SPEED_40", port.lines.get(start + 1));
+    }
+
+    @Test
+    public void commandsDuringHandshakeAreSentOnceConnected() throws Exception {
+        RecordingTransport port = new RecordingTransport();
+        controller.connect(port);
+        // El sıkışmalar zaman aşımını beklerken şerit boştur; komut istenen duruma işlenir
+        assertTrue(waitFor(() -> port.lines.contains("PROTO_BIN"), 2000));
+        controller.startPump();
+        controller.setSpeed(35);
+        Thread.sleep(100);
+        assertEquals(ConnectionState.CONNECTING, controller.getConnectionState());
+        assertFalse(port.lines.contains("START"));
+        assertTrue(controller.getPumpState().running);
+
+        assertTrue(controller.awaitIdle(2000));
+        assertEquals(ConnectionState.CONNECTED, controller.getConnectionState());
+        int ack = port.lines.indexOf("PROTO_ACK@0");
+        int start = port.lines.indexOf("START");
+        assertTrue(ack > 0 && start > ack);
+        assertEquals("SPEED_35", port.lines.get(start - 1));
+        assertEquals(1, Collections.frequency(port.lines, "START"));
+    }
+
+    @Test
+    public void disconnectClosesPortAndResetsPumpState() throws Exception {
+        RecordingTransport port = new RecordingTransport();
+        RecordingListener listener = new RecordingListener();
+        controller.addListener(listener, Runnable::run);
+        controller.connect(port);
+        controller.startPump();
+        assertTrue(controller.awaitIdle(2000));
+        assertTrue(listener.running);
+        assertTrue(waitFor(() -> port.lines.contains("START"), 2000));
+
+        controller.disconnect();
+        assertTrue(controller.awaitIdle(2000));
+        assertTrue(port.closed);
+        assertFalse(listener.running);
+        assertEquals(ConnectionState.DISCONNECTED, controller.getConnectionState());
+
+        // Bağlantı yokken komutlar yok sayılır
+        controller.startPump();
+        assertTrue(controller.awaitIdle(2000));
+        assertFalse(controller.isPumpRunning());
+    }
+
+    @Test
+    public void flowControlHoldsSetpointOnSimulatedPlant() throws Exception {
+        SimulatedPumpDevice device = new SimulatedPumpDevice(true);
+        device.setPlant(PlantModel.syringeLine());
+        controller.setStreamRateHz(200);
+        controller.connect(device);
+        controller.setSpeed(20);
+        controller.startPump();
+        assertTrue(String.valueOf(controller.getPumpState()), waitFor(() -> controller.getPumpState().confirmedRunning, 2000));
+
+        FlowControlLoop loop = controller.getFlowControl();
+        loop.setSetpoint(2.8);
+        loop.start();
+        try {
+            assertTrue("Ölçüm " + buffer.latestValue() + ", hız " + device.getSpeed(),
+                    waitFor(() -> Math.abs(buffer.latestValue() - 2.8) < 0.05, 8000));
+            assertTrue("Hız " + device.getSpeed(), waitFor(() -> Math.abs(device.getSpeed() - 60) <= 3, 3000));
+        } finally {
+            loop.stop();
+        }
+        // Boşta bir yürütücüde adım sapması periyodun yarısını aşmamalı
+        assertTrue("Adım " + loop.getTicks(), loop.getTicks() > 5);
+        assertTrue(String.valueOf(loop.getMaxJitterNanos()), loop.getMaxJitterNanos() < loop.getPeriodNanos() / 2);
+        assertEquals(0, loop.getLateTicks());
+    }
+
+    @Test
+    public void deviceSideDisconnectClosesConnection() throws Exception {
+        controller.setResumeWindowMillis(200);
+        SimulatedPumpDevice device = new SimulatedPumpDevice(true);
+        RecordingListener listener = new RecordingListener();
+        controller.addListener(listener, Runnable::run);
+        controller.connect(device);
+        controller.startPump();
+        assertTrue(waitFor(device::isRunning, 2000));
+
+        // Önce yeniden bağlanma beklenir; istenen durum pencere boyunca korunur
+        device.disconnect();
+        assertTrue(waitFor(() -> controller.getConnectionState() == ConnectionState.RECONNECTING, 2000));
+        assertTrue(controller.isPumpRunning());
+        assertNull(controller.getCommandScheduler());
+
+        assertTrue(waitFor(() -> controller.getConnectionState() == ConnectionState.DISCONNECTED, 2000));
+        assertTrue(controller.awaitIdle(2000));
+        assertFalse(listener.running);
+    }
+
+    @Test
+    public void reconnectWithinWindowReplaysRequestedState() throws Exception {
+        SimulatedPumpDevice first = new SimulatedPumpDevice(true);
+        controller.connect(first);
+        controller.setSpeed(42);
+        controller.setDirection(false);
+        controller.startPump();
+        assertTrue(waitFor(first::isRunning, 2000));
+
+        first.disconnect();
+        assertTrue(waitFor(() -> controller.getConnectionState() == ConnectionState.RECONNECTING, 2000));
+        // Kopukken verilen komut istenen duruma işlenir
+        controller.setSpeed(55);
+
+        // Sıfırlanmış cihaz durmuş ve varsayılan ayarlarda gelir
+        SimulatedPumpDevice second = new SimulatedPumpDevice(true);
+        controller.connect(second);
+        assertTrue(waitFor(() -> second.isRunning() && second.getSpeed() == 55, 2000));
+        assertFalse(second.isForward());
+        assertTrue(waitFor(() -> controller.getPumpState().isSettled(), 2000));
+        assertEquals(ConnectionState.CONNECTED, controller.getConnectionState());
+        assertTrue(waitFor(() -> controller.getLastTimeToFirstSampleMillis() >= 0, 2000));
+    }
+
+    @Test
+    public void stopDuringReconnectWindowIsNotUndone() throws Exception {
+        SimulatedPumpDevice first = new SimulatedPumpDevice(true);
+        controller.connect(first);
+        controller.startPump();
+        assertTrue(waitFor(first::isRunning, 2000));
+
+        first.disconnect();
+        assertTrue(waitFor(() -> controller.getConnectionState() == ConnectionState.RECONNECTING, 2000));
+        controller.stopPump();
+
+        SimulatedPumpDevice second = new SimulatedPumpDevice(true);
+        controller.connect(second);
+        assertTrue(waitFor(() -> controller.getConnectionState() == ConnectionState.CONNECTED, 2000));
+        assertTrue(controller.awaitIdle(2000));
+        Thread.sleep(100);
+        assertFalse(second.isRunning());
+        assertFalse(controller.isPumpRunning());
+    }
+
+    @Test
+    public void stopWhileReconnectingIsSentAndNeverUndone() throws Exception {
+        SimulatedPumpDevice first = new SimulatedPumpDevice(true);
+        controller.connect(first);
+        controller.startPump();
+        assertTrue(waitFor(first::isRunning, 2000));
+
+        controller.connectionLost();
+        assertTrue(waitFor(() -> controller.getConnectionState() == ConnectionState.RECONNECTING, 2000));
+        controller.stopPump();
+
+        // Kablo takılıp çıkarılırken cihaz sıfırlanmamış olabilir: STOP açıkça gitmeli, START hiç
+        RecordingTransport port = new RecordingTransport();
+        controller.connect(port);
+        assertTrue(controller.awaitIdle(2000));
+        assertEquals(ConnectionState.CONNECTED, controller.getConnectionState());
+        Thread.sleep(100);
+        assertTrue(port.lines.toString(), port.lines.contains("STOP"));
+        assertFalse(port.lines.toString(), port.lines.contains("START"));
+        assertFalse(controller.isPumpRunning());
+    }
+
+    @Test
+    public void stopAlarmStopsPumpAndBlocksRestart() throws Exception {
+        SimulatedPumpDevice device = new SimulatedPumpDevice(true);
+        final List<String> alarms = Collections.synchronizedList(new ArrayList<String>());
+        controller.addListener(new RecordingListener() {
+            @Override
+            public void onAlarm(String name, AlarmStage.Action action, boolean active, float value) {
+                alarms.add(name + ":" + active);
+            }
+        }, Runnable::run);
+        // Simülatörün ürettiği her gerilimde etkinleşen alarm
+        ThresholdAlarm alarm = new ThresholdAlarm("tıkanma", AlarmStage.Action.STOP_PUMP, Double.NaN, -1, 0, 5);
+        SampleBuffer filtered = new SampleBuffer(1 << 10);
+        controller.connect(device);
+        controller.startPump();
+        assertTrue(waitFor(device::isRunning, 2000));
+
+        controller.setSignalPipeline(new SignalPipeline(filtered, new MovingAverage(4), alarm));
+        assertTrue(waitFor(() -> !device.isRunning(), 2000));
+        assertTrue(waitFor(() -> !controller.isPumpRunning(), 2000));
+        assertTrue(waitFor(() -> alarms.contains("tıkanma:true"), 2000));
+        assertTrue(filtered.getHeadSequence() > 0);
+
+        // Alarm sürerken başlatma reddedilir
+        controller.startPump();
+        assertTrue(controller.awaitIdle(2000));
+        Thread.sleep(100);
+        assertFalse(device.isRunning());
+        assertFalse(controller.isPumpRunning());
+    }
+
+    @Test
+    public void blockedSubscriberDoesNotStallSampling() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        ExecutorService slowUi = Executors.newSingleThreadExecutor();
+        try {
+            controller.addListener(new RecordingListener() {
+                @Override
+                public void onConnectionStateChanged(ConnectionState state) {
+                    try {
+                        // Donmuş bir UI iş parçacığını taklit eder
+                        release.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            }, slowUi);
+            controller.connect(new SimulatedPumpDevice(true));
+
+            assertTrue(controller.awaitIdle(2000));
+            long before = buffer.getHeadSequence();
+            assertTrue(waitFor(() -> buffer.getHeadSequence() >= before + 5, 3000));
+            assertEquals(ConnectionState.CONNECTED, controller.getConnectionState());
+        } finally {
+            release.countDown();
+            slowUi.shutdownNow();
+        }
+    }
+
+    @Test
+    public void reconnectUnderLoadNeverInterleavesReaders() throws Exception {
+        // Örnek halkası ve depo tek yazıcılıdır; eski portun örneği yenisininkinden sonra gelmemeli
+        final AtomicReference<String> error = new AtomicReference<>();
+        final float[] last = {0};
+        EventRing.Subscriber samples = controller.getEventBus().getSamples().subscribe("sıra",
+                (event, sequence, endOfBatch) -> {
+                    if (event.getType() == PumpEventBus.TYPE_SAMPLE) {
+                        if (event.getValue() < last[0]) {
+                            error.compareAndSet(null, "sıra " + sequence + ": port " + event.getValue()
+                                    + ", öncesinde port " + last[0]);
+                        }
+                        last[0] = event.getValue();
+                    }
+                }, WaitStrategy.blocking(), OverrunPolicy.BLOCK_PUBLISHER);
+
+        List<FloodTransport> ports = new ArrayList<>();
+        for (int i = 1; i <= 30; i++) {
+            final FloodTransport port = new FloodTransport(i);
+            ports.add(port);
+            controller.connect(port);
+            assertTrue(waitFor(() -> port.delivered > 100, 2000));
+        }
+        controller.disconnect();
+        assertTrue(controller.awaitIdle(2000));
+        for (FloodTransport port : ports) {
+            port.reader.join(1000);
+            assertFalse(port.reader.isAlive());
+        }
+        long head = controller.getEventBus().getSamples().getCursor();
+        assertTrue(waitFor(() -> samples.getSequence() >= head, 3000));
+        samples.close();
+        assertNull(error.get(), error.get());
+
+        SampleBuffer.Snapshot snapshot = new SampleBuffer.Snapshot();
+        buffer.snapshot(buffer.getOldestSequence(), snapshot);
+        assertTrue(snapshot.count > 0);
+        for (int i = 1; i < snapshot.count; i++) {
+            assertTrue(snapshot.values[i] >= snapshot.values[i - 1]);
+        }
+        assertEquals(30f, snapshot.values[snapshot.count - 1], 0f);
+    }
+
+    interface Condition {
+        boolean holds();
+    }
+
+    private static boolean waitFor(Condition condition, long timeoutMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (System.currentTimeMillis() < deadline) {
+            if (condition.holds()) {
+                return true;
+            }
+            Thread.sleep(5);
+        }
+        return condition.holds();
+    }
+}
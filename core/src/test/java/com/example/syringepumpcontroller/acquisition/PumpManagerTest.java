@@ -0,0 +1,224 @@
+package com.example.syringepumpcontroller.acquisition;
+
+import com.example.syringepumpcontroller.acquisition.AcquisitionController.ConnectionState;
+import com.example.syringepumpcontroller.acquisition.PumpManager.Pump;
+import com.example.syringepumpcontroller.profile.InfusionProfile;
+import com.example.syringepumpcontroller.serial.SerialTransport;
+import com.example.syringepumpcontroller.simulation.SimulatedPumpDevice;
+
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class PumpManagerTest {
+
+    private PumpManager manager;
+    private final List<SimulatedPumpDevice> devices = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        manager = new PumpManager(1 << 14, null);
+    }
+
+    @After
+    public void tearDown() {
+        manager.shutdown();
+        for (SimulatedPumpDevice device : devices) {
+            device.close();
+        }
+    }
+
+    private SimulatedPumpDevice device() {
+        SimulatedPumpDevice device = new SimulatedPumpDevice(true, devices.size() + 1);
+        devices.add(device);
+        return device;
+    }
+
+    interface Condition {
+        boolean holds();
+    }
+
+    private static boolean waitFor(Condition condition, long timeoutMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (System.currentTimeMillis() < deadline) {
+            if (condition.holds()) {
+                return true;
+            }
+            Thread.sleep(5);
+        }
+        return condition.holds();
+    }
+
+    @Test
+    public void devicesAreAssignedToPumpsAndNumbersAreReused() {
+        Pump first = manager.attach("/dev/bus/usb/001/002");
+        assertSame(manager.getPrimary(), first);
+        assertSame(first, manager.attach("/dev/bus/usb/001/002"));
+
+        Pump second = manager.attach("/dev/bus/usb/001/003");
+        Pump third = manager.attach("/dev/bus/usb/001/004");
+        assertEquals(2, second.getNumber());
+        assertEquals(3, third.getNumber());
+        assertNotSame(first.getSampleBuffer(), second.getSampleBuffer());
+
+        manager.detach("/dev/bus/usb/001/003");
+        assertEquals(2, manager.getPumps().size());
+        assertNull(manager.getPump(2));
+
+        // Boşalan numara yeniden kullanılır, sıra korunur
+        Pump replacement = manager.attach("/dev/bus/usb/001/005");
+        assertEquals(2, replacement.getNumber());
+        assertEquals(2, manager.getPumps().get(1).getNumber());
+
+        // Pompa 1 çıkarılınca kaldırılmaz, boşa çıkar ve sonraki cihaza atanır
+        manager.detach("/dev/bus/usb/001/002");
+        assertNull(manager.getPrimary().getDeviceKey());
+        assertSame(manager.getPrimary(), manager.attach("/dev/bus/usb/001/006"));
+    }
+
+    @Test
+    public void suspendedDeviceKeepsItsPumpWithinResumeWindow() throws Exception {
+        manager.attach("/dev/bus/usb/001/002");
+        Pump second = manager.attach("/dev/bus/usb/001/003");
+        second.getController().setResumeWindowMillis(200);
+        SimulatedPumpDevice device = new SimulatedPumpDevice(true);
+        second.getController().connect(device);
+        assertTrue(waitFor(() -> second.getController().getConnectionState() == ConnectionState.CONNECTED, 2000));
+
+        // Pencere içinde yeniden takılan cihaz aynı pompaya bağlanır
+        manager.suspend("/dev/bus/usb/001/003");
+        assertTrue(waitFor(() -> second.getController().getConnectionState() == ConnectionState.RECONNECTING, 2000));
+        assertSame(second, manager.attach("/dev/bus/usb/001/003"));
+        Thread.sleep(400);
+        assertSame(second, manager.getPump(2));
+
+        // Geri gelmeyen cihazın pompası pencere dolunca kaldırılır
+        manager.suspend("/dev/bus/usb/001/003");
+        assertTrue(waitFor(() -> manager.getPump(2) == null, 2000));
+    }
+
+    @Test
+    public void pumpsRunIndependentlyOnSharedPools() throws Exception {
+        // Havuzlar tembel başlar; bu noktada henüz iş parçacığı açılmamıştır
+        int threadsBefore = Thread.activeCount();
+        List<Pump> pumps = new ArrayList<>();
+        List<SimulatedPumpDevice> sims = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            SimulatedPumpDevice sim = device();
+            Pump pump = manager.attach("sim" + i);
+            pump.getController().connect(sim);
+            pumps.add(pump);
+            sims.add(sim);
+        }
+        assertTrue(waitFor(() -> manager.getConnectedCount() == 4, 5000));
+
+        pumps.get(1).getController().setSpeed(70);
+        pumps.get(1).getController().startPump();
+        pumps.get(3).getController().startPump();
+        assertTrue(waitFor(() -> sims.get(1).isRunning() && sims.get(3).isRunning(), 2000));
+        assertFalse(sims.get(0).isRunning());
+        assertFalse(sims.get(2).isRunning());
+        assertEquals(70, sims.get(1).getSpeed());
+        assertTrue(waitFor(() -> pumps.get(1).getController().getPumpState().isSettled(), 2000));
+
+        // Her pompa kendi deposuna örnek alır
+        for (Pump pump : pumps) {
+            final Pump p = pump;
+            assertTrue(waitFor(() -> p.getSampleBuffer().getHeadSequence() > 0, 3000));
+        }
+
+        manager.stopAll();
+        assertTrue(waitFor(() -> !sims.get(1).isRunning() && !sims.get(3).isRunning(), 2000));
+
+        // Denetleyiciler cihaz başına iş parçacığı açmaz; yalnızca simülatörlerin kendi iş parçacıkları eklenir
+        int added = Thread.activeCount() - threadsBefore;
+        assertTrue(String.valueOf(added),
+                added <= sims.size() + PumpManager.DEFAULT_IO_THREADS + PumpManager.DEFAULT_WRITER_THREADS);
+    }
+
+    // Hiçbir el sıkışmaya yanıt vermeyen eski donanım yazılımı
+    private static class SilentTransport implements SerialTransport {
+        @Override
+        public void setListener(Listener listener) {
+        }
+
+        @Override
+        public void write(byte[] data, int offset, int length) {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    @Test
+    public void handshakesDoNotDelayOtherPumpsTimers() throws Exception {
+        Pump first = manager.attach("sim0");
+        Pump second = manager.attach("sim1");
+        Pump third = manager.attach("sim2");
+        third.getController().connect(device());
+        assertTrue(waitFor(() -> third.getController().getConnectionState() == ConnectionState.CONNECTED, 2000));
+
+        // Pompa 3'te her 100 ms'de bir hız adımı; bu sırada iki pompa yanıtsız cihaza bağlanır ve
+        // el sıkışma zaman aşımlarını (toplam ~800 ms) bekler. Havuzda yalnızca iki iş parçacığı var.
+        third.getController().getProfileRunner().start(new InfusionProfile("rampa",
+                Collections.singletonList(InfusionProfile.Segment.ramp(1200, 10, 60, true))));
+        first.getController().connect(new SilentTransport());
+        second.getController().connect(new SilentTransport());
+
+        assertTrue(waitFor(() -> !third.getController().getProfileRunner().isRunning(), 3000));
+        long maxLatenessMillis = third.getController().getProfileRunner().getMaxLatenessNanos() / 1_000_000L;
+        assertTrue(maxLatenessMillis + " ms", maxLatenessMillis < 100);
+
+        // Yanıtsız cihazlar ASCII kipinde ve kimliksiz komutlarla bağlanır
+        assertTrue(waitFor(() -> manager.getConnectedCount() == 3, 2000));
+        assertFalse(first.getController().getPumpState().acknowledged);
+        assertTrue(third.getController().getPumpState().acknowledged);
+    }
+
+    @Test
+    public void throughputScalesWithDeviceCount() throws Exception {
+        // Cihaz sayısı başına ~1.5 s sürer; yalnızca -Dbenchmark.large=true ile çalışır
+        Assume.assumeTrue(Boolean.getBoolean("benchmark.large"));
+        final int rateHz = 500;
+        double[] perDevice = new double[4];
+        int[] counts = {1, 2, 4, 8};
+        for (int c = 0; c < counts.length; c++) {
+            int count = counts[c];
+            PumpManager fleet = new PumpManager(1 << 14, null);
+            try {
+                for (int i = 0; i < count; i++) {
+                    SimulatedPumpDevice sim = device();
+                    sim.setChunking(16, 64);
+                    Pump pump = fleet.attach("sim" + i);
+                    pump.getController().setStreamRateHz(rateHz);
+                    pump.getController().connect(sim);
+                }
+                final PumpManager f = fleet;
+                assertTrue(waitFor(() -> f.getConnectedCount() == count, 5000));
+                Thread.sleep(200);
+
+                long startSamples = fleet.getTotalSamples();
+                long start = System.nanoTime();
+                Thread.sleep(1000);
+                long received = fleet.getTotalSamples() - startSamples;
+                double seconds = (System.nanoTime() - start) / 1e9;
+                double aggregate = received / seconds;
+                perDevice[c] = aggregate / count;
+            } finally {
+                fleet.shutdown();
+            }
+        }
+        // Toplam hız cihaz sayısıyla doğrusal artar; cihaz başına hız düşmez
+        for (double rate : perDevice) {
+            assertTrue(String.valueOf(rate), rate > rateHz * 0.8);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.syringepumpcontroller.acquisition;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class ReconnectBackoffTest {
+
+    @Test
+    public void delaysGrowUpToTheCapAndResetOnSuccess() {
+        ReconnectBackoff backoff = new ReconnectBackoff(100, 1000, 2.0, 0.0, new Random(1));
+        assertEquals(100, backoff.nextDelayMillis());
+        assertEquals(200, backoff.nextDelayMillis());
+        assertEquals(400, backoff.nextDelayMillis());
+        assertEquals(800, backoff.nextDelayMillis());
+        assertEquals(1000, backoff.nextDelayMillis());
+        assertEquals(1000, backoff.nextDelayMillis());
+        assertEquals(6, backoff.getAttempts());
+
+        backoff.reset();
+        assertEquals(0, backoff.getAttempts());
+        assertEquals(100, backoff.nextDelayMillis());
+    }
+
+    @Test
+    public void jitterOnlyShortensTheDelay() {
+        ReconnectBackoff backoff = new ReconnectBackoff(1000, 1000, 2.0, 0.2, new Random(7));
+        for (int i = 0; i < 1000; i++) {
+            long delay = backoff.nextDelayMillis();
+            assertTrue(String.valueOf(delay), delay >= 800 && delay <= 1000);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsInvalidParameters() {
+        new ReconnectBackoff(100, 50, 2.0, 0.2, new Random());
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.syringepumpcontroller.acquisition;
+
+import com.example.syringepumpcontroller.data.SampleBuffer;
+import com.example.syringepumpcontroller.protocol.TelemetryLink;
+import com.example.syringepumpcontroller.serial.SerialTransport;
+import com.example.syringepumpcontroller.simulation.SimulatedPumpDevice;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static org.junit.Assert.*;
+
+public class SampleStreamerTest {
+
+    private ScheduledExecutorService executor;
+
+    @Before
+    public void setUp() {
+        executor = Executors.newSingleThreadScheduledExecutor();
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void streamsAt10Hz() throws Exception {
+        measureStreaming(10, 2000);
+    }
+
+    @Test
+    public void streamsAt100Hz() throws Exception {
+        measureStreaming(100, 1000);
+    }
+
+    @Test
+    public void streamsAt1000Hz() throws Exception {
+        measureStreaming(1000, 1000);
+    }
+
+    private void measureStreaming(int rateHz, long durationMillis) throws Exception {
+        SimulatedPumpDevice device = new SimulatedPumpDevice(true);
+        SampleStreamer streamer = new SampleStreamer(device, executor, 4096);
+        TelemetryLink link = new TelemetryLink(device, streamer);
+
+        try {
+            assertTrue(link.negotiateBinary(1000));
+            streamer.startStreaming(rateHz, 1000, 1000);
+            Thread.sleep(durationMillis);
+            streamer.stop();
+            Thread.sleep(50);
+
+            long expected = rateHz * durationMillis / 1000;
+            long received = streamer.getSamplesReceived();
+            assertEquals(SampleStreamer.Mode.STOPPED, streamer.getMode());
+            assertTrue("received " + received + " expected ~" + expected,
+                    Math.abs(received - expected) <= expected / 10 + 2);
+            assertEquals(0, streamer.getFrameErrors());
+            assertEquals(0, link.getLostFrames());
+        } finally {
+            device.close();
+        }
+    }
+
+    @Test
+    public void fallsBackToPollingWhenDeviceDoesNotStream() throws Exception {
+        final StringBuilder written = new StringBuilder();
+        SerialTransport silent = new SerialTransport() {
+            @Override
+            public void setListener(Listener listener) {
+            }
+
+            @Override
+            public synchronized void write(byte[] data, int offset, int length) {
+                written.append(new String(data, offset, length, StandardCharsets.US_ASCII));
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        SampleStreamer streamer = new SampleStreamer(silent, executor, 64);
+        streamer.startStreaming(100, 50, 20);
+        Thread.sleep(200);
+
+        assertEquals(SampleStreamer.Mode.POLLING, streamer.getMode());
+        synchronized (silent) {
+            assertTrue(written.toString().startsWith("STREAM_100\n"));
+            assertTrue(written.toString().contains("GET_SENSOR\n"));
+        }
+    }
+
+    @Test
+    public void rowsOfOneFrameGetDistinctTimestamps() {
+        SampleStreamer streamer = new SampleStreamer((SerialTransport) null, executor, 0);
+        SampleBuffer buffer = new SampleBuffer(1 << 8);
+        streamer.setSampleBuffer(buffer);
+        final long[] now = {1_700_000_000_000L};
+        streamer.setClock(() -> now[0]);
+
+        // 1 kHz'de iki ikili çerçeve, her biri 64 satır ve tek bir okumada gelir
+        long deviceMicros = 5000;
+        for (int frame = 0; frame < 2; frame++) {
+            for (int row = 0; row < 64; row++) {
+                streamer.onSample(deviceMicros, 0, row);
+                deviceMicros += 1000;
+            }
+            now[0] += 64;
+        }
+        // Sıfırlanan cihazın zamanı geri gider; eksen yeniden çapalanır ama geri gitmez
+        streamer.onSample(0, 0, 0f);
+
+        SampleBuffer.Snapshot snapshot = new SampleBuffer.Snapshot();
+        buffer.snapshot(0, snapshot);
+        assertEquals(129, snapshot.count);
+        for (int i = 1; i < 128; i++) {
+            assertEquals(snapshot.timestamps[i - 1] + 1, snapshot.timestamps[i]);
+        }
+        assertTrue(snapshot.timestamps[128] >= snapshot.timestamps[127]);
+    }
+
+    @Test
+    public void decimatesWhenConsumerFallsBehind() {
+        SampleStreamer streamer = new SampleStreamer((SerialTransport) null, executor, 16);
+        for (int i = 0; i < 200; i++) {
+            streamer.onSample(TelemetryLink.NO_DEVICE_TIME, 0, 1.0f);
+        }
+        assertTrue(streamer.getDecimation() > 1);
+        assertTrue(streamer.getQueueSize() <= 16);
+
+        final int[] drained = new int[1];
+        streamer.drain((timestampNanos, value) -> {
+            assertEquals(1.0f, value, 1e-6f);
+            drained[0]++;
+        }, 100);
+        assertTrue(drained[0] > 0);
+        assertEquals(200, streamer.getSamplesReceived());
+    }
+}
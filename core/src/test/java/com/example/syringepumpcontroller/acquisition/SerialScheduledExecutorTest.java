@@ -0,0 +1,117 @@
+package com.example.syringepumpcontroller.acquisition;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class SerialScheduledExecutorTest {
+
+    private final ScheduledExecutorService pool = Executors.newScheduledThreadPool(4);
+
+    @After
+    public void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    public void lanesRunTasksInOrderAndNeverConcurrently() throws Exception {
+        final int lanes = 8;
+        final int tasksPerLane = 2000;
+        final List<List<Integer>> seen = new ArrayList<>();
+        final AtomicInteger overlaps = new AtomicInteger();
+        final CountDownLatch done = new CountDownLatch(lanes);
+        for (int l = 0; l < lanes; l++) {
+            final List<Integer> order = new ArrayList<>();
+            seen.add(order);
+            final SerialScheduledExecutor lane = new SerialScheduledExecutor(pool);
+            final AtomicInteger active = new AtomicInteger();
+            for (int i = 0; i < tasksPerLane; i++) {
+                final int index = i;
+                lane.execute(() -> {
+                    if (active.incrementAndGet() != 1) {
+                        overlaps.incrementAndGet();
+                    }
+                    order.add(index);
+                    active.decrementAndGet();
+                    if (index == tasksPerLane - 1) {
+                        done.countDown();
+                    }
+                });
+            }
+        }
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(0, overlaps.get());
+        for (List<Integer> order : seen) {
+            assertEquals(tasksPerLane, order.size());
+            for (int i = 0; i < tasksPerLane; i++) {
+                assertEquals(i, (int) order.get(i));
+            }
+        }
+    }
+
+    @Test
+    public void scheduledTaskRunsOnLaneAndCanBeCancelled() throws Exception {
+        SerialScheduledExecutor lane = new SerialScheduledExecutor(pool);
+        final List<String> events = Collections.synchronizedList(new ArrayList<String>());
+        final CountDownLatch ran = new CountDownLatch(1);
+        ScheduledFuture<?> cancelled = lane.schedule(() -> events.add("iptal"), 30, TimeUnit.MILLISECONDS);
+        lane.schedule(() -> {
+            events.add("zamanlı");
+            ran.countDown();
+        }, 50, TimeUnit.MILLISECONDS);
+        assertTrue(cancelled.cancel(false));
+        lane.execute(() -> events.add("hemen"));
+
+        assertTrue(ran.await(2, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList("hemen", "zamanlı"), events);
+        assertTrue(cancelled.isCancelled());
+    }
+
+    @Test
+    public void periodicTaskStopsAfterCancel() throws Exception {
+        SerialScheduledExecutor lane = new SerialScheduledExecutor(pool);
+        final AtomicInteger ticks = new AtomicInteger();
+        ScheduledFuture<?> future = lane.scheduleAtFixedRate(ticks::incrementAndGet, 0, 5, TimeUnit.MILLISECONDS);
+        long deadline = System.currentTimeMillis() + 2000;
+        while (ticks.get() < 5 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+        }
+        future.cancel(false);
+        Thread.sleep(20);
+        int after = ticks.get();
+        Thread.sleep(50);
+        assertTrue(after >= 5);
+        assertEquals(after, ticks.get());
+    }
+
+    @Test
+    public void shutdownDrainsQueuedTasks() throws Exception {
+        SerialScheduledExecutor lane = new SerialScheduledExecutor(pool);
+        final AtomicInteger count = new AtomicInteger();
+        for (int i = 0; i < 500; i++) {
+            lane.execute(count::incrementAndGet);
+        }
+        lane.shutdown();
+        assertTrue(lane.awaitTermination(2, TimeUnit.SECONDS));
+        assertEquals(500, count.get());
+        try {
+            lane.execute(count::incrementAndGet);
+            fail();
+        } catch (RejectedExecutionException expected) {
+            // Kapatılan şerit yeni görev kabul etmez
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.syringepumpcontroller.bus;
+
+import com.example.syringepumpcontroller.metrics.Histogram;
+
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tek yayıncıdan dört aboneye dağıtımın verimi ve yayından işleyiciye gecikmesi. Aboneler
+ * farklı bekleme stratejileri kullanır; sürekli dönen abone yalnızca yeterli çekirdek varsa
+ * eklenir (tek çekirdekte yayıncıyı aç bırakır). Gecikme ölçümünde olayın zaman alanı
+ * yayın anını (nanoTime) taşır.
+ */
+public class EventRingBenchmarkTest {
+
+    private static final int EVENTS = 1_000_000;
+    private static final int LATENCY_EVENTS = 2000;
+    private static final long LATENCY_INTERVAL_NANOS = 500_000;
+
+    private static final class Recorder implements EventHandler {
+        final Histogram latency = new Histogram("bus.latency", "µs", Histogram.geometricBounds(1, 10_000_000, 1.05));
+        volatile boolean measure;
+        long checksum;
+
+        @Override
+        public void onEvent(BusEvent event, long sequence, boolean endOfBatch) {
+            checksum += event.getArgument();
+            if (measure) {
+                latency.record((System.nanoTime() - event.getTimestampMillis()) / 1000);
+            }
+        }
+    }
+
+    // Ölçümler JMH kaynaklarındadır (src/jmh); buradaki sınır denetimleri uzun sürdüğünden
+    // yalnızca -Dbenchmark.large=true ile çalışır
+    @Before
+    public void requireBenchmarkRun() {
+        Assume.assumeTrue(Boolean.getBoolean("benchmark.large"));
+    }
+
+    @Test
+    public void fanOutThroughputAndLatency() throws Exception {
+        String[] names = {"dönen", "bırakan", "uyuyan", "engelleyen"};
+        WaitStrategy[] strategies = {WaitStrategy.busySpin(), WaitStrategy.yielding(),
+                WaitStrategy.sleeping(50_000), WaitStrategy.blocking()};
+        int first = Runtime.getRuntime().availableProcessors() > strategies.length ? 0 : 1;
+
+        EventRing ring = new EventRing("ölçüm", 1 << 14, 10_000);
+        Recorder[] recorders = new Recorder[strategies.length];
+        EventRing.Subscriber[] subscribers = new EventRing.Subscriber[strategies.length];
+        for (int i = first; i < strategies.length; i++) {
+            recorders[i] = new Recorder();
+            subscribers[i] = ring.subscribe("abone-" + names[i], recorders[i], strategies[i],
+                    OverrunPolicy.BLOCK_PUBLISHER);
+        }
+        int count = strategies.length - first;
+
+        long start = System.nanoTime();
+        long expected = 0;
+        for (int i = 0; i < EVENTS; i++) {
+            ring.publish(1, i, 0, i & 0xFF, 0, null);
+            expected += i & 0xFF;
+        }
+        for (int i = first; i < strategies.length; i++) {
+            awaitSequence(subscribers[i], EVENTS - 1);
+        }
+        long elapsed = System.nanoTime() - start;
+        double eventsPerSecond = EVENTS / (elapsed / 1e9);
+        for (int i = first; i < strategies.length; i++) {
+            assertEquals(expected, recorders[i].checksum);
+            assertEquals(0, subscribers[i].getOverruns());
+        }
+        assertEquals(0, ring.getGateTimeouts());
+
+        // Gecikme: 2 kHz'de yayın (1 kHz akışın iki katı)
+        for (int i = first; i < strategies.length; i++) {
+            recorders[i].measure = true;
+        }
+        long due = System.nanoTime();
+        for (int i = 0; i < LATENCY_EVENTS; i++) {
+            due += LATENCY_INTERVAL_NANOS;
+            for (long wait = due - System.nanoTime(); wait > 0; wait = due - System.nanoTime()) {
+                LockSupport.parkNanos(wait);
+            }
+            ring.publish(1, System.nanoTime(), 0, 0, 0, null);
+        }
+        for (int i = first; i < strategies.length; i++) {
+            awaitSequence(subscribers[i], EVENTS + LATENCY_EVENTS - 1);
+            Histogram latency = recorders[i].latency;
+            assertEquals(LATENCY_EVENTS, latency.getCount());
+            // Tek çekirdekte de ortanca gecikme yayın aralığının birkaç katını geçmemeli
+            assertTrue(names[i] + " p50 " + latency.getValueAtPercentile(50) + " µs",
+                    latency.getValueAtPercentile(50) < 10_000);
+            subscribers[i].close();
+            assertTrue(subscribers[i].awaitStopped(1000));
+        }
+        assertTrue("Saniyede " + eventsPerSecond + " olay", eventsPerSecond > 100_000);
+    }
+
+    private static void awaitSequence(EventRing.Subscriber subscriber, long sequence) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 30_000;
+        while (subscriber.getSequence() < sequence && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+        }
+        assertTrue("abone " + subscriber.getSequence() + " sırasında kaldı", subscriber.getSequence() >= sequence);
+    }
+}
@@ -0,0 +1,187 @@
+package com.example.syringepumpcontroller.bus;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+public class EventRingTest {
+
+    // Sıra ve değer sürekliliğini denetleyen işleyici
+    private static final class OrderChecker implements EventHandler {
+        final AtomicLong lastValue = new AtomicLong(-1);
+        volatile String error;
+
+        @Override
+        public void onEvent(BusEvent event, long sequence, boolean endOfBatch) {
+            long expected = lastValue.get() + 1;
+            if (sequence != expected || event.getValue() != (float) (expected % 1000)
+                    || event.getTimestampMillis() != expected || event.getType() != 7) {
+                error = "sıra " + sequence + ", beklenen " + expected;
+            }
+            lastValue.set(sequence);
+        }
+    }
+
+    @Test
+    public void fansOutEveryEventInOrderToEachSubscriber() throws Exception {
+        EventRing ring = new EventRing("test", 64, 5000);
+        WaitStrategy[] strategies = {WaitStrategy.busySpin(), WaitStrategy.yielding(),
+                WaitStrategy.sleeping(100_000), WaitStrategy.blocking()};
+        OrderChecker[] checkers = new OrderChecker[strategies.length];
+        EventRing.Subscriber[] subscribers = new EventRing.Subscriber[strategies.length];
+        for (int i = 0; i < strategies.length; i++) {
+            checkers[i] = new OrderChecker();
+            subscribers[i] = ring.subscribe("abone-" + i, checkers[i], strategies[i], OverrunPolicy.BLOCK_PUBLISHER);
+        }
+        int events = 200_000;
+        for (int i = 0; i < events; i++) {
+            ring.publish(7, i, i % 1000, 0, 0, null);
+        }
+        for (int i = 0; i < strategies.length; i++) {
+            assertTrue(waitFor(subscribers[i], events - 1));
+            assertNull(checkers[i].error, checkers[i].error);
+            assertEquals(events, subscribers[i].getConsumed());
+            assertEquals(0, subscribers[i].getOverruns());
+            subscribers[i].close();
+            assertTrue(subscribers[i].awaitStopped(1000));
+        }
+        // Küçük halka: yayıncı aboneleri beklemiştir ama hiç bırakmamıştır
+        assertTrue(ring.getGateWaits() > 0);
+        assertEquals(0, ring.getGateTimeouts());
+        assertEquals(0, ring.getSubscriberCount());
+    }
+
+    @Test
+    public void dropOldestSubscriberSkipsToOldestValidEvent() {
+        EventRing ring = new EventRing("test", 16);
+        final List<Long> seen = new ArrayList<>();
+        EventRing.Subscriber subscriber = ring.subscribe(
+                (event, sequence, endOfBatch) -> seen.add(event.getTimestampMillis()), OverrunPolicy.DROP_OLDEST);
+        for (int i = 0; i < 100; i++) {
+            ring.publish(1, i, 0, 0, 0, null);
+        }
+        assertEquals(16, subscriber.poll(Integer.MAX_VALUE));
+        assertEquals(84, subscriber.getOverruns());
+        assertEquals(84L, (long) seen.get(0));
+        assertEquals(99L, (long) seen.get(15));
+        assertEquals(0, ring.getGateWaits());
+
+        // Yoklama sınırı: kalanlar sonraki çağrıya kalır
+        seen.clear();
+        for (int i = 100; i < 110; i++) {
+            ring.publish(1, i, 0, 0, 0, null);
+        }
+        assertEquals(4, subscriber.poll(4));
+        assertEquals(6, subscriber.getLag());
+        assertEquals(6, subscriber.poll(100));
+        assertEquals(109L, (long) seen.get(9));
+    }
+
+    @Test
+    public void stuckBlockingSubscriberIsReleasedAfterGateTimeout() {
+        EventRing ring = new EventRing("test", 8, 20);
+        EventRing.Subscriber stuck = ring.subscribe((event, sequence, endOfBatch) -> { }, OverrunPolicy.BLOCK_PUBLISHER);
+        for (int i = 0; i < 8; i++) {
+            ring.publish(1, i, 0, 0, 0, null);
+        }
+        assertEquals(0, ring.getGateWaits());
+
+        long start = System.nanoTime();
+        ring.publish(1, 8, 0, 0, 0, null);
+        assertTrue(System.nanoTime() - start >= 20_000_000L);
+        assertEquals(1, ring.getGateTimeouts());
+        // Bırakılan abone yetişene kadar yayıncı beklemez
+        start = System.nanoTime();
+        for (int i = 9; i < 1000; i++) {
+            ring.publish(1, i, 0, 0, 0, null);
+        }
+        assertTrue(System.nanoTime() - start < 20_000_000L);
+        assertEquals(1, ring.getGateWaits());
+
+        assertEquals(8, stuck.poll(Integer.MAX_VALUE));
+        assertEquals(992, stuck.getOverruns());
+        // Yetişince yeniden beklenir
+        for (int i = 1000; i < 1009; i++) {
+            ring.publish(1, i, 0, 0, 0, null);
+        }
+        assertEquals(2, ring.getGateWaits());
+    }
+
+    @Test
+    public void regatedSubscriberIsNotLappedByCachedGate() throws Exception {
+        EventRing ring = new EventRing("test", 8, 100);
+        final List<Long> seen = new ArrayList<>();
+        final EventRing.Subscriber subscriber = ring.subscribe(
+                (event, sequence, endOfBatch) -> seen.add(event.getTimestampMillis()), OverrunPolicy.BLOCK_PUBLISHER);
+        // Abone bırakılır; yayıncı onsuz ilerler, son yayında kapıyı 40 olarak önbelleğe alır
+        for (int i = 0; i < 42; i++) {
+            ring.publish(1, i, 0, 0, 0, null);
+        }
+        assertEquals(1, ring.getGateTimeouts());
+
+        // Abone en eski olaya atlar ve yarı kapasiteye yetişince yeniden beklenir: 34..38 işlendi, 39..41 bekliyor
+        assertEquals(0, subscriber.poll(5));
+        assertEquals(5, subscriber.poll(5));
+        assertEquals(34L, (long) seen.get(0));
+        long overruns = subscriber.getOverruns();
+        long waits = ring.getGateWaits();
+
+        // 47, 39'un yuvasına yazar; yayıncı önbellekteki kapıya güvenmeyip aboneyi beklemeli
+        Thread reader = new Thread(() -> {
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                return;
+            }
+            long deadline = System.currentTimeMillis() + 1000;
+            while (subscriber.getSequence() < 48 && System.currentTimeMillis() < deadline) {
+                subscriber.poll(Integer.MAX_VALUE);
+            }
+        });
+        reader.start();
+        for (int i = 42; i < 49; i++) {
+            ring.publish(1, i, 0, 0, 0, null);
+        }
+        reader.join();
+
+        assertEquals(waits + 1, ring.getGateWaits());
+        assertEquals(1, ring.getGateTimeouts());
+        assertEquals(overruns, subscriber.getOverruns());
+        List<Long> expected = new ArrayList<>();
+        for (long i = 34; i < 49; i++) {
+            expected.add(i);
+        }
+        assertEquals(expected, seen);
+    }
+
+    @Test
+    public void handlerFailureDoesNotStopSubscription() throws Exception {
+        EventRing ring = new EventRing("test", 16);
+        final AtomicLong handled = new AtomicLong();
+        EventRing.Subscriber subscriber = ring.subscribe("hatalı", (event, sequence, endOfBatch) -> {
+            handled.incrementAndGet();
+            if (sequence == 2) {
+                throw new IllegalStateException("deneme");
+            }
+        }, WaitStrategy.blocking(), OverrunPolicy.DROP_OLDEST);
+        for (int i = 0; i < 5; i++) {
+            ring.publish(1, i, 0, 0, 0, "olay");
+        }
+        assertTrue(waitFor(subscriber, 4));
+        assertEquals(5, handled.get());
+        subscriber.close();
+        assertTrue(subscriber.awaitStopped(1000));
+    }
+
+    private static boolean waitFor(EventRing.Subscriber subscriber, long sequence) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (subscriber.getSequence() < sequence && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+        }
+        return subscriber.getSequence() >= sequence;
+    }
+}
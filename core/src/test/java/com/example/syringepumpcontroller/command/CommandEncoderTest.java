@@ -0,0 +1,58 @@
+package com.example.syringepumpcontroller.command;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.*;
+
+public class CommandEncoderTest {
+
+    private static String encode(String name, int argument) {
+        byte[] out = new byte[CommandEncoder.encodedLength(name, argument) + 2];
+        int end = CommandEncoder.encode(name, argument, out, 1);
+        assertEquals(out.length - 1, end);
+        return new String(out, 1, end - 1, StandardCharsets.US_ASCII);
+    }
+
+    @Test
+    public void writesDecimalArgumentsWithoutStrings() {
+        int[] values = {0, 7, 9, 10, 99, 100, 1000, 65535, -1, -10, -999, Integer.MAX_VALUE, Integer.MIN_VALUE + 1};
+        for (int value : values) {
+            assertEquals("SPEED_" + value, encode("SPEED_", value));
+            assertEquals(String.valueOf(value).length(), CommandEncoder.intLength(value));
+        }
+        assertEquals("GET_SENSOR", encode("GET_SENSOR", CommandEncoder.NO_ARGUMENT));
+    }
+
+    @Test
+    public void appendsRequestIdLikeTheTextForm() {
+        int[][] cases = {{40, 7}, {CommandEncoder.NO_ARGUMENT, 0}, {1000, 65535}, {5, CommandEncoder.NO_REQUEST_ID}};
+        for (int[] c : cases) {
+            byte[] out = new byte[CommandEncoder.encodedLength("SPEED_", c[0], c[1])];
+            int end = CommandEncoder.encode("SPEED_", c[0], c[1], out, 0);
+            assertEquals(out.length, end);
+            assertEquals(CommandEncoder.toString("SPEED_", c[0], c[1]),
+                    new String(out, 0, end, StandardCharsets.US_ASCII));
+        }
+        assertEquals("SPEED_40@7", CommandEncoder.toString("SPEED_", 40, 7));
+        assertEquals("PROTO_ACK@0", CommandEncoder.toString("PROTO_ACK", CommandEncoder.NO_ARGUMENT, 0));
+    }
+
+    @Test
+    public void integerMinValueDoesNotOverflow() {
+        byte[] out = new byte[16];
+        int end = CommandEncoder.writeInt(Integer.MIN_VALUE, out, 0);
+        assertEquals(String.valueOf(Integer.MIN_VALUE), new String(out, 0, end, StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    public void matchesNamesLikeTheTextRule() {
+        String[] commands = {"START", "START@12", "STARTX", "STAR", "STOP", ""};
+        for (String command : commands) {
+            byte[] bytes = command.getBytes(StandardCharsets.US_ASCII);
+            assertEquals(command, CommandScheduler.is(command, "START"),
+                    CommandEncoder.is(bytes, 0, bytes.length, "START"));
+        }
+    }
+}
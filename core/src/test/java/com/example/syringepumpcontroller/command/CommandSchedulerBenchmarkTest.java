@@ -0,0 +1,94 @@
+package com.example.syringepumpcontroller.command;
+
+import com.example.syringepumpcontroller.serial.SerialTransport;
+
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.Executor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Komut yazma yolunun komut başına maliyeti ve bellek ayırması: kodlama, kuyruk, yığın ve porta
+ * yazma. Yazıcı aynı iş parçacığında çalışan yürütücüdedir; böylece her submit komutu hemen
+ * porta kadar götürür ve ayrılan bellek bu iş parçacığının sayacından okunur.
+ */
+public class CommandSchedulerBenchmarkTest {
+
+    private static final int COMMANDS = 1_000_000;
+
+    // Yazılan baytları yalnızca sayan port
+    private static final class CountingTransport implements SerialTransport {
+        long bytes;
+
+        @Override
+        public void setListener(Listener listener) {
+        }
+
+        @Override
+        public void write(byte[] data, int offset, int length) {
+            bytes += length;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    private interface Workload {
+        void submit(CommandScheduler scheduler, int i);
+    }
+
+    // Ölçümler JMH kaynaklarındadır (src/jmh); buradaki sınır denetimleri uzun sürdüğünden
+    // yalnızca -Dbenchmark.large=true ile çalışır
+    @Before
+    public void requireBenchmarkRun() {
+        Assume.assumeTrue(Boolean.getBoolean("benchmark.large"));
+    }
+
+    @Test
+    public void writePathDoesNotAllocate() {
+        run("hız (SPEED_n)", (scheduler, i) -> scheduler.submit("SPEED_", i % 1000));
+        run("yoklama", (scheduler, i) -> scheduler.submit("GET_SENSOR"));
+        run("başlat/durdur", (scheduler, i) -> scheduler.submit((i & 1) == 0 ? "START" : "STOP"));
+    }
+
+    private static void run(String name, Workload workload) {
+        Executor inline = Runnable::run;
+        long best = Long.MAX_VALUE;
+        long allocated = -1;
+        // İlk turlar ısınma; en iyi tur denetlenir
+        for (int round = 0; round < 5; round++) {
+            CountingTransport transport = new CountingTransport();
+            CommandScheduler scheduler = new CommandScheduler(transport, inline);
+            long bytesBefore = allocatedBytes();
+            long start = System.nanoTime();
+            for (int i = 0; i < COMMANDS; i++) {
+                workload.submit(scheduler, i);
+            }
+            best = Math.min(best, System.nanoTime() - start);
+            long bytesAfter = allocatedBytes();
+            if (bytesBefore >= 0 && bytesAfter >= 0) {
+                allocated = bytesAfter - bytesBefore;
+            }
+            assertEquals(COMMANDS, scheduler.getWritten());
+            scheduler.close();
+        }
+        // Havuz ısındıktan sonra komut başına ayırma olmamalı (ölçümün kendi sabit payı hariç)
+        assertTrue(name + ": " + allocated + " bayt", allocated < 4096);
+        double perCommand = (double) best / COMMANDS;
+        assertTrue(name + ": komut başına " + perCommand + " ns", perCommand < 50_000);
+    }
+
+    // com.sun.management.ThreadMXBean varsa bu iş parçacığının ayırdığı toplam bayt; yoksa -1
+    private static long allocatedBytes() {
+        java.lang.management.ThreadMXBean bean = java.lang.management.ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+}
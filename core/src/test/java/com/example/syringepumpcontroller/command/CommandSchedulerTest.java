@@ -0,0 +1,355 @@
+package com.example.syringepumpcontroller.command;
+
+import com.example.syringepumpcontroller.metrics.Histogram;
+import com.example.syringepumpcontroller.serial.SerialTransport;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class CommandSchedulerTest {
+
+    // Her yazmayı ayrı kaydeden; ilk yazmayı serbest bırakılana kadar bekleten sahte port
+    static class GatedTransport implements SerialTransport {
+        final List<String> writes = Collections.synchronizedList(new ArrayList<String>());
+        final CountDownLatch firstWriteStarted = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        volatile long writeDelayNanos;
+
+        @Override
+        public void setListener(Listener listener) {
+        }
+
+        @Override
+        public void write(byte[] data, int offset, int length) {
+            writes.add(new String(data, offset, length, StandardCharsets.US_ASCII));
+            if (firstWriteStarted.getCount() > 0) {
+                firstWriteStarted.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            long delay = writeDelayNanos;
+            if (delay > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(delay);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    private GatedTransport transport;
+    private CommandScheduler scheduler;
+
+    @Before
+    public void setUp() {
+        transport = new GatedTransport();
+        scheduler = new CommandScheduler(transport);
+        scheduler.start();
+    }
+
+    @After
+    public void tearDown() {
+        transport.release.countDown();
+        scheduler.close();
+    }
+
+    // Yazıcıyı ilk yazmada bekletir; sonraki komutlar kuyrukta birikir
+    private void blockWriter() throws InterruptedException {
+        scheduler.submit("PROTO_BIN");
+        assertTrue(transport.firstWriteStarted.await(2, TimeUnit.SECONDS));
+    }
+
+    private void releaseAndDrain() throws InterruptedException {
+        transport.release.countDown();
+        long deadline = System.currentTimeMillis() + 2000;
+        while (scheduler.getPendingCount() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+        }
+        scheduler.close();
+    }
+
+    @Test
+    public void coalescesSpeedUpdatesToLatestValue() throws Exception {
+        blockWriter();
+        for (int speed = 1; speed <= 100; speed++) {
+            scheduler.submit("SPEED_" + speed);
+        }
+        releaseAndDrain();
+
+        assertEquals(2, transport.writes.size());
+        assertEquals("SPEED_100\n", transport.writes.get(1));
+        assertEquals(99, scheduler.getCoalesced());
+        assertEquals(1, scheduler.getLatency(CommandScheduler.Kind.SPEED).getCount());
+    }
+
+    @Test
+    public void numericArgumentsAreEncodedAndCoalescedLikeText() throws Exception {
+        blockWriter();
+        scheduler.submit("DIR_FWD");
+        for (int speed = 1; speed <= 100; speed++) {
+            scheduler.submit("SPEED_", speed);
+        }
+        scheduler.submit("STREAM_", -1);
+        scheduler.submit("START");
+        scheduler.submit("STOP");
+        releaseAndDrain();
+
+        assertEquals("STOP\nDIR_FWD\nSPEED_100\nSTREAM_-1\n", transport.writes.get(1));
+        assertEquals(100, scheduler.getCoalesced());
+    }
+
+    @Test
+    public void requestIdsAreEncodedWithTheNewestValue() throws Exception {
+        blockWriter();
+        for (int speed = 1; speed <= 20; speed++) {
+            scheduler.submit("SPEED_", speed, 100 + speed);
+        }
+        scheduler.submit("START", CommandEncoder.NO_ARGUMENT, 200);
+        releaseAndDrain();
+
+        assertEquals("SPEED_20@120\nSTART@200\n", transport.writes.get(1));
+    }
+
+    @Test
+    public void coalescedStopCarriesTheNewestRequestId() throws Exception {
+        blockWriter();
+        scheduler.submit("STOP", CommandEncoder.NO_ARGUMENT, 7);
+        scheduler.submit("STOP", CommandEncoder.NO_ARGUMENT, 8);
+        releaseAndDrain();
+
+        assertEquals("STOP@8\n", transport.writes.get(1));
+        assertEquals(1, scheduler.getCoalesced());
+    }
+
+    @Test
+    public void pooledEntriesDoNotLeakBytesBetweenCommands() throws Exception {
+        // Uzun bir komutun tamponu havuza döndükten sonra kısa komutlara artık bayt taşımamalı
+        transport.release.countDown();
+        StringBuilder longCommand = new StringBuilder("LABEL_");
+        for (int i = 0; i < 100; i++) {
+            longCommand.append('x');
+        }
+        scheduler.submit(longCommand.toString());
+        assertTrue(waitForWrites(1));
+        for (int i = 0; i < 50; i++) {
+            scheduler.submit("SPEED_", i);
+            assertTrue(waitForWrites(i + 2));
+        }
+        scheduler.close();
+
+        assertEquals(longCommand + "\n", transport.writes.get(0));
+        for (int i = 0; i < 50; i++) {
+            assertEquals("SPEED_" + i + "\n", transport.writes.get(i + 1));
+        }
+    }
+
+    private boolean waitForWrites(int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 2000;
+        while (transport.writes.size() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+        }
+        return transport.writes.size() >= count;
+    }
+
+    @Test
+    public void stopGoesAheadOfQueuedCommandsAndCancelsStart() throws Exception {
+        blockWriter();
+        scheduler.submit("DIR_REV");
+        for (int speed = 0; speed < 50; speed++) {
+            scheduler.submit("SPEED_" + speed);
+        }
+        scheduler.submit("START");
+        scheduler.submit("GET_SENSOR");
+        scheduler.submit("STOP");
+        releaseAndDrain();
+
+        assertEquals(2, transport.writes.size());
+        assertEquals("STOP\nDIR_REV\nSPEED_49\nGET_SENSOR\n", transport.writes.get(1));
+    }
+
+    @Test
+    public void startSubmittedAfterStopIsKept() throws Exception {
+        blockWriter();
+        scheduler.submit("STOP");
+        scheduler.submit("START");
+        releaseAndDrain();
+
+        assertEquals("STOP\nSTART\n", transport.writes.get(1));
+    }
+
+    @Test
+    public void batchesPendingCommandsInOrder() throws Exception {
+        blockWriter();
+        scheduler.submit("DIR_FWD");
+        scheduler.submit("SPEED_10");
+        scheduler.submit("START");
+        scheduler.submit("STREAM_100");
+        releaseAndDrain();
+
+        assertEquals(2, transport.writes.size());
+        assertEquals("DIR_FWD\nSPEED_10\nSTART\nSTREAM_100\n", transport.writes.get(1));
+        assertEquals(5, scheduler.getWritten());
+        assertEquals(2, scheduler.getBatches());
+    }
+
+    @Test
+    public void pollWaitsBehindControlCommands() throws Exception {
+        blockWriter();
+        scheduler.submit("GET_SENSOR");
+        scheduler.submit("GET_SENSOR");
+        scheduler.submit("SPEED_5");
+        releaseAndDrain();
+
+        assertEquals("SPEED_5\nGET_SENSOR\n", transport.writes.get(1));
+    }
+
+    @Test
+    public void splitsBatchesLargerThanTransferSize() throws Exception {
+        blockWriter();
+        int commands = CommandScheduler.MAX_BATCH_BYTES / 4 * 3;
+        for (int i = 0; i < commands; i++) {
+            scheduler.submit("C" + (i % 10) + "X");
+        }
+        releaseAndDrain();
+
+        StringBuilder all = new StringBuilder();
+        for (int i = 1; i < transport.writes.size(); i++) {
+            assertTrue(transport.writes.get(i).length() <= CommandScheduler.MAX_BATCH_BYTES);
+            all.append(transport.writes.get(i));
+        }
+        assertEquals(commands * 4, all.length());
+        assertTrue(transport.writes.size() > 2);
+    }
+
+    @Test
+    public void stopIsNeverDelayedBehindSpeedUpdates() throws Exception {
+        transport.release.countDown();
+        // Her yazma ~1 ms sürer; kaydırma çubuğu sürüklemesini taklit eden yoğun SPEED/DIR akışı
+        transport.writeDelayNanos = TimeUnit.MILLISECONDS.toNanos(1);
+        final boolean[] running = {true};
+        Thread producer = new Thread(() -> {
+            int speed = 0;
+            while (running[0]) {
+                scheduler.submit("SPEED_" + (speed++ % 100));
+                scheduler.submit("DIR_" + (speed % 2 == 0 ? "FWD" : "REV"));
+                Thread.yield();
+            }
+        });
+        producer.start();
+        try {
+            for (int i = 0; i < 50; i++) {
+                Thread.sleep(3);
+                // Yazmalar başlarken kaydedilir: son kayıt o an süren yazmadır
+                int next = transport.writes.size();
+                scheduler.submit("STOP");
+
+                int found = -1;
+                long deadline = System.currentTimeMillis() + 2000;
+                while (found < 0 && System.currentTimeMillis() < deadline) {
+                    for (int w = next; w < transport.writes.size() && found < 0; w++) {
+                        if (transport.writes.get(w).contains("STOP")) {
+                            found = w;
+                        }
+                    }
+                    Thread.yield();
+                }
+                // STOP bir sonraki aktarımda (kuyruk o an doldurulmuşsa en geç onu izleyende)
+                // ve aktarımın en başında gider; bekleyen SPEED/DIR komutları önüne geçemez
+                assertTrue("STOP yazılmadı", found >= 0);
+                assertTrue("STOP " + (found - next) + " aktarım gecikti", found <= next + 1);
+                assertTrue(transport.writes.get(found).startsWith("STOP\n"));
+            }
+        } finally {
+            running[0] = false;
+            producer.join();
+        }
+        scheduler.close();
+
+        Histogram stop = scheduler.getLatency(CommandScheduler.Kind.STOP);
+        assertEquals(50, stop.getCount());
+    }
+
+    @Test
+    public void closeFlushesPendingCommands() throws Exception {
+        blockWriter();
+        scheduler.submit("STREAM_0");
+        transport.release.countDown();
+        scheduler.close();
+
+        assertEquals("STREAM_0\n", transport.writes.get(transport.writes.size() - 1));
+        scheduler.submit("START");
+        assertEquals(0, scheduler.getPendingCount());
+    }
+
+    @Test
+    public void sharedExecutorWritesCoalescedBatches() throws Exception {
+        GatedTransport shared = new GatedTransport();
+        shared.release.countDown();
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            CommandScheduler onPool = new CommandScheduler(shared, pool);
+            onPool.start();
+            onPool.submit("DIR_FWD");
+            onPool.submit("SPEED_10");
+            onPool.submit("START");
+            long deadline = System.currentTimeMillis() + 2000;
+            while (onPool.getWritten() < 3 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(1);
+            }
+            assertEquals(3, onPool.getWritten());
+            assertEquals("DIR_FWD\nSPEED_10\nSTART\n", String.join("", shared.writes));
+            onPool.close();
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    public void closeOnSharedExecutorDoesNotWaitForBusyPool() throws Exception {
+        GatedTransport shared = new GatedTransport();
+        shared.release.countDown();
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        CountDownLatch poolBusy = new CountDownLatch(1);
+        try {
+            // Havuzun tek iş parçacığı başka bir cihazın işiyle meşgul
+            pool.execute(() -> {
+                try {
+                    poolBusy.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            CommandScheduler onPool = new CommandScheduler(shared, pool);
+            onPool.start();
+            onPool.submit("STREAM_0");
+
+            long start = System.nanoTime();
+            onPool.close();
+            assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 250);
+            assertEquals(Collections.singletonList("STREAM_0\n"), shared.writes);
+        } finally {
+            poolBusy.countDown();
+            pool.shutdownNow();
+        }
+    }
+}
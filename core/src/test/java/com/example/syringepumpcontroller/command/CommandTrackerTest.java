@@ -0,0 +1,161 @@
+package com.example.syringepumpcontroller.command;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static org.junit.Assert.*;
+
+public class CommandTrackerTest {
+
+    private final List<String> sent = Collections.synchronizedList(new ArrayList<String>());
+    private final List<String> resolved = Collections.synchronizedList(new ArrayList<String>());
+    private final CommandStats stats = new CommandStats();
+    private ScheduledExecutorService timer;
+    private CommandTracker tracker;
+
+    @Before
+    public void setUp() {
+        timer = Executors.newSingleThreadScheduledExecutor();
+        tracker = new CommandTracker(sent::add, timer,
+                (name, argument, outcome, code) -> resolved.add(
+                        CommandEncoder.toString(name, argument, CommandEncoder.NO_REQUEST_ID) + ":" + outcome + ":" + code),
+                stats);
+    }
+
+    @After
+    public void tearDown() {
+        tracker.close();
+        timer.shutdownNow();
+    }
+
+    // El sıkışmayı başka bir iş parçacığından yanıtlayarak kimlikli kipi açar
+    private void enable() throws InterruptedException {
+        Thread device = new Thread(() -> {
+            while (sent.isEmpty()) {
+                Thread.yield();
+            }
+            tracker.onReply(true, 0, 0);
+        });
+        device.start();
+        assertTrue(tracker.negotiate(1000));
+        device.join();
+        assertEquals("PROTO_ACK@0", sent.get(0));
+        sent.clear();
+    }
+
+    @Test
+    public void legacyFirmwareGetsPlainCommands() throws InterruptedException {
+        assertFalse(tracker.negotiate(20));
+        tracker.send("START");
+        assertEquals(Arrays.asList("PROTO_ACK@0", "START"), sent);
+        assertEquals(Arrays.asList("START:UNCONFIRMED:0"), resolved);
+        assertEquals(0, tracker.getOutstandingCount());
+    }
+
+    @Test
+    public void ackResolvesMatchingRequest() throws InterruptedException {
+        enable();
+        tracker.send("DIR_FWD");
+        tracker.send("START");
+        assertEquals(Arrays.asList("DIR_FWD@1", "START@2"), sent);
+
+        tracker.onReply(true, 2, 0);
+        tracker.onReply(true, 1, 0);
+        assertEquals(Arrays.asList("START:ACKED:0", "DIR_FWD:ACKED:0"), resolved);
+        assertEquals(2, stats.getAcked());
+        assertEquals(1, stats.getRoundTrip(CommandScheduler.Kind.OTHER).getCount());
+        assertEquals(1, stats.getRoundTrip(CommandScheduler.Kind.DIRECTION).getCount());
+
+        // Tekrarlanan yanıt eşleşmez
+        tracker.onReply(true, 2, 0);
+        assertEquals(1, stats.getUnmatched());
+        assertEquals(0, tracker.getOutstandingCount());
+    }
+
+    @Test
+    public void nakCarriesErrorCode() throws InterruptedException {
+        enable();
+        tracker.send("SPEED_150");
+        tracker.onReply(false, 1, 2);
+        assertEquals(Arrays.asList("SPEED_150:NAKED:2"), resolved);
+        assertEquals(1, stats.getNaked());
+    }
+
+    @Test
+    public void missingReplyIsRetriedWithSameId() throws InterruptedException {
+        enable();
+        tracker.send("START");
+        assertTrue(waitFor(() -> sent.size() >= 2, 2000));
+        assertEquals("START@1", sent.get(1));
+        tracker.onReply(true, 1, 0);
+        assertEquals(Arrays.asList("START:ACKED:0"), resolved);
+        assertTrue(stats.getRetries() >= 1);
+        // Yanıtın hangi gönderime ait olduğu belirsiz: gidiş-dönüş süresine girmez
+        assertEquals(0, stats.getRoundTrip(CommandScheduler.Kind.OTHER).getCount());
+        assertEquals(1, stats.getRetriedReplies());
+    }
+
+    @Test
+    public void timesOutAfterMaxAttempts() throws InterruptedException {
+        enable();
+        tracker.send("DIR_REV");
+        assertTrue(waitFor(() -> !resolved.isEmpty(), 3000));
+        assertEquals(Arrays.asList("DIR_REV:TIMED_OUT:0"), resolved);
+        assertEquals(CommandTracker.DEFAULT_POLICY.maxAttempts, sent.size());
+        assertEquals(1, stats.getTimedOut());
+
+        // Geç gelen yanıt yok sayılır
+        tracker.onReply(true, 1, 0);
+        assertEquals(1, stats.getUnmatched());
+    }
+
+    @Test
+    public void newerCommandsSupersedePendingOnes() throws InterruptedException {
+        enable();
+        tracker.send("SPEED_10");
+        tracker.send("START");
+        tracker.send("SPEED_20");
+        tracker.send("STOP");
+        assertEquals(Arrays.asList("SPEED_10:SUPERSEDED:0", "START:SUPERSEDED:0"), resolved);
+        assertEquals(2, tracker.getOutstandingCount());
+
+        tracker.onReply(true, 3, 0);
+        tracker.onReply(true, 4, 0);
+        assertEquals("SPEED_20:ACKED:0", resolved.get(2));
+        assertEquals("STOP:ACKED:0", resolved.get(3));
+        assertEquals(2, stats.getSuperseded());
+    }
+
+    @Test
+    public void closeCancelsOutstandingCommands() throws InterruptedException {
+        enable();
+        tracker.send("START");
+        tracker.close();
+        assertEquals(Arrays.asList("START:CANCELLED:0"), resolved);
+        tracker.send("STOP");
+        assertEquals(1, sent.size());
+    }
+
+    interface Condition {
+        boolean holds();
+    }
+
+    private static boolean waitFor(Condition condition, long timeoutMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (System.currentTimeMillis() < deadline) {
+            if (condition.holds()) {
+                return true;
+            }
+            Thread.sleep(5);
+        }
+        return condition.holds();
+    }
+}
@@ -0,0 +1,178 @@
+package com.example.syringepumpcontroller.control;
+
+import com.example.syringepumpcontroller.data.SampleBuffer;
+import com.example.syringepumpcontroller.simulation.PlantModel;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Denetim motoru benzetilmiş zamanla tesis modeline karşı sürülür; sonuç iş parçacığı
+ * zamanlamasından bağımsızdır.
+ */
+public class FlowControlLoopTest {
+
+    private static final long MS = 1_000_000L;
+
+    // Tesise hız uygulayan, komutları kaydeden sahte pompa
+    static class SimulatedActuator implements FlowControlLoop.Actuator {
+        final List<Integer> commands = new ArrayList<>();
+        boolean active = true;
+        int speed = 0;
+
+        @Override
+        public boolean isActive() {
+            return active;
+        }
+
+        @Override
+        public int getSpeed() {
+            return speed;
+        }
+
+        @Override
+        public void setSpeed(int speed) {
+            this.speed = speed;
+            commands.add(speed);
+        }
+    }
+
+    // 200 Hz örnekleme, 100 ms denetim; tikJitter ms'ye kadar rastgele sapma eklenir
+    static class Rig {
+        final PlantModel plant = PlantModel.syringeLine();
+        final SampleBuffer buffer = new SampleBuffer(1 << 14);
+        final SimulatedActuator pump = new SimulatedActuator();
+        final FlowControlLoop loop = new FlowControlLoop(buffer, null, pump);
+        final Random random = new Random(42);
+        long nowNanos = 1000 * MS;
+        long nextTick = nowNanos + 100 * MS;
+        int tickJitterMillis;
+        float last;
+
+        void run(long millis) {
+            for (long t = 0; t < millis; t += 5) {
+                nowNanos += 5 * MS;
+                last = plant.advance(pump.active ? pump.speed : 0, 0.005);
+                buffer.append(nowNanos / MS, last);
+                if (nowNanos >= nextTick) {
+                    loop.tick(nowNanos);
+                    nextTick += 100 * MS + (tickJitterMillis > 0 ? random.nextInt(tickJitterMillis) * MS : 0);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void settlesOnSetpointWithoutLargeOvershoot() {
+        Rig rig = new Rig();
+        rig.pump.speed = 20;
+        rig.loop.setSetpoint(2.5);
+        rig.run(500);
+
+        float peak = 0;
+        for (int i = 0; i < 60; i++) {
+            rig.run(50);
+            peak = Math.max(peak, rig.last);
+        }
+        assertEquals(2.5, rig.last, 0.05);
+        assertEquals(50, rig.pump.speed, 3);
+        assertTrue("Aşım: " + peak, peak < 2.5 + 0.25);
+    }
+
+    @Test
+    public void speedChangesAreRateLimited() {
+        Rig rig = new Rig();
+        rig.loop.configure(FlowControlLoop.defaultPid(), 20, 100);
+        rig.loop.setSetpoint(3.4);
+        rig.run(8000);
+
+        int previous = 0;
+        for (int speed : rig.pump.commands) {
+            // 20 %/s ve 100 ms adım: adım başına en fazla 2 (+ yuvarlama)
+            assertTrue(previous + " -> " + speed, Math.abs(speed - previous) <= 3);
+            previous = speed;
+        }
+        assertEquals(3.4, rig.last, 0.05);
+    }
+
+    @Test
+    public void rejectsDisturbance() {
+        Rig rig = new Rig();
+        rig.loop.setSetpoint(2.5);
+        rig.run(4000);
+        int before = rig.pump.speed;
+
+        // Karşı basınç: aynı hız artık daha yüksek gerilim üretir
+        rig.plant.setDisturbance(0.3);
+        rig.run(8000);
+        assertEquals(2.5, rig.last, 0.05);
+        assertTrue(rig.pump.speed < before - 5);
+    }
+
+    @Test
+    public void holdsWhilePumpIsStoppedAndResumesBumplessly() {
+        Rig rig = new Rig();
+        rig.pump.speed = 30;
+        rig.pump.active = false;
+        rig.loop.setSetpoint(3.7);
+        rig.run(3000);
+        // Pompa durmuşken komut yok, integral birikmez
+        assertTrue(rig.pump.commands.isEmpty());
+
+        rig.pump.active = true;
+        rig.run(100);
+        rig.run(100);
+        // İlk adımlar mevcut hızdan başlar ve değişim sınırını aşmaz
+        assertFalse(rig.pump.commands.isEmpty());
+        assertTrue(rig.pump.commands.get(0) <= 30 + 6);
+        rig.run(5000);
+        assertEquals(3.7, rig.last, 0.05);
+    }
+
+    @Test
+    public void jitteredTicksStillConvergeAndJitterIsMeasured() {
+        Rig rig = new Rig();
+        rig.tickJitterMillis = 40;
+        rig.loop.setSetpoint(3.0);
+        rig.run(8000);
+
+        assertEquals(3.0, rig.last, 0.06);
+        assertTrue(rig.loop.getMaxJitterNanos() > 0);
+        assertTrue(rig.loop.getMaxJitterNanos() < 100 * MS + 40 * MS);
+    }
+
+    @Test
+    public void catchUpBurstsAreSkipped() {
+        Rig rig = new Rig();
+        rig.loop.setSetpoint(2.0);
+        rig.run(1000);
+        long ticks = rig.loop.getTicks();
+        // Geciken zamanlayıcı art arda üç kez ateşler
+        rig.nowNanos += 350 * MS;
+        rig.buffer.append(rig.nowNanos / MS, rig.last);
+        rig.loop.tick(rig.nowNanos);
+        rig.loop.tick(rig.nowNanos + MS);
+        rig.loop.tick(rig.nowNanos + 2 * MS);
+        assertEquals(ticks + 1, rig.loop.getTicks());
+        assertEquals(2, rig.loop.getSkippedTicks());
+        assertEquals(1, rig.loop.getLateTicks());
+    }
+
+    @Test
+    public void withoutNewSamplesOutputIsHeld() {
+        Rig rig = new Rig();
+        rig.loop.setSetpoint(2.5);
+        rig.run(2000);
+        int commands = rig.pump.commands.size();
+        for (int i = 1; i <= 10; i++) {
+            rig.loop.tick(rig.nowNanos + i * 100 * MS);
+        }
+        assertEquals(commands, rig.pump.commands.size());
+        assertEquals(10, rig.loop.getStarvedTicks());
+    }
+}
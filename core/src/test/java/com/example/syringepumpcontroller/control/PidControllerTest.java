@@ -0,0 +1,57 @@
+package com.example.syringepumpcontroller.control;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class PidControllerTest {
+
+    @Test
+    public void feedForwardGivesSteadyStateWithoutIntegralWork() {
+        PidController pid = new PidController(2.0, 1.0, 0.0, 0, 100);
+        pid.setFeedForward(10, 5);
+        // Hata yokken çıkış yalnızca ileri beslemedir
+        assertEquals(35.0, pid.update(3.0, 3.0, 0.1), 1e-9);
+        assertEquals(0.0, pid.getIntegral(), 1e-9);
+    }
+
+    @Test
+    public void integralDoesNotWindUpWhileSaturated() {
+        PidController pid = new PidController(1.0, 5.0, 0.0, 0, 100);
+        // Ulaşılamayan hedef: çıkış uzun süre üst sınırda kalır
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(100.0, pid.update(500, 0, 0.1), 1e-9);
+        }
+        assertTrue(pid.isSaturated());
+        assertTrue(pid.getIntegral() <= 100.0);
+
+        // Hata yön değiştirince çıkış tek adımda sınırdan ayrılır
+        double output = pid.update(0, 10, 0.1);
+        assertTrue(String.valueOf(output), output < 100.0);
+    }
+
+    @Test
+    public void derivativeActsOnMeasurementNotSetpoint() {
+        PidController pid = new PidController(0.0, 0.0, 1.0, -100, 100);
+        pid.update(1.0, 1.0, 0.1);
+        // Hedef sıçraması türev tepkisi üretmez
+        assertEquals(0.0, pid.update(5.0, 1.0, 0.1), 1e-9);
+        // Ölçüm artışı frenleyici yönde türev üretir
+        assertTrue(pid.update(5.0, 1.5, 0.1) < 0);
+    }
+
+    @Test
+    public void undoIntegrationRevertsLastStep() {
+        PidController pid = new PidController(0.0, 10.0, 0.0, -100, 100);
+        pid.update(1.0, 0.0, 0.1);
+        double integral = pid.getIntegral();
+        pid.update(1.0, 0.0, 0.1);
+        pid.undoIntegration();
+        assertEquals(integral, pid.getIntegral(), 1e-12);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsEmptyOutputRange() {
+        new PidController(1, 1, 0, 10, 10);
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.syringepumpcontroller.data;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ChartWindowTest {
+
+    @Test
+    public void keepsOnlyWindowDuration() {
+        ChartWindow window = new ChartWindow(1000, 10_000, 64);
+        for (long t = 0; t < 60_000; t += 100) {
+            window.append(t, t / 1000f);
+        }
+
+        assertEquals(101, window.size());
+        assertEquals(49_900, window.timeAt(0));
+        assertEquals(59_900, window.timeAt(window.size() - 1));
+        assertEquals(59.9f, window.valueAt(window.size() - 1), 1e-4f);
+    }
+
+    @Test
+    public void averagesSamplesFallingIntoSameSlot() {
+        // 1000 ms / 100 nokta = 10 ms dilim
+        ChartWindow window = new ChartWindow(100, 1000, 16);
+        window.append(0, 1f);
+        window.append(3, 2f);
+        window.append(9, 3f);
+        window.append(10, 7f);
+
+        assertEquals(2, window.size());
+        assertEquals(0, window.timeAt(0));
+        assertEquals(2f, window.valueAt(0), 1e-6f);
+        assertEquals(7f, window.valueAt(1), 0f);
+    }
+
+    @Test
+    public void neverExceedsCapacityAtHighRates() {
+        ChartWindow window = new ChartWindow(500, 20_000, 64);
+        for (long i = 0; i < 1_000_000; i++) {
+            window.append(i / 10, 1f); // 10 kHz
+        }
+        assertTrue(window.size() <= window.capacity());
+        long previous = Long.MIN_VALUE;
+        for (int i = 0; i < window.size(); i++) {
+            assertTrue(window.timeAt(i) > previous);
+            previous = window.timeAt(i);
+        }
+    }
+
+    @Test
+    public void overviewCoversWholeSessionWithFixedBuckets() {
+        ChartWindow window = new ChartWindow(200, 1000, 32);
+        float min = Float.MAX_VALUE;
+        float max = -Float.MAX_VALUE;
+        for (long t = 0; t < 3_600_000; t += 7) {
+            float value = (float) Math.sin(t / 50_000.0) + ((t % 1_000_003) == 0 ? 10f : 0f);
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+            window.append(t, value);
+        }
+
+        assertTrue(window.getOverviewCount() <= 32);
+        assertTrue(window.getOverviewCount() > 16);
+        assertEquals(0, window.overviewTimeAt(0));
+        float overviewMin = Float.MAX_VALUE;
+        float overviewMax = -Float.MAX_VALUE;
+        for (int i = 0; i < window.getOverviewCount(); i++) {
+            assertFalse(window.isOverviewBucketEmpty(i));
+            overviewMin = Math.min(overviewMin, window.overviewMinAt(i));
+            overviewMax = Math.max(overviewMax, window.overviewMaxAt(i));
+        }
+        // Seyrek tepe değerleri de özette kalır
+        assertEquals(min, overviewMin, 0f);
+        assertEquals(max, overviewMax, 0f);
+    }
+
+    @Test
+    public void toleratesClockGoingBackwards() {
+        ChartWindow window = new ChartWindow(100, 10_000, 16);
+        window.append(5000, 1f);
+        window.append(1000, 2f);
+
+        assertEquals(1, window.size());
+        assertEquals(5000, window.timeAt(0));
+        assertEquals(1.5f, window.valueAt(0), 1e-6f);
+    }
+
+    @Test
+    public void versionChangesOnAppend() {
+        ChartWindow window = new ChartWindow(100, 10_000, 16);
+        long before = window.getVersion();
+        window.append(0, 1f);
+        assertNotEquals(before, window.getVersion());
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.syringepumpcontroller.data;
+
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Yüksek yoğunluklu grafiğin bir karesi: depodan kopya, sütun seyreltme ve çizgi noktaları.
+ * Ekranda 100 000 örnekle (1 kHz'de 100 s) bir kare 60 Hz bütçesi olan 16 ms'nin altında
+ * kalmalıdır; ölçüm masaüstü JVM'de yapıldığından sınır bilinçli olarak bütçenin kendisidir.
+ */
+public class ColumnAggregatorBenchmarkTest {
+
+    private static final int POINTS = 100_000;
+    private static final int COLUMNS = 1080;
+
+    // Ölçümler JMH kaynaklarındadır (src/jmh); buradaki sınır denetimleri uzun sürdüğünden
+    // yalnızca -Dbenchmark.large=true ile çalışır
+    @Before
+    public void requireBenchmarkRun() {
+        Assume.assumeTrue(Boolean.getBoolean("benchmark.large"));
+    }
+
+    @Test
+    public void frameStaysWithinBudget() {
+        SampleBuffer buffer = new SampleBuffer(1 << 17);
+        long start = 1_700_000_000_000L;
+        for (int i = 0; i < POINTS; i++) {
+            buffer.append(start + i, (float) (2.5 + Math.sin(i / 300.0) + ((i * 7919) % 13) * 0.01));
+        }
+        SampleBuffer.Snapshot snapshot = new SampleBuffer.Snapshot(buffer.capacity());
+        ColumnAggregator aggregator = new ColumnAggregator(COLUMNS);
+        float[] points = new float[COLUMNS * ColumnAggregator.FLOATS_PER_COLUMN];
+
+        long best = Long.MAX_VALUE;
+        int floats = 0;
+        // İlk turlar ısınma; en iyi tur denetlenir
+        for (int round = 0; round < 20; round++) {
+            long t0 = System.nanoTime();
+            buffer.snapshot(buffer.getOldestSequence(), snapshot);
+            int accepted = aggregator.aggregate(snapshot.timestamps, snapshot.values, 0, snapshot.count,
+                    start, start + POINTS, COLUMNS);
+            floats = aggregator.toPolyline(points, 0f, 0f, COLUMNS, 600f, 0f, 5f);
+            long t1 = System.nanoTime();
+            assertEquals(POINTS, accepted);
+            best = Math.min(best, t1 - t0);
+        }
+        assertEquals(COLUMNS * 8, floats);
+        assertTrue("Kare " + best / 1e6 + " ms", best < 16_000_000L);
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.syringepumpcontroller.data;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ColumnAggregatorTest {
+
+    @Test
+    public void keepsFirstMinMaxAndLastPerColumn() {
+        // 0-99 ms, 2 sütun: 0-49 ve 50-99
+        long[] times = {0, 10, 20, 30, 60, 70, 80};
+        float[] values = {2f, 4f, 1f, 3f, 5f, 5f, 5f};
+        ColumnAggregator aggregator = new ColumnAggregator(8);
+
+        assertEquals(7, aggregator.aggregate(times, values, 0, times.length, 0, 100, 2));
+        assertEquals(2f, aggregator.firstAt(0), 0f);
+        assertEquals(1f, aggregator.minAt(0), 0f);
+        assertEquals(4f, aggregator.maxAt(0), 0f);
+        assertEquals(3f, aggregator.lastAt(0), 0f);
+        assertEquals(5f, aggregator.minAt(1), 0f);
+        assertEquals(5f, aggregator.maxAt(1), 0f);
+    }
+
+    @Test
+    public void skipsSamplesOutsideRangeAndNaN() {
+        long[] times = {0, 100, 150, 200, 250, 300, 400};
+        float[] values = {9f, 1f, Float.NaN, 2f, 3f, 4f, 9f};
+        ColumnAggregator aggregator = new ColumnAggregator(4);
+
+        assertEquals(4, aggregator.aggregate(times, values, 0, times.length, 100, 300, 4));
+        assertEquals(4, aggregator.getSampleCount());
+        assertFalse(aggregator.isEmpty(0));
+        assertTrue(aggregator.isEmpty(1));
+        // Son an (toMillis) son sütuna düşer
+        assertEquals(3f, aggregator.firstAt(3), 0f);
+        assertEquals(4f, aggregator.lastAt(3), 0f);
+    }
+
+    @Test
+    public void polylineKeepsTimeOrderOfExtremes() {
+        // Sütun 0'da maks önce gelir, sütun 1'de min önce
+        long[] times = {0, 1, 2, 3, 10, 11, 12, 13};
+        float[] values = {1f, 3f, 0f, 2f, 1f, 0f, 3f, 2f};
+        ColumnAggregator aggregator = new ColumnAggregator(2);
+        aggregator.aggregate(times, values, 0, times.length, 0, 20, 2);
+
+        float[] out = new float[2 * ColumnAggregator.FLOATS_PER_COLUMN];
+        // 0-3 değerleri 0-30 piksel yüksekliğe; y aşağı doğru artar
+        int n = aggregator.toPolyline(out, 0f, 0f, 20f, 30f, 0f, 3f);
+        assertEquals(16, n);
+        float[] expectedY = {20f, 0f, 30f, 10f, 20f, 30f, 0f, 10f};
+        for (int i = 0; i < 8; i++) {
+            assertEquals(i < 4 ? 5f : 15f, out[2 * i], 1e-5f);
+            assertEquals("nokta " + i, expectedY[i], out[2 * i + 1], 1e-4f);
+        }
+    }
+
+    @Test
+    public void polylineSkipsEmptyColumnsAndSingleSamples() {
+        long[] times = {0, 35};
+        float[] values = {1f, 2f};
+        ColumnAggregator aggregator = new ColumnAggregator(4);
+        aggregator.aggregate(times, values, 0, times.length, 0, 40, 4);
+
+        float[] out = new float[4 * ColumnAggregator.FLOATS_PER_COLUMN];
+        assertEquals(4, aggregator.toPolyline(out, 10f, 0f, 40f, 10f, 0f, 5f));
+        assertEquals(15f, out[0], 1e-5f);
+        assertEquals(8f, out[1], 1e-5f);
+        assertEquals(45f, out[2], 1e-5f);
+        assertEquals(6f, out[3], 1e-5f);
+    }
+
+    @Test
+    public void readsOnlyTheGivenSlice() {
+        long[] times = new long[1000];
+        float[] values = new float[1000];
+        for (int i = 0; i < times.length; i++) {
+            times[i] = i;
+            values[i] = i;
+        }
+        ColumnAggregator aggregator = new ColumnAggregator(10);
+
+        assertEquals(100, aggregator.aggregate(times, values, 500, 100, 0, 1000, 10));
+        assertTrue(aggregator.isEmpty(4));
+        assertEquals(500f, aggregator.firstAt(5), 0f);
+        assertEquals(599f, aggregator.lastAt(5), 0f);
+        assertTrue(aggregator.isEmpty(6));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsMoreColumnsThanCapacity() {
+        new ColumnAggregator(4).aggregate(new long[0], new float[0], 0, 0, 0, 10, 5);
+    }
+}
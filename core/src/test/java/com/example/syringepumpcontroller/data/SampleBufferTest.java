@@ -0,0 +1,111 @@
+package com.example.syringepumpcontroller.data;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+public class SampleBufferTest {
+
+    @Test
+    public void snapshotReturnsAppendedSamplesInOrder() {
+        SampleBuffer buffer = new SampleBuffer(8);
+        for (int i = 0; i < 5; i++) {
+            assertEquals(i, buffer.append(1000 + i, i * 0.5f));
+        }
+        SampleBuffer.Snapshot snapshot = new SampleBuffer.Snapshot();
+        buffer.snapshot(0, snapshot);
+
+        assertEquals(0, snapshot.firstSequence);
+        assertEquals(5, snapshot.count);
+        assertEquals(1004, snapshot.timestamps[4]);
+        assertEquals(2.0f, snapshot.values[4], 0f);
+        assertEquals(2.0f, buffer.latestValue(), 0f);
+    }
+
+    @Test
+    public void overwritesOldestWhenFull() {
+        SampleBuffer buffer = new SampleBuffer(4);
+        for (int i = 0; i < 10; i++) {
+            buffer.append(i, i);
+        }
+        SampleBuffer.Snapshot snapshot = new SampleBuffer.Snapshot();
+        buffer.snapshot(0, snapshot);
+
+        assertEquals(7, snapshot.firstSequence);
+        assertEquals(3, snapshot.count);
+        assertEquals(7f, snapshot.values[0], 0f);
+        assertEquals(9f, snapshot.values[2], 0f);
+        assertEquals(3, buffer.size());
+        assertEquals(7, buffer.getOldestSequence());
+    }
+
+    @Test
+    public void incrementalReadsReturnOnlyNewSamples() {
+        SampleBuffer buffer = new SampleBuffer(16);
+        SampleBuffer.Snapshot snapshot = new SampleBuffer.Snapshot();
+        buffer.append(1, 1f);
+        buffer.append(2, 2f);
+        buffer.snapshot(0, snapshot);
+        long next = snapshot.nextSequence();
+
+        buffer.append(3, 3f);
+        buffer.snapshot(next, snapshot);
+        assertEquals(1, snapshot.count);
+        assertEquals(2, snapshot.firstSequence);
+        assertEquals(3f, snapshot.values[0], 0f);
+
+        buffer.snapshot(snapshot.nextSequence(), snapshot);
+        assertEquals(0, snapshot.count);
+    }
+
+    @Test
+    public void maxCountKeepsNewestSamples() {
+        SampleBuffer buffer = new SampleBuffer(16);
+        for (int i = 0; i < 10; i++) {
+            buffer.append(i, i);
+        }
+        SampleBuffer.Snapshot snapshot = new SampleBuffer.Snapshot();
+        buffer.snapshot(0, 3, snapshot);
+        assertEquals(7, snapshot.firstSequence);
+        assertEquals(3, snapshot.count);
+        assertEquals(9f, snapshot.values[2], 0f);
+    }
+
+    @Test
+    public void concurrentReadersSeeConsistentSamples() throws InterruptedException {
+        final SampleBuffer buffer = new SampleBuffer(256);
+        final AtomicBoolean done = new AtomicBoolean();
+        final AtomicReference<String> failure = new AtomicReference<>();
+
+        // Zaman damgası ve değer sıra numarasından türetilir; okuyucu eşleşmeyi doğrular
+        Thread producer = new Thread(() -> {
+            for (long i = 0; i < 2_000_000; i++) {
+                buffer.append(i, (float) (i % 1000));
+            }
+            done.set(true);
+        });
+
+        Thread reader = new Thread(() -> {
+            SampleBuffer.Snapshot snapshot = new SampleBuffer.Snapshot();
+            while (!done.get() && failure.get() == null) {
+                buffer.snapshot(0, snapshot);
+                for (int i = 0; i < snapshot.count; i++) {
+                    long sequence = snapshot.firstSequence + i;
+                    if (snapshot.timestamps[i] != sequence || snapshot.values[i] != (float) (sequence % 1000)) {
+                        failure.set("tutarsız örnek: " + sequence);
+                        break;
+                    }
+                }
+            }
+        });
+
+        producer.start();
+        reader.start();
+        producer.join();
+        reader.join();
+        assertNull(failure.get());
+    }
+}
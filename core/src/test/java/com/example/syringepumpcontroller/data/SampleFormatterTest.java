@@ -0,0 +1,57 @@
+package com.example.syringepumpcontroller.data;
+
+import org.junit.Test;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.TimeZone;
+
+import static org.junit.Assert.assertEquals;
+
+public class SampleFormatterTest {
+
+    private final char[] buffer = new char[32];
+
+    @Test
+    public void formatsTimeLikeSimpleDateFormat() {
+        TimeZone zone = TimeZone.getTimeZone("Europe/Istanbul");
+        SampleFormatter formatter = new SampleFormatter(zone);
+        SimpleDateFormat reference = new SimpleDateFormat("HH:mm:ss", Locale.US);
+        reference.setTimeZone(zone);
+
+        long[] times = {0L, 1745672615123L, 1745672615999L, 1700000000000L, -1500L};
+        for (long t : times) {
+            int length = formatter.formatTime(t, buffer, 0);
+            assertEquals(reference.format(new Date(t)), new String(buffer, 0, length));
+        }
+    }
+
+    @Test
+    public void followsDaylightSavingTransition() {
+        TimeZone zone = TimeZone.getTimeZone("Europe/Berlin");
+        SampleFormatter formatter = new SampleFormatter(zone);
+        SimpleDateFormat reference = new SimpleDateFormat("HH:mm:ss", Locale.US);
+        reference.setTimeZone(zone);
+
+        // 2024-03-31 00:30 UTC'den itibaren her dakika
+        long start = 1711845000000L;
+        for (int i = 0; i < 120; i++) {
+            long t = start + i * 60_000L;
+            int length = formatter.formatTime(t, buffer, 0);
+            assertEquals(reference.format(new Date(t)), new String(buffer, 0, length));
+        }
+    }
+
+    @Test
+    public void formatsFixedDecimalsLikeStringFormat() {
+        float[] values = {0f, 1.5f, 2.345f, 4.999f, 0.004f, -1.25f, -0.001f, 123.456f, 5f};
+        for (float v : values) {
+            int length = SampleFormatter.formatFixed(v, 2, buffer, 0);
+            assertEquals(String.format(Locale.US, "%.2f", v).replace("-0.00", "0.00"),
+                    new String(buffer, 0, length));
+        }
+        assertEquals("NaN", new String(buffer, 0, SampleFormatter.formatFixed(Float.NaN, 2, buffer, 0)));
+        assertEquals("3", new String(buffer, 0, SampleFormatter.formatFixed(3.4f, 0, buffer, 0)));
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.syringepumpcontroller.dsp;
+
+import com.example.syringepumpcontroller.data.SampleBuffer;
+
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Adımların ve tam hattın örnek başına maliyeti. 1 kHz akış örnek başına 1 ms bütçe verir;
+ * hattın bunun küçük bir kesrinde kalması gerekir. Ölçüm sırasında ayrılan bellek, iş
+ * parçacığının ayırma sayacından okunur (HotSpot dışı JVM'lerde ölçülmez).
+ */
+public class SignalPipelineBenchmarkTest {
+
+    private static final int SAMPLES = 1_000_000;
+
+    // Ölçümler JMH kaynaklarındadır (src/jmh); buradaki sınır denetimleri uzun sürdüğünden
+    // yalnızca -Dbenchmark.large=true ile çalışır
+    @Before
+    public void requireBenchmarkRun() {
+        Assume.assumeTrue(Boolean.getBoolean("benchmark.large"));
+    }
+
+    @Test
+    public void perSampleCost() {
+        float[] input = new float[SAMPLES];
+        Random random = new Random(1);
+        for (int i = 0; i < SAMPLES; i++) {
+            input[i] = (float) (2.5 + Math.sin(i / 500.0) + random.nextGaussian() * 0.01
+                    + (random.nextInt(1000) == 0 ? 3 : 0));
+        }
+
+        run("medyan 5", new SignalPipeline(null, new MedianFilter(5, 0.2)), input);
+        run("kayan ortalama 32", new SignalPipeline(null, new MovingAverage(32)), input);
+        run("üstel ortalama", new SignalPipeline(null, new ExponentialAverage(0.05)), input);
+        run("CIC 16×3", new SignalPipeline(null, new CicDecimator(16, 3)), input);
+        run("FIR 63 / 4", new SignalPipeline(null, new FirDecimator(FirDecimator.lowPass(63, 0.1), 4)), input);
+        run("istatistik 1000", new SignalPipeline(null, new RollingStats(1000, 50)), input);
+        run("eşik + eğim", new SignalPipeline(null,
+                new ThresholdAlarm("eşik", AlarmStage.Action.NOTIFY, 0, 6, 0.1, 20),
+                new SlopeAlarm("eğim", AlarmStage.Action.NOTIFY, 100, -50, 50, 20)), input);
+        run("tam hat", fullPipeline(new SampleBuffer(1 << 14)), input);
+    }
+
+    static SignalPipeline fullPipeline(SampleBuffer output) {
+        return new SignalPipeline(output,
+                new MedianFilter(5, 0.2),
+                new MovingAverage(16),
+                new RollingStats(1000, 50),
+                new ThresholdAlarm("eşik", AlarmStage.Action.NOTIFY, 0, 6, 0.1, 20),
+                new SlopeAlarm("eğim", AlarmStage.Action.NOTIFY, 100, -50, 50, 20),
+                new CicDecimator(10, 3));
+    }
+
+    private static void run(String name, SignalPipeline pipeline, float[] input) {
+        long best = Long.MAX_VALUE;
+        long allocated = -1;
+        // İlk turlar ısınma; en iyi tur denetlenir
+        for (int round = 0; round < 5; round++) {
+            long bytesBefore = allocatedBytes();
+            long start = System.nanoTime();
+            for (int i = 0; i < input.length; i++) {
+                pipeline.process(i, input[i]);
+            }
+            best = Math.min(best, System.nanoTime() - start);
+            long bytesAfter = allocatedBytes();
+            if (bytesBefore >= 0 && bytesAfter >= 0) {
+                allocated = bytesAfter - bytesBefore;
+            }
+        }
+        // Ölçüm çağrısının kendi sabit payı dışında örnek başına ayırma olmamalı
+        assertTrue(name + ": " + allocated + " bayt", allocated < 4096);
+        double perSample = (double) best / input.length;
+        assertTrue(name + ": örnek başına " + perSample + " ns", perSample < 100_000);
+    }
+
+    // com.sun.management.ThreadMXBean varsa bu iş parçacığının ayırdığı toplam bayt; yoksa -1
+    private static long allocatedBytes() {
+        java.lang.management.ThreadMXBean bean = java.lang.management.ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+}
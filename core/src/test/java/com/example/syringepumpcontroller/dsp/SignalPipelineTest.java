@@ -0,0 +1,252 @@
+package com.example.syringepumpcontroller.dsp;
+
+import com.example.syringepumpcontroller.data.SampleBuffer;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class SignalPipelineTest {
+
+    // Adımın çıktısını toplayan son adım
+    private static class Collector extends SignalStage {
+        final List<Long> times = new ArrayList<>();
+        final List<Float> values = new ArrayList<>();
+
+        @Override
+        public void process(long timestampMillis, float value) {
+            times.add(timestampMillis);
+            values.add(value);
+        }
+    }
+
+    private static Collector run(SignalStage stage, float... input) {
+        Collector collector = new Collector();
+        new SignalPipeline(null, stage, collector);
+        for (int i = 0; i < input.length; i++) {
+            stage.process(i, input[i]);
+        }
+        return collector;
+    }
+
+    @Test
+    public void movingAverageMatchesDirectMean() {
+        Random random = new Random(3);
+        float[] input = new float[5000];
+        for (int i = 0; i < input.length; i++) {
+            input[i] = 1000 + random.nextFloat();
+        }
+        Collector out = run(new MovingAverage(16), input);
+        assertEquals(input.length, out.values.size());
+        assertEquals(input[0], out.values.get(0), 0f);
+        for (int i = 15; i < input.length; i++) {
+            double mean = 0;
+            for (int j = i - 15; j <= i; j++) {
+                mean += input[j];
+            }
+            assertEquals(mean / 16, out.values.get(i), 1e-3);
+        }
+    }
+
+    @Test
+    public void exponentialAverageConvergesToStep() {
+        Collector out = run(ExponentialAverage.withTimeConstant(0.01, 1000), 0, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1);
+        assertEquals(0, out.values.get(0), 0f);
+        // 10 örnek = bir zaman sabiti: 1 − 1/e
+        assertEquals(1 - Math.exp(-1), out.values.get(10), 1e-3);
+    }
+
+    @Test
+    public void medianRejectsIsolatedSpikes() {
+        float[] input = new float[200];
+        Arrays.fill(input, 2.5f);
+        input[50] = 4.9f;
+        input[120] = 0f;
+        input[121] = 0.1f;
+        Collector out = run(new MedianFilter(5), input);
+        for (float value : out.values) {
+            assertEquals(2.5f, value, 0f);
+        }
+
+        // Eşikli kipte sıçrama olmayan örnekler değişmeden geçer
+        input[80] = 2.6f;
+        MedianFilter hampel = new MedianFilter(5, 0.5);
+        out = run(hampel, input);
+        assertEquals(2.6f, out.values.get(80), 0f);
+        assertEquals(2.5f, out.values.get(50), 0f);
+        assertEquals(3, hampel.getSpikesRejected());
+    }
+
+    @Test
+    public void medianOfRandomWindowsMatchesSorting() {
+        Random random = new Random(5);
+        float[] input = new float[2000];
+        for (int i = 0; i < input.length; i++) {
+            input[i] = random.nextInt(20) / 4f;
+        }
+        Collector out = run(new MedianFilter(7), input);
+        for (int i = 6; i < input.length; i++) {
+            float[] window = Arrays.copyOfRange(input, i - 6, i + 1);
+            Arrays.sort(window);
+            assertEquals(window[3], out.values.get(i), 0f);
+        }
+    }
+
+    @Test
+    public void decimatorsPreserveDcAndDropRate() {
+        float[] input = new float[4000];
+        Arrays.fill(input, 3.3f);
+        Collector cic = run(new CicDecimator(8, 3), input);
+        assertEquals(500, cic.values.size());
+        assertEquals(7L, (long) cic.times.get(0));
+        // Taraklar dolduktan sonra kazanç tam olarak 1
+        for (int i = 3; i < cic.values.size(); i++) {
+            assertEquals(3.3f, cic.values.get(i), 1e-5f);
+        }
+
+        Collector fir = run(new FirDecimator(FirDecimator.lowPass(31, 0.05), 4), input);
+        assertEquals(1000, fir.values.size());
+        for (int i = 8; i < fir.values.size(); i++) {
+            assertEquals(3.3f, fir.values.get(i), 1e-4f);
+        }
+    }
+
+    @Test
+    public void firLowPassAttenuatesHighFrequency() {
+        float[] input = new float[4000];
+        for (int i = 0; i < input.length; i++) {
+            // Nyquist'e yakın parazit + yavaş sinyal
+            input[i] = (float) (1 + 0.5 * Math.cos(Math.PI * 0.9 * i));
+        }
+        Collector out = run(new FirDecimator(FirDecimator.lowPass(63, 0.05), 1), input);
+        for (int i = 100; i < out.values.size(); i++) {
+            assertEquals(1f, out.values.get(i), 0.01f);
+        }
+    }
+
+    @Test
+    public void rollingStatsMatchWindow() {
+        Random random = new Random(9);
+        float[] input = new float[3000];
+        for (int i = 0; i < input.length; i++) {
+            input[i] = (float) (100 + random.nextGaussian());
+        }
+        RollingStats stats = new RollingStats(50);
+        Collector collector = new Collector();
+        new SignalPipeline(null, stats, collector);
+        for (int i = 0; i < input.length; i++) {
+            stats.process(i, input[i]);
+            int from = Math.max(0, i - 49);
+            float min = Float.POSITIVE_INFINITY;
+            float max = Float.NEGATIVE_INFINITY;
+            double sum = 0;
+            for (int j = from; j <= i; j++) {
+                min = Math.min(min, input[j]);
+                max = Math.max(max, input[j]);
+                sum += input[j];
+            }
+            int n = i - from + 1;
+            double mean = sum / n;
+            double squares = 0;
+            for (int j = from; j <= i; j++) {
+                squares += (input[j] - mean) * (input[j] - mean);
+            }
+            assertEquals(min, stats.getWindowMin(), 0f);
+            assertEquals(max, stats.getWindowMax(), 0f);
+            assertEquals(mean, stats.getWindowMean(), 1e-4);
+            if (n > 1) {
+                assertEquals(Math.sqrt(squares / (n - 1)), stats.getWindowStdDev(), 1e-4);
+            }
+        }
+        // Örnekler değişmeden geçer; yayınlanan değerler son örnekle günceldir
+        assertEquals(input.length, collector.values.size());
+        assertEquals(stats.getWindowMax(), stats.getMax(), 0f);
+    }
+
+    @Test
+    public void thresholdAlarmUsesHoldAndHysteresis() {
+        final List<String> events = new ArrayList<>();
+        ThresholdAlarm alarm = new ThresholdAlarm("tıkanma", AlarmStage.Action.STOP_PUMP, Double.NaN, 4.0, 0.2, 3);
+        SignalPipeline pipeline = new SignalPipeline(null, alarm);
+        pipeline.setAlarmListener((stage, active, time, value) -> events.add(time + ":" + active));
+
+        float[] input = {3, 4.5f, 3, 4.5f, 4.5f, 4.5f, 3.9f, 3.9f, 3.9f, 3.9f, 3.7f, 3.7f, 3.7f};
+        for (int i = 0; i < input.length; i++) {
+            pipeline.process(i, input[i]);
+        }
+        // Tek örneklik aşım alarm vermez; 3.9 ölü bölgede olduğundan söndürmez
+        assertEquals(Arrays.asList("5:true", "12:false"), events);
+        assertEquals(1, alarm.getActivations());
+        assertFalse(pipeline.isStopAlarmActive());
+    }
+
+    @Test
+    public void resetClearsActiveAlarmAndNotifies() {
+        final List<String> events = new ArrayList<>();
+        ThresholdAlarm alarm = new ThresholdAlarm("tıkanma", AlarmStage.Action.STOP_PUMP, Double.NaN, 4.0, 0.2, 2);
+        SignalPipeline pipeline = new SignalPipeline(null, alarm);
+        pipeline.setAlarmListener((stage, active, time, value) -> events.add(time + ":" + active + ":" + value));
+
+        // Etkin olmayan alarmın sıfırlanması bildirim üretmez
+        pipeline.reset();
+        assertTrue(events.isEmpty());
+
+        pipeline.process(1, 5f);
+        pipeline.process(2, 5f);
+        assertTrue(pipeline.isStopAlarmActive());
+        pipeline.reset();
+        // Sönme son örneğin zamanıyla ve NaN değerle bildirilir
+        assertEquals(Arrays.asList("2:true:5.0", "2:false:NaN"), events);
+        assertFalse(alarm.isActive());
+        assertFalse(pipeline.isStopAlarmActive());
+
+        // Sıfırlamadan sonra alarm yeniden tetiklenebilir
+        pipeline.process(3, 5f);
+        pipeline.process(4, 5f);
+        assertEquals("4:true:5.0", events.get(events.size() - 1));
+        assertEquals(2, alarm.getActivations());
+    }
+
+    @Test
+    public void slopeAlarmDetectsFastRise() {
+        final List<Boolean> events = new ArrayList<>();
+        SlopeAlarm alarm = new SlopeAlarm("hızlı artış", AlarmStage.Action.NOTIFY, 10, Double.NaN, 1.0, 2);
+        SignalPipeline pipeline = new SignalPipeline(null, alarm);
+        pipeline.setAlarmListener((stage, active, time, value) -> events.add(active));
+        // 10 ms aralık: 0.5 V/s yavaş eğim, sonra 5 V/s
+        float value = 1;
+        for (int i = 0; i < 100; i++) {
+            value += 0.005f;
+            pipeline.process(10L * i, value);
+        }
+        assertTrue(events.isEmpty());
+        assertEquals(0.5f, alarm.getLastSlope(), 0.01f);
+        for (int i = 100; i < 130; i++) {
+            value += 0.05f;
+            pipeline.process(10L * i, value);
+        }
+        assertEquals(Arrays.asList(true), events);
+        assertTrue(alarm.isActive());
+    }
+
+    @Test
+    public void pipelineChainsStagesIntoOutputBuffer() {
+        SampleBuffer output = new SampleBuffer(1 << 10);
+        SignalPipeline pipeline = new SignalPipeline(output,
+                new MedianFilter(3), new MovingAverage(4), new CicDecimator(10, 2), new RollingStats(8));
+        for (int i = 0; i < 1000; i++) {
+            pipeline.process(i, i == 500 ? 100f : 1f);
+        }
+        assertEquals(1000, pipeline.getSamplesProcessed());
+        assertEquals(100, output.getHeadSequence());
+        assertEquals(1f, output.latestValue(), 1e-5f);
+        assertNotNull(pipeline.findStage(RollingStats.class));
+        assertEquals(1f, pipeline.findStage(RollingStats.class).getWindowMax(), 1e-5f);
+        assertNull(pipeline.findStage(SlopeAlarm.class));
+    }
+}
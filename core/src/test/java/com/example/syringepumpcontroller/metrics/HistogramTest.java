@@ -0,0 +1,72 @@
+package com.example.syringepumpcontroller.metrics;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class HistogramTest {
+
+    @Test
+    public void geometricBoundsKeepRelativeStep() {
+        long[] bounds = Histogram.geometricBounds(50, 60_000_000, 1.05);
+        assertEquals(50, bounds[0]);
+        assertEquals(60_000_000, bounds[bounds.length - 1]);
+        for (int i = 1; i < bounds.length; i++) {
+            assertTrue(bounds[i] > bounds[i - 1]);
+            assertTrue(bounds[i] <= Math.max(bounds[i - 1] + 1, Math.ceil(bounds[i - 1] * 1.05)));
+        }
+    }
+
+    @Test
+    public void percentilesMatchSortedSamples() {
+        Random random = new Random(7);
+        Histogram histogram = new Histogram("rtt", "µs", Histogram.geometricBounds(50, 60_000_000, 1.05));
+        long[] values = new long[100_000];
+        for (int i = 0; i < values.length; i++) {
+            // Uzun kuyruklu dağılım: çoğu 1-5 ms, az sayıda 100 ms üstü
+            values[i] = (long) (1000 + 4000 * random.nextDouble() + (random.nextInt(100) == 0 ? 200_000 * random.nextDouble() : 0));
+            histogram.record(values[i]);
+        }
+        Arrays.sort(values);
+        for (double percentile : new double[]{50, 90, 99, 99.9}) {
+            long exact = values[(int) Math.ceil(percentile / 100 * values.length) - 1];
+            long estimate = histogram.getValueAtPercentile(percentile);
+            assertTrue(estimate >= exact);
+            assertEquals(exact, estimate, exact * 0.05);
+        }
+        assertEquals(values[values.length - 1], histogram.getMax());
+        assertEquals(values.length, histogram.getCount());
+    }
+
+    @Test
+    public void exportsHdrPercentileDistribution() throws IOException {
+        Histogram histogram = new Histogram("rtt", "µs", new long[]{10, 100, 1000, 10_000});
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i * 10L);
+        }
+        StringBuilder out = new StringBuilder();
+        histogram.outputPercentileDistribution(out, 1000.0);
+        String[] lines = out.toString().split("\n");
+
+        assertTrue(lines[0].trim().startsWith("Value"));
+        assertTrue(lines[2].trim().startsWith("0.010 0.000000000000"));
+        String last = lines[lines.length - 4].trim();
+        assertTrue(last, last.startsWith("10.000 1.000000000000"));
+        assertTrue(lines[lines.length - 3].startsWith("#[Mean"));
+        assertTrue(lines[lines.length - 2].contains("Total count    =         1000"));
+        assertTrue(lines[lines.length - 1].startsWith("#[Buckets"));
+    }
+
+    @Test
+    public void resetClearsCounts() {
+        Histogram histogram = new Histogram("rtt", "µs", Histogram.LATENCY_MICROS);
+        histogram.record(500);
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getValueAtPercentile(99));
+    }
+}
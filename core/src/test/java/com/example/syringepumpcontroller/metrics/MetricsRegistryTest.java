@@ -0,0 +1,99 @@
+package com.example.syringepumpcontroller.metrics;
+
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class MetricsRegistryTest {
+
+    private final MetricsRegistry registry = new MetricsRegistry();
+
+    @After
+    public void tearDown() {
+        Metrics.setEnabled(true);
+    }
+
+    @Test
+    public void countersAreSharedByName() throws InterruptedException {
+        final Counter counter = registry.counter("bytes");
+        assertSame(counter, registry.counter("bytes"));
+
+        Thread[] writers = new Thread[4];
+        for (int t = 0; t < writers.length; t++) {
+            writers[t] = new Thread(() -> {
+                for (int i = 0; i < 100_000; i++) {
+                    counter.increment();
+                }
+            });
+            writers[t].start();
+        }
+        for (Thread writer : writers) {
+            writer.join();
+        }
+        assertEquals(400_000, counter.get());
+    }
+
+    @Test
+    public void disabledModeSkipsUpdates() {
+        Counter counter = registry.counter("frames");
+        Histogram histogram = registry.histogram("latency", "µs", Histogram.LATENCY_MICROS);
+        Metrics.setEnabled(false);
+        counter.add(5);
+        histogram.record(1000);
+        assertEquals(0, counter.get());
+        assertEquals(0, histogram.getCount());
+
+        Metrics.setEnabled(true);
+        counter.add(5);
+        assertEquals(5, counter.get());
+    }
+
+    @Test
+    public void histogramUsesFixedBuckets() {
+        Histogram histogram = registry.histogram("frame", "µs", new long[]{10, 100, 1000});
+        histogram.record(5);
+        histogram.record(10);
+        histogram.record(11);
+        histogram.record(5000);
+        assertEquals(4, histogram.getBucketCount());
+        assertEquals(2, histogram.getBucketValue(0));
+        assertEquals(1, histogram.getBucketValue(1));
+        assertEquals(0, histogram.getBucketValue(2));
+        assertEquals(1, histogram.getBucketValue(3));
+        assertEquals(10, histogram.getValueAtPercentile(50));
+        assertEquals(5000, histogram.getValueAtPercentile(100));
+        assertEquals(5000, histogram.getMax());
+        assertEquals(1256.5, histogram.getMean(), 1e-9);
+    }
+
+    @Test
+    public void gaugeIsReadOnDemandAndReplaced() {
+        final int[] depth = {3};
+        Gauge gauge = registry.gauge("queue", () -> depth[0]);
+        assertEquals(3, gauge.get());
+        depth[0] = 7;
+        assertEquals(7, gauge.get());
+        assertSame(gauge, registry.gauge("queue", () -> 42));
+        assertEquals(42, gauge.get());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void nameCannotChangeType() {
+        registry.counter("x");
+        registry.histogram("x", "µs", Histogram.LATENCY_MICROS);
+    }
+
+    @Test
+    public void dumpListsMetricsInRegistrationOrderAndResetClears() {
+        registry.counter("a").add(2);
+        registry.gauge("b", () -> 9);
+        registry.histogram("c", "µs", new long[]{10}).record(4);
+        String dump = registry.dump();
+        assertTrue(dump, dump.startsWith("a = 2\nb = 9\nc: n=1"));
+
+        registry.reset();
+        assertEquals(0, registry.counter("a").get());
+        assertEquals(0, ((Histogram) registry.get("c")).getCount());
+    }
+}
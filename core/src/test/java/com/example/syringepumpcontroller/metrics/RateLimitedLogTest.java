@@ -0,0 +1,39 @@
+package com.example.syringepumpcontroller.metrics;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class RateLimitedLogTest {
+
+    private static final long MS = 1_000_000L;
+
+    @Test
+    public void allowsOneLinePerInterval() {
+        RateLimitedLog log = new RateLimitedLog("test", 100);
+        assertTrue(log.shouldLog(0));
+        assertFalse(log.shouldLog(50 * MS));
+        assertFalse(log.shouldLog(99 * MS));
+        assertTrue(log.shouldLog(100 * MS));
+        assertFalse(log.shouldLog(150 * MS));
+    }
+
+    @Test
+    public void reportsSuppressedCount() {
+        RateLimitedLog log = new RateLimitedLog("test", 100);
+        assertTrue(log.shouldLog(0));
+        assertEquals("ilk", log.format("ilk"));
+        for (int i = 1; i <= 3; i++) {
+            assertFalse(log.shouldLog(i * MS));
+        }
+        assertTrue(log.shouldLog(200 * MS));
+        assertEquals("ikinci (+3 benzer olay bastırıldı)", log.format("ikinci"));
+        assertEquals("üçüncü", log.format("üçüncü"));
+    }
+
+    @Test
+    public void firstEventIsLoggedAtAnyClockValue() {
+        RateLimitedLog log = new RateLimitedLog("test", 100);
+        assertTrue(log.shouldLog(-5_000 * MS));
+    }
+}
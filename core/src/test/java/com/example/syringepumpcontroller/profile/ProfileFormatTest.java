@@ -0,0 +1,69 @@
+package com.example.syringepumpcontroller.profile;
+
+import com.example.syringepumpcontroller.profile.InfusionProfile.Segment;
+import com.example.syringepumpcontroller.profile.InfusionProfile.Type;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ProfileFormatTest {
+
+    private static final String SAMPLE =
+            "# Yükleme protokolü\n"
+                    + "name Yükleme\n"
+                    + "step  30s   40  fwd\n"
+                    + "ramp  2m    20-80   # yön önceki bölümden\n"
+                    + "\n"
+                    + "bolus 5s    100 rev\n"
+                    + "pause 1m30s\n"
+                    + "step  250ms 10\n";
+
+    @Test
+    public void parsesAllSegmentTypes() {
+        InfusionProfile profile = ProfileFormat.parse(SAMPLE);
+        assertEquals("Yükleme", profile.getName());
+        List<Segment> segments = profile.getSegments();
+        assertEquals(5, segments.size());
+        assertEquals(Segment.step(30_000, 40, true), segments.get(0));
+        assertEquals(Segment.ramp(120_000, 20, 80, true), segments.get(1));
+        assertEquals(Segment.bolus(5_000, 100, false), segments.get(2));
+        assertEquals(Type.PAUSE, segments.get(3).type);
+        assertEquals(90_000, segments.get(3).durationMillis);
+        // Yön yazılmayan bölüm bir önceki yönü (geri) taşır
+        assertEquals(Segment.step(250, 10, false), segments.get(4));
+        assertEquals(30_000 + 120_000 + 5_000 + 90_000 + 250, profile.getTotalMillis());
+    }
+
+    @Test
+    public void formatRoundTrips() {
+        InfusionProfile profile = ProfileFormat.parse(SAMPLE);
+        String text = ProfileFormat.format(profile);
+        assertEquals(profile, ProfileFormat.parse(text));
+        assertTrue(text, text.contains("ramp 2m 20-80 fwd"));
+        assertTrue(text, text.contains("pause 90s"));
+    }
+
+    @Test
+    public void errorsReportLineNumber() {
+        assertParseError("step 10s 40\nramp 5s 40\n", "Satır 2");
+        assertParseError("step 10s 140\n", "Geçersiz hız");
+        assertParseError("step 10 40\n", "Süre birimi");
+        assertParseError("step 10s 40 up\n", "Geçersiz yön");
+        assertParseError("spin 10s 40\n", "Bilinmeyen bölüm");
+        assertParseError("pause 10s 40\n", "Fazla alan");
+        assertParseError("bolus 2m 100\n", "Bolus");
+        assertParseError("# boş\nname X\n", "en az bir bölüm");
+    }
+
+    private static void assertParseError(String text, String expected) {
+        try {
+            ProfileFormat.parse(text);
+            fail("Hata bekleniyordu: " + text);
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains(expected));
+        }
+    }
+}
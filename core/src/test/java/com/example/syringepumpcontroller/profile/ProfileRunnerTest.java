@@ -0,0 +1,231 @@
+package com.example.syringepumpcontroller.profile;
+
+import com.example.syringepumpcontroller.profile.InfusionProfile.Segment;
+import com.example.syringepumpcontroller.profile.ProfileRunner.Action;
+import com.example.syringepumpcontroller.profile.ProfileRunner.PlannedCommand;
+import com.example.syringepumpcontroller.profile.ProfileRunner.Timing;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class ProfileRunnerTest {
+
+    private static final long MS = 1_000_000L;
+
+    // Denetleyicinin G/Ç şeridi gibi tek iş parçacıklı zamanlayıcı
+    private final ScheduledExecutorService io = Executors.newSingleThreadScheduledExecutor();
+
+    // Komutları sırasıyla kaydeden sahte pompa
+    static class RecordingActuator implements ProfileRunner.Actuator {
+        final List<String> commands = Collections.synchronizedList(new ArrayList<>());
+        volatile long blockMillisOnce;
+
+        @Override
+        public void start() {
+            commands.add("START");
+        }
+
+        @Override
+        public void stop() {
+            commands.add("STOP");
+        }
+
+        @Override
+        public void setSpeed(int speed) {
+            commands.add("SPEED_" + speed);
+            long block = blockMillisOnce;
+            if (block > 0) {
+                blockMillisOnce = 0;
+                try {
+                    Thread.sleep(block);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+
+        @Override
+        public void setDirection(boolean forward) {
+            commands.add(forward ? "DIR_FWD" : "DIR_REV");
+        }
+    }
+
+    @After
+    public void tearDown() {
+        io.shutdownNow();
+    }
+
+    @Test
+    public void planOrdersCommandsAndSkipsUnchangedValues() {
+        InfusionProfile profile = new InfusionProfile("p", Arrays.asList(
+                Segment.step(1000, 40, true),
+                Segment.step(1000, 40, false),
+                Segment.pause(500, false),
+                Segment.bolus(200, 100, false)));
+        assertEquals(Arrays.asList(
+                "0ms DIRECTION 1", "0ms SPEED 40", "0ms START",
+                "1000ms DIRECTION 0",
+                "2000ms STOP",
+                "2500ms SPEED 100", "2500ms START",
+                "2700ms STOP", "2700ms END"), describe(ProfileRunner.plan(profile)));
+    }
+
+    @Test
+    public void rampStepsAreSpacedAndEndOnTargetSpeed() {
+        InfusionProfile profile = new InfusionProfile("r", Collections.singletonList(
+                Segment.ramp(1000, 20, 80, true)));
+        List<PlannedCommand> plan = ProfileRunner.plan(profile);
+        List<PlannedCommand> speeds = new ArrayList<>();
+        for (PlannedCommand command : plan) {
+            if (command.action == Action.SPEED) {
+                speeds.add(command);
+            }
+        }
+        // 60 hızlık değişim 1 s'de 100 ms aralıklı 10 basamağa seyreltilir
+        assertEquals(10, speeds.size());
+        assertEquals(20, speeds.get(0).value);
+        assertEquals(80, speeds.get(speeds.size() - 1).value);
+        for (int i = 1; i < speeds.size(); i++) {
+            assertTrue(speeds.get(i).value > speeds.get(i - 1).value);
+            assertEquals(ProfileRunner.RAMP_STEP_MILLIS, speeds.get(i).offsetMillis - speeds.get(i - 1).offsetMillis);
+        }
+
+        // Küçük değişimde her hız bir kez gönderilir
+        List<PlannedCommand> small = ProfileRunner.plan(new InfusionProfile("k", Collections.singletonList(
+                Segment.ramp(10_000, 50, 47, true))));
+        assertEquals("[0ms SPEED 50, 2500ms SPEED 49, 5000ms SPEED 48, 7500ms SPEED 47]",
+                describe(filter(small, Action.SPEED)).toString());
+    }
+
+    @Test
+    public void executesOnScheduleAndReportsTiming() throws Exception {
+        RecordingActuator pump = new RecordingActuator();
+        ProfileRunner runner = new ProfileRunner(io, pump);
+        InfusionProfile profile = ProfileFormat.parse("step 100ms 30 fwd\nramp 300ms 30-33 rev\npause 100ms\n");
+        runner.start(profile);
+        assertTrue(runner.isRunning());
+        assertFinished(runner, 2000);
+
+        assertEquals(Arrays.asList("DIR_FWD", "SPEED_30", "START", "DIR_REV", "SPEED_32", "SPEED_33", "STOP"),
+                pump.commands);
+        List<Timing> timings = runner.getTimings();
+        assertEquals(ProfileRunner.plan(profile).size(), timings.size());
+        for (Timing timing : timings) {
+            // Zamanlayıcı erken çalışmaz
+            assertTrue(timing.getLatenessNanos() >= 0);
+        }
+        assertTrue("en kötü gecikme " + runner.getMaxLatenessNanos() / MS + " ms",
+                runner.getMaxLatenessNanos() < 50 * MS);
+        Timing end = timings.get(timings.size() - 1);
+        assertEquals(Action.END, end.command.action);
+        assertEquals(500 * MS, end.plannedOffsetNanos);
+        assertEquals(timings.get(0).wallClockMillis + 500, end.wallClockMillis, 50);
+    }
+
+    @Test
+    public void lateCommandDoesNotShiftTheRestOfTheTimeline() throws Exception {
+        RecordingActuator pump = new RecordingActuator();
+        ProfileRunner runner = new ProfileRunner(io, pump);
+        // İlk hız komutu şeridi 150 ms meşgul eder; 100 ms'deki komut gecikir, sonrakiler kaymaz
+        pump.blockMillisOnce = 150;
+        runner.start(ProfileFormat.parse("step 100ms 10\nstep 100ms 20\nstep 100ms 30\nstep 100ms 40\n"));
+        assertFinished(runner, 2000);
+
+        List<Timing> timings = runner.getTimings();
+        Timing late = find(timings, 20);
+        Timing onTime = find(timings, 40);
+        assertTrue(late.getLatenessNanos() >= 40 * MS);
+        assertEquals(300 * MS, onTime.plannedOffsetNanos);
+        assertTrue("gecikme " + onTime.getLatenessNanos() / MS + " ms", onTime.getLatenessNanos() < 40 * MS);
+    }
+
+    @Test
+    public void stopCancelsRemainingCommandsAndStopsPump() throws Exception {
+        RecordingActuator pump = new RecordingActuator();
+        ProfileRunner runner = new ProfileRunner(io, pump);
+        runner.start(ProfileFormat.parse("step 100ms 10\nstep 10s 20\n"));
+        Thread.sleep(200);
+        assertEquals(1, runner.getCurrentSegment());
+        runner.stop();
+        assertFalse(runner.isRunning());
+        assertEquals(-1, runner.getCurrentSegment());
+        Thread.sleep(100);
+        assertEquals(Arrays.asList("DIR_FWD", "SPEED_10", "START", "SPEED_20", "STOP"), pump.commands);
+
+        // Durdurulan profil yeniden başlatılabilir
+        runner.start(ProfileFormat.parse("step 50ms 10\n"));
+        assertFinished(runner, 1000);
+    }
+
+    @Test
+    public void sharesTheLaneWithoutStarvingOtherPeriodicWork() throws Exception {
+        final AtomicInteger polls = new AtomicInteger();
+        ScheduledFuture<?> poller = io.scheduleAtFixedRate(polls::incrementAndGet, 5, 5, TimeUnit.MILLISECONDS);
+        ProfileRunner runner = new ProfileRunner(io, new RecordingActuator());
+        runner.start(ProfileFormat.parse("ramp 500ms 0-100\nramp 500ms 100-0 rev\n"));
+        assertFinished(runner, 3000);
+        poller.cancel(false);
+        // 1 s boyunca 5 ms'lik yoklama neredeyse hiç kaçırılmaz
+        assertTrue("yoklama " + polls.get(), polls.get() >= 150);
+    }
+
+    @Test
+    public void rejectsSecondStartWhileRunning() {
+        ProfileRunner runner = new ProfileRunner(io, new RecordingActuator());
+        runner.start(ProfileFormat.parse("step 10s 10\n"));
+        try {
+            runner.start(ProfileFormat.parse("step 10s 20\n"));
+            fail();
+        } catch (IllegalStateException expected) {
+            // beklenen
+        }
+        runner.stop();
+    }
+
+    private static void assertFinished(ProfileRunner runner, long timeoutMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (runner.isRunning() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertFalse("profil bitmedi", runner.isRunning());
+    }
+
+    private static Timing find(List<Timing> timings, int speed) {
+        for (Timing timing : timings) {
+            if (timing.command.action == Action.SPEED && timing.command.value == speed) {
+                return timing;
+            }
+        }
+        throw new AssertionError("SPEED " + speed + " yok");
+    }
+
+    private static List<PlannedCommand> filter(List<PlannedCommand> plan, Action action) {
+        List<PlannedCommand> result = new ArrayList<>();
+        for (PlannedCommand command : plan) {
+            if (command.action == action) {
+                result.add(command);
+            }
+        }
+        return result;
+    }
+
+    private static List<String> describe(List<PlannedCommand> plan) {
+        List<String> result = new ArrayList<>();
+        for (PlannedCommand command : plan) {
+            result.add(command.toString());
+        }
+        return result;
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.syringepumpcontroller.protocol;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class BinaryFrameCodecTest {
+
+    private final List<float[]> frames = new ArrayList<>();
+    private final List<Integer> sequences = new ArrayList<>();
+    private int errors;
+    private BinaryFrameDecoder decoder;
+
+    @Before
+    public void setUp() {
+        decoder = new BinaryFrameDecoder(new BinaryFrameDecoder.Listener() {
+            @Override
+            public void onFrame(int type, int sequence, byte[] payload, int offset, int length) {
+                assertEquals(BinaryFrameCodec.TYPE_SAMPLES, type);
+                int count = BinaryFrameCodec.sampleRows(payload, offset) * BinaryFrameCodec.sampleChannels(payload, offset);
+                float[] values = new float[count];
+                for (int i = 0; i < count; i++) {
+                    values[i] = BinaryFrameCodec.sampleValue(payload, offset, i);
+                }
+                frames.add(values);
+                sequences.add(sequence);
+            }
+
+            @Override
+            public void onFrameError() {
+                errors++;
+            }
+        });
+    }
+
+    private static byte[] sampleFrame(int sequence, float... values) {
+        byte[] payload = new byte[BinaryFrameCodec.MAX_PAYLOAD];
+        int payloadLength = BinaryFrameCodec.encodeSamplePayload(1000L * sequence, 1000, 1, values, values.length, payload, 0);
+        byte[] frame = new byte[BinaryFrameCodec.MAX_FRAME];
+        int length = BinaryFrameCodec.encode(BinaryFrameCodec.TYPE_SAMPLES, sequence, payload, 0, payloadLength, frame, 0);
+        return java.util.Arrays.copyOf(frame, length);
+    }
+
+    @Test
+    public void crcMatchesReferenceVector() {
+        byte[] data = "123456789".getBytes();
+        assertEquals(0x29B1, Crc16.compute(data, 0, data.length));
+    }
+
+    @Test
+    public void roundTripsSampleFrame() {
+        byte[] frame = sampleFrame(7, 1.25f, 2.5f, -3.75f);
+        decoder.feed(frame, 0, frame.length);
+        assertEquals(1, frames.size());
+        assertArrayEquals(new float[]{1.25f, 2.5f, -3.75f}, frames.get(0), 0f);
+        assertEquals(7, (int) sequences.get(0));
+        assertEquals(0, errors);
+    }
+
+    @Test
+    public void decodesRandomlyFragmentedStreamWithNoise() {
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        stream.write(0x00);
+        stream.write(0x42);
+        for (int seq = 0; seq < 500; seq++) {
+            byte[] frame = sampleFrame(seq, seq, seq + 0.5f);
+            stream.write(frame, 0, frame.length);
+        }
+        byte[] bytes = stream.toByteArray();
+
+        Random random = new Random(3);
+        int pos = 0;
+        while (pos < bytes.length) {
+            int len = Math.min(1 + random.nextInt(40), bytes.length - pos);
+            decoder.feed(bytes, pos, len);
+            pos += len;
+        }
+
+        assertEquals(500, frames.size());
+        assertEquals(0, decoder.getLostFrames());
+        assertEquals(499f, frames.get(499)[0], 0f);
+    }
+
+    @Test
+    public void rejectsCorruptedCrcAndCountsLostSequence() {
+        byte[] first = sampleFrame(1, 1f);
+        byte[] corrupt = sampleFrame(2, 2f);
+        corrupt[corrupt.length - 3] ^= 0x10;
+        byte[] third = sampleFrame(3, 3f);
+
+        decoder.feed(first, 0, first.length);
+        decoder.feed(corrupt, 0, corrupt.length);
+        decoder.feed(third, 0, third.length);
+
+        assertEquals(2, frames.size());
+        assertEquals(1, errors);
+        assertEquals(1, decoder.getLostFrames());
+    }
+
+    @Test
+    public void rejectsOversizedLength() {
+        byte[] bogus = {BinaryFrameCodec.SYNC, 1, 0, 0, (byte) 0xFF, (byte) 0xFF};
+        decoder.feed(bogus, 0, bogus.length);
+        byte[] frame = sampleFrame(0, 4f);
+        decoder.feed(frame, 0, frame.length);
+        assertEquals(1, errors);
+        assertEquals(1, frames.size());
+    }
+
+    @Test
+    public void resyncsOnSyncByteInsideRejectedCandidate() {
+        // Yarıda kesilen çerçevenin başlığı, ardından yükünde 0xA5 taşıyan geçerli çerçeveler
+        float embedded = Float.intBitsToFloat(0xA5A5A5A5);
+        byte[] truncated = sampleFrame(5, 1f, 2f, 3f, 4f);
+        byte[] valid = sampleFrame(6, embedded, 6f);
+        byte[] next = sampleFrame(7, 7f);
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        stream.write(truncated, 0, BinaryFrameCodec.HEADER_SIZE + 2);
+        stream.write(valid, 0, valid.length);
+        stream.write(next, 0, next.length);
+        byte[] bytes = stream.toByteArray();
+
+        decoder.feed(bytes, 0, bytes.length);
+
+        assertEquals(2, frames.size());
+        assertEquals(6, (int) sequences.get(0));
+        assertEquals(0xA5A5A5A5, Float.floatToRawIntBits(frames.get(0)[0]));
+        assertEquals(7f, frames.get(1)[0], 0f);
+        assertTrue(errors >= 1);
+        assertEquals(0, decoder.getLostFrames());
+    }
+
+    @Test
+    public void sequenceWrapsAroundAndBackwardsJumpIsAReset() {
+        int[] order = {65534, 65535, 0, 1, 0, 1, 3};
+        for (int sequence : order) {
+            byte[] frame = sampleFrame(sequence, sequence);
+            decoder.feed(frame, 0, frame.length);
+        }
+        assertEquals(order.length, frames.size());
+        assertEquals(0, errors);
+        // Yalnızca 2 numaralı çerçeve kayıp; 1'den 0'a dönüş sıfırlanmadır
+        assertEquals(1, decoder.getLostFrames());
+    }
+}
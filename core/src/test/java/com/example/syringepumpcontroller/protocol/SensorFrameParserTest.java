@@ -0,0 +1,150 @@
+package com.example.syringepumpcontroller.protocol;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class SensorFrameParserTest {
+
+    private final List<Float> values = new ArrayList<>();
+    private int errors;
+    private SensorFrameParser parser;
+
+    @Before
+    public void setUp() {
+        parser = new SensorFrameParser(new SensorFrameParser.Listener() {
+            @Override
+            public void onSensorValue(float value) {
+                values.add(value);
+            }
+
+            @Override
+            public void onParseError() {
+                errors++;
+            }
+        });
+    }
+
+    private void feed(String s) {
+        parser.feed(s.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    public void parsesSingleLine() {
+        feed("SV:2.45\n");
+        assertEquals(1, values.size());
+        assertEquals(2.45f, values.get(0), 0f);
+        assertEquals(0, errors);
+    }
+
+    @Test
+    public void keepsPartialFrameAcrossChunks() {
+        feed("SV:3.");
+        assertTrue(values.isEmpty());
+        feed("14");
+        feed("\r\n");
+        assertEquals(1, values.size());
+        assertEquals(3.14f, values.get(0), 0f);
+    }
+
+    @Test
+    public void parsesSeveralFramesInOneChunk() {
+        feed("SV:1.0\nSV:2.5\r\nSV:-0.125\n");
+        assertEquals(3, values.size());
+        assertEquals(1.0f, values.get(0), 0f);
+        assertEquals(2.5f, values.get(1), 0f);
+        assertEquals(-0.125f, values.get(2), 0f);
+    }
+
+    @Test
+    public void matchesFloatParseFloat() {
+        String[] inputs = {"0", "0.0", "5", "4.999", "0.001", "123.456", "1e-3", "2.5E2", "+1.75", "-3.3", "0000.0100"};
+        for (String in : inputs) {
+            values.clear();
+            feed("SV:" + in + "\n");
+            assertEquals(in, 1, values.size());
+            assertEquals(in, Float.parseFloat(in), values.get(0), Math.ulp(Float.parseFloat(in)));
+        }
+    }
+
+    @Test
+    public void reportsMalformedLines() {
+        feed("SV:\nSV:abc\nXX:1.0\nSV:1.2.3\nSV:1e\n");
+        assertTrue(values.isEmpty());
+        assertEquals(5, errors);
+        assertEquals(5, parser.getParseErrors());
+    }
+
+    @Test
+    public void ignoresEmptyLines() {
+        feed("\n\r\n  \nSV:1\n");
+        assertEquals(1, values.size());
+        assertEquals(0, errors);
+    }
+
+    @Test
+    public void discardsOverlongLineAndRecovers() {
+        SensorFrameParser small = new SensorFrameParser(new SensorFrameParser.Listener() {
+            @Override
+            public void onSensorValue(float value) {
+                values.add(value);
+            }
+
+            @Override
+            public void onParseError() {
+                errors++;
+            }
+        }, 16);
+        StringBuilder sb = new StringBuilder("SV:");
+        for (int i = 0; i < 40; i++) {
+            sb.append('1');
+        }
+        sb.append("\nSV:4.2\n");
+        small.feed(sb.toString().getBytes(StandardCharsets.US_ASCII));
+        assertEquals(1, errors);
+        assertEquals(1, values.size());
+        assertEquals(4.2f, values.get(0), 0f);
+    }
+
+    @Test
+    public void randomFragmentationPreservesAllSamples() {
+        Random random = new Random(42);
+        StringBuilder sb = new StringBuilder();
+        float[] expected = new float[2000];
+        for (int i = 0; i < expected.length; i++) {
+            expected[i] = Math.round(random.nextFloat() * 5000f) / 1000f;
+            sb.append("SV:").append(String.format(java.util.Locale.US, "%.3f", expected[i])).append("\r\n");
+        }
+        byte[] stream = sb.toString().getBytes(StandardCharsets.US_ASCII);
+
+        int pos = 0;
+        while (pos < stream.length) {
+            int len = Math.min(1 + random.nextInt(64), stream.length - pos);
+            parser.feed(stream, pos, len);
+            pos += len;
+        }
+
+        assertEquals(expected.length, values.size());
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i], values.get(i), 1e-6f);
+        }
+        assertEquals(0, errors);
+        assertEquals(0, parser.getPendingBytes());
+    }
+
+    @Test
+    public void routesCommandRepliesToReplyListener() {
+        final List<String> replies = new ArrayList<>();
+        parser.setReplyListener((ack, requestId, code) -> replies.add(ack + ":" + requestId + ":" + code));
+        feed("SV:1.0\nACK:17\r\nNAK:18:2\nSV:2.0\n");
+        assertEquals(java.util.Arrays.asList("true:17:0", "false:18:2"), replies);
+        assertEquals(2, values.size());
+        assertEquals(0, errors);
+    }
+}
@@ -0,0 +1,166 @@
+package com.example.syringepumpcontroller.protocol;
+
+import com.example.syringepumpcontroller.serial.SerialTransport;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class TelemetryLinkTest {
+
+    /**
+     * Yazılan satırları sahte bir donanım yazılımına ileten, yanıtları okuma dinleyicisine geri veren port.
+     */
+    private static class LoopbackTransport implements SerialTransport {
+        final boolean supportsBinary;
+        final StringBuilder written = new StringBuilder();
+        Listener listener;
+
+        LoopbackTransport(boolean supportsBinary) {
+            this.supportsBinary = supportsBinary;
+        }
+
+        @Override
+        public void setListener(Listener listener) {
+            this.listener = listener;
+        }
+
+        @Override
+        public void write(byte[] data, int offset, int length) {
+            String line = new String(data, offset, length, StandardCharsets.US_ASCII);
+            written.append(line);
+            if (supportsBinary && line.equals(BinaryFrameCodec.HANDSHAKE + "\n")) {
+                // Onay ve ilk ikili çerçeve aynı USB parçasında gelir
+                byte[] ack = "SV:1.5\nPROTO_BIN_OK\r\n".getBytes(StandardCharsets.US_ASCII);
+                byte[] frame = frame(0, 2.0f, 2.5f);
+                byte[] chunk = Arrays.copyOf(ack, ack.length + frame.length);
+                System.arraycopy(frame, 0, chunk, ack.length, frame.length);
+                deliver(chunk);
+            }
+        }
+
+        void deliver(byte[] bytes) {
+            listener.onData(bytes, 0, bytes.length);
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    private static byte[] frame(int sequence, float... values) {
+        byte[] payload = new byte[BinaryFrameCodec.MAX_PAYLOAD];
+        int payloadLength = BinaryFrameCodec.encodeSamplePayload(5000, 250, 1, values, values.length, payload, 0);
+        byte[] out = new byte[BinaryFrameCodec.MAX_FRAME];
+        int length = BinaryFrameCodec.encode(BinaryFrameCodec.TYPE_SAMPLES, sequence, payload, 0, payloadLength, out, 0);
+        return Arrays.copyOf(out, length);
+    }
+
+    private final List<Float> values = new ArrayList<>();
+    private final List<Long> times = new ArrayList<>();
+    private int errors;
+
+    private final TelemetryLink.Listener listener = new TelemetryLink.Listener() {
+        @Override
+        public void onSample(long deviceTimeMicros, int channel, float value) {
+            times.add(deviceTimeMicros);
+            values.add(value);
+        }
+
+        @Override
+        public void onFrameError() {
+            errors++;
+        }
+    };
+
+    @Test
+    public void switchesToBinaryWhenFirmwareAcknowledges() throws InterruptedException {
+        LoopbackTransport transport = new LoopbackTransport(true);
+        TelemetryLink link = new TelemetryLink(transport, listener);
+
+        assertTrue(link.negotiateBinary(1000));
+        assertEquals(TelemetryLink.Mode.BINARY, link.getMode());
+        assertEquals(Arrays.asList(1.5f, 2.0f, 2.5f), values);
+        assertEquals(Arrays.asList(TelemetryLink.NO_DEVICE_TIME, 5000L, 5250L), times);
+
+        transport.deliver(frame(1, 3.0f));
+        assertEquals(3.0f, values.get(values.size() - 1), 0f);
+        assertEquals(0, errors);
+        assertEquals(0, link.getLostFrames());
+    }
+
+    @Test
+    public void fallsBackToAsciiWhenFirmwareIsSilent() throws InterruptedException {
+        LoopbackTransport transport = new LoopbackTransport(false);
+        TelemetryLink link = new TelemetryLink(transport, listener);
+
+        long start = System.nanoTime();
+        assertFalse(link.negotiateBinary(50));
+        assertTrue(System.nanoTime() - start >= 45_000_000L);
+        assertEquals(TelemetryLink.Mode.ASCII, link.getMode());
+        assertEquals(BinaryFrameCodec.HANDSHAKE + "\n", transport.written.toString());
+
+        transport.deliver("SV:4.25\n".getBytes(StandardCharsets.US_ASCII));
+        assertEquals(Arrays.asList(4.25f), values);
+        assertEquals(0, errors);
+    }
+
+    @Test
+    public void switchesToBinaryWhenAcknowledgementArrivesLate() throws InterruptedException {
+        LoopbackTransport transport = new LoopbackTransport(false);
+        TelemetryLink link = new TelemetryLink(transport, listener);
+
+        assertFalse(link.negotiateBinary(20));
+        assertEquals(TelemetryLink.Mode.ASCII, link.getMode());
+        transport.deliver("SV:1.25\nPROTO_B".getBytes(StandardCharsets.US_ASCII));
+
+        // Onay satırı parçalı gelir; cihaz ardından ikili çerçeve gönderir
+        byte[] rest = "IN_OK\r\n".getBytes(StandardCharsets.US_ASCII);
+        byte[] frame = frame(0, 3.0f, 3.5f);
+        byte[] chunk = Arrays.copyOf(rest, rest.length + frame.length);
+        System.arraycopy(frame, 0, chunk, rest.length, frame.length);
+        transport.deliver(chunk);
+
+        assertEquals(TelemetryLink.Mode.BINARY, link.getMode());
+        assertEquals(1, link.getLateAcks());
+        transport.deliver(frame(1, 4.0f));
+        assertEquals(Arrays.asList(1.25f, 3.0f, 3.5f, 4.0f), values);
+        assertEquals(0, errors);
+
+        // Yeni bağlantıda geç onay beklenmez
+        link.reset();
+        transport.deliver("PROTO_BIN_OK\nSV:2.5\n".getBytes(StandardCharsets.US_ASCII));
+        assertEquals(TelemetryLink.Mode.ASCII, link.getMode());
+        assertEquals(2.5f, values.get(values.size() - 1), 0f);
+    }
+
+    @Test
+    public void deliversBinaryEventRepliesBetweenSampleFrames() throws InterruptedException {
+        LoopbackTransport transport = new LoopbackTransport(true);
+        TelemetryLink link = new TelemetryLink(transport, listener);
+        final List<String> replies = new ArrayList<>();
+        link.setReplyListener((ack, requestId, code) -> replies.add(ack + ":" + requestId + ":" + code));
+        assertTrue(link.negotiateBinary(1000));
+
+        transport.deliver(event(1, BinaryFrameCodec.EVENT_ACK, 300, 0));
+        transport.deliver(frame(2, 3.0f));
+        transport.deliver(event(3, BinaryFrameCodec.EVENT_NAK, 65535, 7));
+        assertEquals(Arrays.asList("true:300:0", "false:65535:7"), replies);
+        assertEquals(3.0f, values.get(values.size() - 1), 0f);
+        assertEquals(0, errors);
+        assertEquals(0, link.getLostFrames());
+    }
+
+    private static byte[] event(int sequence, int event, int requestId, int code) {
+        byte[] payload = new byte[BinaryFrameCodec.EVENT_PAYLOAD_SIZE];
+        BinaryFrameCodec.encodeEventPayload(event, requestId, code, payload, 0);
+        byte[] out = new byte[BinaryFrameCodec.MAX_FRAME];
+        int length = BinaryFrameCodec.encode(BinaryFrameCodec.TYPE_EVENT, sequence, payload, 0, payload.length, out, 0);
+        return Arrays.copyOf(out, length);
+    }
+}
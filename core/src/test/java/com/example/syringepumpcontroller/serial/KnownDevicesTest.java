@@ -0,0 +1,68 @@
+package com.example.syringepumpcontroller.serial;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class KnownDevicesTest {
+
+    @Test
+    public void identityKeyRoundTrips() {
+        DeviceIdentity identity = new DeviceIdentity(0x2341, 0x0043, "A1B2:C3");
+        assertEquals("2341:0043:A1B2:C3", identity.key());
+        assertEquals(identity, DeviceIdentity.parse(identity.key()));
+        assertFalse(DeviceIdentity.parse("2341:0043").hasSerialNumber());
+        assertNull(new DeviceIdentity(1, 2, "").serialNumber);
+        try {
+            DeviceIdentity.parse("usb-1");
+            fail();
+        } catch (IllegalArgumentException expected) {
+            // beklenen
+        }
+    }
+
+    @Test
+    public void serialNumberIsOptionalWhenMatching() {
+        DeviceIdentity withSerial = new DeviceIdentity(0x2341, 0x0043, "X1");
+        // İzin öncesi seri numarası okunamaz; VID/PID yeter
+        assertTrue(withSerial.matches(0x2341, 0x0043, null));
+        assertTrue(withSerial.matches(0x2341, 0x0043, "X1"));
+        assertFalse(withSerial.matches(0x2341, 0x0043, "X2"));
+        assertFalse(withSerial.matches(0x2341, 0x0044, "X1"));
+        assertTrue(new DeviceIdentity(0x2341, 0x0043, null).matches(0x2341, 0x0043, "X9"));
+    }
+
+    @Test
+    public void mostRecentlyUsedComesFirstAndCapacityIsBounded() {
+        KnownDevices known = new KnownDevices(3);
+        assertTrue(known.remember(new DeviceIdentity(1, 1, "a")));
+        assertTrue(known.remember(new DeviceIdentity(2, 2, "b")));
+        assertTrue(known.remember(new DeviceIdentity(3, 3, "c")));
+        assertFalse(known.remember(new DeviceIdentity(3, 3, "c")));
+        assertTrue(known.remember(new DeviceIdentity(1, 1, "a")));
+        assertEquals(0, known.rank(1, 1, "a"));
+        assertEquals(1, known.rank(3, 3, null));
+
+        known.remember(new DeviceIdentity(4, 4, null));
+        assertEquals(3, known.getDevices().size());
+        assertEquals(-1, known.rank(2, 2, "b"));
+
+        // Seri numarası öğrenilen cihaz numarasız kaydın yerini alır
+        known.remember(new DeviceIdentity(4, 4, "d"));
+        assertEquals(3, known.getDevices().size());
+        assertEquals("d", known.getDevices().get(0).serialNumber);
+    }
+
+    @Test
+    public void parseSkipsCorruptLines() {
+        KnownDevices known = new KnownDevices();
+        known.remember(new DeviceIdentity(0x0403, 0x6001, "FT1"));
+        known.remember(new DeviceIdentity(0x2341, 0x0043, null));
+        String text = known.serialize() + "bozuk\n\nzzzz:0001\n";
+
+        KnownDevices parsed = KnownDevices.parse(text, KnownDevices.DEFAULT_CAPACITY);
+        assertEquals(known.getDevices(), parsed.getDevices());
+        assertEquals(0, KnownDevices.parse(null, 4).getDevices().size());
+        assertEquals(1, KnownDevices.parse(text, 1).getDevices().size());
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.syringepumpcontroller.simulation;
+
+import com.example.syringepumpcontroller.acquisition.AcquisitionController;
+import com.example.syringepumpcontroller.data.SampleBuffer;
+import com.example.syringepumpcontroller.dsp.AlarmStage;
+import com.example.syringepumpcontroller.dsp.MedianFilter;
+import com.example.syringepumpcontroller.dsp.MovingAverage;
+import com.example.syringepumpcontroller.dsp.RollingStats;
+import com.example.syringepumpcontroller.dsp.SignalPipeline;
+import com.example.syringepumpcontroller.dsp.SlopeAlarm;
+import com.example.syringepumpcontroller.dsp.ThresholdAlarm;
+import com.example.syringepumpcontroller.serial.CaptureReader;
+
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tüm alım yolunun donanımsız verimi: kaydedilmiş 1 kHz ikili oturum beklemesiz oynatılır ve
+ * çerçeve çözme, örnek deposu ve sinyal hattından (uygulamadaki adımlarla) geçer. Aynı kayıt
+ * her turda birebir aynı depoyu üretmelidir.
+ */
+public class ReplayTransportBenchmarkTest {
+
+    // 1 kHz'de 10 dakika
+    private static final int SAMPLES = 600_000;
+    private static final int RATE_HZ = 1000;
+
+    // Ölçümler JMH kaynaklarındadır (src/jmh); buradaki sınır denetimleri uzun sürdüğünden
+    // yalnızca -Dbenchmark.large=true ile çalışır
+    @Before
+    public void requireBenchmarkRun() {
+        Assume.assumeTrue(Boolean.getBoolean("benchmark.large"));
+    }
+
+    @Test
+    public void ingestionThroughput() throws Exception {
+        byte[] capture = SyntheticCaptures.binarySession(SAMPLES, RATE_HZ, 64);
+        long best = Long.MAX_VALUE;
+        SampleBuffer.Snapshot first = null;
+        // İlk turlar ısınma; en iyi tur denetlenir
+        for (int round = 0; round < 4; round++) {
+            SampleBuffer buffer = new SampleBuffer(1 << 20);
+            AcquisitionController controller = new AcquisitionController(buffer, null);
+            controller.setSignalPipeline(appPipeline());
+            ReplayTransport replay = new ReplayTransport(
+                    new CaptureReader(new ByteArrayInputStream(capture)), ReplayTransport.MAX_SPEED);
+            long start = System.nanoTime();
+            controller.connect(replay);
+            assertTrue(replay.awaitCompletion(60_000));
+            best = Math.min(best, System.nanoTime() - start);
+            assertEquals(0, replay.getSyncTimeouts());
+            assertEquals(SAMPLES, buffer.getHeadSequence());
+            assertFalse(controller.getSignalPipeline().isStopAlarmActive());
+            controller.shutdown();
+
+            SampleBuffer.Snapshot snapshot = new SampleBuffer.Snapshot();
+            buffer.snapshot(0, snapshot);
+            if (first == null) {
+                first = snapshot;
+            } else {
+                assertArrayEquals(first.timestamps, snapshot.timestamps);
+                assertTrue(Arrays.equals(first.values, snapshot.values));
+            }
+        }
+        double samplesPerSecond = SAMPLES / (best / 1e9);
+        // Bir dakikalık kayıt bir saniyeden kısa sürede oynatılabilmeli
+        assertTrue("Saniyede " + samplesPerSecond + " örnek", samplesPerSecond > 60 * RATE_HZ);
+    }
+
+    // Uygulamadaki hat: medyan, kayan ortalama, istatistik, tıkanma ve eğim alarmları
+    static SignalPipeline appPipeline() {
+        return new SignalPipeline(new SampleBuffer(1 << 12),
+                new MedianFilter(5, 0.25),
+                new MovingAverage(4),
+                new RollingStats(100, 5),
+                new ThresholdAlarm("tıkanma", AlarmStage.Action.STOP_PUMP, Double.NaN, 4.5, 0.2, 5),
+                new SlopeAlarm("eğim", AlarmStage.Action.NOTIFY, 10, -1.0, 1.0, 3));
+    }
+}
@@ -0,0 +1,182 @@
+package com.example.syringepumpcontroller.simulation;
+
+import com.example.syringepumpcontroller.acquisition.AcquisitionController;
+import com.example.syringepumpcontroller.acquisition.AcquisitionController.ConnectionState;
+import com.example.syringepumpcontroller.data.SampleBuffer;
+import com.example.syringepumpcontroller.serial.CaptureReader;
+import com.example.syringepumpcontroller.serial.CaptureWriter;
+import com.example.syringepumpcontroller.serial.RecordingTransport;
+import com.example.syringepumpcontroller.serial.SerialTransport;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ReplayTransportTest {
+
+    @Test
+    public void recordedSessionReplaysThroughTheSamePipeline() throws Exception {
+        File file = File.createTempFile("capture", ".spr");
+        file.deleteOnExit();
+        SampleBuffer recorded = new SampleBuffer(1 << 12);
+        AcquisitionController live = new AcquisitionController(recorded, null);
+        live.setStreamRateHz(200);
+        SimulatedPumpDevice device = new SimulatedPumpDevice(true, 7);
+        device.setChunking(3, 40);
+        RecordingTransport recording = new RecordingTransport(device, new CaptureWriter(file));
+        live.connect(recording);
+        assertTrue(waitFor(() -> live.getConnectionState() == ConnectionState.CONNECTED, 5000));
+        assertTrue(waitFor(() -> recorded.getHeadSequence() >= 100, 5000));
+        live.disconnect();
+        assertTrue(live.awaitIdle(2000));
+        live.shutdown();
+        assertTrue(recording.awaitClosed(2000));
+        assertEquals(0, recording.getDroppedRecords());
+
+        SampleBuffer replayed = new SampleBuffer(1 << 12);
+        AcquisitionController controller = new AcquisitionController(replayed, null);
+        ReplayTransport replay = new ReplayTransport(file, ReplayTransport.MAX_SPEED);
+        controller.connect(replay);
+        assertTrue(replay.awaitCompletion(5000));
+        assertNull(replay.getFailure());
+        assertEquals(0, replay.getSyncTimeouts());
+        assertTrue(controller.awaitIdle(2000));
+
+        // Aynı parçalar aynı ayrıştırıcıdan geçer: örnekler birebir, zamanlar kayıttaki gibi
+        SampleBuffer.Snapshot expected = new SampleBuffer.Snapshot();
+        SampleBuffer.Snapshot actual = new SampleBuffer.Snapshot();
+        recorded.snapshot(0, expected);
+        replayed.snapshot(0, actual);
+        assertEquals(expected.count, actual.count);
+        for (int i = 0; i < expected.count; i++) {
+            assertEquals(expected.values[i], actual.values[i], 0f);
+            assertEquals("örnek " + i, expected.timestamps[i], actual.timestamps[i], 20);
+        }
+        controller.shutdown();
+    }
+
+    @Test
+    public void pacesChunksAtTheRequestedSpeed() throws Exception {
+        // 500 ms boyunca 10 ms'de bir ASCII satırı
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        CaptureWriter writer = new CaptureWriter(bytes, SyntheticCaptures.START_MILLIS, 0);
+        for (int i = 1; i <= 50; i++) {
+            byte[] line = ("SV:" + i + "\r\n").getBytes(StandardCharsets.US_ASCII);
+            writer.appendAt(CaptureWriter.KIND_INBOUND, i * 10_000_000L, line, 0, line.length);
+        }
+        writer.close();
+
+        long realTime = replayMillis(bytes.toByteArray(), 1);
+        long tenTimes = replayMillis(bytes.toByteArray(), 10);
+        long unpaced = replayMillis(bytes.toByteArray(), ReplayTransport.MAX_SPEED);
+        assertTrue("1×: " + realTime, realTime >= 490);
+        assertTrue("10×: " + tenTimes, tenTimes >= 49 && tenTimes < realTime / 2);
+        assertTrue("en hızlı: " + unpaced, unpaced < tenTimes);
+    }
+
+    private static long replayMillis(byte[] capture, double speed) throws Exception {
+        final ReplayTransport replay = new ReplayTransport(
+                new CaptureReader(new ByteArrayInputStream(capture)), speed);
+        final List<Long> clock = new ArrayList<>();
+        long start = System.nanoTime();
+        replay.setListener((data, offset, length) -> clock.add(replay.currentTimeMillis()));
+        assertTrue(replay.awaitCompletion(5000));
+        long elapsed = (System.nanoTime() - start) / 1_000_000;
+        // Teslim anındaki saat kayıttaki zamandır
+        assertEquals(50, clock.size());
+        for (int i = 0; i < clock.size(); i++) {
+            assertEquals(SyntheticCaptures.START_MILLIS + (i + 1) * 10L, (long) clock.get(i));
+        }
+        return elapsed;
+    }
+
+    @Test
+    public void binaryHandshakeWaitsForTheController() throws Exception {
+        int samples = 2000;
+        byte[] capture = SyntheticCaptures.binarySession(samples, 1000, 20);
+        SampleBuffer buffer = new SampleBuffer(1 << 12);
+        AcquisitionController controller = new AcquisitionController(buffer, null);
+        ReplayTransport replay = new ReplayTransport(
+                new CaptureReader(new ByteArrayInputStream(capture)), ReplayTransport.MAX_SPEED);
+        controller.connect(replay);
+        assertTrue(replay.awaitCompletion(5000));
+        assertEquals(0, replay.getSyncTimeouts());
+
+        SampleBuffer.Snapshot snapshot = new SampleBuffer.Snapshot();
+        buffer.snapshot(0, snapshot);
+        assertEquals(samples, snapshot.count);
+        // İlk çerçevenin varışı ekseni çapalar; sonraki örnekler cihaz zamanıyla 1 ms ilerler
+        long anchor = SyntheticCaptures.frameMillis(0, 1000, 20);
+        for (int i = 0; i < samples; i += 97) {
+            assertEquals(SyntheticCaptures.valueAt(i), snapshot.values[i], 0f);
+            assertEquals(anchor + i, snapshot.timestamps[i]);
+        }
+        controller.shutdown();
+    }
+
+    @Test
+    public void recordedDisconnectEndsReplayAndTruncatedTailIsIgnored() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        CaptureWriter writer = new CaptureWriter(bytes, 0, 0);
+        byte[] line = "SV:1.5\r\n".getBytes(StandardCharsets.US_ASCII);
+        writer.appendAt(CaptureWriter.KIND_INBOUND, 1000, line, 0, line.length);
+        writer.appendAt(CaptureWriter.KIND_DISCONNECT, 2000, null, 0, 0);
+        writer.appendAt(CaptureWriter.KIND_INBOUND, 3000, line, 0, line.length);
+        writer.close();
+        byte[] capture = bytes.toByteArray();
+
+        final List<String> events = new ArrayList<>();
+        ReplayTransport replay = new ReplayTransport(new CaptureReader(new ByteArrayInputStream(capture)), 1);
+        replay.setListener(new SerialTransport.Listener() {
+            @Override
+            public void onData(byte[] data, int offset, int length) {
+                events.add(new String(data, offset, length, StandardCharsets.US_ASCII));
+            }
+
+            @Override
+            public void onDisconnected() {
+                events.add("kopma");
+            }
+        });
+        assertTrue(replay.awaitCompletion(2000));
+        assertEquals(Arrays.asList("SV:1.5\r\n", "kopma"), events);
+
+        // Uygulama kayıt sürerken öldürüldüyse yarım son kayıt atılır
+        CaptureReader reader = new CaptureReader(
+                new ByteArrayInputStream(Arrays.copyOf(capture, capture.length - 3)));
+        assertTrue(reader.next());
+        assertTrue(reader.next());
+        assertEquals(CaptureWriter.KIND_DISCONNECT, reader.getKind());
+        assertFalse(reader.next());
+        assertTrue(reader.isTruncated());
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsFilesThatAreNotCaptures() throws IOException {
+        new CaptureReader(new ByteArrayInputStream("SV:1.0\r\nSV:2.0\r\n".getBytes(StandardCharsets.US_ASCII)));
+    }
+
+    private interface Condition {
+        boolean holds();
+    }
+
+    private static boolean waitFor(Condition condition, long timeoutMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (System.currentTimeMillis() < deadline) {
+            if (condition.holds()) {
+                return true;
+            }
+            Thread.sleep(5);
+        }
+        return condition.holds();
+    }
+}
@@ -0,0 +1,189 @@
+package com.example.syringepumpcontroller.simulation;
+
+import com.example.syringepumpcontroller.protocol.TelemetryLink;
+import com.example.syringepumpcontroller.serial.SerialTransport;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class SimulatedPumpDeviceTest {
+
+    private final List<SimulatedPumpDevice> devices = new ArrayList<>();
+
+    @After
+    public void tearDown() {
+        for (SimulatedPumpDevice device : devices) {
+            device.close();
+        }
+    }
+
+    private SimulatedPumpDevice device(boolean binary, long seed) {
+        SimulatedPumpDevice device = new SimulatedPumpDevice(binary, seed);
+        devices.add(device);
+        return device;
+    }
+
+    // Telemetriyi sayan dinleyici
+    static class Collector implements TelemetryLink.Listener {
+        final List<Float> values = Collections.synchronizedList(new ArrayList<Float>());
+        volatile int errors;
+
+        @Override
+        public void onSample(long deviceTimeMicros, int channel, float value) {
+            values.add(value);
+        }
+
+        @Override
+        public void onFrameError() {
+            errors++;
+        }
+    }
+
+    private static void send(SerialTransport transport, String command) {
+        byte[] bytes = (command + "\n").getBytes(StandardCharsets.US_ASCII);
+        transport.write(bytes, 0, bytes.length);
+    }
+
+    // Akışı durdurur ve simülatör kuyruğunun boşalmasını bekler
+    private static void stopStream(SimulatedPumpDevice device) throws InterruptedException {
+        send(device, "STREAM_0");
+        Thread.sleep(50);
+    }
+
+    @Test
+    public void fragmentedStreamLosesNoSamples() throws Exception {
+        SimulatedPumpDevice device = device(false, 7);
+        device.setChunking(1, 7);
+        Collector collector = new Collector();
+        new TelemetryLink(device, collector);
+
+        send(device, "STREAM_500");
+        Thread.sleep(400);
+        stopStream(device);
+
+        assertTrue(device.getSamplesSent() > 50);
+        assertEquals(device.getSamplesSent(), collector.values.size());
+        assertEquals(0, collector.errors);
+        // Her satır birden çok parçaya bölünmüş olmalı
+        assertTrue(device.getChunksSent() > device.getSamplesSent());
+    }
+
+    @Test
+    public void sameSeedGivesSameFragmentation() throws Exception {
+        assertEquals(chunkLengths(11), chunkLengths(11));
+        assertNotEquals(chunkLengths(11), chunkLengths(12));
+    }
+
+    private List<Integer> chunkLengths(long seed) throws InterruptedException {
+        SimulatedPumpDevice device = device(false, seed);
+        device.setChunking(1, 16);
+        final List<Integer> lengths = Collections.synchronizedList(new ArrayList<Integer>());
+        final CountDownLatch done = new CountDownLatch(20);
+        device.setListener((data, offset, length) -> {
+            lengths.add(length);
+            for (int i = offset; i < offset + length; i++) {
+                if (data[i] == '\n') {
+                    done.countDown();
+                }
+            }
+        });
+        // Her yanıt aynı uzunlukta bir satırdır ("SV:x.xxx\r\n")
+        for (int i = 0; i < 20; i++) {
+            send(device, "GET_SENSOR");
+        }
+        assertTrue(done.await(2, TimeUnit.SECONDS));
+        return new ArrayList<>(lengths);
+    }
+
+    @Test
+    public void malformedArgumentOrIdIsNakedAndNotApplied() throws Exception {
+        SimulatedPumpDevice device = device(false, 5);
+        TelemetryLink link = new TelemetryLink(device, new Collector());
+        final List<String> replies = Collections.synchronizedList(new ArrayList<String>());
+        final CountDownLatch done = new CountDownLatch(3);
+        link.setReplyListener((ack, requestId, code) -> {
+            replies.add((ack ? "ACK:" : "NAK:") + requestId + ":" + code);
+            done.countDown();
+        });
+
+        send(device, "SPEED_1x@5");
+        send(device, "SPEED_20@x7");
+        send(device, "SPEED_30@6");
+        assertTrue(done.await(2, TimeUnit.SECONDS));
+
+        int parseError = SimulatedPumpDevice.NAK_PARSE_ERROR;
+        assertEquals(Arrays.asList("NAK:5:" + parseError, "NAK:0:" + parseError, "ACK:6:0"), replies);
+        assertEquals(30, device.getSpeed());
+    }
+
+    @Test
+    public void corruptedBinaryFramesAreRejectedByCrc() throws Exception {
+        SimulatedPumpDevice device = device(true, 3);
+        device.setCorruptionRate(0.002);
+        device.setChunking(8, 64);
+        Collector collector = new Collector();
+        TelemetryLink link = new TelemetryLink(device, collector);
+        assertTrue(link.negotiateBinary(1000));
+
+        send(device, "STREAM_1000");
+        Thread.sleep(500);
+        stopStream(device);
+
+        assertTrue(device.getBytesCorrupted() > 0);
+        assertTrue(collector.errors > 0);
+        assertTrue(collector.values.size() > device.getSamplesSent() / 2);
+        // Bozuk çerçeveler atılır; kabul edilen her değer simülatörün ürettiği aralıktadır
+        for (float value : new ArrayList<>(collector.values)) {
+            assertTrue(String.valueOf(value), value >= 0f && value <= 5f);
+        }
+    }
+
+    @Test
+    public void jitterBatchesSamplesWithoutLosingThem() throws Exception {
+        SimulatedPumpDevice device = device(true, 5);
+        device.setJitterMillis(30);
+        Collector collector = new Collector();
+        TelemetryLink link = new TelemetryLink(device, collector);
+        assertTrue(link.negotiateBinary(1000));
+
+        send(device, "STREAM_1000");
+        Thread.sleep(500);
+        stopStream(device);
+
+        assertEquals(device.getSamplesSent(), collector.values.size());
+        assertEquals(0, link.getLostFrames());
+        // Geciken tick'ler birden çok örneği tek parçada taşır
+        assertTrue(device.getChunksSent() < device.getSamplesSent() / 2);
+    }
+
+    @Test
+    public void disconnectStopsStreamAndNotifiesListener() throws Exception {
+        SimulatedPumpDevice device = device(false, 1);
+        final CountDownLatch disconnected = new CountDownLatch(1);
+        Collector collector = new Collector();
+        TelemetryLink link = new TelemetryLink(device, collector);
+        link.setDisconnectListener(disconnected::countDown);
+
+        send(device, "STREAM_100");
+        device.disconnectAfter(200);
+        assertTrue(disconnected.await(2, TimeUnit.SECONDS));
+        assertTrue(device.isDisconnected());
+
+        int received = collector.values.size();
+        assertTrue(received > 0);
+        send(device, "START");
+        Thread.sleep(100);
+        assertEquals(received, collector.values.size());
+        assertFalse(device.isRunning());
+    }
+}
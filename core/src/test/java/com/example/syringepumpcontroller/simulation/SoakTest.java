@@ -0,0 +1,111 @@
+package com.example.syringepumpcontroller.simulation;
+
+import com.example.syringepumpcontroller.acquisition.AcquisitionController;
+import com.example.syringepumpcontroller.acquisition.AcquisitionController.ConnectionState;
+import com.example.syringepumpcontroller.acquisition.SampleStreamer;
+import com.example.syringepumpcontroller.data.SampleBuffer;
+import com.example.syringepumpcontroller.protocol.TelemetryLink;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Donanımsız dayanıklılık ve hız rampası testleri. Varsayılan süreler CI için kısadır;
+ * uzun koşu için -Dsoak.seconds=N (ör. 4 saat için 14400) verilir.
+ */
+public class SoakTest {
+
+    private static final long SOAK_SECONDS = Long.getLong("soak.seconds", 3);
+
+    @Test
+    public void survivesImpairedLinkWithRepeatedDisconnects() throws Exception {
+        Random random = new Random(2024);
+        SampleBuffer buffer = new SampleBuffer(1 << 14);
+        AcquisitionController controller = new AcquisitionController(buffer, null);
+        // Her kopma kalıcı sayılır; döngüler yeniden oynatma penceresini beklemez
+        controller.setResumeWindowMillis(0);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(SOAK_SECONDS);
+        int cycles = 0;
+        try {
+            while (cycles == 0 || System.nanoTime() < deadline) {
+                SimulatedPumpDevice device = new SimulatedPumpDevice(random.nextBoolean(), random.nextLong());
+                device.setChunking(1 + random.nextInt(8), 8 + random.nextInt(120));
+                device.setJitterMillis(random.nextInt(20));
+                device.setCorruptionRate(random.nextInt(4) == 0 ? 0.001 : 0.0);
+                device.setReplyDelayMillis(random.nextInt(30));
+
+                long before = buffer.getHeadSequence();
+                controller.connect(device);
+                assertTrue(waitFor(() -> controller.getConnectionState() == ConnectionState.CONNECTED, 5000));
+                controller.setSpeed(10 + random.nextInt(90));
+                controller.startPump();
+                device.disconnectAfter(300 + random.nextInt(700));
+
+                assertTrue("Bağlantı kopması algılanmadı",
+                        waitFor(() -> controller.getConnectionState() == ConnectionState.DISCONNECTED, 5000));
+                assertTrue(controller.awaitIdle(2000));
+                assertFalse(controller.isPumpRunning());
+                assertTrue("Döngü " + cycles + " örnek almadı", buffer.getHeadSequence() > before);
+                device.close();
+                cycles++;
+            }
+        } finally {
+            controller.shutdown();
+        }
+    }
+
+    @Test
+    public void throughputRamp() throws Exception {
+        // Dört hızda en az 500 ms akış; yalnızca -Dbenchmark.large=true ile çalışır
+        Assume.assumeTrue(Boolean.getBoolean("benchmark.large"));
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+        try {
+            for (int rateHz : new int[]{100, 250, 500, 1000}) {
+                SimulatedPumpDevice device = new SimulatedPumpDevice(true, rateHz);
+                device.setChunking(16, 64);
+                SampleStreamer streamer = new SampleStreamer(device, executor, 0);
+                SampleBuffer buffer = new SampleBuffer(1 << 16);
+                streamer.setSampleBuffer(buffer);
+                TelemetryLink link = new TelemetryLink(device, streamer);
+                assertTrue(link.negotiateBinary(1000));
+
+                streamer.startStreaming(rateHz, 1000, 1000);
+                long durationMillis = Math.max(500, SOAK_SECONDS * 1000 / 4);
+                Thread.sleep(durationMillis);
+                streamer.stop();
+                Thread.sleep(50);
+
+                long sent = device.getSamplesSent();
+                double achieved = buffer.getHeadSequence() * 1000.0 / durationMillis;
+                assertEquals(sent, buffer.getHeadSequence());
+                assertEquals(0, link.getFrameErrors());
+                assertTrue(achieved > rateHz * 0.8);
+                device.close();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    interface Condition {
+        boolean holds();
+    }
+
+    private static boolean waitFor(Condition condition, long timeoutMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (System.currentTimeMillis() < deadline) {
+            if (condition.holds()) {
+                return true;
+            }
+            Thread.sleep(5);
+        }
+        return condition.holds();
+    }
+}
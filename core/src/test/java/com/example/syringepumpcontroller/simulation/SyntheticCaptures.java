@@ -0,0 +1,66 @@
+package com.example.syringepumpcontroller.simulation;
+
+import com.example.syringepumpcontroller.protocol.BinaryFrameCodec;
+import com.example.syringepumpcontroller.serial.CaptureWriter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Testler ve ölçümler için bellek içi ham seri kayıtları: ikili kipe geçen bir cihazın
+ * sabit hızlı örnek akışı. Değerler {@link #valueAt(int)} ile yeniden hesaplanabilir.
+ */
+final class SyntheticCaptures {
+
+    static final long START_MILLIS = 1_700_000_000_000L;
+    // İlk örnek çerçevesi el sıkışmadan bu kadar sonra gelir
+    static final long FIRST_FRAME_MILLIS = 10;
+
+    private SyntheticCaptures() {
+    }
+
+    static float valueAt(int i) {
+        return (float) (2.5 + Math.sin(i / 300.0) + ((i * 7919) % 13) * 0.001);
+    }
+
+    // i. örneğin kayıttaki zamanı (epoch ms); çerçevedeki tüm satırlar çerçevenin geldiği anı alır
+    static long frameMillis(int i, int rateHz, int rowsPerFrame) {
+        int frame = i / rowsPerFrame;
+        return START_MILLIS + FIRST_FRAME_MILLIS + (long) (frame + 1) * rowsPerFrame * 1000 / rateHz;
+    }
+
+    /**
+     * PROTO_BIN yazması, 2 ms sonra onayı, ardından rateHz hızında rowsPerFrame satırlık
+     * çerçeveler. Her çerçeve ayrı bir USB parçasıdır.
+     */
+    static byte[] binarySession(int samples, int rateHz, int rowsPerFrame) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(samples * 5 + 1024);
+        CaptureWriter writer = new CaptureWriter(bytes, START_MILLIS, 0);
+        byte[] handshake = (BinaryFrameCodec.HANDSHAKE + "\n").getBytes(StandardCharsets.US_ASCII);
+        writer.appendAt(CaptureWriter.KIND_OUTBOUND, 0, handshake, 0, handshake.length);
+        byte[] ack = (BinaryFrameCodec.HANDSHAKE_ACK + "\n").getBytes(StandardCharsets.US_ASCII);
+        writer.appendAt(CaptureWriter.KIND_INBOUND, 2_000_000L, ack, 0, ack.length);
+
+        float[] batch = new float[rowsPerFrame];
+        byte[] payload = new byte[BinaryFrameCodec.MAX_PAYLOAD];
+        byte[] frame = new byte[BinaryFrameCodec.MAX_FRAME];
+        int intervalMicros = 1_000_000 / rateHz;
+        int sequence = 0;
+        for (int first = 0; first < samples; first += rowsPerFrame) {
+            int rows = Math.min(rowsPerFrame, samples - first);
+            for (int r = 0; r < rows; r++) {
+                batch[r] = valueAt(first + r);
+            }
+            int payloadLength = BinaryFrameCodec.encodeSamplePayload(
+                    (long) first * intervalMicros, intervalMicros, 1, batch, rows, payload, 0);
+            int length = BinaryFrameCodec.encode(BinaryFrameCodec.TYPE_SAMPLES, sequence, payload, 0,
+                    payloadLength, frame, 0);
+            sequence = (sequence + 1) & 0xFFFF;
+            long offsetNanos = (frameMillis(first, rateHz, rowsPerFrame) - START_MILLIS) * 1_000_000L;
+            writer.appendAt(CaptureWriter.KIND_INBOUND, offsetNanos, frame, 0, length);
+        }
+        writer.close();
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.syringepumpcontroller.storage;
+
+import org.junit.Test;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class GorillaCodecTest {
+
+    // Kodlayıp çözer, ham bitlerle karşılaştırır; blok bayt uzunluğunu döndürür
+    private static int roundTrip(long[] times, float[] values) throws IOException {
+        GorillaCodec.Encoder encoder = new GorillaCodec.Encoder(64);
+        for (int i = 0; i < times.length; i++) {
+            encoder.append(times[i], values[i]);
+        }
+        int length = encoder.finish();
+        byte[] block = Arrays.copyOf(encoder.buffer(), length);
+
+        long[] decodedTimes = new long[times.length];
+        float[] decodedValues = new float[times.length];
+        GorillaCodec.decode(block, 0, length, times.length, decodedTimes, decodedValues);
+        assertArrayEquals(times, decodedTimes);
+        for (int i = 0; i < values.length; i++) {
+            assertEquals("örnek " + i, Float.floatToRawIntBits(values[i]), Float.floatToRawIntBits(decodedValues[i]));
+        }
+        return length;
+    }
+
+    @Test
+    public void regularConstantSignalCostsTwoBitsPerSample() throws IOException {
+        long[] times = new long[1024];
+        float[] values = new float[1024];
+        for (int i = 0; i < times.length; i++) {
+            times[i] = 1_700_000_000_000L + 10L * i;
+            values[i] = 2.5f;
+        }
+        int length = roundTrip(times, values);
+        // İlk örnek 12 bayt, ikinci örneğin Δ'sı 9 bit, sonrası örnek başına 2 bit
+        assertTrue("uzunluk " + length, length <= 12 + 2 + (1022 * 2 + 7) / 8);
+    }
+
+    @Test
+    public void quantizedNoisySignalWithJitterRoundTrips() throws IOException {
+        Random random = new Random(7);
+        long[] times = new long[1024];
+        float[] values = new float[1024];
+        long t = 1_700_000_000_000L;
+        for (int i = 0; i < times.length; i++) {
+            t += 10 + random.nextInt(5) - 2;
+            times[i] = t;
+            // 10 bit ADC, 0–5 V, ±1 LSB gürültü
+            int code = (int) Math.round(512 + 300 * Math.sin(i / 200.0)) + random.nextInt(3) - 1;
+            values[i] = code * 5f / 1023f;
+        }
+        int length = roundTrip(times, values);
+        // Ham zaman + float 12 bayttır
+        assertTrue("uzunluk " + length, length < 1024 * 12 / 3);
+    }
+
+    @Test
+    public void adversarialInputsRoundTrip() throws IOException {
+        Random random = new Random(11);
+        long[] times = new long[4096];
+        float[] values = new float[4096];
+        for (int i = 0; i < times.length; i++) {
+            // Geri giden, devasa sıçrayan ve taşan zamanlar; NaN yükleri dahil rastgele bitler
+            times[i] = random.nextLong();
+            values[i] = Float.intBitsToFloat(random.nextInt());
+        }
+        times[1] = Long.MAX_VALUE;
+        times[2] = Long.MIN_VALUE;
+        times[3] = Long.MAX_VALUE;
+        values[4] = Float.intBitsToFloat(0x7F800001);
+        values[5] = Float.NaN;
+        values[6] = -0f;
+        values[7] = Float.NEGATIVE_INFINITY;
+        int length = roundTrip(times, values);
+        // En kötü durumda örnek başına 68 + 44 bit
+        assertTrue(length <= 12 + 4095 * 14 + 1);
+    }
+
+    @Test
+    public void singleSampleAndBucketBoundaries() throws IOException {
+        roundTrip(new long[]{42}, new float[]{1f});
+        // Farkın farkı kova sınırlarında
+        long[] deltas = {0, -63, 64, -64, 65, -255, 256, -256, 257, -2047, 2048, -2048, 2049, 0};
+        long[] times = new long[deltas.length + 1];
+        float[] values = new float[times.length];
+        long delta = 0;
+        for (int i = 1; i < times.length; i++) {
+            delta += deltas[i - 1];
+            times[i] = times[i - 1] + delta;
+            values[i] = i;
+        }
+        roundTrip(times, values);
+    }
+
+    @Test
+    public void truncatedBlockIsRejected() {
+        GorillaCodec.Encoder encoder = new GorillaCodec.Encoder(16);
+        Random random = new Random(3);
+        for (int i = 0; i < 100; i++) {
+            encoder.append(i * 10L, random.nextFloat());
+        }
+        int length = encoder.finish();
+        try {
+            GorillaCodec.decode(encoder.buffer(), 0, length - 4, 100, new long[100], new float[100]);
+            fail();
+        } catch (EOFException expected) {
+            // beklenen
+        } catch (IOException e) {
+            fail(e.toString());
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.syringepumpcontroller.storage;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class HistoryReaderTest {
+
+    private static final long SAMPLES = 200_000;
+    private static final long START = 1_700_000_000_000L;
+
+    private File directory;
+    private List<SegmentIndex> segments;
+
+    private static float signal(long i) {
+        return (float) (2.5 + 2.0 * Math.sin(i / 5000.0) + ((i * 7919) % 101) / 1000.0);
+    }
+
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("history-reader").toFile();
+        segments = SyntheticSegments.write(directory, SAMPLES, 60_000, START, 1, HistoryReaderTest::signal);
+    }
+
+    @After
+    public void tearDown() {
+        SyntheticSegments.deleteRecursively(directory);
+    }
+
+    @Test
+    public void narrowRangeUsesExactRawSamples() throws IOException {
+        HistoryReader reader = new HistoryReader(segments);
+        DownsampledSeries series = new DownsampledSeries();
+
+        // 59_990..60_009 segment sınırını kesiyor; her kova tek örnek
+        long from = START + 59_990;
+        reader.query(from, from + 19, 20, series);
+        assertEquals(20, series.count);
+        for (int i = 0; i < 20; i++) {
+            assertEquals(signal(59_990 + i), series.minValues[i], 0f);
+            assertEquals(signal(59_990 + i), series.maxValues[i], 0f);
+            assertEquals(from + i, series.times[i]);
+        }
+    }
+
+    @Test
+    public void wideRangeEnvelopeMatchesBruteForce() throws IOException {
+        HistoryReader reader = new HistoryReader(segments);
+        DownsampledSeries series = new DownsampledSeries();
+        reader.query(START, START + SAMPLES - 1, 500, series);
+
+        assertTrue(series.count > 400 && series.count <= 500);
+        float trueMin = Float.MAX_VALUE;
+        float trueMax = -Float.MAX_VALUE;
+        for (long i = 0; i < SAMPLES; i++) {
+            trueMin = Math.min(trueMin, signal(i));
+            trueMax = Math.max(trueMax, signal(i));
+        }
+        float min = Float.MAX_VALUE;
+        float max = -Float.MAX_VALUE;
+        for (int i = 0; i < series.count; i++) {
+            assertTrue(series.minValues[i] <= series.maxValues[i]);
+            min = Math.min(min, series.minValues[i]);
+            max = Math.max(max, series.maxValues[i]);
+        }
+        assertEquals(trueMin, min, 0f);
+        assertEquals(trueMax, max, 0f);
+    }
+
+    @Test
+    public void bucketEnvelopeContainsEverySample() throws IOException {
+        HistoryReader reader = new HistoryReader(segments);
+        DownsampledSeries series = new DownsampledSeries();
+        long from = START + 12_345;
+        long to = START + 150_000;
+        reader.query(from, to, 200, series);
+
+        // Piramit kovası sınırları nedeniyle her örnek en fazla bir komşu kovaya kayabilir
+        int cursor = 0;
+        for (long t = from; t <= to; t += 97) {
+            float value = signal(t - START);
+            while (cursor + 1 < series.count && series.times[cursor + 1] <= t) {
+                cursor++;
+            }
+            boolean covered = false;
+            for (int k = Math.max(0, cursor - 1); k <= Math.min(series.count - 1, cursor + 1); k++) {
+                covered |= value >= series.minValues[k] && value <= series.maxValues[k];
+            }
+            assertTrue("örnek kapsanmıyor: " + t, covered);
+        }
+    }
+
+    @Test
+    public void persistsSummariesForSealedSegments() throws IOException {
+        new HistoryReader(segments);
+        File[] summaries = directory.listFiles((dir, name) -> name.endsWith(SummaryPyramid.SUFFIX));
+        assertEquals(segments.size(), summaries.length);
+
+        HistoryReader reopened = new HistoryReader(segments);
+        assertEquals(SAMPLES, reopened.getSampleCount());
+        assertEquals(START, reopened.getFirstMillis());
+        assertEquals(START + SAMPLES - 1, reopened.getLastMillis());
+    }
+}
@@ -0,0 +1,193 @@
+package com.example.syringepumpcontroller.storage;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class MeasurementLogTest {
+
+    private File directory;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("measurement-log").toFile();
+    }
+
+    @After
+    public void tearDown() {
+        deleteRecursively(directory);
+    }
+
+    private static class Collector implements SegmentReader.Visitor {
+        final List<Long> times = new ArrayList<>();
+        final List<Float> values = new ArrayList<>();
+        final List<String> commands = new ArrayList<>();
+
+        @Override
+        public void onSample(long timestampMillis, float value) {
+            times.add(timestampMillis);
+            values.add(value);
+        }
+
+        @Override
+        public void onCommand(long timestampMillis, String command) {
+            commands.add(command);
+        }
+    }
+
+    private static Collector readAll(MeasurementLog log, long from, long to) throws IOException {
+        Collector collector = new Collector();
+        for (SegmentIndex segment : log.listSegments()) {
+            SegmentReader.read(segment, from, to, collector);
+        }
+        return collector;
+    }
+
+    @Test
+    public void writesAndReadsBackSamplesAndCommands() throws Exception {
+        MeasurementLog log = new MeasurementLog(directory);
+        log.open();
+        log.appendCommand(1000, "START");
+        for (int i = 0; i < 1000; i++) {
+            log.appendSample(1000 + i, i * 0.01f);
+        }
+        log.appendCommand(2000, "SPEED_75");
+        log.close();
+
+        MeasurementLog reopened = new MeasurementLog(directory);
+        reopened.open();
+        reopened.sync();
+        List<SegmentIndex> segments = reopened.listSegments();
+        assertEquals(1, segments.size());
+        assertTrue(segments.get(0).isSealed());
+        assertEquals(1000, segments.get(0).getSampleCount());
+        assertEquals(2, segments.get(0).getCommandCount());
+
+        Collector all = readAll(reopened, Long.MIN_VALUE, Long.MAX_VALUE);
+        assertEquals(1000, all.values.size());
+        assertEquals(9.99f, all.values.get(999), 1e-6f);
+        assertEquals(2, all.commands.size());
+        assertEquals("SPEED_75", all.commands.get(1));
+        reopened.close();
+    }
+
+    @Test
+    public void rollsSegmentsBySizeAndSeeksByTime() throws Exception {
+        MeasurementLog log = new MeasurementLog(directory, 64 * 1024, Long.MAX_VALUE, 10, 1000);
+        log.open();
+        for (int i = 0; i < 50_000; i++) {
+            log.appendSample(i, i);
+            if (i % 2000 == 0) {
+                log.sync();
+            }
+        }
+        log.sync();
+
+        List<SegmentIndex> segments = log.listSegments();
+        assertTrue(segments.size() > 5);
+        long total = 0;
+        for (SegmentIndex segment : segments) {
+            assertTrue(segment.getDataLength() <= 64 * 1024);
+            total += segment.getSampleCount();
+        }
+        assertEquals(50_000, total);
+
+        Collector range = readAll(log, 30_000, 30_099);
+        assertEquals(100, range.values.size());
+        assertEquals(30_000L, (long) range.times.get(0));
+        assertEquals(30_099f, range.values.get(99), 0f);
+        log.close();
+    }
+
+    @Test
+    public void truncatesTornTailAfterKillAndKeepsAppending() throws Exception {
+        MeasurementLog log = new MeasurementLog(directory);
+        log.open();
+        for (int i = 0; i < 100; i++) {
+            log.appendSample(i, i);
+        }
+        log.sync();
+
+        // Süreç öldürülmüş gibi: close çağrılmadan dosyaların o anki kopyası alınır
+        File killed = Files.createTempDirectory("measurement-log-killed").toFile();
+        try {
+            for (File file : directory.listFiles()) {
+                Files.copy(file.toPath(), new File(killed, file.getName()).toPath(),
+                        StandardCopyOption.REPLACE_EXISTING);
+            }
+            log.close();
+
+            File segment = killed.listFiles((dir, name) -> name.endsWith(".seg"))[0];
+            assertFalse(new File(killed, segment.getName().replace(".seg", ".idx")).exists());
+            long validLength = segment.length();
+            try (RandomAccessFile raf = new RandomAccessFile(segment, "rw")) {
+                // Yarım yazılmış bir örnek kaydı
+                raf.seek(validLength);
+                raf.write(new byte[]{1, 12, 0, 0, 0, 0, 0});
+            }
+
+            MeasurementLog reopened = new MeasurementLog(killed);
+            reopened.open();
+            reopened.appendSample(100, 100f);
+            reopened.sync();
+
+            assertEquals(7, reopened.getRecoveredTruncatedBytes());
+            Collector all = readAll(reopened, Long.MIN_VALUE, Long.MAX_VALUE);
+            assertEquals(101, all.values.size());
+            assertEquals(100f, all.values.get(100), 0f);
+            reopened.close();
+
+            // Kapatıldıktan sonra indeks yazılmış olmalı ve tekrar açılış taramasız olmalı
+            MeasurementLog third = new MeasurementLog(killed);
+            third.open();
+            third.sync();
+            assertEquals(0, third.getRecoveredTruncatedBytes());
+            assertEquals(101, third.listSegments().get(0).getSampleCount());
+            third.close();
+        } finally {
+            deleteRecursively(killed);
+        }
+    }
+
+    @Test
+    public void rebuildsCorruptIndexFromSegment() throws Exception {
+        MeasurementLog log = new MeasurementLog(directory);
+        log.open();
+        for (int i = 0; i < 10; i++) {
+            log.appendSample(i, i);
+        }
+        log.close();
+
+        File index = directory.listFiles((dir, name) -> name.endsWith(".idx"))[0];
+        try (RandomAccessFile raf = new RandomAccessFile(index, "rw")) {
+            raf.seek(20);
+            raf.write(0x7F);
+        }
+
+        MeasurementLog reopened = new MeasurementLog(directory);
+        reopened.open();
+        reopened.sync();
+        assertEquals(10, readAll(reopened, Long.MIN_VALUE, Long.MAX_VALUE).values.size());
+        reopened.close();
+    }
+
+    private static void deleteRecursively(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                deleteRecursively(child);
+            }
+        }
+        file.delete();
+    }
+}
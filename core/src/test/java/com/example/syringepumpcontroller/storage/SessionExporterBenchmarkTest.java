@@ -0,0 +1,63 @@
+package com.example.syringepumpcontroller.storage;
+
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Oturum dışa aktarma biçimlerinin örnek başına boyutunu ve hızını ölçer. Çıktı diske değil
+ * sayaç akışına yazılır; ölçülen süre segment okuma + kodlama + sıkıştırmadır.
+ * 1e7 örneklik ölçüm ~160 MB disk kullanır ve yalnızca -Dbenchmark.large=true ile çalışır.
+ */
+public class SessionExporterBenchmarkTest {
+
+    // Ölçümler JMH kaynaklarındadır (src/jmh); buradaki sınır denetimleri uzun sürdüğünden
+    // yalnızca -Dbenchmark.large=true ile çalışır
+    @Before
+    public void requireBenchmarkRun() {
+        Assume.assumeTrue(Boolean.getBoolean("benchmark.large"));
+    }
+
+    @Test
+    public void exportAtMillionSamples() throws IOException {
+        run(1_000_000L);
+    }
+
+    @Test
+    public void exportAtTenMillionSamples() throws IOException {
+        run(10_000_000L);
+    }
+
+    private void run(long samples) throws IOException {
+        File directory = Files.createTempDirectory("export-benchmark").toFile();
+        try {
+            // 1 kHz örnekleme, gürültülü yavaş sinyal
+            List<SegmentIndex> segments = SyntheticSegments.write(directory, samples,
+                    (int) (MeasurementLog.DEFAULT_MAX_SEGMENT_BYTES / LogFormat.SAMPLE_RECORD_SIZE),
+                    1_700_000_000_000L, 1, i -> (float) (Math.sin(i / 1000.0) * 2 + ((i * 7919) % 13) * 0.001));
+            for (SessionExporter.Format format : SessionExporter.Format.values()) {
+                // İlk tur ısınma
+                new SessionExporter(segments).export(format, new SessionExporterTest.NullOutputStream(), null);
+                long start = System.nanoTime();
+                SessionExporter.Result result = new SessionExporter(segments)
+                        .export(format, new SessionExporterTest.NullOutputStream(), null);
+                double seconds = (System.nanoTime() - start) / 1e9;
+                assertEquals(samples, result.samples);
+                // Ölçülen: CSV ~25.6, DELTA ~2.3, COLUMNAR ~2.4, GORILLA ~3.5 bayt/örnek; 2.5-5 M örnek/s
+                double bytesPerSample = result.getBytesPerSample();
+                assertTrue(format + " " + bytesPerSample, bytesPerSample < (format == SessionExporter.Format.CSV ? 27 : 4));
+                assertTrue(format + " " + seconds + " s", samples / seconds > 500_000);
+            }
+        } finally {
+            SyntheticSegments.deleteRecursively(directory);
+        }
+    }
+}
@@ -0,0 +1,303 @@
+package com.example.syringepumpcontroller.storage;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+
+import static org.junit.Assert.*;
+
+public class SessionExporterTest {
+
+    private File directory;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("session-export").toFile();
+    }
+
+    @After
+    public void tearDown() {
+        SyntheticSegments.deleteRecursively(directory);
+    }
+
+    // Kayıtları "zaman:değer" veya "zaman:komut" olarak sırayla toplar
+    private static class Collector implements SegmentReader.Visitor {
+        final List<String> records = new ArrayList<>();
+
+        @Override
+        public void onSample(long timestampMillis, float value) {
+            records.add(timestampMillis + ":" + Float.floatToRawIntBits(value));
+        }
+
+        @Override
+        public void onCommand(long timestampMillis, String command) {
+            records.add(timestampMillis + ":" + command);
+        }
+    }
+
+    private static Collector readSegments(List<SegmentIndex> segments, long from, long to) throws IOException {
+        Collector collector = new Collector();
+        for (SegmentIndex segment : segments) {
+            SegmentReader.read(segment, from, to, collector);
+        }
+        return collector;
+    }
+
+    // 2 ms aralıklı örnekler; gürültülü sinüs (negatif değerler ve üs değişimleri dahil)
+    private List<SegmentIndex> syntheticSession(long samples) throws IOException {
+        return SyntheticSegments.write(directory, samples, 50_000, 1_700_000_000_000L, 2,
+                i -> (float) (Math.sin(i / 500.0) * 2 + ((i * 7919) % 13) * 0.001));
+    }
+
+    // Komutlar örneklerin arasına düşer (günlük zamanı geri almaz); tüm biçimlerde sıra aynıdır
+    private List<SegmentIndex> sessionWithCommands() throws Exception {
+        File logDirectory = new File(directory, "log");
+        MeasurementLog log = new MeasurementLog(logDirectory);
+        log.open();
+        for (int i = 0; i < 2000; i++) {
+            log.appendSample(10_000 + 2 * i, 1.5f + i * 0.001f);
+            if (i % 500 == 0) {
+                log.appendCommand(10_001 + 2 * i, "SPEED_" + (i / 10) + "@" + i);
+            }
+        }
+        log.appendCommand(20_001, "STOP");
+        log.close();
+        MeasurementLog reopened = new MeasurementLog(logDirectory);
+        reopened.open();
+        reopened.sync();
+        List<SegmentIndex> segments = reopened.listSegments();
+        reopened.close();
+        return segments;
+    }
+
+    @Test
+    public void binaryFormatsRoundTripAcrossSegmentsAndRowGroups() throws IOException {
+        List<SegmentIndex> segments = syntheticSession(200_000);
+        List<String> expected = readSegments(segments, Long.MIN_VALUE, Long.MAX_VALUE).records;
+
+        assertEquals(expected, roundTripDelta(new SessionExporter(segments)));
+
+        File columnar = exportToFile(new SessionExporter(segments), SessionExporter.Format.COLUMNAR);
+        try (ColumnarExportReader reader = new ColumnarExportReader(columnar)) {
+            assertEquals(4, reader.getGroupCount());
+            assertEquals(200_000, reader.getSampleCount());
+            Collector collector = new Collector();
+            reader.read(Long.MIN_VALUE, Long.MAX_VALUE, collector);
+            assertEquals(expected, collector.records);
+        }
+
+        File gorilla = exportToFile(new SessionExporter(segments), SessionExporter.Format.GORILLA);
+        try (GorillaExportReader reader = new GorillaExportReader(gorilla)) {
+            assertEquals(200_000 / GorillaExportWriter.BLOCK_SAMPLES + 1, reader.getBlockCount());
+            assertEquals(200_000, reader.getSampleCount());
+            Collector collector = new Collector();
+            reader.read(Long.MIN_VALUE, Long.MAX_VALUE, collector);
+            assertEquals(expected, collector.records);
+        }
+    }
+
+    @Test
+    public void commandsAreInterleavedInTimeOrder() throws Exception {
+        List<SegmentIndex> segments = sessionWithCommands();
+        List<String> expected = readSegments(segments, Long.MIN_VALUE, Long.MAX_VALUE).records;
+        assertEquals(2005, expected.size());
+
+        assertEquals(expected, roundTripDelta(new SessionExporter(segments)));
+        File columnar = exportToFile(new SessionExporter(segments), SessionExporter.Format.COLUMNAR);
+        try (ColumnarExportReader reader = new ColumnarExportReader(columnar)) {
+            assertEquals(5, reader.getCommandCount());
+            Collector collector = new Collector();
+            reader.read(Long.MIN_VALUE, Long.MAX_VALUE, collector);
+            assertEquals(expected, collector.records);
+        }
+        File gorilla = exportToFile(new SessionExporter(segments), SessionExporter.Format.GORILLA);
+        try (GorillaExportReader reader = new GorillaExportReader(gorilla)) {
+            assertEquals(5, reader.getCommandCount());
+            Collector collector = new Collector();
+            reader.read(Long.MIN_VALUE, Long.MAX_VALUE, collector);
+            assertEquals(expected, collector.records);
+        }
+
+        ByteArrayOutputStream csv = new ByteArrayOutputStream();
+        SessionExporter.Result result = new SessionExporter(segments).export(SessionExporter.Format.CSV, csv, null);
+        assertEquals(2000, result.samples);
+        assertEquals(5, result.commands);
+        assertEquals(csv.size(), result.bytes);
+        List<String> lines = lines(csv.toByteArray());
+        assertEquals(CsvExportWriter.HEADER.trim(), lines.get(0));
+        assertEquals("10000,1.5,", lines.get(1));
+        assertEquals("10001,,\"SPEED_0@0\"", lines.get(2));
+        assertEquals("20001,,\"STOP\"", lines.get(2005));
+        assertEquals(2006, lines.size());
+    }
+
+    @Test
+    public void exportsOnlyTheRequestedRange() throws IOException {
+        List<SegmentIndex> segments = syntheticSession(200_000);
+        long start = 1_700_000_000_000L;
+        long from = start + 2 * 60_000;
+        long to = start + 2 * 130_000;
+        List<String> expected = readSegments(segments, from, to).records;
+        assertEquals(70_001, expected.size());
+        assertEquals(expected, roundTripDelta(new SessionExporter(segments, from, to)));
+
+        // Sütunlu dosyada aralık sorgusu istatistiklere göre grupları atlar
+        File columnar = exportToFile(new SessionExporter(segments), SessionExporter.Format.COLUMNAR);
+        try (ColumnarExportReader reader = new ColumnarExportReader(columnar)) {
+            Collector collector = new Collector();
+            reader.read(from, to, collector);
+            assertEquals(expected, collector.records);
+        }
+
+        // Gorilla dosyasında ilk blok dizinde ikili aramayla bulunur
+        File gorilla = exportToFile(new SessionExporter(segments), SessionExporter.Format.GORILLA);
+        try (GorillaExportReader reader = new GorillaExportReader(gorilla)) {
+            Collector collector = new Collector();
+            reader.read(from, to, collector);
+            assertEquals(expected, collector.records);
+        }
+    }
+
+    @Test
+    public void reportsProgressAndCanBeCancelled() throws IOException {
+        List<SegmentIndex> segments = syntheticSession(300_000);
+        final SessionExporter exporter = new SessionExporter(segments);
+        assertEquals(300_000, exporter.estimateRecords());
+        final List<Long> progress = new ArrayList<>();
+        try {
+            exporter.export(SessionExporter.Format.CSV, new NullOutputStream(), (records, total) -> {
+                progress.add(records);
+                assertEquals(300_000, total);
+                if (progress.size() == 2) {
+                    exporter.cancel();
+                }
+            });
+            fail("İptal bekleniyordu");
+        } catch (CancellationException expected) {
+            // beklenen
+        }
+        assertEquals(2, progress.size());
+        assertEquals(SessionExporter.PROGRESS_INTERVAL, (long) progress.get(0));
+        assertTrue(exporter.isCancelled());
+
+        // İptal edilmeyen aktarım sonunda toplamı bildirir
+        final long[] last = new long[2];
+        new SessionExporter(segments).export(SessionExporter.Format.DELTA, new NullOutputStream(), (records, total) -> {
+            last[0] = records;
+            last[1] = total;
+        });
+        assertEquals(300_000, last[0]);
+        assertEquals(300_000, last[1]);
+    }
+
+    @Test
+    public void binaryFormatsAreCompact() throws IOException {
+        List<SegmentIndex> segments = syntheticSession(200_000);
+        double csv = new SessionExporter(segments).export(SessionExporter.Format.CSV, new NullOutputStream(), null)
+                .getBytesPerSample();
+        double delta = new SessionExporter(segments).export(SessionExporter.Format.DELTA, new NullOutputStream(), null)
+                .getBytesPerSample();
+        double columnar = new SessionExporter(segments).export(SessionExporter.Format.COLUMNAR, new NullOutputStream(), null)
+                .getBytesPerSample();
+        double gorilla = new SessionExporter(segments).export(SessionExporter.Format.GORILLA, new NullOutputStream(), null)
+                .getBytesPerSample();
+        // Günlük segmentinde örnek başına 16 bayt
+        assertTrue("csv " + csv, csv > 20);
+        assertTrue("delta " + delta, delta < 4);
+        assertTrue("sütunlu " + columnar, columnar < 4);
+        assertTrue("gorilla " + gorilla, gorilla < 4);
+    }
+
+    @Test
+    public void truncatedFilesAreRejected() throws IOException {
+        List<SegmentIndex> segments = syntheticSession(10_000);
+        ByteArrayOutputStream delta = new ByteArrayOutputStream();
+        new SessionExporter(segments).export(SessionExporter.Format.DELTA, delta, null);
+        byte[] bytes = delta.toByteArray();
+        try {
+            DeltaExportReader.read(new ByteArrayInputStream(bytes, 0, bytes.length - 8), new Collector());
+            fail();
+        } catch (IOException expected) {
+            // beklenen
+        }
+
+        File columnar = exportToFile(new SessionExporter(segments), SessionExporter.Format.COLUMNAR);
+        byte[] full = Files.readAllBytes(columnar.toPath());
+        File truncated = new File(directory, "truncated.spc");
+        try (OutputStream out = new FileOutputStream(truncated)) {
+            out.write(full, 0, full.length - 3);
+        }
+        try {
+            new ColumnarExportReader(truncated).close();
+            fail();
+        } catch (IOException expected) {
+            // beklenen
+        }
+
+        File gorilla = exportToFile(new SessionExporter(segments), SessionExporter.Format.GORILLA);
+        full = Files.readAllBytes(gorilla.toPath());
+        try (OutputStream out = new FileOutputStream(truncated)) {
+            out.write(full, 0, full.length - 3);
+        }
+        try {
+            new GorillaExportReader(truncated).close();
+            fail();
+        } catch (IOException expected) {
+            // beklenen
+        }
+    }
+
+    private static List<String> roundTripDelta(SessionExporter exporter) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        SessionExporter.Result result = exporter.export(SessionExporter.Format.DELTA, out, null);
+        assertEquals(out.size(), result.bytes);
+        Collector collector = new Collector();
+        long records = DeltaExportReader.read(new ByteArrayInputStream(out.toByteArray()), collector);
+        assertEquals(result.samples + result.commands, records);
+        return collector.records;
+    }
+
+    private File exportToFile(SessionExporter exporter, SessionExporter.Format format) throws IOException {
+        File file = File.createTempFile("export", "." + format.extension, directory);
+        try (OutputStream out = new FileOutputStream(file)) {
+            exporter.export(format, out, null);
+        }
+        return file;
+    }
+
+    private static List<String> lines(byte[] bytes) throws IOException {
+        List<String> lines = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new ByteArrayInputStream(bytes), StandardCharsets.US_ASCII))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines.add(line);
+            }
+        }
+        return lines;
+    }
+
+    static final class NullOutputStream extends OutputStream {
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+    }
+}
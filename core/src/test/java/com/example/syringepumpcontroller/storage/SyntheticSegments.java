@@ -0,0 +1,79 @@
+package com.example.syringepumpcontroller.storage;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Testler ve ölçümler için doğrudan segment dosyası üretir (yazıcı iş parçacığını atlar).
+ * Örnek i'nin zamanı startMillis + i * intervalMillis, değeri signal(i)'dir.
+ */
+final class SyntheticSegments {
+
+    interface Signal {
+        float valueAt(long index);
+    }
+
+    private SyntheticSegments() {
+    }
+
+    static List<SegmentIndex> write(File directory, long samples, int samplesPerSegment,
+                                    long startMillis, long intervalMillis, Signal signal) throws IOException {
+        List<SegmentIndex> result = new ArrayList<>();
+        ByteBuffer buffer = ByteBuffer.allocate(1 << 20).order(ByteOrder.LITTLE_ENDIAN);
+        long written = 0;
+        long id = 0;
+        while (written < samples) {
+            String base = String.format(Locale.US, "%016x", id);
+            File file = new File(directory, base + LogFormat.SEGMENT_SUFFIX);
+            SegmentIndex index = new SegmentIndex(id, file, startMillis);
+            try (RandomAccessFile raf = new RandomAccessFile(file, "rw");
+                 FileChannel channel = raf.getChannel()) {
+                buffer.clear();
+                LogFormat.writeHeader(buffer, startMillis);
+                long offset = LogFormat.HEADER_SIZE;
+                int inSegment = (int) Math.min(samplesPerSegment, samples - written);
+                for (int i = 0; i < inSegment; i++) {
+                    if (buffer.remaining() < LogFormat.SAMPLE_RECORD_SIZE) {
+                        buffer.flip();
+                        while (buffer.hasRemaining()) {
+                            channel.write(buffer);
+                        }
+                        buffer.clear();
+                    }
+                    long sample = written + i;
+                    long timestamp = startMillis + sample * intervalMillis;
+                    LogFormat.putSample(buffer, timestamp, signal.valueAt(sample));
+                    index.onRecord(LogFormat.TYPE_SAMPLE, timestamp, offset, LogFormat.SAMPLE_RECORD_SIZE);
+                    offset += LogFormat.SAMPLE_RECORD_SIZE;
+                }
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                written += inSegment;
+            }
+            index.writeTo(new File(directory, base + LogFormat.INDEX_SUFFIX));
+            index.markSealed();
+            result.add(index);
+            id++;
+        }
+        return result;
+    }
+
+    static void deleteRecursively(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                deleteRecursively(child);
+            }
+        }
+        file.delete();
+    }
+}